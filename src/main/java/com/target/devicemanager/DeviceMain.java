@@ -2,6 +2,7 @@ package com.target.devicemanager;
 
 import com.target.devicemanager.common.JavaPOSDeviceDiscoveryService;
 import com.target.devicemanager.common.StructuredEventLogger;
+import com.target.devicemanager.common.UsbHotplugMonitor;
 import com.target.devicemanager.common.entities.DeviceDiscoveryResponse;
 import com.target.devicemanager.common.entities.DeviceTestResult;
 import com.target.devicemanager.configuration.WorkstationConfig;
@@ -91,6 +92,14 @@ public class DeviceMain {
         }
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    public void startUsbHotplugMonitor() {
+        Boolean isSimulationMode = Boolean.parseBoolean(System.getProperty("useSimulators"));
+        if (!isSimulationMode) {
+            UsbHotplugMonitor.getUsbHotplugMonitor().start();
+        }
+    }
+
     @EventListener(ApplicationReadyEvent.class)
     @Order(100) // Run after other startup listeners
     public void startupDeviceDiscovery() {
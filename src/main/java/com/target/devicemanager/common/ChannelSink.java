@@ -0,0 +1,73 @@
+package com.target.devicemanager.common;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * DeviceEventSink of a /v1/channel topic, so managers publish to WebSocket clients through the subscriber methods
+ * they already have for SSE.
+ * Once closed, sends fail like they do on a dropped SSE connection and the completion callbacks the manager
+ * registered are run, which removes the subscriber. A manager that completes the sink ends the topic the same way.
+ */
+class ChannelSink implements DeviceEventSink {
+
+    private final Listener listener;
+    private final Runnable completedByPublisher;
+    private final List<Runnable> completionCallbacks = new CopyOnWriteArrayList<>();
+    private volatile boolean isClosed;
+
+    ChannelSink(Listener listener, Runnable completedByPublisher) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+        if (completedByPublisher == null) {
+            throw new IllegalArgumentException("completedByPublisher cannot be null");
+        }
+        this.listener = listener;
+        this.completedByPublisher = completedByPublisher;
+    }
+
+    @Override
+    public void send(String event, String id, Object data) throws IOException {
+        if (isClosed) {
+            throw new IOException("Device channel subscription closed");
+        }
+        listener.onEvent(event, id, data);
+    }
+
+    @Override
+    public void complete() {
+        if (isClosed) {
+            return;
+        }
+        completedByPublisher.run();
+        close();
+    }
+
+    @Override
+    public synchronized void onCompletion(Runnable callback) {
+        if (isClosed) {
+            callback.run();
+            return;
+        }
+        completionCallbacks.add(callback);
+    }
+
+    synchronized void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        completionCallbacks.forEach(Runnable::run);
+        completionCallbacks.clear();
+    }
+
+    boolean isClosed() {
+        return isClosed;
+    }
+
+    interface Listener {
+        void onEvent(String event, String id, Object data);
+    }
+}
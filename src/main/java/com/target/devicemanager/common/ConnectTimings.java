@@ -0,0 +1,42 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.ConnectPhaseTimes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time spent in open, claim and enable on the last connect of each device, so a slow startup can be traced to
+ * the driver call that took the time.
+ */
+public class ConnectTimings {
+
+    private static final ConnectTimings connectTimings = new ConnectTimings();
+    private final Map<String, ConnectPhaseTimes> timings = new ConcurrentHashMap<>();
+
+    public ConnectTimings() {
+    }
+
+    public static ConnectTimings getConnectTimings() {
+        return connectTimings;
+    }
+
+    /**
+     * @param deviceName device type or filter name, as used by DeviceConnector.
+     * @param phaseTimes times of the last connect, replaces the previous ones.
+     */
+    public void record(String deviceName, ConnectPhaseTimes phaseTimes) {
+        if (deviceName == null || phaseTimes == null) {
+            return;
+        }
+        timings.put(deviceName, phaseTimes);
+    }
+
+    /**
+     * @return times of the last connect of each device, keyed by device name.
+     */
+    public Map<String, ConnectPhaseTimes> getAll() {
+        return new LinkedHashMap<>(timings);
+    }
+}
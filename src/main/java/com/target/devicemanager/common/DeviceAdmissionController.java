@@ -0,0 +1,171 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.AdmissionStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets one request at a time use a device and decides how long the others wait for it.
+ * tryLock() is the admission point the managers call: a free device is taken right away, a busy one is waited for
+ * in arrival order for as long as the caller allows with the X-Request-Timeout header (see RequestDeadline),
+ * or defaultWaitMsec without one. At most maxQueueDepth requests wait for a device; any more, and requests whose
+ * deadline has already passed, are turned away right away so the manager answers DEVICE_BUSY.
+ * tryLock(time, unit) does not queue and is meant for probes, like cancel checking whether a request is running.
+ */
+public class DeviceAdmissionController implements Lock {
+
+    static final long[] WAIT_MSEC_BUCKETS = {0, 10, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final Map<String, DeviceAdmissionController> controllers = new ConcurrentHashMap<>();
+    private final String deviceName;
+    private final int maxQueueDepth;
+    private final long defaultWaitMsec;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+    private final AtomicLongArray queueDepthCounts;
+    private final AtomicLongArray waitMsecCounts = new AtomicLongArray(WAIT_MSEC_BUCKETS.length + 1);
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceAdmissionController.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceAdmissionController", LOGGER);
+
+    public DeviceAdmissionController(String deviceName, int maxQueueDepth, long defaultWaitMsec) {
+        if (deviceName == null) {
+            throw new IllegalArgumentException("deviceName cannot be null");
+        }
+        if (maxQueueDepth < 0) {
+            throw new IllegalArgumentException("maxQueueDepth cannot be negative");
+        }
+        this.deviceName = deviceName;
+        this.maxQueueDepth = maxQueueDepth;
+        this.defaultWaitMsec = Math.max(0, defaultWaitMsec);
+        //0 for requests admitted right away, n for the nth request in line
+        this.queueDepthCounts = new AtomicLongArray(maxQueueDepth + 1);
+        controllers.put(deviceName, this);
+    }
+
+    /**
+     * @return admission statistics of every device.
+     */
+    public static List<AdmissionStats> getAdmissionStats() {
+        List<AdmissionStats> stats = new ArrayList<>();
+        for (DeviceAdmissionController controller : controllers.values()) {
+            stats.add(controller.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Admits the request to the device, waiting in line while the device is busy.
+     * @return true if the caller now holds the device and must unlock it, false if the request was turned away.
+     */
+    @Override
+    public boolean tryLock() {
+        boolean canSkipQueue = waiting.get() == 0 || lock.isHeldByCurrentThread();
+        if (canSkipQueue && lock.tryLock()) {
+            queueDepthCounts.incrementAndGet(0);
+            waitMsecCounts.incrementAndGet(0);
+            admitted.incrementAndGet();
+            return true;
+        }
+        long waitMsec = RequestDeadline.remainingMsec(defaultWaitMsec);
+        if (waitMsec <= 0) {
+            rejectedTimeout.incrementAndGet();
+            return false;
+        }
+        int depth = waiting.incrementAndGet();
+        if (depth > maxQueueDepth) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.incrementAndGet();
+            log.success(deviceName + " busy, " + maxQueueDepth + " requests already waiting", 5);
+            return false;
+        }
+        queueDepthCounts.incrementAndGet(depth);
+        long startNanos = System.nanoTime();
+        boolean isAdmitted = false;
+        try {
+            isAdmitted = lock.tryLock(waitMsec, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (isAdmitted) {
+            waitMsecCounts.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+            admitted.incrementAndGet();
+        } else {
+            rejectedTimeout.incrementAndGet();
+            log.success(deviceName + " still busy after waiting " + waitMsec + "ms", 5);
+        }
+        return isAdmitted;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return lock.tryLock(time, unit);
+    }
+
+    @Override
+    public void lock() {
+        lock.lock();
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        lock.lockInterruptibly();
+    }
+
+    @Override
+    public void unlock() {
+        lock.unlock();
+    }
+
+    @Override
+    public Condition newCondition() {
+        return lock.newCondition();
+    }
+
+    public AdmissionStats getStats() {
+        AdmissionStats stats = new AdmissionStats();
+        stats.deviceName = deviceName;
+        stats.maxQueueDepth = maxQueueDepth;
+        stats.defaultWaitMsec = defaultWaitMsec;
+        stats.isBusy = lock.isLocked();
+        stats.queueDepth = waiting.get();
+        stats.admitted = admitted.get();
+        stats.rejectedQueueFull = rejectedQueueFull.get();
+        stats.rejectedTimeout = rejectedTimeout.get();
+        stats.queueDepthHistogram = new LinkedHashMap<>();
+        for (int depth = 0; depth < queueDepthCounts.length(); depth++) {
+            stats.queueDepthHistogram.put(String.valueOf(depth), queueDepthCounts.get(depth));
+        }
+        stats.waitMsecHistogram = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < WAIT_MSEC_BUCKETS.length; bucket++) {
+            stats.waitMsecHistogram.put(String.valueOf(WAIT_MSEC_BUCKETS[bucket]), waitMsecCounts.get(bucket));
+        }
+        stats.waitMsecHistogram.put("+Inf", waitMsecCounts.get(WAIT_MSEC_BUCKETS.length));
+        return stats;
+    }
+
+    static int bucketOf(long waitMsec) {
+        for (int bucket = 0; bucket < WAIT_MSEC_BUCKETS.length; bucket++) {
+            if (waitMsec <= WAIT_MSEC_BUCKETS[bucket]) {
+                return bucket;
+            }
+        }
+        return WAIT_MSEC_BUCKETS.length;
+    }
+}
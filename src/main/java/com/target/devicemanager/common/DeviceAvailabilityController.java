@@ -1,6 +1,12 @@
 package com.target.devicemanager.common;
 
+import com.target.devicemanager.common.entities.AdmissionStats;
+import com.target.devicemanager.common.entities.CircuitStatus;
 import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.common.entities.HealthProbeStats;
+import com.target.devicemanager.common.entities.HungCall;
+import com.target.devicemanager.common.entities.ReconnectStats;
+import com.target.devicemanager.common.entities.StartupReport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,13 +16,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @Tag(name = "Device Availability")
@@ -25,8 +35,6 @@ public class DeviceAvailabilityController {
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceAvailabilityController.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceAvailabilityController", LOGGER);
 
-    private static final String CONFIRMOUT_LOCATION  = "/var/tmp/CONFIRMOUT/confirmout.json";
-
     @Autowired
     public DeviceAvailabilityService deviceAvailabilityService;
 
@@ -37,33 +45,112 @@ public class DeviceAvailabilityController {
                     description = "Not found",
                     content = @Content(schema = @Schema(hidden = true)))
     })
+    @Operation(description = "Attached peripherals. Send the ETag of a previous response in If-None-Match to get 304 when nothing changed")
     @GetMapping("/v1/peripherals")
-    public DeviceAvailabilityResponse getDeviceAvailability() {
-        return deviceAvailabilityService.getAvailableDevices(CONFIRMOUT_LOCATION);
+    public ResponseEntity<DeviceAvailabilityResponse> getDeviceAvailability(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        DeviceAvailabilityResponse deviceAvailabilityResponse = deviceAvailabilityService.getAvailableDevices(PeripheralInventory.CONFIRMOUT_LOCATION);
+        String etag = deviceAvailabilityResponse.getEtag();
+        if (etag == null) {
+            return ResponseEntity.ok(deviceAvailabilityResponse);
+        }
+        if (isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(deviceAvailabilityResponse);
+    }
+
+    static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    @Operation(description = "Error state of all devices via Server-Sent Events. The first event holds every device, later events only the devices that changed. " +
+            "Each event id is the state version, send it back in Last-Event-ID (or since) on reconnect to receive only what was missed")
     @GetMapping("/v1/deviceerror")
-    public SseEmitter getDeviceError() throws IOException {
+    public SseEmitter getDeviceError(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                     @RequestParam(value = "since", required = false) Long since) {
         String url = "/v1/deviceerror";
-        log.successAPI("API Request Received", 1, url, null, 0);
+        log.successAPI("API Request Received", 1, url, lastEventId, 0);
         try {
             SseEmitter sseEmitter = new SseEmitter(Long.MAX_VALUE);
-            deviceAvailabilityService.subscribeToDeviceError(sseEmitter);
+            deviceAvailabilityService.subscribeToDeviceError(sseEmitter, since != null ? since : parseLastEventId(lastEventId));
             return sseEmitter;
-        } catch (IOException ioException) {
-            log.failureAPI("API Request Failed with IOException", 9, url, ioException.getMessage(), 500, ioException);
-            throw ioException;
         } catch (Exception exception) {
             log.failureAPI("API Request Failed with Exception", 9, url, exception.getMessage(), 500, exception);
             throw exception;
         }
     }
 
-    @Operation(description = "Health status of all devices")
+    private Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException numberFormatException) {
+            log.failure("Ignoring invalid Last-Event-ID " + lastEventId, 5, numberFormatException);
+            return null;
+        }
+    }
+
+    @Operation(description = "Health status of all devices. With probe=true every device is checked now; a device that does not answer in time is UNKNOWN with its last known health")
     @GetMapping(path = "/v1/health")
-    public ResponseEntity<List<DeviceHealthResponse>> getHealth() {
+    public ResponseEntity<List<DeviceHealthResponse>> getHealth(@RequestParam(value = "probe", defaultValue = "false") boolean probe) {
         log.successAPI("API Request Received", 1, "/v1/health", null, 0);
-        return deviceAvailabilityService.getHealth();
+        return deviceAvailabilityService.getHealth(probe);
+    }
+
+    @Operation(description = "Probe count, timeouts and latency of the health check of each device")
+    @GetMapping(path = "/v1/health/probestats")
+    public Map<String, HealthProbeStats> getHealthProbeStats() {
+        log.successAPI("API Request Received", 1, "/v1/health/probestats", null, 0);
+        return deviceAvailabilityService.getHealthProbeStats();
+    }
+
+    @Operation(description = "Connect attempts, failures and current retry delay of each device")
+    @GetMapping(path = "/v1/health/reconnectstats")
+    public Map<String, ReconnectStats> getReconnectStats() {
+        log.successAPI("API Request Received", 1, "/v1/health/reconnectstats", null, 0);
+        return deviceAvailabilityService.getReconnectStats();
+    }
+
+    @Operation(description = "Result and time of the startup connect of each device, with the open, claim and enable time of its last connect")
+    @GetMapping(path = "/v1/health/startup")
+    public StartupReport getStartupReport() {
+        log.successAPI("API Request Received", 1, "/v1/health/startup", null, 0);
+        return deviceAvailabilityService.getStartupReport();
+    }
+
+    @Operation(description = "Driver calls that did not return within their deadline, with the stack of the stuck thread. The device is quarantined until the call returns")
+    @GetMapping(path = "/v1/health/hungcalls")
+    public List<HungCall> getHungCalls() {
+        log.successAPI("API Request Received", 1, "/v1/health/hungcalls", null, 0);
+        return deviceAvailabilityService.getHungCalls();
+    }
+
+    @Operation(description = "Circuit breaker state of every device. While a circuit is open, requests to the device fail right away")
+    @GetMapping(path = "/v1/health/circuits")
+    public List<CircuitStatus> getCircuitStatuses() {
+        log.successAPI("API Request Received", 1, "/v1/health/circuits", null, 0);
+        return deviceAvailabilityService.getCircuitStatuses();
+    }
+
+    @Operation(description = "Requests waiting for each device and how long they waited. Send X-Request-Timeout (msec) with a device request to limit how long it waits for a busy device")
+    @GetMapping(path = "/v1/health/admission")
+    public List<AdmissionStats> getAdmissionStats() {
+        log.successAPI("API Request Received", 1, "/v1/health/admission", null, 0);
+        return deviceAvailabilityService.getAdmissionStats();
     }
 
 }
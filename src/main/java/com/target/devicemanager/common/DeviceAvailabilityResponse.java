@@ -1,14 +1,29 @@
 package com.target.devicemanager.common;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
 
 public class DeviceAvailabilityResponse {
     public String possumversion;
     public String confirmversion;
     public ArrayList<DeviceConfigResponse> devicelist;
+    @JsonIgnore
+    private String etag;
 
     public DeviceAvailabilityResponse() {
         devicelist = new ArrayList<>();
     }
-}
 
+    /**
+     * @return entity tag of this response, null if the device list could not be read.
+     */
+    @JsonIgnore
+    public String getEtag() {
+        return etag;
+    }
+
+    void setEtag(String etag) {
+        this.etag = etag;
+    }
+}
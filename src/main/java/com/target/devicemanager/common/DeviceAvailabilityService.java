@@ -1,45 +1,82 @@
 package com.target.devicemanager.common;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.target.devicemanager.common.entities.AdmissionStats;
+import com.target.devicemanager.common.entities.CircuitStatus;
 import com.target.devicemanager.common.entities.DeviceErrorStatusResponse;
 import com.target.devicemanager.common.entities.DeviceHealth;
 import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.common.entities.HealthProbeStats;
+import com.target.devicemanager.common.entities.HungCall;
+import com.target.devicemanager.common.entities.ReconnectStats;
+import com.target.devicemanager.common.entities.StartupReport;
+import com.target.devicemanager.components.cashdrawer.CashDrawerManager;
+import com.target.devicemanager.components.check.MicrManager;
+import com.target.devicemanager.components.keylock.KeylockManager;
+import com.target.devicemanager.components.linedisplay.LineDisplayManager;
+import com.target.devicemanager.components.msr.MSRManager;
+import com.target.devicemanager.components.poskeyboard.POSKeyboardManager;
+import com.target.devicemanager.components.printer.PrinterManager;
+import com.target.devicemanager.components.scale.ScaleManager;
+import com.target.devicemanager.components.scanner.ScannerManager;
 import com.target.devicemanager.components.scanner.entities.ScannerType;
+import com.target.devicemanager.components.toneindicator.ToneIndicatorManager;
 import com.target.devicemanager.configuration.ApplicationConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
 
 @Service
 public class DeviceAvailabilityService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceAvailabilityService.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceAvailabilityService", LOGGER);
-    public static final List<SseEmitter> deviceErrorClientList = new CopyOnWriteArrayList<>();
     ApplicationConfig applicationConfig;
     private String simulatorRegisterType = "default";
     private String customConfigPath;
+    private final DeviceHealthAggregator deviceHealthAggregator;
+    private final PeripheralInventory peripheralInventory;
+    private final DeviceHealthRegistry healthRegistry;
 
-    public DeviceAvailabilityService(){}
+    public DeviceAvailabilityService(){
+        this(null, new DeviceHealthAggregator());
+    }
     @Autowired
     public DeviceAvailabilityService(ApplicationConfig applicationConfig) {
+        this(applicationConfig, new DeviceHealthAggregator());
+    }
+
+    public DeviceAvailabilityService(ApplicationConfig applicationConfig, DeviceHealthAggregator deviceHealthAggregator) {
+        this(applicationConfig, deviceHealthAggregator, PeripheralInventory.getPeripheralInventory());
+    }
+
+    public DeviceAvailabilityService(ApplicationConfig applicationConfig, DeviceHealthAggregator deviceHealthAggregator, PeripheralInventory peripheralInventory) {
+        this(applicationConfig, deviceHealthAggregator, peripheralInventory, null);
+    }
+
+    public DeviceAvailabilityService(ApplicationConfig applicationConfig, DeviceHealthAggregator deviceHealthAggregator, PeripheralInventory peripheralInventory, DeviceHealthRegistry healthRegistry) {
+        if (deviceHealthAggregator == null) {
+            throw new IllegalArgumentException("deviceHealthAggregator cannot be null");
+        }
+        if (peripheralInventory == null) {
+            throw new IllegalArgumentException("peripheralInventory cannot be null");
+        }
         this.applicationConfig = applicationConfig;
+        this.deviceHealthAggregator = deviceHealthAggregator;
+        this.peripheralInventory = peripheralInventory;
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
     }
 
     public void setSimulatorRegisterType(String registerType) {
@@ -52,120 +89,74 @@ public class DeviceAvailabilityService {
 
     public DeviceAvailabilityResponse getAvailableDevices(String confirmOutLoc) {
         DeviceAvailabilityResponse deviceAvailabilityResponse = new DeviceAvailabilityResponse();
-        File jsonConfirm = null;
+        PeripheralInventory.Inventory inventory;
 
         if(applicationConfig != null && applicationConfig.IsSimulationMode()) {
             deviceAvailabilityResponse.possumversion = "possum_simulator";
             deviceAvailabilityResponse.confirmversion = "confirm_simulator";
             log.success("Simulator register type: " + simulatorRegisterType, 9);
-
-            if (!simulatorRegisterType.equals("default")) {
-                if ("CUSTOM".equals(simulatorRegisterType) && customConfigPath != null && !customConfigPath.isEmpty()) {
-                    jsonConfirm = new File(customConfigPath);
-                    if (!jsonConfirm.exists()) {
-                        log.success("Custom config path doesn't exist: " + customConfigPath, 13);
-                    }
-                }
-
-                if (jsonConfirm == null || !jsonConfirm.exists()) {
-                    String fileName = "simulator_confirmout_" + simulatorRegisterType + ".json";
-                    jsonConfirm = new File("src/main/resources/" + fileName);
-
-                    if (!jsonConfirm.exists()) {
-                        try (InputStream in = this.getClass().getClassLoader()
-                                .getResourceAsStream(fileName)) {
-
-                            if (in == null) {
-                                throw new IllegalStateException(fileName + " not found as resource");
-                            }
-
-                            Path tempFile = Files.createTempFile("simulator_confirmout-", ".json");
-                            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                            jsonConfirm = tempFile.toFile();
-                            jsonConfirm.deleteOnExit();
-                        } catch (IOException e) {
-                            throw new RuntimeException("Failed to load resource file: " + fileName, e);
-                        }
-                    }
-                }
-            } else {
-                jsonConfirm = new File("src/main/resources/simulator_confirmout.json");
-
-                if (!jsonConfirm.exists()) {
-                    try (InputStream in = this.getClass().getClassLoader()
-                            .getResourceAsStream("simulator_confirmout.json")) {
-
-                        if (in == null) {
-                            throw new IllegalStateException("simulator_confirmout.json not found as resource");
-                        }
-
-                        Path tempFile = Files.createTempFile("simulator_confirmout-", ".json");
-                        Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                        jsonConfirm = tempFile.toFile();
-                        jsonConfirm.deleteOnExit();
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to load resource file", e);
-                    }
-                }
-            }
+            inventory = getSimulatorInventory();
         } else {
             deviceAvailabilityResponse.possumversion = System.getenv("POSSUM_VERSION");
             deviceAvailabilityResponse.confirmversion = System.getenv("CONFIRM_VERSION");
-            jsonConfirm = new File(confirmOutLoc);
+            try {
+                inventory = peripheralInventory.fromFile(Path.of(confirmOutLoc));
+            } catch (IOException ioException) {
+                log.failure("Received IOException", 17, ioException);
+                return deviceAvailabilityResponse;
+            }
         }
 
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            if(jsonConfirm != null && jsonConfirm.exists() && jsonConfirm.isFile()){
-                JsonNode rootDevNode = objectMapper.readTree(jsonConfirm);
-                Iterator<String> fieldNames = rootDevNode.fieldNames();
-
-                while(fieldNames.hasNext()){
-                    String devName = fieldNames.next();
-                    JsonNode devices = rootDevNode.path(devName);
-                    if(devices.isArray()) {
-                        for (JsonNode device : devices) {
-                            if (!devName.equals("scale")) {
-                                deviceAvailabilityResponse.devicelist.add(new DeviceConfigResponse(
-                                        devName,
-                                        device.get("vidpid").asText(),
-                                        device.get("usbport").asText(),
-                                        device.get("manufacturer").asText(),
-                                        device.get("model").asText(),
-                                        device.get("config").asText(),
-                                        device.get("firmware").asText(),
-                                        device.get("serialnumber").asText(),
-                                        findDevStatus(devName) == DeviceHealth.READY,
-                                        !device.get("vidpid").asText().isEmpty()
-                                ));
-                            } else {
-                                deviceAvailabilityResponse.devicelist.add(new ScaleConfigResponse(
-                                        devName,
-                                        device.get("vidpid").asText(),
-                                        device.get("usbport").asText(),
-                                        device.get("manufacturer").asText(),
-                                        device.get("model").asText(),
-                                        device.get("config").asText(),
-                                        device.get("firmware").asText(),
-                                        device.get("serialnumber").asText(),
-                                        findDevStatus(devName) == DeviceHealth.READY,
-                                        !device.get("vidpid").asText().isEmpty(),
-                                        device.hasNonNull("calibrated")?device.get("calibrated").asBoolean():null,
-                                        device.hasNonNull("calibrated_count")?device.get("calibrated_count").asInt():null,
-                                        device.hasNonNull("has_remote_display")?device.get("has_remote_display").asBoolean():null
-                                ));
-                            }
-                        }
+        if(inventory == null) {
+            log.failure("JSON file not found or invalid", 17, null);
+            return deviceAvailabilityResponse;
+        }
+
+        //Only the health changes between requests, the parsed devices come from the inventory
+        StringBuilder functionalDevices = new StringBuilder();
+        for (DeviceConfigResponse device : inventory.getDevices()) {
+            boolean isFunctional = findDevStatus(device.devicename) == DeviceHealth.READY;
+            deviceAvailabilityResponse.devicelist.add(device.withFunctional(isFunctional));
+            functionalDevices.append(isFunctional ? '1' : '0');
+        }
+        deviceAvailabilityResponse.setEtag("\"" + inventory.getContentHash() + "-" + Integer.toHexString(Objects.hash(
+                deviceAvailabilityResponse.possumversion, deviceAvailabilityResponse.confirmversion, functionalDevices.toString())) + "\"");
+        return deviceAvailabilityResponse;
+    }
+
+    private PeripheralInventory.Inventory getSimulatorInventory() {
+        if (!simulatorRegisterType.equals("default")) {
+            if ("CUSTOM".equals(simulatorRegisterType) && customConfigPath != null && !customConfigPath.isEmpty()) {
+                File customConfig = new File(customConfigPath);
+                if (customConfig.exists()) {
+                    try {
+                        return peripheralInventory.fromFile(customConfig.toPath());
+                    } catch (IOException ioException) {
+                        log.failure("Received IOException", 17, ioException);
+                        return null;
                     }
                 }
-            } else {
-                log.failure("JSON file not found or invalid", 17, null);
+                log.success("Custom config path doesn't exist: " + customConfigPath, 13);
             }
-        } catch (IOException ioException) {
-            log.failure("Received IOException", 17, ioException);
+            return getSimulatorInventory("simulator_confirmout_" + simulatorRegisterType + ".json");
         }
+        return getSimulatorInventory("simulator_confirmout.json");
+    }
 
-        return deviceAvailabilityResponse;
+    private PeripheralInventory.Inventory getSimulatorInventory(String fileName) {
+        try {
+            File sourceFile = new File("src/main/resources/" + fileName);
+            if (sourceFile.exists()) {
+                return peripheralInventory.fromFile(sourceFile.toPath());
+            }
+            PeripheralInventory.Inventory inventory = peripheralInventory.fromResource(fileName);
+            if (inventory == null) {
+                throw new IllegalStateException(fileName + " not found as resource");
+            }
+            return inventory;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load resource file: " + fileName, e);
+        }
     }
 
     public DeviceHealth findDevStatus(String devName) {
@@ -244,64 +235,143 @@ public class DeviceAvailabilityService {
         return healthStatus;
     }
 
-    public void subscribeToDeviceError(SseEmitter sseEmitter) throws IOException {
-        sseEmitter.onCompletion(() -> this.deviceErrorClientList.remove(sseEmitter));
-        sseEmitter.onTimeout(() -> this.deviceErrorClientList.remove(sseEmitter));
-        deviceErrorClientList.add(sseEmitter);
-        sseEmitter.send(DeviceErrorStatusResponse.getDeviceErrorStatusResponse(), MediaType.APPLICATION_JSON);
+    public void subscribeToDeviceError(SseEmitter sseEmitter) {
+        subscribeToDeviceError(sseEmitter, null);
     }
 
-    public static void fireDeviceErrorEvent() {
-        List<SseEmitter> deadEmitterList = new ArrayList<>();
-        deviceErrorClientList.forEach(emitter -> {
-            try {
-                emitter.send(DeviceErrorStatusResponse.getDeviceErrorStatusResponse(), MediaType.APPLICATION_JSON);
-            } catch(IOException ioException) {
-                //Remove the client from the connection pool
-                deadEmitterList.add(emitter);
-            }
-        });
-        deviceErrorClientList.removeAll(deadEmitterList);
+    /**
+     * Sends the subscriber the error state of every device once, then only the devices that change.
+     * @param sseEmitter SSE connection of the subscriber.
+     * @param lastVersion version of the last event the client received, null for a new subscription.
+     */
+    public void subscribeToDeviceError(SseEmitter sseEmitter, Long lastVersion) {
+        DeviceErrorStatusResponse.getDeviceErrorEventBus().subscribe(sseEmitter, lastVersion);
+    }
+
+    /**
+     * Like subscribeToDeviceError(SseEmitter, Long) for subscribers that are not an SSE connection.
+     * @param sink where the events of the subscriber go.
+     * @param lastVersion version of the last event the client received, null for a new subscription.
+     */
+    public void subscribeToDeviceError(DeviceEventSink sink, Long lastVersion) {
+        DeviceErrorStatusResponse.getDeviceErrorEventBus().subscribe(sink, lastVersion);
     }
 
     public ResponseEntity<List<DeviceHealthResponse>> getHealth() {
+        return getHealth(false);
+    }
+
+    /**
+     * @param isLiveProbe true to probe every device now instead of returning the last published health.
+     * @return health of every device. Devices that miss the probe deadline are UNKNOWN with their last known health.
+     */
+    public ResponseEntity<List<DeviceHealthResponse>> getHealth(boolean isLiveProbe) {
         List<DeviceHealthResponse> responseList = new ArrayList<>();
         if(applicationConfig != null && applicationConfig.IsSimulationMode()){
             responseList.add(new DeviceHealthResponse("All Simulated Devices", DeviceHealth.READY));
             return ResponseEntity.ok(responseList);
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getCashDrawerManager() != null) {
-            responseList.addAll(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getCashDrawerManager().getAllHealth());
+        Map<String, Callable<List<DeviceHealthResponse>>> healthProbes = getHealthProbes();
+        if(isLiveProbe) {
+            return ResponseEntity.ok(deviceHealthAggregator.probe(healthProbes));
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getMicrManager() != null) {
-            responseList.add(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getMicrManager().getHealth());
+        //Every configured device is listed. Devices that have not published yet, because their first connect
+        //has not run, are probed and the rest come from the registry.
+        Map<String, DeviceHealthResponse> publishedHealth = healthRegistry.getSnapshot().getDevices();
+        Map<String, Callable<List<DeviceHealthResponse>>> unpublishedProbes = new LinkedHashMap<>();
+        for (Map.Entry<String, Callable<List<DeviceHealthResponse>>> healthProbe : healthProbes.entrySet()) {
+            List<DeviceHealthResponse> published = getPublishedHealth(publishedHealth, healthProbe.getKey());
+            if (published.isEmpty()) {
+                unpublishedProbes.put(healthProbe.getKey(), healthProbe.getValue());
+            } else {
+                responseList.addAll(published);
+            }
+        }
+        if (!unpublishedProbes.isEmpty()) {
+            responseList.addAll(deviceHealthAggregator.probe(unpublishedProbes));
         }
+        return ResponseEntity.ok(responseList);
+    }
 
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getLineDisplayManager() != null) {
-            responseList.add(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getLineDisplayManager().getHealth());
+    //Cash drawers and scanners publish one entry per device under a shared key prefix
+    private static List<DeviceHealthResponse> getPublishedHealth(Map<String, DeviceHealthResponse> publishedHealth, String healthKey) {
+        List<DeviceHealthResponse> published = new ArrayList<>();
+        for (Map.Entry<String, DeviceHealthResponse> entry : publishedHealth.entrySet()) {
+            if (healthKey.endsWith(":") ? entry.getKey().startsWith(healthKey) : entry.getKey().equals(healthKey)) {
+                published.add(entry.getValue());
+            }
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getPrinterManager() != null) {
-            responseList.add(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getPrinterManager().getHealth());
+        return published;
+    }
+
+    public Map<String, HealthProbeStats> getHealthProbeStats() {
+        return deviceHealthAggregator.getProbeStats();
+    }
+
+    public Map<String, ReconnectStats> getReconnectStats() {
+        return ReconnectScheduler.getReconnectScheduler().getStats();
+    }
+
+    public StartupReport getStartupReport() {
+        return DeviceStartupOrchestrator.getDeviceStartupOrchestrator().getReport();
+    }
+
+    public List<HungCall> getHungCalls() {
+        return DeviceCallGuard.getHungCalls();
+    }
+
+    public List<CircuitStatus> getCircuitStatuses() {
+        return DeviceCircuitBreaker.getCircuitStatuses();
+    }
+
+    public List<AdmissionStats> getAdmissionStats() {
+        return DeviceAdmissionController.getAdmissionStats();
+    }
+
+    private Map<String, Callable<List<DeviceHealthResponse>>> getHealthProbes() {
+        DeviceAvailabilitySingleton deviceAvailabilitySingleton = DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton();
+        Map<String, Callable<List<DeviceHealthResponse>>> healthProbes = new LinkedHashMap<>();
+        CashDrawerManager cashDrawerManager = deviceAvailabilitySingleton.getCashDrawerManager();
+        if(cashDrawerManager != null) {
+            healthProbes.put(CashDrawerManager.HEALTH_KEY_PREFIX, cashDrawerManager::getAllHealth);
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getScaleManager() != null) {
-            responseList.add(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getScaleManager().getHealth());
+        MicrManager micrManager = deviceAvailabilitySingleton.getMicrManager();
+        if(micrManager != null) {
+            healthProbes.put(MicrManager.HEALTH_KEY, () -> List.of(micrManager.getHealth()));
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getScannerManager() != null) {
-                responseList.addAll(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getScannerManager().getHealth(ScannerType.BOTH));
+        LineDisplayManager lineDisplayManager = deviceAvailabilitySingleton.getLineDisplayManager();
+        if(lineDisplayManager != null) {
+            healthProbes.put(LineDisplayManager.HEALTH_KEY, () -> List.of(lineDisplayManager.getHealth()));
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getKeylockManager() != null) {
-            responseList.add(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getKeylockManager().getHealth());
+        PrinterManager printerManager = deviceAvailabilitySingleton.getPrinterManager();
+        if(printerManager != null) {
+            healthProbes.put(PrinterManager.HEALTH_KEY, () -> List.of(printerManager.getHealth()));
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getPosKeyboardManager() != null) {
-            responseList.add(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getPosKeyboardManager().getHealth());
+        ScaleManager scaleManager = deviceAvailabilitySingleton.getScaleManager();
+        if(scaleManager != null) {
+            healthProbes.put(ScaleManager.HEALTH_KEY, () -> List.of(scaleManager.getHealth()));
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getMsrManager() != null) {
-            responseList.add(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getMsrManager().getHealth());
+        ScannerManager scannerManager = deviceAvailabilitySingleton.getScannerManager();
+        if(scannerManager != null) {
+            healthProbes.put(ScannerManager.HEALTH_KEY_PREFIX, () -> scannerManager.getHealth(ScannerType.BOTH));
         }
-        if(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getToneIndicatorManager() != null) {
-            responseList.add(DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().getToneIndicatorManager().getHealth());
+        KeylockManager keylockManager = deviceAvailabilitySingleton.getKeylockManager();
+        if(keylockManager != null) {
+            healthProbes.put(KeylockManager.HEALTH_KEY, () -> List.of(keylockManager.getHealth()));
         }
-        return ResponseEntity.ok(responseList);
+        POSKeyboardManager posKeyboardManager = deviceAvailabilitySingleton.getPosKeyboardManager();
+        if(posKeyboardManager != null) {
+            healthProbes.put(POSKeyboardManager.HEALTH_KEY, () -> List.of(posKeyboardManager.getHealth()));
+        }
+        MSRManager msrManager = deviceAvailabilitySingleton.getMsrManager();
+        if(msrManager != null) {
+            healthProbes.put(MSRManager.HEALTH_KEY, () -> List.of(msrManager.getHealth()));
+        }
+        ToneIndicatorManager toneIndicatorManager = deviceAvailabilitySingleton.getToneIndicatorManager();
+        if(toneIndicatorManager != null) {
+            healthProbes.put(ToneIndicatorManager.HEALTH_KEY, () -> List.of(toneIndicatorManager.getHealth()));
+        }
+        return healthProbes;
     }
 
     public void setCustomConfigPath(String path) {
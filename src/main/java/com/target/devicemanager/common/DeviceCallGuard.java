@@ -0,0 +1,312 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.HungCall;
+import jpos.BaseJposControl;
+import jpos.JposConst;
+import jpos.JposException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the driver calls of one JPOS control on a thread of its own, so the calling request or scheduler thread
+ * waits no longer than the deadline of the operation. Calls run one at a time and the deadline of a call starts
+ * when it starts running, not while it waits behind another call.
+ * A call that misses its deadline is recorded with the stack of the thread stuck in the driver and the device is
+ * quarantined: calls waiting behind it and every new call fail right away with JPOS_E_OFFLINE and the device
+ * reports not connected, until the stuck call returns. Calls after that run on a new thread.
+ */
+public class DeviceCallGuard {
+
+    public static final long OPEN_DEADLINE_MSEC = 15000;
+    public static final long ENABLE_DEADLINE_MSEC = 10000;
+    public static final long OUTPUT_DEADLINE_MSEC = 10000;
+    //Added to the timeout the driver is given, e.g. for claim or readWeight
+    public static final long DEADLINE_MARGIN_MSEC = 5000;
+    static final int MAX_HUNG_CALLS = 20;
+
+    private static final Map<BaseJposControl, DeviceCallGuard> guards = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Deque<HungCall> hungCalls = new ArrayDeque<>();
+    private final String deviceName;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private ThreadPoolExecutor callExecutor;
+    private volatile Thread callThread;
+    private volatile HungCall hungCall;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceCallGuard.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceCallGuard", LOGGER);
+
+    public DeviceCallGuard(String deviceName) {
+        if (deviceName == null) {
+            throw new IllegalArgumentException("deviceName cannot be null");
+        }
+        this.deviceName = deviceName;
+        this.callExecutor = newCallExecutor();
+    }
+
+    /**
+     * @param device JPOS control.
+     * @return guard of the control, created on first use.
+     */
+    public static DeviceCallGuard of(BaseJposControl device) {
+        synchronized (guards) {
+            return guards.computeIfAbsent(device, control -> new DeviceCallGuard(control.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * @return calls that missed their deadline, oldest first.
+     */
+    public static List<HungCall> getHungCalls() {
+        List<HungCall> copies = new ArrayList<>();
+        synchronized (hungCalls) {
+            for (HungCall hung : hungCalls) {
+                HungCall copy = new HungCall();
+                copy.deviceName = hung.deviceName;
+                copy.operation = hung.operation;
+                copy.deadlineMsec = hung.deadlineMsec;
+                copy.detectedAtMsec = hung.detectedAtMsec;
+                copy.threadName = hung.threadName;
+                copy.stackTrace = hung.stackTrace;
+                copy.isReturned = hung.isReturned;
+                copy.returnedAfterMsec = hung.returnedAfterMsec;
+                copies.add(copy);
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * Runs a driver call and returns its result.
+     * @param operation name of the call, for the log and the hung call record.
+     * @param deadlineMsec time the call may take.
+     * @throws JposException thrown by the call, a DeadlineMissedException with JPOS_E_TIMEOUT when it missed the deadline,
+     * JPOS_E_OFFLINE while the device is quarantined.
+     */
+    public <T> T call(String operation, long deadlineMsec, JposCall<T> call) throws JposException {
+        //A call made from a driver call already runs on the device thread
+        if (Thread.currentThread() == callThread) {
+            return call.call();
+        }
+        HungCall hung = hungCall;
+        if (hung != null) {
+            throw new JposException(JposConst.JPOS_E_OFFLINE, deviceName + " is quarantined, " + hung.operation + " has not returned");
+        }
+        GuardedCall<T> guardedCall = new GuardedCall<>(call);
+        try {
+            getCallExecutor().execute(guardedCall);
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            throw new JposException(JposConst.JPOS_E_FAILURE, deviceName + " " + operation + " could not be started", rejectedExecutionException);
+        }
+        try {
+            guardedCall.awaitStart();
+            return guardedCall.get(deadlineMsec, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException timeoutException) {
+            quarantine(operation, deadlineMsec, guardedCall);
+            throw new DeadlineMissedException(deviceName + " " + operation + " did not return within " + deadlineMsec + "ms");
+        } catch (CancellationException cancellationException) {
+            HungCall hung = hungCall;
+            throw new JposException(JposConst.JPOS_E_OFFLINE, deviceName + " is quarantined, " + (hung != null ? hung.operation : operation) + " has not returned");
+        } catch (InterruptedException interruptedException) {
+            guardedCall.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new JposException(JposConst.JPOS_E_FAILURE, deviceName + " " + operation + " interrupted", interruptedException);
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof JposException) {
+                throw (JposException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JposException(JposConst.JPOS_E_FAILURE, deviceName + " " + operation + " failed", (Exception) cause);
+        }
+    }
+
+    /**
+     * Runs a driver call without a result. See call().
+     */
+    public void run(String operation, long deadlineMsec, JposAction action) throws JposException {
+        call(operation, deadlineMsec, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return true while a call that missed its deadline has not returned.
+     */
+    public boolean isQuarantined() {
+        return hungCall != null;
+    }
+
+    /**
+     * Lets the thread of the guard end once the call it runs has returned, for guards of short-lived controls.
+     * Calls after this fail with JPOS_E_FAILURE.
+     */
+    public synchronized void shutdown() {
+        callExecutor.shutdown();
+    }
+
+    private synchronized ThreadPoolExecutor getCallExecutor() {
+        return callExecutor;
+    }
+
+    private synchronized void quarantine(String operation, long deadlineMsec, GuardedCall<?> stuckCall) {
+        if (hungCall != null) {
+            return;
+        }
+        Thread stuckThread = stuckCall.thread;
+        HungCall hung = new HungCall();
+        hung.deviceName = deviceName;
+        hung.operation = operation;
+        hung.deadlineMsec = deadlineMsec;
+        hung.detectedAtMsec = System.currentTimeMillis();
+        hung.threadName = stuckThread != null ? stuckThread.getName() : "";
+        hung.stackTrace = stuckThread != null ? format(stuckThread.getStackTrace()) : "";
+        hungCall = hung;
+        synchronized (hungCalls) {
+            if (hungCalls.size() == MAX_HUNG_CALLS) {
+                hungCalls.removeFirst();
+            }
+            hungCalls.addLast(hung);
+        }
+        log.failure(deviceName + " " + operation + " did not return within " + deadlineMsec + "ms, quarantined. Stuck in:\n" + hung.stackTrace, 18, null);
+
+        //Calls waiting behind the stuck call fail as quarantined instead of waiting for the driver
+        ThreadPoolExecutor stuckExecutor = callExecutor;
+        callExecutor = newCallExecutor();
+        stuckExecutor.shutdown();
+        List<Runnable> waitingCalls = new ArrayList<>();
+        stuckExecutor.getQueue().drainTo(waitingCalls);
+        for (Runnable waitingCall : waitingCalls) {
+            ((Future<?>) waitingCall).cancel(false);
+        }
+        stuckCall.whenReturned(() -> release(hung));
+    }
+
+    private synchronized void release(HungCall hung) {
+        synchronized (hungCalls) {
+            hung.isReturned = true;
+            hung.returnedAfterMsec = System.currentTimeMillis() - hung.detectedAtMsec + hung.deadlineMsec;
+        }
+        if (hungCall == hung) {
+            hungCall = null;
+        }
+        log.success(deviceName + " " + hung.operation + " returned after " + hung.returnedAfterMsec + "ms, quarantine lifted", 17);
+    }
+
+    private ThreadPoolExecutor newCallExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "jpos-call-" + deviceName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            callThread = thread;
+            return thread;
+        });
+    }
+
+    private static String format(StackTraceElement[] stackTrace) {
+        StringBuilder formatted = new StringBuilder();
+        for (StackTraceElement element : stackTrace) {
+            formatted.append("\tat ").append(element).append('\n');
+        }
+        return formatted.toString();
+    }
+
+    /**
+     * Driver call that tells its caller when it starts, so the deadline does not count the time it waited, and
+     * knows the thread it runs on.
+     */
+    private static class GuardedCall<T> extends FutureTask<T> {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile Thread thread;
+        private boolean isReturned;
+        private Runnable onReturn;
+
+        GuardedCall(JposCall<T> call) {
+            super(call::call);
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            started.countDown();
+            try {
+                super.run();
+            } finally {
+                Runnable returned;
+                synchronized (this) {
+                    isReturned = true;
+                    returned = onReturn;
+                }
+                if (returned != null) {
+                    returned.run();
+                }
+            }
+        }
+
+        @Override
+        protected void done() {
+            //Also ends the wait of a call cancelled before it started
+            started.countDown();
+        }
+
+        void awaitStart() throws InterruptedException {
+            started.await();
+        }
+
+        void whenReturned(Runnable callback) {
+            synchronized (this) {
+                if (!isReturned) {
+                    onReturn = callback;
+                    return;
+                }
+            }
+            callback.run();
+        }
+    }
+
+    /**
+     * Thrown for a call that missed its deadline. Carries JPOS_E_TIMEOUT like a driver timeout, but unlike one it
+     * means the driver never answered.
+     */
+    public static class DeadlineMissedException extends JposException {
+        DeadlineMissedException(String description) {
+            super(JposConst.JPOS_E_TIMEOUT, description);
+        }
+    }
+
+    /**
+     * Driver call with a result.
+     */
+    public interface JposCall<T> {
+        T call() throws JposException;
+    }
+
+    /**
+     * Driver call without a result.
+     */
+    public interface JposAction {
+        void run() throws JposException;
+    }
+}
@@ -0,0 +1,595 @@
+package com.target.devicemanager.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.target.devicemanager.common.entities.ChannelFrame;
+import com.target.devicemanager.common.entities.DeviceChannelTopic;
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceException;
+import com.target.devicemanager.components.cashdrawer.CashDrawerController;
+import com.target.devicemanager.components.keylock.KeylockManager;
+import com.target.devicemanager.components.linedisplay.LineDisplayController;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayData;
+import com.target.devicemanager.components.poskeyboard.POSKeyboardManager;
+import com.target.devicemanager.components.printer.PrinterController;
+import com.target.devicemanager.components.printer.entities.PrinterContent;
+import com.target.devicemanager.components.scale.ScaleManager;
+import com.target.devicemanager.components.scanner.ScannerController;
+import com.target.devicemanager.components.scanner.entities.Barcode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The /v1/channel WebSocket, one connection in place of the separate event streams and the /v1/scan long poll.
+ * Clients send JSON frames:
+ *     {"op":"sub","topic":"weight"}                     subscribe, keys and errors also take "since" like Last-Event-ID
+ *     {"op":"unsub","topic":"weight"}
+ *     {"op":"cmd","id":"7","cmd":"print","body":[...]}  print, display or openDrawer, "timeout" like X-Request-Timeout
+ * and get back ChannelFrames, a reply with "re" for every frame that had an id.
+ * Topics are fed by the same manager methods as the SSE endpoints and commands go through the REST controllers,
+ * so both behave as their HTTP counterparts. The scan topic repeats GET /v1/scan on one reader thread of its own
+ * and fans the barcodes out to every session subscribed to it. When the last one leaves, only the scan that
+ * reader requested is cancelled, a GET /v1/scan of another client keeps waiting.
+ * Every subscribed topic has its own bounded queue drained off the publishing thread, so a client that reads
+ * slowly loses the oldest frames of a busy topic instead of slowing down the device or its other topics.
+ * A topic the device ends, like a key entry subscriber that fell behind, gets a frame with e "end" and is
+ * unsubscribed. Commands and sends share a bounded pool, a command it has no room for is answered with DEVICE_BUSY.
+ */
+@Component
+public class DeviceChannelHandler extends TextWebSocketHandler {
+
+    static final long SCAN_RETRY_MSEC = 2000;
+    static final int MAX_CHANNEL_THREADS = 32;
+    static final int MAX_QUEUED_TASKS = 256;
+    private static final TypeReference<List<PrinterContent>> PRINTER_CONTENTS = new TypeReference<>() {};
+    private final ObjectMapper objectMapper;
+    private final DeviceAvailabilityService deviceAvailabilityService;
+    private final ObjectProvider<ScaleManager> scaleManager;
+    private final ObjectProvider<KeylockManager> keylockManager;
+    private final ObjectProvider<POSKeyboardManager> posKeyboardManager;
+    private final ObjectProvider<ScannerController> scannerController;
+    private final ObjectProvider<PrinterController> printerController;
+    private final ObjectProvider<LineDisplayController> lineDisplayController;
+    private final ObjectProvider<CashDrawerController> cashDrawerController;
+    private final Executor executor;
+    private final Executor scanExecutor;
+    private final Map<String, ChannelSession> channelSessions = new ConcurrentHashMap<>();
+    private final Set<TopicQueue> scanQueues = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean isScanning = new AtomicBoolean(false);
+    private volatile Thread scanThread;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceChannelHandler.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceChannelHandler", LOGGER);
+
+    @Autowired
+    public DeviceChannelHandler(ObjectMapper objectMapper,
+                                DeviceAvailabilityService deviceAvailabilityService,
+                                ObjectProvider<ScaleManager> scaleManager,
+                                ObjectProvider<KeylockManager> keylockManager,
+                                ObjectProvider<POSKeyboardManager> posKeyboardManager,
+                                ObjectProvider<ScannerController> scannerController,
+                                ObjectProvider<PrinterController> printerController,
+                                ObjectProvider<LineDisplayController> lineDisplayController,
+                                ObjectProvider<CashDrawerController> cashDrawerController) {
+        this(objectMapper, deviceAvailabilityService, scaleManager, keylockManager, posKeyboardManager, scannerController,
+                printerController, lineDisplayController, cashDrawerController, newExecutor(),
+                Executors.newSingleThreadExecutor(DeviceThreads.newThreadFactory("device-channel-scan-")));
+    }
+
+    public DeviceChannelHandler(ObjectMapper objectMapper,
+                                DeviceAvailabilityService deviceAvailabilityService,
+                                ObjectProvider<ScaleManager> scaleManager,
+                                ObjectProvider<KeylockManager> keylockManager,
+                                ObjectProvider<POSKeyboardManager> posKeyboardManager,
+                                ObjectProvider<ScannerController> scannerController,
+                                ObjectProvider<PrinterController> printerController,
+                                ObjectProvider<LineDisplayController> lineDisplayController,
+                                ObjectProvider<CashDrawerController> cashDrawerController,
+                                Executor executor,
+                                Executor scanExecutor) {
+        if (objectMapper == null) {
+            throw new IllegalArgumentException("objectMapper cannot be null");
+        }
+        if (deviceAvailabilityService == null) {
+            throw new IllegalArgumentException("deviceAvailabilityService cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        if (scanExecutor == null) {
+            throw new IllegalArgumentException("scanExecutor cannot be null");
+        }
+        this.objectMapper = objectMapper;
+        this.deviceAvailabilityService = deviceAvailabilityService;
+        this.scaleManager = scaleManager;
+        this.keylockManager = keylockManager;
+        this.posKeyboardManager = posKeyboardManager;
+        this.scannerController = scannerController;
+        this.printerController = printerController;
+        this.lineDisplayController = lineDisplayController;
+        this.cashDrawerController = cashDrawerController;
+        this.executor = executor;
+        this.scanExecutor = scanExecutor;
+    }
+
+    static Executor newExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_CHANNEL_THREADS, MAX_CHANNEL_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_TASKS), DeviceThreads.newThreadFactory("device-channel-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        channelSessions.put(session.getId(), new ChannelSession(session));
+        log.success("Device channel opened, total: " + channelSessions.size(), 5);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ChannelSession channelSession = channelSessions.remove(session.getId());
+        if (channelSession != null) {
+            for (DeviceChannelTopic topic : DeviceChannelTopic.values()) {
+                unsubscribe(channelSession, topic);
+            }
+        }
+        log.success("Device channel closed with " + status + ", total: " + channelSessions.size(), 5);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.failure("Device channel transport error", 5, exception);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        ChannelSession channelSession = channelSessions.get(session.getId());
+        if (channelSession == null) {
+            return;
+        }
+        JsonNode request;
+        try {
+            request = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException jsonProcessingException) {
+            log.failure("Device channel frame is not JSON", 5, jsonProcessingException);
+            channelSession.send(ChannelFrame.reply(null, null, DeviceError.BAD_INPUT));
+            return;
+        }
+        String id = request.hasNonNull("id") ? request.get("id").asText() : null;
+        String operation = request.path("op").asText();
+        if ("sub".equals(operation)) {
+            subscribe(channelSession, id, request);
+        } else if ("unsub".equals(operation)) {
+            DeviceChannelTopic topic = DeviceChannelTopic.of(request.path("topic").asText());
+            if (topic != null) {
+                unsubscribe(channelSession, topic);
+            }
+            reply(channelSession, id, topic == null ? DeviceError.BAD_INPUT : null);
+        } else if ("cmd".equals(operation)) {
+            //Commands wait on devices, so they never hold up the frames that follow them
+            try {
+                executor.execute(() -> execute(channelSession, id, request));
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                log.failure("No room to run device channel command", 13, rejectedExecutionException);
+                channelSession.send(ChannelFrame.reply(id, null, DeviceError.DEVICE_BUSY));
+            }
+        } else {
+            channelSession.send(ChannelFrame.reply(id, null, DeviceError.BAD_INPUT));
+        }
+    }
+
+    int getSessionCount() {
+        return channelSessions.size();
+    }
+
+    private void subscribe(ChannelSession channelSession, String id, JsonNode request) {
+        DeviceChannelTopic topic = DeviceChannelTopic.of(request.path("topic").asText());
+        if (topic == null) {
+            reply(channelSession, id, DeviceError.BAD_INPUT);
+            return;
+        }
+        if (channelSession.getTopicQueue(topic) != null) {
+            reply(channelSession, id, null);
+            return;
+        }
+        String since = request.hasNonNull("since") ? request.get("since").asText() : null;
+        TopicQueue topicQueue = channelSession.addTopicQueue(topic);
+        DeviceError deviceError;
+        try {
+            deviceError = addSubscriber(topicQueue, since, "entries".equals(request.path("mode").asText()));
+        } catch (IOException | RuntimeException exception) {
+            log.failure("Failed to subscribe to " + topic.getTopicName(), 13, exception);
+            deviceError = DeviceError.UNEXPECTED_ERROR;
+        }
+        if (deviceError != null) {
+            unsubscribe(channelSession, topic);
+        } else {
+            log.success("Device channel subscribed to " + topic.getTopicName(), 5);
+        }
+        reply(channelSession, id, deviceError);
+    }
+
+    //Device error versions are plain numbers, key event ids also carry the boot epoch
+    private static Long toVersion(String since) {
+        if (since == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(since.trim());
+        } catch (NumberFormatException numberFormatException) {
+            return null;
+        }
+    }
+
+    private DeviceError addSubscriber(TopicQueue topicQueue, String since, boolean isEntryMode) throws IOException {
+        switch (topicQueue.topic) {
+            case WEIGHT:
+                ScaleManager scale = scaleManager.getIfAvailable();
+                if (scale == null) {
+                    return DeviceError.DEVICE_OFFLINE;
+                }
+                scale.subscribeToLiveWeight(topicQueue.sink);
+                return null;
+            case KEYLOCK:
+                KeylockManager keylock = keylockManager.getIfAvailable();
+                if (keylock == null) {
+                    return DeviceError.DEVICE_OFFLINE;
+                }
+                keylock.addEventSubscriber(topicQueue.sink);
+                return null;
+            case KEYS:
+                POSKeyboardManager posKeyboard = posKeyboardManager.getIfAvailable();
+                if (posKeyboard == null) {
+                    return DeviceError.DEVICE_OFFLINE;
+                }
+                if (isEntryMode) {
+                    posKeyboard.addEntrySubscriber(topicQueue.sink);
+                } else {
+                    posKeyboard.addEventSubscriber(topicQueue.sink, since);
+                }
+                return null;
+            case ERRORS:
+                deviceAvailabilityService.subscribeToDeviceError(topicQueue.sink, toVersion(since));
+                return null;
+            case SCAN:
+                ScannerController scanner = scannerController.getIfAvailable();
+                if (scanner == null) {
+                    return DeviceError.DEVICE_OFFLINE;
+                }
+                scanQueues.add(topicQueue);
+                if (isScanning.compareAndSet(false, true)) {
+                    try {
+                        scanExecutor.execute(() -> scan(scanner));
+                    } catch (RejectedExecutionException rejectedExecutionException) {
+                        log.failure("No room to scan for device channel", 13, rejectedExecutionException);
+                        isScanning.set(false);
+                        scanQueues.remove(topicQueue);
+                        return DeviceError.DEVICE_BUSY;
+                    }
+                }
+                return null;
+            default:
+                //Print jobs are published by the print command
+                return null;
+        }
+    }
+
+    private void unsubscribe(ChannelSession channelSession, DeviceChannelTopic topic) {
+        TopicQueue topicQueue = channelSession.removeTopicQueue(topic);
+        if (topicQueue != null) {
+            close(topicQueue);
+        }
+    }
+
+    /**
+     * Ends a topic its device completed, telling the client so it can subscribe again.
+     */
+    private void endTopic(TopicQueue topicQueue) {
+        if (!topicQueue.channelSession.removeTopicQueue(topicQueue)) {
+            return;
+        }
+        close(topicQueue);
+        log.success("Device channel topic " + topicQueue.topic.getTopicName() + " ended by its device", 5);
+        //Devices complete subscribers on their own threads, which must not wait on a slow client
+        ChannelFrame frame = ChannelFrame.event(topicQueue.topic, "end", null, null);
+        try {
+            executor.execute(() -> topicQueue.channelSession.send(frame));
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            log.failure("No room to tell the client " + topicQueue.topic.getTopicName() + " ended", 13, rejectedExecutionException);
+        }
+    }
+
+    private void close(TopicQueue topicQueue) {
+        topicQueue.close();
+        if (scanQueues.remove(topicQueue) && scanQueues.isEmpty()) {
+            ScannerController scanner = scannerController.getIfAvailable();
+            Thread readerThread = scanThread;
+            if (scanner != null && readerThread != null) {
+                try {
+                    scanner.cancelScanRequestFrom(readerThread);
+                } catch (DeviceException deviceException) {
+                    //The reader was not waiting for a scan, it stops before requesting another one
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads barcodes like GET /v1/scan does, one after the other, and hands each one to every scan subscriber
+     * until the last of them unsubscribes.
+     */
+    private void scan(ScannerController scanner) {
+        scanThread = Thread.currentThread();
+        try {
+            do {
+                while (!scanQueues.isEmpty()) {
+                    try {
+                        Barcode barcode = scanner.getScannerData(null);
+                        if (barcode != null) {
+                            offerScan(() -> ChannelFrame.event(DeviceChannelTopic.SCAN, null, null, barcode));
+                        }
+                    } catch (DeviceException deviceException) {
+                        if (scanQueues.isEmpty()) {
+                            break;
+                        }
+                        offerScan(() -> ChannelFrame.error(DeviceChannelTopic.SCAN, deviceException.getDeviceError()));
+                        Thread.sleep(SCAN_RETRY_MSEC);
+                    }
+                }
+                isScanning.set(false);
+            } while (!scanQueues.isEmpty() && isScanning.compareAndSet(false, true));
+        } catch (InterruptedException interruptedException) {
+            isScanning.set(false);
+            Thread.currentThread().interrupt();
+        } finally {
+            scanThread = null;
+        }
+    }
+
+    //Every subscriber gets a frame of its own, a queue marks the frames it lost on them
+    private void offerScan(Supplier<ChannelFrame> frame) {
+        for (TopicQueue topicQueue : scanQueues) {
+            topicQueue.offer(frame.get());
+        }
+    }
+
+    private void execute(ChannelSession channelSession, String id, JsonNode request) {
+        String command = request.path("cmd").asText();
+        if (request.hasNonNull("timeout")) {
+            RequestDeadline.set(request.get("timeout").asLong());
+        }
+        try {
+            runCommand(id, command, request.path("body"));
+            reply(channelSession, id, null);
+        } catch (DeviceException deviceException) {
+            reply(channelSession, id, deviceException.getDeviceError());
+        } catch (IllegalArgumentException illegalArgumentException) {
+            log.failure("Invalid body for device channel command " + command, 5, illegalArgumentException);
+            reply(channelSession, id, DeviceError.BAD_INPUT);
+        } catch (RuntimeException runtimeException) {
+            log.failure("Device channel command " + command + " failed", 13, runtimeException);
+            reply(channelSession, id, DeviceError.UNEXPECTED_ERROR);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private void runCommand(String id, String command, JsonNode body) throws DeviceException {
+        if ("print".equals(command)) {
+            PrinterController printer = printerController.getIfAvailable();
+            if (printer == null) {
+                throw new DeviceException(DeviceError.DEVICE_OFFLINE);
+            }
+            if (!body.isArray()) {
+                throw new DeviceException(DeviceError.BAD_INPUT);
+            }
+            List<PrinterContent> contents = objectMapper.convertValue(body, PRINTER_CONTENTS);
+            publishPrintJob(id, "printing", null);
+            try {
+                printer.print(contents);
+            } catch (DeviceException deviceException) {
+                publishPrintJob(id, "failed", deviceException.getDeviceError());
+                throw deviceException;
+            }
+            publishPrintJob(id, "printed", null);
+        } else if ("display".equals(command)) {
+            LineDisplayController lineDisplay = lineDisplayController.getIfAvailable();
+            if (lineDisplay == null) {
+                throw new DeviceException(DeviceError.DEVICE_OFFLINE);
+            }
+            if (!body.isObject()) {
+                throw new DeviceException(DeviceError.BAD_INPUT);
+            }
+            lineDisplay.displayLines(objectMapper.convertValue(body, LineDisplayData.class));
+        } else if ("openDrawer".equals(command)) {
+            CashDrawerController cashDrawer = cashDrawerController.getIfAvailable();
+            if (cashDrawer == null) {
+                throw new DeviceException(DeviceError.DEVICE_OFFLINE);
+            }
+            cashDrawer.openCashDrawer(body.path("drawerId").asInt(1));
+        } else {
+            throw new DeviceException(DeviceError.BAD_INPUT);
+        }
+    }
+
+    private void publishPrintJob(String id, String state, DeviceError deviceError) {
+        for (ChannelSession channelSession : channelSessions.values()) {
+            TopicQueue topicQueue = channelSession.getTopicQueue(DeviceChannelTopic.PRINT_JOB);
+            if (topicQueue != null) {
+                ChannelFrame frame = ChannelFrame.event(DeviceChannelTopic.PRINT_JOB, state, id, null);
+                frame.error = deviceError;
+                topicQueue.offer(frame);
+            }
+        }
+    }
+
+    private void reply(ChannelSession channelSession, String id, DeviceError deviceError) {
+        if (id != null || deviceError != null) {
+            channelSession.send(ChannelFrame.reply(id, null, deviceError));
+        }
+    }
+
+    //Data that is already JSON text goes into the frame as JSON, not as a string
+    private Object toFrameData(Object data) {
+        if (data instanceof String text) {
+            try {
+                return objectMapper.readTree(text);
+            } catch (JsonProcessingException jsonProcessingException) {
+                return text;
+            }
+        }
+        return data;
+    }
+
+    private class ChannelSession {
+        private final WebSocketSession session;
+        //WebSocketSession.sendMessage must not be called by two threads at once
+        private final ReentrantLock sendLock = new ReentrantLock();
+        private final Map<DeviceChannelTopic, TopicQueue> topicQueues = new ConcurrentHashMap<>();
+
+        ChannelSession(WebSocketSession session) {
+            this.session = session;
+        }
+
+        TopicQueue getTopicQueue(DeviceChannelTopic topic) {
+            return topicQueues.get(topic);
+        }
+
+        TopicQueue addTopicQueue(DeviceChannelTopic topic) {
+            TopicQueue topicQueue = new TopicQueue(this, topic);
+            topicQueues.put(topic, topicQueue);
+            return topicQueue;
+        }
+
+        TopicQueue removeTopicQueue(DeviceChannelTopic topic) {
+            return topicQueues.remove(topic);
+        }
+
+        boolean removeTopicQueue(TopicQueue topicQueue) {
+            return topicQueues.remove(topicQueue.topic, topicQueue);
+        }
+
+        /**
+         * Blocks while the client is reading a previous frame, which is what holds back a slow client's topics.
+         * @return false if the client is gone.
+         */
+        boolean send(ChannelFrame frame) {
+            sendLock.lock();
+            try {
+                if (!session.isOpen()) {
+                    return false;
+                }
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+                return true;
+            } catch (IOException | IllegalStateException exception) {
+                log.failure("Failed to send device channel frame", 5, exception);
+                return false;
+            } finally {
+                sendLock.unlock();
+            }
+        }
+    }
+
+    private class TopicQueue {
+        private final ChannelSession channelSession;
+        private final DeviceChannelTopic topic;
+        private final ChannelSink sink;
+        private final Deque<ChannelFrame> queue = new ArrayDeque<>();
+        private final AtomicBoolean isDraining = new AtomicBoolean(false);
+        private long lost;
+
+        TopicQueue(ChannelSession channelSession, DeviceChannelTopic topic) {
+            this.channelSession = channelSession;
+            this.topic = topic;
+            this.sink = new ChannelSink((event, id, data) -> offer(ChannelFrame.event(topic, event, id, toFrameData(data))),
+                    () -> endTopic(this));
+        }
+
+        void offer(ChannelFrame frame) {
+            synchronized (this) {
+                if (sink.isClosed()) {
+                    return;
+                }
+                if (queue.size() >= topic.getCapacity()) {
+                    queue.poll();
+                    lost++;
+                }
+                queue.add(frame);
+            }
+            if (isDraining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException rejectedExecutionException) {
+                    //The frames stay queued and go out with the next one
+                    log.failure("No room to send " + topic.getTopicName() + " frames", 13, rejectedExecutionException);
+                    isDraining.set(false);
+                }
+            }
+        }
+
+        boolean isClosed() {
+            return sink.isClosed();
+        }
+
+        void close() {
+            synchronized (this) {
+                queue.clear();
+            }
+            sink.close();
+        }
+
+        private synchronized ChannelFrame poll() {
+            ChannelFrame frame = queue.poll();
+            if (frame != null && lost > 0) {
+                frame.lost = lost;
+                lost = 0;
+            }
+            return frame;
+        }
+
+        private synchronized boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        private void drain() {
+            do {
+                ChannelFrame frame;
+                while ((frame = poll()) != null) {
+                    if (!channelSession.send(frame)) {
+                        synchronized (this) {
+                            queue.clear();
+                        }
+                        isDraining.set(false);
+                        return;
+                    }
+                }
+                isDraining.set(false);
+            } while (!isEmpty() && isDraining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.CircuitStatus;
+import jpos.BaseJposControl;
+import jpos.JposConst;
+import jpos.JposException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops sending requests to a device that keeps failing.
+ * CLOSED lets every call through and counts the calls in a row that fail with an error code saying the device is
+ * gone or broken. At FAILURE_THRESHOLD the breaker is OPEN and every call fails right away with JPOS_E_OFFLINE
+ * without touching the driver. After OPEN_MSEC the next call is let through as the only probe (HALF_OPEN):
+ * if it works the breaker is CLOSED again, if it fails the breaker is OPEN for another OPEN_MSEC.
+ * Errors caused by the request, like JPOS_E_ILLEGAL, or normal outcomes, like a JPOS_E_TIMEOUT from readWeight,
+ * show the device answered and count as success. A call the DeviceCallGuard gave up on did not get an answer
+ * and counts as a failure.
+ */
+public class DeviceCircuitBreaker {
+
+    public static final int FAILURE_THRESHOLD = 3;
+    public static final long OPEN_MSEC = 30000;
+
+    private static final Map<BaseJposControl, DeviceCircuitBreaker> breakers = Collections.synchronizedMap(new WeakHashMap<>());
+    private final String deviceName;
+    private final DeviceCallGuard callGuard;
+    private final int failureThreshold;
+    private final long openMsec;
+    private final List<StateListener> stateListeners = new CopyOnWriteArrayList<>();
+    private volatile State state = State.CLOSED;
+    private int failureCount;
+    private long openCount;
+    private long openedAtNanos;
+    private long openedAtMsec;
+    private long probeStartedAtNanos;
+    private boolean isProbeRunning;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceCircuitBreaker.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceCircuitBreaker", LOGGER);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public DeviceCircuitBreaker(String deviceName, DeviceCallGuard callGuard) {
+        this(deviceName, callGuard, FAILURE_THRESHOLD, OPEN_MSEC);
+    }
+
+    public DeviceCircuitBreaker(String deviceName, DeviceCallGuard callGuard, int failureThreshold, long openMsec) {
+        if (deviceName == null) {
+            throw new IllegalArgumentException("deviceName cannot be null");
+        }
+        if (callGuard == null) {
+            throw new IllegalArgumentException("callGuard cannot be null");
+        }
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.deviceName = deviceName;
+        this.callGuard = callGuard;
+        this.failureThreshold = failureThreshold;
+        this.openMsec = openMsec;
+    }
+
+    /**
+     * @param device JPOS control.
+     * @return breaker of the control, created on first use.
+     */
+    public static DeviceCircuitBreaker of(BaseJposControl device) {
+        synchronized (breakers) {
+            return breakers.computeIfAbsent(device, control -> new DeviceCircuitBreaker(control.getClass().getSimpleName(), DeviceCallGuard.of(control)));
+        }
+    }
+
+    /**
+     * @return state of every breaker.
+     */
+    public static List<CircuitStatus> getCircuitStatuses() {
+        List<DeviceCircuitBreaker> current;
+        synchronized (breakers) {
+            current = new ArrayList<>(breakers.values());
+        }
+        List<CircuitStatus> statuses = new ArrayList<>();
+        for (DeviceCircuitBreaker breaker : current) {
+            statuses.add(breaker.getStatus());
+        }
+        return statuses;
+    }
+
+    /**
+     * @param errorCode JPOS error code.
+     * @return true if the error says the device is gone or broken rather than that the request was wrong.
+     */
+    public static boolean isDeviceFailure(int errorCode) {
+        switch (errorCode) {
+            case JposConst.JPOS_E_CLOSED:
+            case JposConst.JPOS_E_NOTCLAIMED:
+            case JposConst.JPOS_E_NOSERVICE:
+            case JposConst.JPOS_E_DISABLED:
+            case JposConst.JPOS_E_NOHARDWARE:
+            case JposConst.JPOS_E_OFFLINE:
+            case JposConst.JPOS_E_NOEXIST:
+            case JposConst.JPOS_E_FAILURE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Runs a driver call through the DeviceCallGuard of the device if the breaker lets it through
+     * and records how it went.
+     * @param operation name of the call, for the log.
+     * @param deadlineMsec time the call may take, see DeviceCallGuard.
+     * @throws JposException thrown by the call, JPOS_E_OFFLINE while the breaker is open.
+     */
+    public <T> T call(String operation, long deadlineMsec, DeviceCallGuard.JposCall<T> call) throws JposException {
+        acquire(operation);
+        T result;
+        try {
+            result = callGuard.call(operation, deadlineMsec, call);
+        } catch (JposException jposException) {
+            recordFailure(jposException);
+            throw jposException;
+        } catch (RuntimeException runtimeException) {
+            recordFailure(JposConst.JPOS_E_FAILURE);
+            throw runtimeException;
+        }
+        recordSuccess();
+        return result;
+    }
+
+    /**
+     * Runs a guarded driver call without a result. See call().
+     */
+    public void run(String operation, long deadlineMsec, DeviceCallGuard.JposAction action) throws JposException {
+        call(operation, deadlineMsec, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Lets a call through or fails it. A caller that got through records the outcome with recordSuccess()
+     * or recordFailure().
+     * @param operation name of the call, for the exception message.
+     * @throws JposException JPOS_E_OFFLINE while the breaker is open or another call is probing.
+     */
+    public void acquire(String operation) throws JposException {
+        if (!tryAcquire()) {
+            throw new JposException(JposConst.JPOS_E_OFFLINE, deviceName + " circuit is open, " + operation + " not sent to the device");
+        }
+    }
+
+    /**
+     * @return true if the call may go to the device. In HALF_OPEN only the first caller gets true.
+     */
+    public boolean tryAcquire() {
+        State changedTo;
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(openMsec)) {
+                        return false;
+                    }
+                    changedTo = moveTo(State.HALF_OPEN);
+                    startProbe();
+                    break;
+                default:
+                    //A probe that never recorded its outcome does not block the device for good
+                    if (isProbeRunning && System.nanoTime() - probeStartedAtNanos < TimeUnit.MILLISECONDS.toNanos(openMsec)) {
+                        return false;
+                    }
+                    startProbe();
+                    return true;
+            }
+        }
+        notifyListeners(changedTo);
+        return true;
+    }
+
+    /**
+     * Lets the next call through as the probe without waiting for OPEN_MSEC, for when the device is known to be
+     * back, e.g. it was plugged in or reported power online.
+     */
+    public void allowProbe() {
+        State changedTo = null;
+        synchronized (this) {
+            isProbeRunning = false;
+            if (state == State.OPEN) {
+                changedTo = moveTo(State.HALF_OPEN);
+            }
+        }
+        notifyListeners(changedTo);
+    }
+
+    /**
+     * Gives up the probe without an outcome, for a call that never reached the device, like a connect that
+     * found no device. The next call probes again.
+     */
+    public synchronized void cancelProbe() {
+        isProbeRunning = false;
+    }
+
+    public void recordSuccess() {
+        State changedTo;
+        synchronized (this) {
+            failureCount = 0;
+            isProbeRunning = false;
+            changedTo = state == State.CLOSED ? null : moveTo(State.CLOSED);
+        }
+        notifyListeners(changedTo);
+    }
+
+    /**
+     * @param errorCode JPOS error code of the failed call. Errors that are not device failures count as success.
+     */
+    public void recordFailure(int errorCode) {
+        if (!isDeviceFailure(errorCode)) {
+            recordSuccess();
+            return;
+        }
+        State changedTo = null;
+        synchronized (this) {
+            failureCount++;
+            isProbeRunning = false;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && failureCount >= failureThreshold)) {
+                changedTo = moveTo(State.OPEN);
+            }
+        }
+        notifyListeners(changedTo);
+    }
+
+    /**
+     * @param jposException exception of the failed call. A DeviceCallGuard.DeadlineMissedException is a device
+     * failure although its error code is JPOS_E_TIMEOUT.
+     */
+    public void recordFailure(JposException jposException) {
+        recordFailure(jposException instanceof DeviceCallGuard.DeadlineMissedException ? JposConst.JPOS_E_FAILURE : jposException.getErrorCode());
+    }
+
+    /**
+     * @return current state. A volatile read, so isConnected() checks can call it without waiting.
+     */
+    public State getState() {
+        return state;
+    }
+
+    public synchronized CircuitStatus getStatus() {
+        CircuitStatus status = new CircuitStatus();
+        status.deviceName = deviceName;
+        status.state = state.name();
+        status.failureCount = failureCount;
+        status.openCount = openCount;
+        status.openedAtMsec = openedAtMsec;
+        return status;
+    }
+
+    /**
+     * @param stateListener called after every state change, outside the breaker lock.
+     */
+    public void addStateListener(StateListener stateListener) {
+        stateListeners.add(stateListener);
+    }
+
+    public void removeStateListener(StateListener stateListener) {
+        stateListeners.remove(stateListener);
+    }
+
+    //Caller holds the breaker lock
+    private State moveTo(State next) {
+        state = next;
+        if (next == State.OPEN) {
+            openCount++;
+            openedAtNanos = System.nanoTime();
+            openedAtMsec = System.currentTimeMillis();
+            log.failure(deviceName + " circuit opened after " + failureCount + " failures, rejecting calls for " + openMsec + "ms", 17, null);
+        } else if (next == State.CLOSED) {
+            log.success(deviceName + " circuit closed", 13);
+        } else {
+            log.success(deviceName + " circuit half open, letting one call through", 9);
+        }
+        return next;
+    }
+
+    //Caller holds the breaker lock
+    private void startProbe() {
+        isProbeRunning = true;
+        probeStartedAtNanos = System.nanoTime();
+    }
+
+    private void notifyListeners(State changedTo) {
+        if (changedTo == null) {
+            return;
+        }
+        for (StateListener stateListener : stateListeners) {
+            try {
+                stateListener.stateChanged(changedTo);
+            } catch (RuntimeException runtimeException) {
+                log.failure(deviceName + " circuit state listener failed", 13, runtimeException);
+            }
+        }
+    }
+
+    /**
+     * Told about every state change of a breaker.
+     */
+    public interface StateListener {
+        void stateChanged(State state);
+    }
+}
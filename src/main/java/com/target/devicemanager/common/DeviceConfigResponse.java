@@ -25,6 +25,10 @@ public class DeviceConfigResponse {
         this.attached = attached;
     }
 
+    public DeviceConfigResponse withFunctional(boolean isFunctional) {
+        return new DeviceConfigResponse(devicename, vidpid, usbport, manufacturer, model, config, firmware, serialnumber, isFunctional, attached);
+    }
+
     public String toString() {
         return
                 "deviceName=" + devicename +
@@ -1,14 +1,24 @@
 package com.target.devicemanager.common;
 
+import com.target.devicemanager.common.entities.ConnectPhaseTimes;
 import jpos.BaseJposControl;
 import jpos.JposException;
 import jpos.config.JposEntryRegistry;
-import jpos.config.simple.SimpleEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class DeviceConnector<T extends BaseJposControl> {
 
@@ -19,9 +29,17 @@ public class DeviceConnector<T extends BaseJposControl> {
     private final boolean autoAdapt;
     private final boolean skipClaim;
     private final boolean skipTestCycle;
+    private final LastGoodDeviceStore lastGoodDeviceStore;
+    private final Supplier<T> probeDeviceFactory;
+    private final DeviceCallGuard callGuard;
     private String connectedDeviceName;
     private static final int CLAIM_TIMEOUT_IN_MSEC = 30000;
-    private final int RETRY_REGISTRY_LOAD = 5;
+    static final int PROBE_CLAIM_TIMEOUT_IN_MSEC = 2000;
+    static final long PROBE_DEADLINE_IN_MSEC = 15000;
+    static final int MAX_PARALLEL_PROBES = 3;
+    private static final ExecutorService probeExecutor = newProbeExecutor();
+    //Logical names whose probe is stuck in the driver, skipped until the stuck call returns
+    private static final Map<String, DeviceCallGuard> quarantinedProbes = new ConcurrentHashMap<>();
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceConnector.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceConnector", LOGGER);
 
@@ -62,12 +80,33 @@ public class DeviceConnector<T extends BaseJposControl> {
                            AbstractMap.SimpleEntry<String, String> customFilter,
                            String preferredLogicalName, boolean autoAdapt,
                            boolean skipClaim, boolean skipTestCycle) {
+        this(device, deviceRegistry, customFilter, preferredLogicalName, autoAdapt, skipClaim, skipTestCycle,
+                LastGoodDeviceStore.getLastGoodDeviceStore(), newInstanceOf(device));
+    }
+
+    /**
+     * Full constructor above, plus:
+     *
+     * @param lastGoodDeviceStore  Remembers the logical name the device last connected with
+     * @param probeDeviceFactory   Creates a separate control of the same type to probe candidates in parallel
+     */
+    public DeviceConnector(T device, JposEntryRegistry deviceRegistry,
+                           AbstractMap.SimpleEntry<String, String> customFilter,
+                           String preferredLogicalName, boolean autoAdapt,
+                           boolean skipClaim, boolean skipTestCycle,
+                           LastGoodDeviceStore lastGoodDeviceStore, Supplier<T> probeDeviceFactory) {
         if (device == null) {
             throw new IllegalArgumentException("device cannot be null");
         }
         if (deviceRegistry == null) {
             throw new IllegalArgumentException("deviceRegistry cannot be null");
         }
+        if (lastGoodDeviceStore == null) {
+            throw new IllegalArgumentException("lastGoodDeviceStore cannot be null");
+        }
+        if (probeDeviceFactory == null) {
+            throw new IllegalArgumentException("probeDeviceFactory cannot be null");
+        }
         this.device = device;
         this.customFilter = customFilter;
         this.deviceRegistry = deviceRegistry;
@@ -75,9 +114,32 @@ public class DeviceConnector<T extends BaseJposControl> {
         this.autoAdapt = autoAdapt;
         this.skipClaim = skipClaim;
         this.skipTestCycle = skipTestCycle;
+        this.lastGoodDeviceStore = lastGoodDeviceStore;
+        this.probeDeviceFactory = probeDeviceFactory;
+        this.callGuard = DeviceCallGuard.of(device);
         this.connectedDeviceName = getDefaultDeviceName();
     }
 
+    private static ExecutorService newProbeExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(MAX_PARALLEL_PROBES, runnable -> {
+            Thread thread = new Thread(runnable, "device-probe-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends BaseJposControl> Supplier<T> newInstanceOf(T device) {
+        return () -> {
+            try {
+                return (T) device.getClass().getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException reflectiveOperationException) {
+                throw new IllegalStateException("Unable to create probe for " + device.getClass().getSimpleName(), reflectiveOperationException);
+            }
+        };
+    }
+
     boolean discoverConnectedDevice() {
         // If an explicit logical name is configured, try it first
         if (preferredLogicalName != null && !preferredLogicalName.isEmpty()) {
@@ -96,19 +158,153 @@ public class DeviceConnector<T extends BaseJposControl> {
             log.success("Falling back to auto-discovery...", 9);
         }
 
-        // Auto-discover: try all matching logical names from the registry
+        // Auto-discover: the name that worked last time first, then probe the other matching names from the registry
         List<String> configNames = getLogicalNamesForDeviceType();
+        configNames.remove(preferredLogicalName);
+        String lastGoodName = lastGoodDeviceStore.get(getLastGoodKey());
+        if (lastGoodName != null && configNames.remove(lastGoodName)) {
+            clearDeviceCache();
+            if (connect(lastGoodName)) {
+                log.success("device found via last good name '" + connectedDeviceName + "'", 9);
+                return true;
+            }
+        }
+        if (configNames.size() > 1) {
+            return connectFirstResponding(configNames);
+        }
         for (String configName : configNames) {
             clearDeviceCache();
-            boolean isConnected = connect(configName);
-            if (isConnected) {
-                log.success("device found '" + connectedDeviceName + "'", 9);
+            if (connectAndRemember(configName)) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Probes the candidates on separate controls, a few at a time and with a short claim timeout, so a missing
+     * device no longer holds up the others. The device is then connected to the first candidate that answered.
+     * Each probe makes its driver calls through a call guard of its own, so a driver that never returns holds
+     * only that guard's thread; the candidate is skipped until the stuck call returns.
+     */
+    private boolean connectFirstResponding(List<String> configNames) {
+        configNames.removeIf(this::isProbeQuarantined);
+        CompletionService<String> probes = new ExecutorCompletionService<>(probeExecutor);
+        int pendingProbes = 0;
+        try {
+            for (String configName : configNames) {
+                T probeDevice = probeDeviceFactory.get();
+                probes.submit(() -> probe(probeDevice, configName) ? configName : null);
+                pendingProbes++;
+            }
+        } catch (RuntimeException runtimeException) {
+            //No separate controls to probe with, connect to the remaining candidates one by one
+            log.failure("Unable to probe " + getDefaultDeviceName() + " candidates in parallel", 13, runtimeException);
+            if (pendingProbes == 0) {
+                for (String configName : configNames) {
+                    clearDeviceCache();
+                    if (connectAndRemember(configName)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROBE_DEADLINE_IN_MSEC);
+        for (; pendingProbes > 0; pendingProbes--) {
+            String respondingName;
+            try {
+                Future<String> probe = probes.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (probe == null) {
+                    log.failure(getDefaultDeviceName() + " probes did not finish in " + PROBE_DEADLINE_IN_MSEC + "ms", 13, null);
+                    return false;
+                }
+                respondingName = probe.get();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException executionException) {
+                log.failure(getDefaultDeviceName() + " probe failed", 13, executionException.getCause());
+                continue;
+            }
+            if (respondingName != null) {
+                clearDeviceCache();
+                if (connectAndRemember(respondingName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean probe(T probeDevice, String configName) {
+        DeviceCallGuard probeGuard = new DeviceCallGuard(getDefaultDeviceName() + "-probe-" + configName);
+        try {
+            probeGuard.run("open", DeviceCallGuard.OPEN_DEADLINE_MSEC, () -> probeDevice.open(configName));
+            if (!skipClaim) {
+                probeGuard.run("claim", PROBE_CLAIM_TIMEOUT_IN_MSEC + DeviceCallGuard.DEADLINE_MARGIN_MSEC,
+                        () -> probeDevice.claim(PROBE_CLAIM_TIMEOUT_IN_MSEC));
+            }
+            if (!skipTestCycle) {
+                probeGuard.run("setDeviceEnabled", DeviceCallGuard.ENABLE_DEADLINE_MSEC, () -> probeDevice.setDeviceEnabled(true));
+                probeGuard.run("setDeviceEnabled", DeviceCallGuard.ENABLE_DEADLINE_MSEC, () -> probeDevice.setDeviceEnabled(false));
+            }
+            return true;
+        } catch (JposException jposException) {
+            log.failure("probe of " + configName + " failed with error " + jposException.getErrorCode(), 5, jposException);
+            return false;
+        } finally {
+            if (probeGuard.isQuarantined()) {
+                //The stuck call still holds the control, it is left to the guard thread
+                quarantinedProbes.put(configName, probeGuard);
+            } else {
+                if (!skipClaim) {
+                    try {
+                        probeGuard.run("release", DeviceCallGuard.ENABLE_DEADLINE_MSEC, probeDevice::release);
+                    } catch (Exception exception) {
+                        //not claimed
+                    }
+                }
+                try {
+                    probeGuard.run("close", DeviceCallGuard.ENABLE_DEADLINE_MSEC, probeDevice::close);
+                } catch (Exception exception) {
+                    //not opened
+                }
+            }
+            probeGuard.shutdown();
+        }
+    }
+
+    private boolean isProbeQuarantined(String configName) {
+        DeviceCallGuard probeGuard = quarantinedProbes.get(configName);
+        if (probeGuard == null) {
+            return false;
+        }
+        if (!probeGuard.isQuarantined()) {
+            quarantinedProbes.remove(configName, probeGuard);
+            return false;
+        }
+        log.failure("skipping " + configName + ", its last probe has not returned", 13, null);
+        return true;
+    }
+
+    private boolean connectAndRemember(String configName) {
+        if (!connect(configName)) {
+            return false;
+        }
+        log.success("device found '" + connectedDeviceName + "'", 9);
+        lastGoodDeviceStore.put(getLastGoodKey(), configName);
+        return true;
+    }
+
+    //Devices of the same type with different configured names (e.g. cash drawers) each keep their own name
+    private String getLastGoodKey() {
+        if (preferredLogicalName != null && !preferredLogicalName.isEmpty()) {
+            return getDefaultDeviceName() + "." + preferredLogicalName;
+        }
+        return getDefaultDeviceName();
+    }
+
     String getConnectedDeviceName() {
         return this.connectedDeviceName;
     }
@@ -118,91 +314,107 @@ public class DeviceConnector<T extends BaseJposControl> {
     }
 
     private void clearDeviceCache() {
-        synchronized (device) {
+        DeviceLock deviceLock = DeviceLock.of(device);
+        deviceLock.lock();
+        try {
             try {
-                device.setDeviceEnabled(false);
+                callGuard.run("setDeviceEnabled", DeviceCallGuard.ENABLE_DEADLINE_MSEC, () -> device.setDeviceEnabled(false));
             } catch (Exception exception) {
                 log.failure("failed to disable device '" + getDefaultDeviceName() + "'" + exception, 1, exception);
             }
             if (!skipClaim) {
                 try {
-                    device.release();
+                    callGuard.run("release", DeviceCallGuard.ENABLE_DEADLINE_MSEC, device::release);
                 } catch (Exception exception) {
                     log.failure("failed to release device '" + getDefaultDeviceName() + "'" + exception, 1, exception);
                 }
             }
             try {
-                device.close();
+                callGuard.run("close", DeviceCallGuard.ENABLE_DEADLINE_MSEC, device::close);
             } catch (Exception exception) {
                 log.failure("failed to close device '" + getDefaultDeviceName() + "'" + exception, 1, exception);
             }
+        } finally {
+            deviceLock.unlock();
         }
     }
 
     private boolean connect(String configName) {
-            synchronized (device) {
+        ConnectPhaseTimes phaseTimes = new ConnectPhaseTimes();
+        phaseTimes.logicalName = configName;
+        long startTime = System.nanoTime();
+        try {
+            phaseTimes.isConnected = connect(configName, phaseTimes);
+            return phaseTimes.isConnected;
+        } finally {
+            phaseTimes.totalMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            ConnectTimings.getConnectTimings().record(getLastGoodKey(), phaseTimes);
+        }
+    }
+
+    private boolean connect(String configName, ConnectPhaseTimes phaseTimes) {
+        DeviceLock deviceLock = DeviceLock.of(device);
+        deviceLock.lock();
+        try {
+            long phaseStart = System.nanoTime();
+            try {
+                callGuard.run("open", DeviceCallGuard.OPEN_DEADLINE_MSEC, () -> device.open(configName));
+            } catch (JposException jposException){
+                log.failure("failed to open " + configName + " with error " + jposException.getErrorCode(), 17, jposException);
+                phaseTimes.failedPhase = "open";
+                return false;
+            } finally {
+                phaseTimes.openMsec = elapsedMsec(phaseStart);
+            }
+            if (!skipClaim) {
+                phaseStart = System.nanoTime();
                 try {
-                    device.open(configName);
+                    callGuard.run("claim", CLAIM_TIMEOUT_IN_MSEC + DeviceCallGuard.DEADLINE_MARGIN_MSEC, () -> device.claim(CLAIM_TIMEOUT_IN_MSEC));
                 } catch (JposException jposException){
-                    log.failure("failed to open " + configName + " with error " + jposException.getErrorCode(), 17, jposException);
+                    log.failure("failed to claim " + configName + " with error " + jposException.getErrorCode(), 17, jposException);
+                    phaseTimes.failedPhase = "claim";
                     return false;
+                } finally {
+                    phaseTimes.claimMsec = elapsedMsec(phaseStart);
                 }
-                if (!skipClaim) {
-                    try {
-                        device.claim(CLAIM_TIMEOUT_IN_MSEC);
-                    } catch (JposException jposException){
-                        log.failure("failed to claim " + configName + " with error " + jposException.getErrorCode(), 17, jposException);
-                        return false;
-                    }
+            }
+            if (!skipTestCycle) {
+                //this is a test, some devices wont signal connected status until enabled
+                //then disable to put it back in the same state
+                phaseStart = System.nanoTime();
+                try {
+                    callGuard.run("setDeviceEnabled", DeviceCallGuard.ENABLE_DEADLINE_MSEC, () -> device.setDeviceEnabled(true));
+                } catch (JposException jposException){
+                    log.failure("failed to enable " + configName + " with error " + jposException.getErrorCode(), 17, jposException);
+                    phaseTimes.failedPhase = "enable";
+                    phaseTimes.enableMsec = elapsedMsec(phaseStart);
+                    return false;
                 }
-                if (!skipTestCycle) {
-                    //this is a test, some devices wont signal connected status until enabled
-                    //then disable to put it back in the same state
-                    try {
-                        device.setDeviceEnabled(true);
-                    } catch (JposException jposException){
-                        log.failure("failed to enable " + configName + " with error " + jposException.getErrorCode(), 17, jposException);
-                        return false;
-                    }
-                    try {
-                        device.setDeviceEnabled(false);
-                    } catch (JposException jposException){
-                        log.failure("failed to disable " + configName + " with error " + jposException.getErrorCode(), 17, jposException);
-                        return false;
-                    }
+                try {
+                    callGuard.run("setDeviceEnabled", DeviceCallGuard.ENABLE_DEADLINE_MSEC, () -> device.setDeviceEnabled(false));
+                } catch (JposException jposException){
+                    log.failure("failed to disable " + configName + " with error " + jposException.getErrorCode(), 17, jposException);
+                    phaseTimes.failedPhase = "enable";
+                    return false;
+                } finally {
+                    phaseTimes.enableMsec = elapsedMsec(phaseStart);
                 }
-                this.connectedDeviceName = configName;
-                log.success("successfully connected " + configName + (skipClaim ? " (claimless)" : ""), 9);
-                return true;
             }
+            this.connectedDeviceName = configName;
+            log.success("successfully connected " + configName + (skipClaim ? " (claimless)" : ""), 9);
+            return true;
+        } finally {
+            deviceLock.unlock();
+        }
+    }
+
+    private static long elapsedMsec(long startTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
     }
 
+    //An empty registry is loaded again in the background, the next connect attempt sees the entries
     private List<String> getLogicalNamesForDeviceType() {
-        for(int i = 0; i < RETRY_REGISTRY_LOAD && deviceRegistry.getSize() == 0; i++) {
-            deviceRegistry.load();
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException interruptedException) {
-                //ignore
-            }
-        }
-
-        ArrayList<SimpleEntry> list = Collections.list((Enumeration<SimpleEntry>)deviceRegistry.getEntries());
-        return list
-                .stream()
-                .filter(x -> {
-                    String deviceCategory = x.getPropertyValue("deviceCategory").toString();
-                    Class<? extends BaseJposControl> deviceClass = device.getClass();
-                    return deviceCategory.equals(deviceClass.getSimpleName());
-                })
-                .filter(x -> {
-                    if (customFilter == null) return true;
-
-                    String customFilterValue = x.getPropertyValue(customFilter.getKey()).toString();
-                    return customFilter.getValue().equals(customFilterValue);
-                })
-                .map(x -> x.getPropertyValue("logicalName").toString())
-                .collect(Collectors.toCollection(ArrayList::new));
+        return JposRegistryIndex.of(deviceRegistry).getLogicalNames(device.getClass().getSimpleName(), customFilter);
     }
 
     private String getDefaultDeviceName() {
@@ -43,13 +43,14 @@ public class DeviceDiscoveryController {
     }
 
     /**
-     * Scan and test all configured devices (slow, opens each device).
+     * Scan and test all configured devices (opens each device that changed since its last test).
      */
-    @Operation(description = "Scan and test all configured devices for connectivity")
+    @Operation(description = "Scan and test all configured devices for connectivity. Devices whose devcon.xml entry and USB devices are unchanged return their cached result unless force=true")
     @GetMapping("/test")
-    public ResponseEntity<DeviceDiscoveryResponse> testAllDevices() {
+    public ResponseEntity<DeviceDiscoveryResponse> testAllDevices(
+            @RequestParam(required = false, defaultValue = "false") boolean force) {
         log.successAPI("API Request Received", 1, "/v1/discovery/test", null, 0);
-        DeviceDiscoveryResponse response = discoveryService.testAllDevices();
+        DeviceDiscoveryResponse response = discoveryService.testAllDevices(force);
         return ResponseEntity.ok(response);
     }
 
@@ -65,13 +66,8 @@ public class DeviceDiscoveryController {
 
         // If category not provided, look it up from the registry
         if (category.isEmpty()) {
-            var devices = discoveryService.scanConfiguredDevices();
-            var match = devices.stream()
-                    .filter(d -> d.getLogicalName().equals(logicalName))
-                    .findFirst();
-            if (match.isPresent()) {
-                category = match.get().getCategory();
-            } else {
+            category = discoveryService.getCategory(logicalName);
+            if (category == null) {
                 return ResponseEntity.notFound().build();
             }
         }
@@ -0,0 +1,264 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceErrorStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Error state of every device for the /v1/deviceerror subscribers.
+ * The state is an immutable versioned snapshot. Every change bumps the version and is sent to subscribers as a
+ * delta holding only the devices that changed, so a subscriber gets the full snapshot once and then just changes.
+ * Each SSE event carries its version as the event id. A subscriber that reconnects with the last version it saw
+ * gets the deltas it missed, or a fresh snapshot once those are no longer kept.
+ * Every subscriber has its own bounded queue drained off the publishing thread. A subscriber that falls behind
+ * has its queue replaced with the current snapshot instead of slowing down the others.
+ */
+public class DeviceErrorEventBus {
+
+    static final int SUBSCRIBER_QUEUE_SIZE = 16;
+    static final int DELTA_HISTORY_SIZE = 64;
+
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot;
+    private final Deque<Event> deltaHistory = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Executor deliveryExecutor;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceErrorEventBus.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceErrorEventBus", LOGGER);
+
+    public DeviceErrorEventBus(List<String> deviceNames) {
+        this(deviceNames, Executors.newFixedThreadPool(2, new StreamThreadFactory()));
+    }
+
+    public DeviceErrorEventBus(List<String> deviceNames, Executor deliveryExecutor) {
+        if (deviceNames == null) {
+            throw new IllegalArgumentException("deviceNames cannot be null");
+        }
+        if (deliveryExecutor == null) {
+            throw new IllegalArgumentException("deliveryExecutor cannot be null");
+        }
+        List<DeviceErrorStatus> statuses = new ArrayList<>();
+        for (String deviceName : deviceNames) {
+            statuses.add(new DeviceErrorStatus(deviceName, false, null));
+        }
+        this.snapshot = new Snapshot(0, statuses);
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Marks a device as faulted. Devices that are not in the snapshot are ignored.
+     * @param deviceName name of the device as listed in confirmout.
+     * @param deviceError error reported by the device.
+     */
+    public void setError(String deviceName, DeviceError deviceError) {
+        update(deviceName, true, deviceError);
+    }
+
+    /**
+     * Clears the fault of one device. Devices that are not in the snapshot are ignored.
+     * @param deviceName name of the device as listed in confirmout.
+     */
+    public void clearError(String deviceName) {
+        if (deviceName != null) {
+            update(deviceName, false, null);
+        }
+    }
+
+    /**
+     * Clears the fault of every device.
+     */
+    public void clearErrors() {
+        update(null, false, null);
+    }
+
+    /**
+     * Adds a subscriber and queues what it has not seen yet.
+     * @param emitter SSE connection of the subscriber.
+     * @param lastVersion version of the last event the client received, null for a new subscription.
+     */
+    public void subscribe(SseEmitter emitter, Long lastVersion) {
+        subscribe(DeviceEventSink.of(emitter), lastVersion);
+    }
+
+    /**
+     * Adds a subscriber and queues what it has not seen yet.
+     * @param sink where the events of the subscriber go.
+     * @param lastVersion version of the last event the client received, null for a new subscription.
+     */
+    public void subscribe(DeviceEventSink sink, Long lastVersion) {
+        Subscriber subscriber = new Subscriber(sink);
+        sink.onCompletion(() -> remove(subscriber));
+        synchronized (lock) {
+            subscribers.add(subscriber);
+            for (Event event : catchUp(lastVersion)) {
+                subscriber.offer(event);
+            }
+        }
+        log.success("Device error subscriber added, total: " + subscribers.size(), 5);
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private List<Event> catchUp(Long lastVersion) {
+        Snapshot current = snapshot;
+        if (lastVersion != null && lastVersion == current.version) {
+            return List.of();
+        }
+        //Replay the missed deltas if they are all still kept and fit the queue, otherwise start over from the snapshot
+        if (lastVersion != null && lastVersion < current.version && !deltaHistory.isEmpty()
+                && deltaHistory.peekFirst().version <= lastVersion + 1
+                && current.version - lastVersion <= SUBSCRIBER_QUEUE_SIZE) {
+            List<Event> missed = new ArrayList<>();
+            for (Event delta : deltaHistory) {
+                if (delta.version > lastVersion) {
+                    missed.add(delta);
+                }
+            }
+            return missed;
+        }
+        return List.of(new Event(current.version, current.statuses));
+    }
+
+    private void update(String deviceName, boolean faultPresent, DeviceError deviceError) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            List<DeviceErrorStatus> next = new ArrayList<>(current.statuses.size());
+            List<DeviceErrorStatus> changed = new ArrayList<>();
+            for (DeviceErrorStatus status : current.statuses) {
+                boolean isTarget = deviceName == null || status.deviceName.equals(deviceName);
+                if (isTarget && (!Objects.equals(status.faultPresent, faultPresent) || status.deviceError != deviceError)) {
+                    DeviceErrorStatus updated = new DeviceErrorStatus(status.deviceName, faultPresent, deviceError);
+                    next.add(updated);
+                    changed.add(updated);
+                } else {
+                    next.add(status);
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+            snapshot = new Snapshot(current.version + 1, next);
+            Event delta = new Event(current.version + 1, changed);
+            deltaHistory.addLast(delta);
+            if (deltaHistory.size() > DELTA_HISTORY_SIZE) {
+                deltaHistory.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(delta);
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            log.success("Device error subscriber removed, total: " + subscribers.size(), 5);
+        }
+    }
+
+    /**
+     * Error state of every device at one version. Never changes once created.
+     */
+    public static class Snapshot {
+        private final long version;
+        private final List<DeviceErrorStatus> statuses;
+
+        Snapshot(long version, List<DeviceErrorStatus> statuses) {
+            this.version = version;
+            this.statuses = Collections.unmodifiableList(statuses);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<DeviceErrorStatus> getStatuses() {
+            return statuses;
+        }
+    }
+
+    private static class Event {
+        private final long version;
+        private final List<DeviceErrorStatus> statuses;
+
+        Event(long version, List<DeviceErrorStatus> statuses) {
+            this.version = version;
+            this.statuses = Collections.unmodifiableList(statuses);
+        }
+    }
+
+    private class Subscriber {
+        private final DeviceEventSink sink;
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_SIZE);
+        private final AtomicBoolean isDraining = new AtomicBoolean(false);
+
+        Subscriber(DeviceEventSink sink) {
+            this.sink = sink;
+        }
+
+        void offer(Event event) {
+            if (!queue.offer(event)) {
+                //The snapshot covers everything still queued, so a slow client only loses intermediate states
+                log.failure("Device error subscriber is not keeping up, resending snapshot", 13, null);
+                queue.clear();
+                Snapshot current = snapshot;
+                queue.offer(new Event(current.version, current.statuses));
+            }
+            if (isDraining.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Event event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        sink.send(null, String.valueOf(event.version), event.statuses);
+                    } catch (IOException | IllegalStateException exception) {
+                        log.failure("Failed to send device error event", 5, exception);
+                        queue.clear();
+                        remove(this);
+                        isDraining.set(false);
+                        return;
+                    }
+                }
+                isDraining.set(false);
+            } while (!queue.isEmpty() && isDraining.compareAndSet(false, true));
+        }
+    }
+
+    private static class StreamThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "device-error-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
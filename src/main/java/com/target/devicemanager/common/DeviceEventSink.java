@@ -0,0 +1,34 @@
+package com.target.devicemanager.common;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Where a manager sends the events of one subscriber, an SSE response or a /v1/channel topic.
+ * Data goes out as JSON, a String is taken to be JSON text already.
+ */
+public interface DeviceEventSink {
+
+    /**
+     * @param event name of the event, null for the default event.
+     * @param id id the client can resume from, null for none.
+     * @param data event data.
+     * @throws IOException when the subscriber is gone.
+     */
+    void send(String event, String id, Object data) throws IOException;
+
+    /**
+     * Ends the subscription from the publishing side, which also runs the completion callbacks.
+     */
+    void complete();
+
+    /**
+     * Registers code to run once the subscription ends, whether the client left, it timed out, it failed or it was completed.
+     */
+    void onCompletion(Runnable callback);
+
+    static DeviceEventSink of(SseEmitter emitter) {
+        return new SseEventSink(emitter);
+    }
+}
@@ -0,0 +1,180 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceHealth;
+import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.common.entities.HealthProbeStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Probes the health of every device at the same time and waits at most one deadline for all of them.
+ * A device that does not answer in time is reported as UNKNOWN together with the health it last published,
+ * so one wedged driver no longer holds up the whole health response.
+ * A probe that overruns keeps running in the background and later requests wait on it instead of starting
+ * another, so a hung device ties up at most one probe thread.
+ */
+public class DeviceHealthAggregator {
+
+    static final long DEFAULT_PROBE_TIMEOUT_MSEC = 2000;
+
+    private final DeviceHealthRegistry healthRegistry;
+    private final Executor probeExecutor;
+    private final long probeTimeoutMsec;
+    private final Map<String, CompletableFuture<List<DeviceHealthResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, HealthProbeStats> probeStats = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceHealthAggregator.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceHealthAggregator", LOGGER);
+
+    public DeviceHealthAggregator() {
+        this(DeviceHealthRegistry.getDeviceHealthRegistry(), newProbeExecutor(), DEFAULT_PROBE_TIMEOUT_MSEC);
+    }
+
+    public DeviceHealthAggregator(DeviceHealthRegistry healthRegistry, Executor probeExecutor, long probeTimeoutMsec) {
+        if (healthRegistry == null) {
+            throw new IllegalArgumentException("healthRegistry cannot be null");
+        }
+        if (probeExecutor == null) {
+            throw new IllegalArgumentException("probeExecutor cannot be null");
+        }
+        this.healthRegistry = healthRegistry;
+        this.probeExecutor = probeExecutor;
+        this.probeTimeoutMsec = probeTimeoutMsec;
+    }
+
+    private static Executor newProbeExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "health-probe-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs every probe concurrently and collects the results in the order the probes were given.
+     * @param probes health probe of each device, keyed by the device's health registry key.
+     *               A key ending in ':' covers every registry entry that starts with it.
+     * @return health of every device, UNKNOWN for devices that missed the deadline.
+     */
+    public List<DeviceHealthResponse> probe(Map<String, Callable<List<DeviceHealthResponse>>> probes) {
+        Map<String, CompletableFuture<List<DeviceHealthResponse>>> futures = new LinkedHashMap<>();
+        probes.forEach((healthKey, probe) -> futures.put(healthKey, start(healthKey, probe)));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(probeTimeoutMsec);
+        List<DeviceHealthResponse> responseList = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<List<DeviceHealthResponse>>> entry : futures.entrySet()) {
+            try {
+                responseList.addAll(entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException timeoutException) {
+                HealthProbeStats stats = statsOf(entry.getKey());
+                synchronized (stats) {
+                    stats.timeouts++;
+                }
+                log.failure("Health probe for " + entry.getKey() + " missed its " + probeTimeoutMsec + "ms deadline", 13, null);
+                responseList.addAll(lastKnown(entry.getKey()));
+            } catch (ExecutionException executionException) {
+                log.failure("Health probe for " + entry.getKey() + " failed", 17, executionException.getCause());
+                responseList.addAll(lastKnown(entry.getKey()));
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                responseList.addAll(lastKnown(entry.getKey()));
+            }
+        }
+        return responseList;
+    }
+
+    /**
+     * @return probe count, timeouts and latency of each device, keyed by the device's health registry key.
+     */
+    public Map<String, HealthProbeStats> getProbeStats() {
+        Map<String, HealthProbeStats> stats = new LinkedHashMap<>();
+        probeStats.forEach((healthKey, current) -> {
+            synchronized (current) {
+                HealthProbeStats copy = new HealthProbeStats();
+                copy.probes = current.probes;
+                copy.timeouts = current.timeouts;
+                copy.failures = current.failures;
+                copy.lastLatencyMsec = current.lastLatencyMsec;
+                copy.maxLatencyMsec = current.maxLatencyMsec;
+                copy.averageLatencyMsec = current.averageLatencyMsec;
+                copy.isProbing = inFlight.containsKey(healthKey);
+                stats.put(healthKey, copy);
+            }
+        });
+        return stats;
+    }
+
+    private CompletableFuture<List<DeviceHealthResponse>> start(String healthKey, Callable<List<DeviceHealthResponse>> probe) {
+        CompletableFuture<List<DeviceHealthResponse>> future = new CompletableFuture<>();
+        CompletableFuture<List<DeviceHealthResponse>> running = inFlight.putIfAbsent(healthKey, future);
+        if (running != null) {
+            return running;
+        }
+        try {
+            probeExecutor.execute(() -> {
+                long startTime = System.nanoTime();
+                try {
+                    List<DeviceHealthResponse> result = probe.call();
+                    record(healthKey, startTime, false);
+                    future.complete(result);
+                } catch (Exception exception) {
+                    record(healthKey, startTime, true);
+                    future.completeExceptionally(exception);
+                } finally {
+                    inFlight.remove(healthKey, future);
+                }
+            });
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            inFlight.remove(healthKey, future);
+            future.completeExceptionally(rejectedExecutionException);
+        }
+        return future;
+    }
+
+    private void record(String healthKey, long startTime, boolean isFailure) {
+        long latencyMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        HealthProbeStats stats = statsOf(healthKey);
+        synchronized (stats) {
+            stats.probes++;
+            if (isFailure) {
+                stats.failures++;
+            }
+            stats.lastLatencyMsec = latencyMsec;
+            stats.maxLatencyMsec = Math.max(stats.maxLatencyMsec, latencyMsec);
+            stats.averageLatencyMsec = stats.averageLatencyMsec + (latencyMsec - stats.averageLatencyMsec) / stats.probes;
+        }
+    }
+
+    private HealthProbeStats statsOf(String healthKey) {
+        return probeStats.computeIfAbsent(healthKey, key -> new HealthProbeStats());
+    }
+
+    private List<DeviceHealthResponse> lastKnown(String healthKey) {
+        List<DeviceHealthResponse> responseList = new ArrayList<>();
+        healthRegistry.getSnapshot().getDevices().forEach((registryKey, published) -> {
+            if (registryKey.equals(healthKey) || (healthKey.endsWith(":") && registryKey.startsWith(healthKey))) {
+                responseList.add(new DeviceHealthResponse(published.getDeviceName(), DeviceHealth.UNKNOWN, published.getHealthStatus()));
+            }
+        });
+        if (responseList.isEmpty()) {
+            String deviceName = healthKey.endsWith(":") ? healthKey.substring(0, healthKey.length() - 1) : healthKey;
+            responseList.add(new DeviceHealthResponse(deviceName, DeviceHealth.UNKNOWN));
+        }
+        return responseList;
+    }
+}
@@ -0,0 +1,96 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceHealthResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Last known health of every device, pushed by the managers when a device connects, disconnects or is probed.
+ * Readers get an immutable snapshot without locking or touching a driver, so /v1/health and the
+ * healthstatus endpoints are plain map reads. Writers swap in a new snapshot with compare and set.
+ * Entries are keyed by a stable device key such as "printer" or "scanner:FLATBED" because the logical
+ * device name can change while a device is being discovered.
+ */
+public class DeviceHealthRegistry {
+
+    private static final DeviceHealthRegistry deviceHealthRegistry = new DeviceHealthRegistry();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, new LinkedHashMap<>()));
+
+    public DeviceHealthRegistry() {
+    }
+
+    public static DeviceHealthRegistry getDeviceHealthRegistry() {
+        return deviceHealthRegistry;
+    }
+
+    /**
+     * Records the health of a device. Publishing the same name and health again does not create a new snapshot.
+     * @param deviceKey stable key of the device.
+     * @param deviceHealthResponse current health.
+     * @return true if the snapshot changed.
+     */
+    public boolean publish(String deviceKey, DeviceHealthResponse deviceHealthResponse) {
+        if (deviceKey == null || deviceHealthResponse == null) {
+            return false;
+        }
+        DeviceHealthResponse entry = new DeviceHealthResponse(deviceHealthResponse.getDeviceName(), deviceHealthResponse.getHealthStatus());
+        while (true) {
+            Snapshot current = snapshot.get();
+            DeviceHealthResponse previous = current.byKey.get(deviceKey);
+            if (previous != null && previous.getHealthStatus() == entry.getHealthStatus()
+                    && Objects.equals(previous.getDeviceName(), entry.getDeviceName())) {
+                return false;
+            }
+            Map<String, DeviceHealthResponse> next = new LinkedHashMap<>(current.byKey);
+            next.put(deviceKey, entry);
+            if (snapshot.compareAndSet(current, new Snapshot(current.version + 1, next))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param deviceKey stable key of the device.
+     * @return last published health, null if the device never published.
+     */
+    public DeviceHealthResponse get(String deviceKey) {
+        return snapshot.get().byKey.get(deviceKey);
+    }
+
+    /**
+     * @return last published health of every device, in the order devices first published.
+     */
+    public List<DeviceHealthResponse> getAll() {
+        return snapshot.get().all;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public static class Snapshot {
+        private final long version;
+        private final Map<String, DeviceHealthResponse> byKey;
+        private final List<DeviceHealthResponse> all;
+
+        Snapshot(long version, Map<String, DeviceHealthResponse> byKey) {
+            this.version = version;
+            this.byKey = Collections.unmodifiableMap(byKey);
+            this.all = Collections.unmodifiableList(new ArrayList<>(byKey.values()));
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Map<String, DeviceHealthResponse> getDevices() {
+            return byKey;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.target.devicemanager.common;
+
+import jpos.BaseJposControl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gives one thread at a time the JPOS control of a device, in place of synchronized (device).
+ * Device code holds it around blocking driver calls like printNormal or readWeight. A virtual thread waiting in
+ * a synchronized block keeps its carrier thread, a virtual thread waiting on a ReentrantLock lets it go,
+ * so with virtual threads enabled a slow device cannot use up the carrier threads.
+ * Usage:
+ *     DeviceLock deviceLock = DeviceLock.of(device);
+ *     deviceLock.lock();
+ *     try { ... } finally { deviceLock.unlock(); }
+ */
+public class DeviceLock {
+
+    private static final Map<BaseJposControl, DeviceLock> locks = Collections.synchronizedMap(new WeakHashMap<>());
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param device JPOS control.
+     * @return lock of the control, created on first use.
+     */
+    public static DeviceLock of(BaseJposControl device) {
+        synchronized (locks) {
+            return locks.computeIfAbsent(device, control -> new DeviceLock());
+        }
+    }
+
+    public void lock() {
+        lock.lock();
+    }
+
+    /**
+     * @return true if the lock was free or already held by this thread, false without waiting otherwise.
+     */
+    public boolean tryLock() {
+        return lock.tryLock();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    public boolean isLocked() {
+        return lock.isLocked();
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return lock.isHeldByCurrentThread();
+    }
+}
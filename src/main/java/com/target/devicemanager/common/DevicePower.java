@@ -3,52 +3,113 @@ package com.target.devicemanager.common;
 import jpos.BaseJposControl;
 import jpos.JposConst;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public class DevicePower {
 
+    private static final ClassValue<PowerMethods> powerMethods = new ClassValue<>() {
+        @Override
+        protected PowerMethods computeValue(Class<?> deviceClass) {
+            return new PowerMethods(deviceClass);
+        }
+    };
+    //CapPowerReporting does not change while a device is open, so it is only read again on reconnect
+    private final Map<BaseJposControl, Integer> capPowerReporting = Collections.synchronizedMap(new WeakHashMap<>());
+
     public DevicePower(){
     }
 
     //Some implementations that need to use reflection because the BaseJposControl should
     //have included these for all devices but didn't
     public void enablePowerNotification(BaseJposControl device) {
+        PowerMethods methods = powerMethods.get(device.getClass());
+        capPowerReporting.remove(device);
+        if (methods.getPowerNotify == null || methods.setPowerNotify == null) {
+            return;
+        }
         try {
-            Method getPowerNotifyInstanceMethod = device.getClass().getMethod("getPowerNotify");
-            Method getCapPowerNotifyInstanceMethod = device.getClass().getMethod("getCapPowerReporting");
-            Method setPowerNotifyInstanceMethod = device.getClass().getMethod("setPowerNotify", int.class);
-
-            int powerReportingCapability = (int) getCapPowerNotifyInstanceMethod.invoke(device);
+            int powerReportingCapability = getCapPowerReporting(device, methods);
             if (powerReportingCapability == JposConst.JPOS_PR_NONE) {
                 return;
             }
 
-            int powerNotify = (int) getPowerNotifyInstanceMethod.invoke(device);
+            int powerNotify = (int) methods.getPowerNotify.invokeExact(device);
             boolean isPowerNotifyEnabled = (powerNotify == JposConst.JPOS_PN_ENABLED);
             if (!isPowerNotifyEnabled) {
-                setPowerNotifyInstanceMethod.invoke(device, JposConst.JPOS_PN_ENABLED);
+                methods.setPowerNotify.invokeExact(device, JposConst.JPOS_PN_ENABLED);
             }
 
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException exception) {
+        } catch (Throwable throwable) {
             //Nothing to do. We can't enable power notification
         }
     }
 
     public int getPowerState(BaseJposControl device) {
+        PowerMethods methods = powerMethods.get(device.getClass());
+        if (methods.getPowerState == null) {
+            return JposConst.JPOS_PS_UNKNOWN;
+        }
         try {
-            Method getPowerStateInstanceMethod = device.getClass().getMethod("getPowerState");
-            Method getCapPowerNotifyInstanceMethod = device.getClass().getMethod("getCapPowerReporting");
-
-            int powerReportingCapability = (int) getCapPowerNotifyInstanceMethod.invoke(device);
+            int powerReportingCapability = getCapPowerReporting(device, methods);
             if (powerReportingCapability == JposConst.JPOS_PR_NONE) {
                 return JposConst.JPOS_PS_UNKNOWN;
             }
 
-            return (int) getPowerStateInstanceMethod.invoke(device);
+            return (int) methods.getPowerState.invokeExact(device);
 
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException exception) {
+        } catch (Throwable throwable) {
             return JposConst.JPOS_PS_UNKNOWN;
         }
     }
+
+    private int getCapPowerReporting(BaseJposControl device, PowerMethods methods) throws Throwable {
+        Integer cached = capPowerReporting.get(device);
+        if (cached != null) {
+            return cached;
+        }
+        if (methods.getCapPowerReporting == null) {
+            return JposConst.JPOS_PR_NONE;
+        }
+        int powerReportingCapability = (int) methods.getCapPowerReporting.invokeExact(device);
+        capPowerReporting.put(device, powerReportingCapability);
+        return powerReportingCapability;
+    }
+
+    /**
+     * Power methods of one control class, looked up once. A method the class does not have is null.
+     */
+    private static class PowerMethods {
+        private final MethodHandle getCapPowerReporting;
+        private final MethodHandle getPowerState;
+        private final MethodHandle getPowerNotify;
+        private final MethodHandle setPowerNotify;
+
+        PowerMethods(Class<?> deviceClass) {
+            MethodType getter = MethodType.methodType(int.class, BaseJposControl.class);
+            getCapPowerReporting = find(deviceClass, "getCapPowerReporting", MethodType.methodType(int.class), getter);
+            getPowerState = find(deviceClass, "getPowerState", MethodType.methodType(int.class), getter);
+            getPowerNotify = find(deviceClass, "getPowerNotify", MethodType.methodType(int.class), getter);
+            setPowerNotify = find(deviceClass, "setPowerNotify", MethodType.methodType(void.class, int.class),
+                    MethodType.methodType(void.class, BaseJposControl.class, int.class));
+        }
+
+        private static MethodHandle find(Class<?> deviceClass, String name, MethodType methodType, MethodType callType) {
+            //A class that is not public is looked up through its public superclass, the call still dispatches to it
+            for (Class<?> lookupClass = deviceClass; lookupClass != null; lookupClass = lookupClass.getSuperclass()) {
+                try {
+                    return MethodHandles.publicLookup().findVirtual(lookupClass, name, methodType).asType(callType);
+                } catch (IllegalAccessException illegalAccessException) {
+                    //try the superclass
+                } catch (NoSuchMethodException noSuchMethodException) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
 }
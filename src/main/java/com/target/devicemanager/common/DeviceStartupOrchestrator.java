@@ -0,0 +1,172 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceStartupResult;
+import com.target.devicemanager.common.entities.DeviceStartupStatus;
+import com.target.devicemanager.common.entities.StartupReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connects every registered device once at startup instead of waiting for the first scheduled reconnect.
+ * At most parallelism devices connect at the same time. A device that has not connected within its timeout is
+ * reported as TIMED_OUT and the reconnect schedule takes over from there; its connect keeps its slot until it
+ * returns, so a stuck driver never adds to the connects running at once. Startup is complete when every device
+ * has connected, failed or timed out.
+ */
+public class DeviceStartupOrchestrator {
+
+    private static final DeviceStartupOrchestrator deviceStartupOrchestrator = new DeviceStartupOrchestrator();
+    private final ReconnectScheduler reconnectScheduler;
+    private final ConnectTimings connectTimings;
+    private final AtomicBoolean isStarted = new AtomicBoolean();
+    private final Map<String, DeviceStartupResult> results = new LinkedHashMap<>();
+    private volatile boolean isComplete = false;
+    private volatile long startupMsec;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceStartupOrchestrator.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceStartupOrchestrator", LOGGER);
+
+    public DeviceStartupOrchestrator() {
+        this(ReconnectScheduler.getReconnectScheduler(), ConnectTimings.getConnectTimings());
+    }
+
+    public DeviceStartupOrchestrator(ReconnectScheduler reconnectScheduler, ConnectTimings connectTimings) {
+        if (reconnectScheduler == null) {
+            throw new IllegalArgumentException("reconnectScheduler cannot be null");
+        }
+        if (connectTimings == null) {
+            throw new IllegalArgumentException("connectTimings cannot be null");
+        }
+        this.reconnectScheduler = reconnectScheduler;
+        this.connectTimings = connectTimings;
+    }
+
+    public static DeviceStartupOrchestrator getDeviceStartupOrchestrator() {
+        return deviceStartupOrchestrator;
+    }
+
+    /**
+     * Connects every device registered with the reconnect scheduler and returns once all of them are done.
+     * Only the first call does anything.
+     * @param parallelism devices connecting at the same time, at least 1.
+     * @param deviceTimeoutMsec time one device may take to connect.
+     */
+    public void connectAll(int parallelism, long deviceTimeoutMsec) {
+        if (!isStarted.compareAndSet(false, true)) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        List<String> deviceKeys = reconnectScheduler.getDeviceKeys();
+        log.success("Connecting " + deviceKeys.size() + " devices, " + parallelism + " at a time", 5);
+
+        Semaphore slots = new Semaphore(Math.max(1, parallelism));
+        ExecutorService connectExecutor = newExecutor("device-startup-");
+        ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "device-startup-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<CompletableFuture<DeviceStartupStatus>> connects = new ArrayList<>();
+        try {
+            for (String deviceKey : deviceKeys) {
+                DeviceStartupResult result = new DeviceStartupResult();
+                result.deviceKey = deviceKey;
+                result.status = DeviceStartupStatus.CONNECTING;
+                synchronized (results) {
+                    results.put(deviceKey, result);
+                }
+            }
+            for (String deviceKey : deviceKeys) {
+                slots.acquire();
+                long deviceStartTime = System.nanoTime();
+                CompletableFuture<DeviceStartupStatus> connect = new CompletableFuture<>();
+                connect.whenComplete((status, throwable) -> finish(deviceKey, status, deviceStartTime));
+                timeoutExecutor.schedule(() -> connect.complete(DeviceStartupStatus.TIMED_OUT), deviceTimeoutMsec, TimeUnit.MILLISECONDS);
+                connectExecutor.execute(() -> {
+                    try {
+                        connect.complete(reconnectScheduler.connectNow(deviceKey) ? DeviceStartupStatus.CONNECTED : DeviceStartupStatus.NOT_CONNECTED);
+                    } catch (RuntimeException runtimeException) {
+                        log.failure(deviceKey + " failed to connect at startup", 17, runtimeException);
+                        connect.complete(DeviceStartupStatus.FAILED);
+                    } finally {
+                        slots.release();
+                    }
+                });
+                connects.add(connect);
+            }
+            CompletableFuture.allOf(connects.toArray(new CompletableFuture[0])).join();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        } finally {
+            //A connect that timed out is left to finish on its own
+            connectExecutor.shutdown();
+            timeoutExecutor.shutdownNow();
+            startupMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            isComplete = true;
+        }
+        log.success("Startup connect finished in " + startupMsec + "ms", 5);
+    }
+
+    /**
+     * @return true once every device has connected, failed or timed out.
+     */
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    /**
+     * @return result of each device so far and the open, claim and enable times of its last connect.
+     */
+    public StartupReport getReport() {
+        StartupReport report = new StartupReport();
+        report.isComplete = isComplete;
+        report.startupMsec = startupMsec;
+        report.devices = new ArrayList<>();
+        synchronized (results) {
+            for (DeviceStartupResult result : results.values()) {
+                DeviceStartupResult copy = new DeviceStartupResult();
+                copy.deviceKey = result.deviceKey;
+                copy.status = result.status;
+                copy.totalMsec = result.totalMsec;
+                report.devices.add(copy);
+            }
+        }
+        report.phases = connectTimings.getAll();
+        return report;
+    }
+
+    private void finish(String deviceKey, DeviceStartupStatus status, long deviceStartTime) {
+        long totalMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deviceStartTime);
+        synchronized (results) {
+            DeviceStartupResult result = results.get(deviceKey);
+            result.status = status;
+            result.totalMsec = totalMsec;
+        }
+        if (status == DeviceStartupStatus.CONNECTED) {
+            log.success(deviceKey + " connected at startup in " + totalMsec + "ms", 5);
+        } else {
+            log.failure(deviceKey + " " + status + " at startup after " + totalMsec + "ms", 5, null);
+        }
+    }
+
+    private static ExecutorService newExecutor(String threadPrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
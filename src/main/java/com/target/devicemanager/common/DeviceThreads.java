@@ -0,0 +1,86 @@
+package com.target.devicemanager.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes the threads of executors that spend most of their time waiting on devices, like reconnect attempts and
+ * scanner reads.
+ * With spring.threads.virtual.enabled=true, the switch Spring Boot uses to run Tomcat on virtual threads, these
+ * are virtual threads too. POSSUM is built for Java 17, so virtual threads are looked up at runtime and used only
+ * on Java 21 or later; otherwise, and by default, they are daemon platform threads.
+ */
+public class DeviceThreads {
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+    private static final boolean isVirtualThreadSupported = newVirtualThreadFactory("virtual-thread-check-") != null;
+    private static volatile boolean isVirtualThreadsRequested;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceThreads.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceThreads", LOGGER);
+
+    private DeviceThreads() {
+    }
+
+    /**
+     * @param isRequested value of spring.threads.virtual.enabled.
+     */
+    public static void setVirtualThreadsEnabled(boolean isRequested) {
+        isVirtualThreadsRequested = isRequested;
+        if (isRequested && !isVirtualThreadSupported()) {
+            log.failure("Virtual threads need Java 21 or later, device executors use platform threads", 5, null);
+        }
+    }
+
+    /**
+     * @return value of spring.threads.virtual.enabled, whether or not this Java version has virtual threads.
+     */
+    public static boolean isVirtualThreadsRequested() {
+        return isVirtualThreadsRequested;
+    }
+
+    public static boolean isVirtualThreadsEnabled() {
+        return isVirtualThreadsRequested && isVirtualThreadSupported();
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return isVirtualThreadSupported;
+    }
+
+    /**
+     * @param namePrefix thread name, followed by a count.
+     * @return virtual threads if enabled, daemon platform threads otherwise.
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        if (isVirtualThreadsRequested) {
+            ThreadFactory virtualThreadFactory = newVirtualThreadFactory(namePrefix);
+            if (virtualThreadFactory != null) {
+                return virtualThreadFactory;
+            }
+        }
+        return newPlatformThreadFactory(namePrefix);
+    }
+
+    static ThreadFactory newPlatformThreadFactory(String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    //Thread.ofVirtual().name(namePrefix, 1).factory() without compiling against Java 21
+    static ThreadFactory newVirtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            return null;
+        }
+    }
+}
@@ -1,15 +1,58 @@
 package com.target.devicemanager.common;
 
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceErrorStatusResponse;
+import com.target.devicemanager.common.entities.DeviceHealth;
+import com.target.devicemanager.common.entities.DeviceHealthResponse;
 import jpos.BaseJposControl;
 import jpos.JposConst;
 import jpos.JposException;
+import jpos.events.ErrorEvent;
+import jpos.events.ErrorListener;
+import jpos.events.StatusUpdateEvent;
+import jpos.events.StatusUpdateListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JPOS control that connects itself to the first working logical name.
+ * Whether the device is connected is kept in an immutable ConnectionState, so isConnected() is a volatile read
+ * and never waits for the device lock held by a long print or scan. The state is checked against the driver
+ * on every connect(), which the reconnect schedule calls regularly, and updated from power status and error
+ * events in between. Setting -Dpossum.device.verifyIntervalMsec also checks it on a timer. A device in use, like
+ * during a print, a stable weight read or a check read, is not checked and keeps its last known state, so the
+ * few reconnect threads never wait behind a busy device.
+ * A device whose DeviceCallGuard is quarantined is not connected and is not touched until the stuck call returns.
+ * Connects, error events and the I/O of the device classes feed its DeviceCircuitBreaker. While the circuit is open
+ * the device is not connected, connect() does not touch the driver and the device is reported NOTREADY in the
+ * health registry and faulted on the device error stream under its confirmout name. A connect that finds no device
+ * does not count as a failure, and a retryNow() for the device, on power online or hotplug, lets the next connect
+ * through right away.
+ * Given a health key, every connect, disconnect and power or error event publishes the device's health, so the
+ * registry follows the device between connect polls.
+ */
 public class DynamicDevice<DEVICE extends BaseJposControl> {
+    static final String VERIFY_INTERVAL_PROPERTY = "possum.device.verifyIntervalMsec";
+    private static ScheduledExecutorService verifyExecutor;
     private final DEVICE device;
     private final DeviceConnector<DEVICE> deviceConnector;
     private final DevicePower devicePower;
+    private final DeviceCallGuard callGuard;
+    private final DeviceCircuitBreaker circuitBreaker;
+    private final String healthKey;
+    private final String errorKey;
+    private final DeviceErrorEventBus deviceErrorEventBus;
+    private final DeviceStateListener deviceStateListener = new DeviceStateListener();
+    private volatile ConnectionState connectionState = ConnectionState.DISCONNECTED;
+    private boolean isStateListenerAttached = false;
     private int connectCount = 0;
     private static final Logger LOGGER = LoggerFactory.getLogger(DynamicDevice.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DynamicDevice", LOGGER);
@@ -22,6 +65,23 @@ public class DynamicDevice<DEVICE extends BaseJposControl> {
     }
 
     public DynamicDevice(DEVICE device, DevicePower devicePower, DeviceConnector<DEVICE> deviceConnector) {
+        this(device, devicePower, deviceConnector, null);
+    }
+
+    public DynamicDevice(DEVICE device, DevicePower devicePower, DeviceConnector<DEVICE> deviceConnector, String healthKey) {
+        this(device, devicePower, deviceConnector, healthKey, null);
+    }
+
+    /**
+     * @param healthKey key the device's manager publishes its health under, null to leave publishing to the manager.
+     * @param errorKey name of the device in confirmout, which the device error stream is keyed by.
+     */
+    public DynamicDevice(DEVICE device, DevicePower devicePower, DeviceConnector<DEVICE> deviceConnector, String healthKey, String errorKey) {
+        this(device, devicePower, deviceConnector, healthKey, errorKey, DeviceErrorStatusResponse.getDeviceErrorEventBus());
+    }
+
+    public DynamicDevice(DEVICE device, DevicePower devicePower, DeviceConnector<DEVICE> deviceConnector, String healthKey, String errorKey,
+                         DeviceErrorEventBus deviceErrorEventBus) {
         if (device == null) {
             throw new IllegalArgumentException("device cannot be null");
         }
@@ -31,71 +91,188 @@ public class DynamicDevice<DEVICE extends BaseJposControl> {
         if (deviceConnector == null) {
             throw new IllegalArgumentException("deviceConnector cannot be null");
         }
+        if (deviceErrorEventBus == null) {
+            throw new IllegalArgumentException("deviceErrorEventBus cannot be null");
+        }
 
         this.device = device;
         this.devicePower = devicePower;
         this.deviceConnector = deviceConnector;
+        this.healthKey = healthKey;
+        this.errorKey = errorKey;
+        this.deviceErrorEventBus = deviceErrorEventBus;
+        this.callGuard = DeviceCallGuard.of(device);
+        this.circuitBreaker = DeviceCircuitBreaker.of(device);
+        circuitBreaker.addStateListener(new CircuitStatePublisher(this));
+        ReconnectScheduler.getReconnectScheduler().addRetryListener(healthKey, circuitBreaker::allowProbe);
+
+        long verifyIntervalMsec = Long.getLong(VERIFY_INTERVAL_PROPERTY, 0);
+        if (verifyIntervalMsec > 0) {
+            getVerifyExecutor().scheduleWithFixedDelay(this::verifyConnection, verifyIntervalMsec, verifyIntervalMsec, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getVerifyExecutor() {
+        if (verifyExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            verifyExecutor = Executors.newScheduledThreadPool(2, runnable -> {
+                Thread thread = new Thread(runnable, "device-state-verifier-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return verifyExecutor;
     }
 
     public ConnectionResult connect() {
+        ConnectionResult connectionResult = connectDevice();
+        publishHealth();
+        return connectionResult;
+    }
+
+    private ConnectionResult connectDevice() {
         connectCount++;
-        synchronized (device) {
-            if (isConnected()) {
+        if (callGuard.isQuarantined()) {
+            log.failure(getDeviceName() + " is quarantined, not connecting: " + connectCount, 1, null);
+            return ConnectionResult.NOT_CONNECTED;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            log.failure(getDeviceName() + " circuit is open, not connecting: " + connectCount, 1, null);
+            return ConnectionResult.NOT_CONNECTED;
+        }
+        DeviceLock deviceLock = DeviceLock.of(device);
+        if (!deviceLock.tryLock()) {
+            circuitBreaker.cancelProbe();
+            log.success(getDeviceName() + " is in use, keeping its last known state: " + connectCount, 1);
+            return connectionState.isConnected() ? ConnectionResult.ALREADY_CONNECTED : ConnectionResult.NOT_CONNECTED;
+        }
+        try {
+            if (verifyConnection()) {
+                circuitBreaker.recordSuccess();
                 connectCount = 0;
                 return ConnectionResult.ALREADY_CONNECTED;
             }
             boolean deviceFound = deviceConnector.discoverConnectedDevice();
             if (!deviceFound) {
+                //A missing device is not a failing one, the reconnect schedule backs off instead
+                circuitBreaker.cancelProbe();
                 log.failure(getDeviceName() + " Connect Failed: " + connectCount, 1 , null);
                 return ConnectionResult.NOT_CONNECTED;
             }
 
             devicePower.enablePowerNotification(device);
+            attachStateListener();
+            verifyConnection();
+        } finally {
+            deviceLock.unlock();
         }
+        circuitBreaker.recordSuccess();
         log.success(getDeviceName() + " Connect Succeeded: " + connectCount, 9);
         connectCount = 0;
         return ConnectionResult.CONNECTED;
     }
 
     public void disconnect() {
-        synchronized (device) {
+        DeviceLock deviceLock = DeviceLock.of(device);
+        deviceLock.lock();
+        try {
+            connectionState = ConnectionState.DISCONNECTED;
             if (!deviceConnector.isSkipClaim()) {
                 try {
-                    device.release();
+                    callGuard.run("release", DeviceCallGuard.ENABLE_DEADLINE_MSEC, device::release);
                     log.success(getDeviceName() + " Released", 5);
                 } catch (JposException jposException) {
                     log.failure(getDeviceName() + " Release failed " + jposException.getMessage(), 5, jposException);
                 }
             }
             try {
-                device.close();
+                callGuard.run("close", DeviceCallGuard.ENABLE_DEADLINE_MSEC, device::close);
                 log.success(getDeviceName() + " Closed", 5);
             } catch (JposException jposException) {
                 log.failure(getDeviceName() + " Close failed : " + jposException.getMessage(), 17, jposException);
             }
+        } finally {
+            deviceLock.unlock();
         }
+        publishHealth();
     }
 
+    /**
+     * @return last known connection state. Does not call into the driver.
+     */
     public boolean isConnected() {
-        synchronized (device) {
-            int deviceState = device.getState();
-            if (deviceState != JposConst.JPOS_S_IDLE && deviceState != JposConst.JPOS_S_BUSY) {
-                return false;
-            }
-            try {
+        return connectionState.isConnected() && !callGuard.isQuarantined() && circuitBreaker.getState() != DeviceCircuitBreaker.State.OPEN;
+    }
+
+    public ConnectionState getConnectionState() {
+        return connectionState;
+    }
+
+    /**
+     * Reads the state, claim and power state from the driver and updates the connection state with them.
+     * A device whose lock another thread holds is in use, so its last known state is kept instead.
+     * @return true if the device is connected.
+     */
+    public boolean verifyConnection() {
+        if (callGuard.isQuarantined()) {
+            return false;
+        }
+        DeviceLock deviceLock = DeviceLock.of(device);
+        if (!deviceLock.tryLock()) {
+            return connectionState.isConnected();
+        }
+        try {
+            ConnectionState verified = readConnectionState();
+            connectionState = verified;
+            return verified.isConnected();
+        } finally {
+            deviceLock.unlock();
+        }
+    }
+
+    //Through the call guard, so a driver that hangs here is quarantined instead of holding the device lock
+    private ConnectionState readConnectionState() {
+        try {
+            return callGuard.call("verifyConnection", DeviceCallGuard.ENABLE_DEADLINE_MSEC, () -> {
+                int deviceState = device.getState();
+                if (deviceState != JposConst.JPOS_S_IDLE && deviceState != JposConst.JPOS_S_BUSY) {
+                    return ConnectionState.DISCONNECTED;
+                }
                 // For claimless devices (e.g., Keylock), skip the claimed check
                 if (!deviceConnector.isSkipClaim() && !device.getClaimed()) {
-                    return false;
-                }
-                int powerState = devicePower.getPowerState(device);
-                if (powerState != JposConst.JPOS_PS_ONLINE && powerState != JposConst.JPOS_PS_UNKNOWN) {
-                    return false;
+                    return ConnectionState.DISCONNECTED;
                 }
-            } catch (JposException jposException) {
-                return false;
-            }
+                return new ConnectionState(true, devicePower.getPowerState(device));
+            });
+        } catch (JposException jposException) {
+            return ConnectionState.DISCONNECTED;
         }
-        return true;
+    }
+
+    //Controls only declare the listener methods on their own classes, not on BaseJposControl
+    private void attachStateListener() {
+        if (isStateListenerAttached) {
+            return;
+        }
+        isStateListenerAttached = true;
+        addListener("addStatusUpdateListener", StatusUpdateListener.class);
+        addListener("addErrorListener", ErrorListener.class);
+    }
+
+    private void addListener(String methodName, Class<?> listenerType) {
+        try {
+            device.getClass().getMethod(methodName, listenerType).invoke(device, deviceStateListener);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException exception) {
+            log.failure(getDeviceName() + " does not report " + listenerType.getSimpleName() + " events", 5, null);
+        }
+    }
+
+    private void publishHealth() {
+        if (healthKey == null) {
+            return;
+        }
+        DeviceHealth deviceHealth = isConnected() ? DeviceHealth.READY : DeviceHealth.NOTREADY;
+        DeviceHealthRegistry.getDeviceHealthRegistry().publish(healthKey, new DeviceHealthResponse(getDeviceName(), deviceHealth));
     }
 
     public DEVICE getDevice() {
@@ -105,4 +282,115 @@ public class DynamicDevice<DEVICE extends BaseJposControl> {
     public String getDeviceName() {
         return deviceConnector.getConnectedDeviceName();
     }
+
+    /**
+     * Whether a device is open and claimed and the power state it last reported. Never changes once created.
+     */
+    public static class ConnectionState {
+        static final ConnectionState DISCONNECTED = new ConnectionState(false, JposConst.JPOS_PS_UNKNOWN);
+        private final boolean isClaimed;
+        private final int powerState;
+
+        ConnectionState(boolean isClaimed, int powerState) {
+            this.isClaimed = isClaimed;
+            this.powerState = powerState;
+        }
+
+        public boolean isConnected() {
+            return isClaimed && (powerState == JposConst.JPOS_PS_ONLINE || powerState == JposConst.JPOS_PS_UNKNOWN);
+        }
+
+        public int getPowerState() {
+            return powerState;
+        }
+
+        ConnectionState withPowerState(int powerState) {
+            if (!isClaimed || powerState == this.powerState) {
+                return this;
+            }
+            return new ConnectionState(true, powerState);
+        }
+    }
+
+    private class DeviceStateListener implements StatusUpdateListener, ErrorListener {
+        @Override
+        public void statusUpdateOccurred(StatusUpdateEvent statusUpdateEvent) {
+            switch (statusUpdateEvent.getStatus()) {
+                case JposConst.JPOS_SUE_POWER_ONLINE:
+                    connectionState = connectionState.withPowerState(JposConst.JPOS_PS_ONLINE);
+                    break;
+                case JposConst.JPOS_SUE_POWER_OFF:
+                    connectionState = connectionState.withPowerState(JposConst.JPOS_PS_OFF);
+                    break;
+                case JposConst.JPOS_SUE_POWER_OFFLINE:
+                    connectionState = connectionState.withPowerState(JposConst.JPOS_PS_OFFLINE);
+                    break;
+                case JposConst.JPOS_SUE_POWER_OFF_OFFLINE:
+                    connectionState = connectionState.withPowerState(JposConst.JPOS_PS_OFF_OFFLINE);
+                    break;
+                default:
+                    return;
+            }
+            publishHealth();
+        }
+
+        @Override
+        public void errorOccurred(ErrorEvent errorEvent) {
+            //DeviceListener closes the service on these errors, so the device has to be connected again
+            int errorCode = errorEvent.getErrorCode();
+            if (errorCode == JposConst.JPOS_E_OFFLINE || errorCode == JposConst.JPOS_E_NOHARDWARE) {
+                connectionState = ConnectionState.DISCONNECTED;
+                circuitBreaker.recordFailure(errorCode);
+                publishHealth();
+            }
+        }
+    }
+
+    /**
+     * Publishes the circuit state of a device. Holds the device weakly so the breaker, which is kept per
+     * control in a weak map, does not keep its own control alive.
+     */
+    private static class CircuitStatePublisher implements DeviceCircuitBreaker.StateListener {
+        private final WeakReference<DynamicDevice<?>> dynamicDevice;
+
+        CircuitStatePublisher(DynamicDevice<?> dynamicDevice) {
+            this.dynamicDevice = new WeakReference<>(dynamicDevice);
+        }
+
+        @Override
+        public void stateChanged(DeviceCircuitBreaker.State state) {
+            DynamicDevice<?> device = dynamicDevice.get();
+            if (device == null || state == DeviceCircuitBreaker.State.HALF_OPEN) {
+                return;
+            }
+            boolean isOpen = state == DeviceCircuitBreaker.State.OPEN;
+            if (device.healthKey != null) {
+                device.publishHealth();
+            } else {
+                publishHealthByName(device, isOpen);
+            }
+            if (device.errorKey == null) {
+                return;
+            }
+            if (isOpen) {
+                device.deviceErrorEventBus.setError(device.errorKey, DeviceError.CIRCUIT_OPEN);
+            } else {
+                device.deviceErrorEventBus.clearError(device.errorKey);
+            }
+        }
+
+        //Without a health key the entries are keyed by the manager, so the ones of this device are found by name
+        private static void publishHealthByName(DynamicDevice<?> device, boolean isOpen) {
+            String deviceName = device.getDeviceName();
+            if (deviceName == null || deviceName.isEmpty()) {
+                return;
+            }
+            DeviceHealthRegistry healthRegistry = DeviceHealthRegistry.getDeviceHealthRegistry();
+            for (Map.Entry<String, DeviceHealthResponse> entry : healthRegistry.getSnapshot().getDevices().entrySet()) {
+                if (deviceName.equals(entry.getValue().getDeviceName()) && (isOpen || device.isConnected())) {
+                    healthRegistry.publish(entry.getKey(), new DeviceHealthResponse(deviceName, isOpen ? DeviceHealth.NOTREADY : DeviceHealth.READY));
+                }
+            }
+        }
+    }
 }
@@ -11,8 +11,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -21,6 +35,16 @@ import java.util.stream.Collectors;
  * This scans the JPOS EntryRegistry (populated from devcon.xml) to enumerate
  * all configured devices and optionally tests each one by attempting an
  * open/claim/enable/disable/release/close cycle.
+ *
+ * Devices are tested MAX_PARALLEL_TESTS at a time. A test that has not finished
+ * after TEST_DEADLINE_MS is reported as timed out, whatever the driver does, and
+ * its device is disabled, released and closed so the claim does not outlive the
+ * test. Tests run on at most MAX_TEST_THREADS threads shared by every discovery;
+ * while that many tests are stuck in drivers, further tests are reported as not
+ * started.
+ * Results are cached per entry together with a hash of the entry and the USB
+ * devices present, so a retest only opens entries that changed. Any change in
+ * USB devices retests everything.
  */
 @Service
 public class JavaPOSDeviceDiscoveryService {
@@ -28,27 +52,50 @@ public class JavaPOSDeviceDiscoveryService {
     private static final Logger LOGGER = LoggerFactory.getLogger(JavaPOSDeviceDiscoveryService.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceDiscovery", LOGGER);
     private static final int CLAIM_TIMEOUT_MS = 5000;
-    private static final int RETRY_REGISTRY_LOAD = 5;
+    private static final String TIMED_OUT_MESSAGE = "Test timed out after ";
+    static final int MAX_PARALLEL_TESTS = 4;
+    static final long TEST_DEADLINE_MS = 15000;
+    static final int MAX_TEST_THREADS = MAX_PARALLEL_TESTS * 2;
+
+    private final Supplier<JposEntryRegistry> registrySource;
+    private final Function<String, BaseJposControl> controlFactory;
+    private final Supplier<String> usbTopologySource;
+    private final long testDeadlineMs;
+    private final Map<String, CachedTestResult> testResultCache = new ConcurrentHashMap<>();
+    private final ExecutorService testExecutor = newTestExecutor();
+
+    public JavaPOSDeviceDiscoveryService() {
+        this(() -> JposServiceLoader.getManager().getEntryRegistry(), null,
+                () -> usbTopologyOf(UsbHotplugMonitor.readUsbDevices(UsbHotplugMonitor.USB_DEVICES_DIRECTORY)), TEST_DEADLINE_MS);
+    }
+
+    /**
+     * @param registrySource    JPOS entry registry (from devcon.xml)
+     * @param controlFactory    Creates the control to test a device category with, null for the JPOS controls
+     * @param usbTopologySource Describes the USB devices present; a change invalidates every cached result
+     * @param testDeadlineMs    Time one device test may take
+     */
+    public JavaPOSDeviceDiscoveryService(Supplier<JposEntryRegistry> registrySource,
+                                         Function<String, BaseJposControl> controlFactory,
+                                         Supplier<String> usbTopologySource, long testDeadlineMs) {
+        if (registrySource == null) {
+            throw new IllegalArgumentException("registrySource cannot be null");
+        }
+        if (usbTopologySource == null) {
+            throw new IllegalArgumentException("usbTopologySource cannot be null");
+        }
+        this.registrySource = registrySource;
+        this.controlFactory = controlFactory != null ? controlFactory : this::createControlForCategory;
+        this.usbTopologySource = usbTopologySource;
+        this.testDeadlineMs = testDeadlineMs;
+    }
 
     /**
      * Scans the JPOS EntryRegistry for all configured device entries.
      * This is a fast, read-only operation -- no hardware interaction.
      */
     public List<DeviceInfo> scanConfiguredDevices() {
-        JposEntryRegistry registry = JposServiceLoader.getManager().getEntryRegistry();
-
-        // Retry loading if registry is empty (same pattern as DeviceConnector)
-        for (int i = 0; i < RETRY_REGISTRY_LOAD && registry.getSize() == 0; i++) {
-            registry.load();
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-
-        ArrayList<SimpleEntry> entries = Collections.list(
-                (Enumeration<SimpleEntry>) registry.getEntries());
+        List<SimpleEntry> entries = JposRegistryIndex.of(registrySource.get()).getEntries();
 
         List<DeviceInfo> devices = entries.stream()
                 .map(this::entryToDeviceInfo)
@@ -58,14 +105,28 @@ public class JavaPOSDeviceDiscoveryService {
         return devices;
     }
 
+    /**
+     * @return deviceCategory of the devcon.xml entry with the logical name, null if there is none.
+     */
+    public String getCategory(String logicalName) {
+        SimpleEntry entry = JposRegistryIndex.of(registrySource.get()).getEntry(logicalName);
+        return entry == null ? null : safeGetProperty(entry, "deviceCategory");
+    }
+
     /**
      * Tests a single device by logical name and category.
      * Attempts open/claim/enable/disable/release/close to verify connectivity.
      */
     public DeviceTestResult testDevice(String logicalName, String category) {
-        long startTime = System.currentTimeMillis();
-        BaseJposControl control = createControlForCategory(category);
+        return testDevice(logicalName, category, controlFactory.apply(category), new AtomicBoolean());
+    }
 
+    /**
+     * @param isTimedOut set when the test missed its deadline. JavaPOS controls are not thread safe, so the test
+     * checks it after each call and closes the control itself once the stuck call has returned.
+     */
+    private DeviceTestResult testDevice(String logicalName, String category, BaseJposControl control, AtomicBoolean isTimedOut) {
+        long startTime = System.currentTimeMillis();
         if (control == null) {
             return new DeviceTestResult(logicalName, category, false,
                     "Unsupported device category: " + category,
@@ -74,10 +135,19 @@ public class JavaPOSDeviceDiscoveryService {
 
         try {
             control.open(logicalName);
+            if (isTimedOut.get()) {
+                return closeTimedOut(logicalName, category, control, startTime);
+            }
             try {
                 control.claim(CLAIM_TIMEOUT_MS);
+                if (isTimedOut.get()) {
+                    return closeTimedOut(logicalName, category, control, startTime);
+                }
                 try {
                     control.setDeviceEnabled(true);
+                    if (isTimedOut.get()) {
+                        return closeTimedOut(logicalName, category, control, startTime);
+                    }
                     String serviceDesc = "";
                     try {
                         serviceDesc = control.getDeviceServiceDescription();
@@ -116,23 +186,117 @@ public class JavaPOSDeviceDiscoveryService {
     /**
      * Discovers all configured devices and tests each one.
      * Returns a complete discovery response with scan + test results.
+     * Devices whose entry and USB devices have not changed since their last test are not opened again.
      */
     public DeviceDiscoveryResponse testAllDevices() {
+        return testAllDevices(false);
+    }
+
+    /**
+     * @param forceRetest true to test every device, even the ones with a cached result.
+     */
+    public synchronized DeviceDiscoveryResponse testAllDevices(boolean forceRetest) {
         List<DeviceInfo> devices = scanConfiguredDevices();
-        List<DeviceTestResult> results = new ArrayList<>();
+        String usbTopology = usbTopologySource.get();
+        if (forceRetest) {
+            testResultCache.clear();
+        }
+
+        // Results in the same order as devices
+        List<CompletableFuture<DeviceTestResult>> tests = new ArrayList<>();
+        List<String> testKeys = new ArrayList<>();
+        Semaphore slots = new Semaphore(MAX_PARALLEL_TESTS);
+        int cachedCount = 0;
+        try {
+            for (DeviceInfo device : devices) {
+                String testKey = testKeyOf(device, usbTopology);
+                testKeys.add(testKey);
+                CachedTestResult cached = testResultCache.get(device.getLogicalName());
+                if (cached != null && cached.testKey.equals(testKey)) {
+                    tests.add(CompletableFuture.completedFuture(cached.result));
+                    cachedCount++;
+                    continue;
+                }
+                slots.acquire();
+                tests.add(startTest(device, slots));
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
 
-        for (DeviceInfo device : devices) {
-            log.success("Testing device: " + device.getLogicalName() + " (" + device.getCategory() + ")", 9);
-            DeviceTestResult result = testDevice(device.getLogicalName(), device.getCategory());
+        List<DeviceTestResult> results = new ArrayList<>();
+        for (int i = 0; i < tests.size(); i++) {
+            DeviceInfo device = devices.get(i);
+            DeviceTestResult result = tests.get(i).join();
             results.add(result);
-            log.success("  Result: " + (result.isFunctional() ? "OK" : "FAIL") +
-                    " - " + result.getMessage() + " (" + result.getTestDurationMs() + "ms)", 9);
+            if (!result.getMessage().startsWith(TIMED_OUT_MESSAGE)) {
+                testResultCache.put(device.getLogicalName(), new CachedTestResult(testKeys.get(i), result));
+            }
         }
+        log.success("Tested " + (results.size() - cachedCount) + " devices, " + cachedCount + " unchanged devices from cache", 5);
 
         String configFile = System.getProperty("jpos.config.populatorFile", "devcon.xml");
         return new DeviceDiscoveryResponse(devices, results, configFile, Instant.now());
     }
 
+    private CompletableFuture<DeviceTestResult> startTest(DeviceInfo device, Semaphore slots) {
+        String logicalName = device.getLogicalName();
+        String category = device.getCategory();
+        CompletableFuture<DeviceTestResult> test = new CompletableFuture<>();
+        test.whenComplete((result, throwable) -> {
+            slots.release();
+            log.success("  " + logicalName + " result: " + (result.isFunctional() ? "OK" : "FAIL") +
+                    " - " + result.getMessage() + " (" + result.getTestDurationMs() + "ms)", 9);
+        });
+        log.success("Testing device: " + logicalName + " (" + category + ")", 9);
+        BaseJposControl control;
+        try {
+            control = controlFactory.apply(category);
+        } catch (RuntimeException runtimeException) {
+            test.complete(new DeviceTestResult(logicalName, category, false,
+                    "Test failed: " + runtimeException.getMessage(), 0));
+            return test;
+        }
+        AtomicBoolean isTimedOut = new AtomicBoolean();
+        CompletableFuture.delayedExecutor(testDeadlineMs, TimeUnit.MILLISECONDS).execute(() -> {
+            isTimedOut.set(true);
+            if (test.complete(new DeviceTestResult(logicalName, category, false,
+                    TIMED_OUT_MESSAGE + testDeadlineMs + "ms", testDeadlineMs))) {
+                log.failure("Test of " + logicalName + " timed out after " + testDeadlineMs + "ms, the device is closed when its call returns", 5, null);
+            }
+        });
+        try {
+            testExecutor.execute(() -> {
+                try {
+                    test.complete(testDevice(logicalName, category, control, isTimedOut));
+                } catch (RuntimeException runtimeException) {
+                    test.complete(new DeviceTestResult(logicalName, category, false,
+                            "Test failed: " + runtimeException.getMessage(), 0));
+                }
+            });
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            test.complete(new DeviceTestResult(logicalName, category, false,
+                    "Test not started, " + MAX_TEST_THREADS + " device tests have not returned", 0));
+        }
+        return test;
+    }
+
+    //The test may still hold the claim, the device is given back so the running service can connect to it
+    private DeviceTestResult closeTimedOut(String logicalName, String category, BaseJposControl control, long startTime) {
+        safeClose(control);
+        long testDurationMs = System.currentTimeMillis() - startTime;
+        log.failure("Closed " + logicalName + " after its timed out test returned in " + testDurationMs + "ms", 5, null);
+        return new DeviceTestResult(logicalName, category, false,
+                TIMED_OUT_MESSAGE + testDeadlineMs + "ms", testDurationMs);
+    }
+
+    private static ExecutorService newTestExecutor() {
+        ThreadPoolExecutor testExecutor = new ThreadPoolExecutor(MAX_TEST_THREADS, MAX_TEST_THREADS, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), DeviceThreads.newThreadFactory("device-discovery-test-"));
+        testExecutor.allowCoreThreadTimeOut(true);
+        return testExecutor;
+    }
+
     /**
      * Returns a discovery response with scan results only (no tests).
      */
@@ -218,6 +382,33 @@ public class JavaPOSDeviceDiscoveryService {
                 vendorName, version, factoryClass, serviceClass, properties);
     }
 
+    /**
+     * @return hash of every property of the devcon.xml entry and the USB devices present.
+     */
+    static String testKeyOf(DeviceInfo device, String usbTopology) {
+        StringBuilder content = new StringBuilder();
+        content.append(device.getLogicalName()).append('\n').append(device.getCategory()).append('\n');
+        if (device.getProperties() != null) {
+            new TreeMap<>(device.getProperties()).forEach((name, value) -> content.append(name).append('=').append(value).append('\n'));
+        }
+        content.append(usbTopology);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            return content.toString();
+        }
+    }
+
+    /**
+     * @return port and VID:PID of each USB device, sorted so the same devices always give the same string.
+     */
+    static String usbTopologyOf(Map<String, String> usbDevices) {
+        StringBuilder topology = new StringBuilder();
+        new TreeMap<>(usbDevices).forEach((port, vidPid) -> topology.append(port).append('=').append(vidPid).append('\n'));
+        return topology.toString();
+    }
+
     private String safeGetProperty(SimpleEntry entry, String propName) {
         try {
             Object value = entry.getPropertyValue(propName);
@@ -279,20 +470,30 @@ public class JavaPOSDeviceDiscoveryService {
      * device matching that filter from the discovery results.
      */
     private String getCategoryWithFilter(DeviceDiscoveryResponse discovery, String category, String deviceType) {
-        if (discovery.getConfiguredDevices() == null || discovery.getTestResults() == null) return null;
-
-        for (int i = 0; i < discovery.getConfiguredDevices().size(); i++) {
-            DeviceInfo info = discovery.getConfiguredDevices().get(i);
-            if (category.equals(info.getCategory())) {
-                Map<String, String> props = info.getProperties();
-                if (props != null && deviceType.equals(props.get("deviceType"))) {
-                    // Check if it's functional
-                    if (i < discovery.getTestResults().size() && discovery.getTestResults().get(i).isFunctional()) {
-                        return info.getLogicalName();
-                    }
-                }
+        if (discovery.getTestResults() == null) return null;
+
+        Map<String, DeviceTestResult> resultsByLogicalName = new HashMap<>();
+        for (DeviceTestResult result : discovery.getTestResults()) {
+            resultsByLogicalName.putIfAbsent(result.getLogicalName(), result);
+        }
+        List<String> logicalNames = JposRegistryIndex.of(registrySource.get())
+                .getLogicalNames(category, new AbstractMap.SimpleEntry<>("deviceType", deviceType));
+        for (String logicalName : logicalNames) {
+            DeviceTestResult result = resultsByLogicalName.get(logicalName);
+            if (result != null && result.isFunctional()) {
+                return logicalName;
             }
         }
         return null;
     }
+
+    private static class CachedTestResult {
+        private final String testKey;
+        private final DeviceTestResult result;
+
+        CachedTestResult(String testKey, DeviceTestResult result) {
+            this.testKey = testKey;
+            this.result = result;
+        }
+    }
 }
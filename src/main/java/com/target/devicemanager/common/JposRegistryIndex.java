@@ -0,0 +1,303 @@
+package com.target.devicemanager.common;
+
+import jpos.config.JposEntryRegistry;
+import jpos.config.simple.SimpleEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of the entries of a JPOS registry, indexed by deviceCategory, logicalName and deviceType,
+ * so connects and discovery look entries up with map reads instead of enumerating the whole registry.
+ * The registry is loaded on first use. If it is still empty, loading is retried in the background with
+ * backoff, so no caller waits for it. The snapshot is rebuilt when the number of entries in the registry
+ * changes, and the registry is loaded again when the devcon.xml it came from changes on disk.
+ */
+public class JposRegistryIndex {
+
+    static final String POPULATOR_FILE_PROPERTY = "jpos.config.populatorFile";
+    static final long CONFIG_POLL_INTERVAL_MSEC = 5000;
+    static final long FIRST_RETRY_DELAY_MSEC = 1000;
+    static final long MAX_RETRY_DELAY_MSEC = 30000;
+    private static final Map<JposEntryRegistry, Loader> loaders = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService loadExecutor;
+    private static final Logger LOGGER = LoggerFactory.getLogger(JposRegistryIndex.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "JposRegistryIndex", LOGGER);
+
+    private final int size;
+    private final List<SimpleEntry> entries;
+    private final Map<String, List<SimpleEntry>> entriesByCategory;
+    private final Map<String, SimpleEntry> entriesByLogicalName;
+    private final Map<String, List<SimpleEntry>> entriesByDeviceType;
+
+    private JposRegistryIndex(List<SimpleEntry> entries) {
+        Map<String, List<SimpleEntry>> entriesByCategory = new HashMap<>();
+        Map<String, SimpleEntry> entriesByLogicalName = new HashMap<>();
+        Map<String, List<SimpleEntry>> entriesByDeviceType = new HashMap<>();
+        for (SimpleEntry entry : entries) {
+            String deviceCategory = propertyOf(entry, "deviceCategory");
+            if (deviceCategory != null) {
+                entriesByCategory.computeIfAbsent(deviceCategory, category -> new ArrayList<>()).add(entry);
+            }
+            String logicalName = propertyOf(entry, "logicalName");
+            if (logicalName != null) {
+                entriesByLogicalName.putIfAbsent(logicalName, entry);
+            }
+            String deviceType = propertyOf(entry, "deviceType");
+            if (deviceType != null) {
+                entriesByDeviceType.computeIfAbsent(deviceType, type -> new ArrayList<>()).add(entry);
+            }
+        }
+        entriesByCategory.replaceAll((category, categoryEntries) -> List.copyOf(categoryEntries));
+        entriesByDeviceType.replaceAll((deviceType, typeEntries) -> List.copyOf(typeEntries));
+        this.size = entries.size();
+        this.entries = List.copyOf(entries);
+        this.entriesByCategory = Map.copyOf(entriesByCategory);
+        this.entriesByLogicalName = Map.copyOf(entriesByLogicalName);
+        this.entriesByDeviceType = Map.copyOf(entriesByDeviceType);
+    }
+
+    /**
+     * @param deviceRegistry JPOS registry, loaded on first use if it is empty.
+     * @return current snapshot of the registry. Empty while the registry has not loaded yet.
+     */
+    public static JposRegistryIndex of(JposEntryRegistry deviceRegistry) {
+        return loaderOf(deviceRegistry).current();
+    }
+
+    /**
+     * Loads the registry again and replaces its snapshot, as when devcon.xml changes on disk.
+     * @param deviceRegistry JPOS registry.
+     * @return new snapshot of the registry.
+     */
+    public static JposRegistryIndex refresh(JposEntryRegistry deviceRegistry) {
+        return loaderOf(deviceRegistry).reload();
+    }
+
+    private static Loader loaderOf(JposEntryRegistry deviceRegistry) {
+        Loader loader = loaders.get(deviceRegistry);
+        if (loader != null) {
+            return loader;
+        }
+        Loader created = new Loader(deviceRegistry, configFile());
+        loader = loaders.putIfAbsent(deviceRegistry, created);
+        if (loader != null) {
+            return loader;
+        }
+        created.watchConfigFile();
+        return created;
+    }
+
+    //devcon.xml is only watched when it is a file, not when it is read from the classpath
+    private static Path configFile() {
+        String populatorFile = System.getProperty(POPULATOR_FILE_PROPERTY);
+        if (populatorFile == null || populatorFile.isEmpty()) {
+            return null;
+        }
+        Path configFile = Path.of(populatorFile);
+        return Files.isRegularFile(configFile) ? configFile : null;
+    }
+
+    private static synchronized ScheduledExecutorService getLoadExecutor() {
+        if (loadExecutor == null) {
+            loadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jpos-registry-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return loadExecutor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JposRegistryIndex build(JposEntryRegistry deviceRegistry) {
+        return new JposRegistryIndex(Collections.list((Enumeration<SimpleEntry>) deviceRegistry.getEntries()));
+    }
+
+    private static String propertyOf(SimpleEntry entry, String propertyName) {
+        return Objects.toString(entry.getPropertyValue(propertyName), null);
+    }
+
+    /**
+     * @param deviceCategory JPOS device category, e.g. POSPrinter.
+     * @param customFilter optional property name and value the entries must also have, e.g. deviceType Flatbed.
+     * @return logical names of the matching entries in registry order.
+     */
+    public List<String> getLogicalNames(String deviceCategory, AbstractMap.SimpleEntry<String, String> customFilter) {
+        List<SimpleEntry> candidates;
+        if (customFilter != null && "deviceType".equals(customFilter.getKey())) {
+            candidates = entriesByDeviceType.getOrDefault(customFilter.getValue(), List.of());
+        } else {
+            candidates = entriesByCategory.getOrDefault(deviceCategory, List.of());
+        }
+        List<String> logicalNames = new ArrayList<>();
+        for (SimpleEntry entry : candidates) {
+            if (!Objects.equals(deviceCategory, propertyOf(entry, "deviceCategory"))) {
+                continue;
+            }
+            if (customFilter != null && !customFilter.getValue().equals(propertyOf(entry, customFilter.getKey()))) {
+                continue;
+            }
+            String logicalName = propertyOf(entry, "logicalName");
+            if (logicalName != null) {
+                logicalNames.add(logicalName);
+            }
+        }
+        return logicalNames;
+    }
+
+    /**
+     * @return every entry in registry order.
+     */
+    public List<SimpleEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return entries of a device category in registry order.
+     */
+    public List<SimpleEntry> getEntries(String deviceCategory) {
+        return entriesByCategory.getOrDefault(deviceCategory, List.of());
+    }
+
+    /**
+     * @return entry with the logical name, null if devcon.xml has none.
+     */
+    public SimpleEntry getEntry(String logicalName) {
+        return logicalName == null ? null : entriesByLogicalName.get(logicalName);
+    }
+
+    /**
+     * @return entries with the deviceType property, e.g. Flatbed or HandScanner, in registry order.
+     */
+    public List<SimpleEntry> getEntriesByDeviceType(String deviceType) {
+        return entriesByDeviceType.getOrDefault(deviceType, List.of());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Keeps the snapshot of one registry up to date.
+     */
+    private static class Loader {
+        private final JposEntryRegistry deviceRegistry;
+        private final Path configFile;
+        private volatile JposRegistryIndex snapshot;
+        private boolean isRetryScheduled;
+        private long retryDelayMsec = FIRST_RETRY_DELAY_MSEC;
+        private String configFileStamp;
+
+        Loader(JposEntryRegistry deviceRegistry, Path configFile) {
+            this.deviceRegistry = deviceRegistry;
+            this.configFile = configFile;
+            this.configFileStamp = stampOf(configFile);
+        }
+
+        JposRegistryIndex current() {
+            JposRegistryIndex current = snapshot;
+            if (current != null && current.size == deviceRegistry.getSize()) {
+                return current;
+            }
+            synchronized (this) {
+                if (snapshot == null && deviceRegistry.getSize() == 0) {
+                    load();
+                }
+                if (snapshot == null || snapshot.size != deviceRegistry.getSize()) {
+                    rebuild();
+                }
+                return snapshot;
+            }
+        }
+
+        synchronized JposRegistryIndex reload() {
+            load();
+            rebuild();
+            return snapshot;
+        }
+
+        void watchConfigFile() {
+            if (configFile != null) {
+                getLoadExecutor().scheduleWithFixedDelay(this::reloadIfConfigChanged, CONFIG_POLL_INTERVAL_MSEC, CONFIG_POLL_INTERVAL_MSEC, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        //Caller holds the loader lock
+        private void rebuild() {
+            snapshot = build(deviceRegistry);
+            if (snapshot.size == 0) {
+                scheduleRetry();
+            } else {
+                retryDelayMsec = FIRST_RETRY_DELAY_MSEC;
+            }
+        }
+
+        private void load() {
+            try {
+                deviceRegistry.load();
+            } catch (RuntimeException runtimeException) {
+                log.failure("Unable to load JPOS registry", 17, runtimeException);
+            }
+        }
+
+        private void scheduleRetry() {
+            if (isRetryScheduled) {
+                return;
+            }
+            isRetryScheduled = true;
+            long delayMsec = retryDelayMsec;
+            retryDelayMsec = Math.min(retryDelayMsec * 2, MAX_RETRY_DELAY_MSEC);
+            getLoadExecutor().schedule(this::retryLoad, delayMsec, TimeUnit.MILLISECONDS);
+            log.failure("JPOS registry is empty, loading again in " + delayMsec + "ms", 13, null);
+        }
+
+        private synchronized void retryLoad() {
+            isRetryScheduled = false;
+            if (deviceRegistry.getSize() == 0) {
+                load();
+            }
+            rebuild();
+            if (snapshot.size > 0) {
+                log.success("JPOS registry loaded with " + snapshot.size + " entries", 5);
+            }
+        }
+
+        private synchronized void reloadIfConfigChanged() {
+            String stamp = stampOf(configFile);
+            if (stamp == null || stamp.equals(configFileStamp)) {
+                return;
+            }
+            configFileStamp = stamp;
+            log.success(configFile + " changed, loading JPOS registry again", 5);
+            load();
+            rebuild();
+        }
+
+        private static String stampOf(Path configFile) {
+            if (configFile == null) {
+                return null;
+            }
+            try {
+                return Files.getLastModifiedTime(configFile).toMillis() + ":" + Files.size(configFile);
+            } catch (IOException ioException) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.target.devicemanager.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Logical name each device last connected with, kept in a properties file so it survives a restart.
+ * DeviceConnector tries this name before any other candidate from the registry.
+ * If the file cannot be written the names are still kept in memory for this run.
+ */
+public class LastGoodDeviceStore {
+
+    static final String STORE_PATH_PROPERTY = "possum.lastGoodDevicesFile";
+    static final String DEFAULT_STORE_PATH = "/var/tmp/possum/lastGoodDevices.properties";
+
+    private static final LastGoodDeviceStore lastGoodDeviceStore = new LastGoodDeviceStore();
+    private final Path storePath;
+    private final Properties logicalNames = new Properties();
+    private boolean isLoaded;
+    private static final Logger LOGGER = LoggerFactory.getLogger(LastGoodDeviceStore.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "LastGoodDeviceStore", LOGGER);
+
+    public LastGoodDeviceStore() {
+        this(Path.of(System.getProperty(STORE_PATH_PROPERTY, DEFAULT_STORE_PATH)));
+    }
+
+    public LastGoodDeviceStore(Path storePath) {
+        if (storePath == null) {
+            throw new IllegalArgumentException("storePath cannot be null");
+        }
+        this.storePath = storePath;
+    }
+
+    public static LastGoodDeviceStore getLastGoodDeviceStore() {
+        return lastGoodDeviceStore;
+    }
+
+    /**
+     * @param deviceKey key of the device, see DeviceConnector.
+     * @return logical name the device last connected with, null if there is none.
+     */
+    public synchronized String get(String deviceKey) {
+        load();
+        return logicalNames.getProperty(deviceKey);
+    }
+
+    /**
+     * Records the logical name a device connected with. The file is only written when the name changes.
+     * @param deviceKey key of the device, see DeviceConnector.
+     * @param logicalName logical name the device connected with.
+     */
+    public synchronized void put(String deviceKey, String logicalName) {
+        load();
+        if (logicalName.equals(logicalNames.getProperty(deviceKey))) {
+            return;
+        }
+        logicalNames.setProperty(deviceKey, logicalName);
+        try {
+            Path directory = storePath.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            //Write a copy and move it over the file so a crash never leaves a half written file behind
+            Path tempFile = Files.createTempFile(directory, storePath.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                logicalNames.store(out, "Last logical name each device connected with");
+            }
+            Files.move(tempFile, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException exception) {
+            log.failure("Unable to save last good device names to " + storePath, 13, exception);
+        }
+    }
+
+    private void load() {
+        if (isLoaded) {
+            return;
+        }
+        isLoaded = true;
+        if (!Files.isRegularFile(storePath)) {
+            return;
+        }
+        try (InputStream in = Files.newInputStream(storePath)) {
+            logicalNames.load(in);
+        } catch (IOException | IllegalArgumentException exception) {
+            log.failure("Unable to read last good device names from " + storePath, 13, exception);
+        }
+    }
+}
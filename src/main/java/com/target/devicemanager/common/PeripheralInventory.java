@@ -0,0 +1,254 @@
+package com.target.devicemanager.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Parsed contents of the confirmout files behind /v1/peripherals.
+ * Each file is read and parsed once and kept until a WatchService on its directory reports that it changed,
+ * so a request only has to merge in the current device health. A file in a directory that cannot be watched
+ * is checked against its last modified time and size instead. Classpath resources never change and are parsed once.
+ */
+public class PeripheralInventory {
+
+    //Peripherals configured for this workstation
+    public static final String CONFIRMOUT_LOCATION = "/var/tmp/CONFIRMOUT/confirmout.json";
+    private static final PeripheralInventory peripheralInventory = new PeripheralInventory();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Inventory> inventories = new ConcurrentHashMap<>();
+    private final Set<Path> watchedDirectories = ConcurrentHashMap.newKeySet();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private WatchService watchService;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PeripheralInventory.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "PeripheralInventory", LOGGER);
+
+    public PeripheralInventory() {
+    }
+
+    public static PeripheralInventory getPeripheralInventory() {
+        return peripheralInventory;
+    }
+
+    /**
+     * @param path confirmout file.
+     * @return parsed devices of the file, null if the file does not exist.
+     * @throws IOException if the file cannot be read or is not valid JSON.
+     */
+    public Inventory fromFile(Path path) throws IOException {
+        Path absolutePath = path.toAbsolutePath().normalize();
+        String inventoryKey = absolutePath.toString();
+        Inventory cached = inventories.get(inventoryKey);
+        if (cached != null && cached.isCurrent(absolutePath)) {
+            return cached;
+        }
+        if (!Files.isRegularFile(absolutePath)) {
+            inventories.remove(inventoryKey);
+            return null;
+        }
+        long generation = invalidationCount.get();
+        boolean isWatched = watch(absolutePath.getParent());
+        long lastModifiedMsec = Files.getLastModifiedTime(absolutePath).toMillis();
+        long sizeBytes = Files.size(absolutePath);
+        Inventory inventory = parse(Files.readAllBytes(absolutePath), isWatched, lastModifiedMsec, sizeBytes);
+        inventories.put(inventoryKey, inventory);
+        //The file changed while it was being read, do not keep what may be a partial copy
+        if (invalidationCount.get() != generation) {
+            inventories.remove(inventoryKey, inventory);
+        }
+        return inventory;
+    }
+
+    /**
+     * @param resourceName name of a confirmout file on the classpath.
+     * @return parsed devices of the resource, null if there is no such resource.
+     * @throws IOException if the resource cannot be read or is not valid JSON.
+     */
+    public Inventory fromResource(String resourceName) throws IOException {
+        String inventoryKey = "classpath:" + resourceName;
+        Inventory cached = inventories.get(inventoryKey);
+        if (cached != null) {
+            return cached;
+        }
+        try (InputStream in = this.getClass().getClassLoader().getResourceAsStream(resourceName)) {
+            if (in == null) {
+                return null;
+            }
+            Inventory inventory = parse(in.readAllBytes(), true, 0, 0);
+            inventories.put(inventoryKey, inventory);
+            return inventory;
+        }
+    }
+
+    void invalidate(Path path) {
+        invalidationCount.incrementAndGet();
+        inventories.remove(path.toAbsolutePath().normalize().toString());
+    }
+
+    private void invalidateDirectory(Path directory) {
+        invalidationCount.incrementAndGet();
+        inventories.keySet().removeIf(inventoryKey -> !inventoryKey.startsWith("classpath:")
+                && directory.equals(Path.of(inventoryKey).getParent()));
+    }
+
+    private boolean watch(Path directory) {
+        if (directory == null) {
+            return false;
+        }
+        if (watchedDirectories.contains(directory)) {
+            return true;
+        }
+        synchronized (this) {
+            if (watchedDirectories.contains(directory)) {
+                return true;
+            }
+            try {
+                if (watchService == null) {
+                    watchService = FileSystems.getDefault().newWatchService();
+                    Thread watcherThread = new Thread(this::watchLoop, "peripheral-inventory-watcher");
+                    watcherThread.setDaemon(true);
+                    watcherThread.start();
+                }
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.add(directory);
+                return true;
+            } catch (IOException | UnsupportedOperationException exception) {
+                log.failure("Unable to watch " + directory + ", checking file times instead", 13, exception);
+                return false;
+            }
+        }
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            }
+            Path directory = (Path) watchKey.watchable();
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    invalidateDirectory(directory);
+                } else {
+                    invalidate(directory.resolve((Path) event.context()));
+                }
+            }
+            if (!watchKey.reset()) {
+                //Directory was removed, it has to be registered again once it comes back
+                watchedDirectories.remove(directory);
+                invalidateDirectory(directory);
+            }
+        }
+    }
+
+    private Inventory parse(byte[] content, boolean isWatched, long lastModifiedMsec, long sizeBytes) throws IOException {
+        List<DeviceConfigResponse> devices = new ArrayList<>();
+        JsonNode rootDevNode = objectMapper.readTree(content);
+        Iterator<String> fieldNames = rootDevNode.fieldNames();
+
+        while (fieldNames.hasNext()) {
+            String devName = fieldNames.next();
+            JsonNode devNodes = rootDevNode.path(devName);
+            if (devNodes.isArray()) {
+                for (JsonNode device : devNodes) {
+                    if (!devName.equals("scale")) {
+                        devices.add(new DeviceConfigResponse(
+                                devName,
+                                device.get("vidpid").asText(),
+                                device.get("usbport").asText(),
+                                device.get("manufacturer").asText(),
+                                device.get("model").asText(),
+                                device.get("config").asText(),
+                                device.get("firmware").asText(),
+                                device.get("serialnumber").asText(),
+                                false,
+                                !device.get("vidpid").asText().isEmpty()
+                        ));
+                    } else {
+                        devices.add(new ScaleConfigResponse(
+                                devName,
+                                device.get("vidpid").asText(),
+                                device.get("usbport").asText(),
+                                device.get("manufacturer").asText(),
+                                device.get("model").asText(),
+                                device.get("config").asText(),
+                                device.get("firmware").asText(),
+                                device.get("serialnumber").asText(),
+                                false,
+                                !device.get("vidpid").asText().isEmpty(),
+                                device.hasNonNull("calibrated") ? device.get("calibrated").asBoolean() : null,
+                                device.hasNonNull("calibrated_count") ? device.get("calibrated_count").asInt() : null,
+                                device.hasNonNull("has_remote_display") ? device.get("has_remote_display").asBoolean() : null
+                        ));
+                    }
+                }
+            }
+        }
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(content);
+        return new Inventory(devices, Long.toHexString(crc32.getValue()), isWatched, lastModifiedMsec, sizeBytes);
+    }
+
+    /**
+     * Devices of one confirmout file with isFunctional left false; the health is merged in per request.
+     */
+    public static class Inventory {
+        private final List<DeviceConfigResponse> devices;
+        private final String contentHash;
+        private final boolean isWatched;
+        private final long lastModifiedMsec;
+        private final long sizeBytes;
+
+        Inventory(List<DeviceConfigResponse> devices, String contentHash, boolean isWatched, long lastModifiedMsec, long sizeBytes) {
+            this.devices = Collections.unmodifiableList(devices);
+            this.contentHash = contentHash;
+            this.isWatched = isWatched;
+            this.lastModifiedMsec = lastModifiedMsec;
+            this.sizeBytes = sizeBytes;
+        }
+
+        public List<DeviceConfigResponse> getDevices() {
+            return devices;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        private boolean isCurrent(Path path) {
+            if (isWatched) {
+                return true;
+            }
+            try {
+                return Files.getLastModifiedTime(path).toMillis() == lastModifiedMsec && Files.size(path) == sizeBytes;
+            } catch (IOException ioException) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceHealth;
+import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.common.entities.ReconnectStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Runs the connect attempts of every device manager.
+ * A connected device is checked every BASE_DELAY_MSEC. A device that fails to connect is retried with exponential
+ * backoff up to MAX_DELAY_MSEC, with jitter so devices that went away together do not all retry at the same moment.
+ * A power online status event or a hotplug event skips the backoff and retries right away.
+ * Attempts run on a pool of MAX_CONCURRENT_CONNECTS threads, so a slow driver open or claim cannot tie up more
+ * than that many threads and the other devices keep their schedule. A connect action must not wait for a device
+ * that is in use, DynamicDevice skips the check of a device whose lock is held.
+ * Whether an attempt connected is read from the health the manager publishes at the end of connect().
+ */
+public class ReconnectScheduler {
+
+    static final long BASE_DELAY_MSEC = 5000;
+    static final long MAX_DELAY_MSEC = 60000;
+    static final double JITTER_RATIO = 0.2;
+    static final int MAX_CONCURRENT_CONNECTS = 2;
+
+    private static final ReconnectScheduler reconnectScheduler = new ReconnectScheduler();
+    private final DeviceHealthRegistry healthRegistry;
+    private final ScheduledExecutorService connectExecutor;
+    private final DoubleSupplier jitterSource;
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+    private final Map<String, List<Runnable>> retryListeners = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReconnectScheduler.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "ReconnectScheduler", LOGGER);
+
+    public ReconnectScheduler() {
+        this(DeviceHealthRegistry.getDeviceHealthRegistry(), newConnectExecutor(), () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    public ReconnectScheduler(DeviceHealthRegistry healthRegistry, ScheduledExecutorService connectExecutor, DoubleSupplier jitterSource) {
+        if (healthRegistry == null) {
+            throw new IllegalArgumentException("healthRegistry cannot be null");
+        }
+        if (connectExecutor == null) {
+            throw new IllegalArgumentException("connectExecutor cannot be null");
+        }
+        if (jitterSource == null) {
+            throw new IllegalArgumentException("jitterSource cannot be null");
+        }
+        this.healthRegistry = healthRegistry;
+        this.connectExecutor = connectExecutor;
+        this.jitterSource = jitterSource;
+    }
+
+    public static ReconnectScheduler getReconnectScheduler() {
+        return reconnectScheduler;
+    }
+
+    private static ScheduledExecutorService newConnectExecutor() {
+        return Executors.newScheduledThreadPool(MAX_CONCURRENT_CONNECTS, DeviceThreads.newThreadFactory("device-reconnect-"));
+    }
+
+    /**
+     * Starts connecting a device. The first attempt runs after BASE_DELAY_MSEC, like the old scheduled connect.
+     * @param deviceKey health registry key of the device. A key ending in ':' covers every entry that starts with it.
+     * @param connectAction one connect attempt, normally the manager's connect().
+     */
+    public void register(String deviceKey, Runnable connectAction) {
+        if (deviceKey == null || connectAction == null) {
+            return;
+        }
+        Registration registration = new Registration(deviceKey, connectAction);
+        if (registrations.putIfAbsent(deviceKey, registration) != null) {
+            log.failure(deviceKey + " is already registered for reconnect", 5, null);
+            return;
+        }
+        synchronized (registration) {
+            schedule(registration, withJitter(BASE_DELAY_MSEC));
+        }
+    }
+
+    /**
+     * @param healthKey key a device publishes its health under.
+     * @param retryListener run by retryNow() for a key that covers the device, before the connect attempt.
+     */
+    public void addRetryListener(String healthKey, Runnable retryListener) {
+        if (healthKey == null || retryListener == null) {
+            return;
+        }
+        retryListeners.computeIfAbsent(healthKey, key -> new CopyOnWriteArrayList<>()).add(retryListener);
+    }
+
+    /**
+     * Drops any backoff and runs a connect attempt now, or right after the one in progress.
+     * The retry listeners of the devices the key covers run first.
+     * @param deviceKey health registry key the device was registered with.
+     */
+    public void retryNow(String deviceKey) {
+        Registration registration = deviceKey == null ? null : registrations.get(deviceKey);
+        if (registration == null) {
+            return;
+        }
+        notifyRetryListeners(deviceKey);
+        synchronized (registration) {
+            registration.stats.immediateRetries++;
+            registration.stats.consecutiveFailures = 0;
+            if (registration.isConnecting) {
+                registration.isRetryRequested = true;
+                return;
+            }
+            if (registration.pending != null) {
+                registration.pending.cancel(false);
+            }
+            schedule(registration, 0);
+        }
+        log.success("Retrying " + deviceKey + " now", 5);
+    }
+
+    /**
+     * Runs a connect attempt on the calling thread in place of the next scheduled one, then goes back to the schedule.
+     * @param deviceKey health registry key the device was registered with.
+     * @return true if the device is connected afterwards.
+     */
+    public boolean connectNow(String deviceKey) {
+        Registration registration = deviceKey == null ? null : registrations.get(deviceKey);
+        if (registration == null) {
+            return false;
+        }
+        synchronized (registration) {
+            if (registration.isConnecting) {
+                //A scheduled attempt is already running, it reports its own result
+                return isConnected(deviceKey);
+            }
+            registration.isConnecting = true;
+            registration.generation++;
+            if (registration.pending != null) {
+                registration.pending.cancel(false);
+                registration.pending = null;
+            }
+        }
+        return connect(registration);
+    }
+
+    /**
+     * @return health registry keys of every registered device.
+     */
+    public List<String> getDeviceKeys() {
+        return new ArrayList<>(registrations.keySet());
+    }
+
+    /**
+     * @return connect attempts, failures and current backoff of each device, keyed by health registry key.
+     */
+    public Map<String, ReconnectStats> getStats() {
+        Map<String, ReconnectStats> stats = new LinkedHashMap<>();
+        registrations.forEach((deviceKey, registration) -> {
+            synchronized (registration) {
+                ReconnectStats copy = new ReconnectStats();
+                copy.attempts = registration.stats.attempts;
+                copy.failures = registration.stats.failures;
+                copy.immediateRetries = registration.stats.immediateRetries;
+                copy.consecutiveFailures = registration.stats.consecutiveFailures;
+                copy.isConnected = registration.stats.isConnected;
+                copy.isConnecting = registration.isConnecting;
+                copy.lastAttemptMsec = registration.stats.lastAttemptMsec;
+                copy.maxAttemptMsec = registration.stats.maxAttemptMsec;
+                copy.nextDelayMsec = registration.stats.nextDelayMsec;
+                stats.put(deviceKey, copy);
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * @param consecutiveFailures failed attempts in a row, at least 1.
+     * @return delay before the next attempt without jitter.
+     */
+    static long backoffDelay(int consecutiveFailures) {
+        long delay = BASE_DELAY_MSEC;
+        for (int i = 1; i < consecutiveFailures && delay < MAX_DELAY_MSEC; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, MAX_DELAY_MSEC);
+    }
+
+    private long withJitter(long delayMsec) {
+        double factor = 1 - JITTER_RATIO + 2 * JITTER_RATIO * jitterSource.getAsDouble();
+        return Math.round(delayMsec * factor);
+    }
+
+    private void notifyRetryListeners(String deviceKey) {
+        for (Map.Entry<String, List<Runnable>> entry : retryListeners.entrySet()) {
+            String healthKey = entry.getKey();
+            if (healthKey.equals(deviceKey) || (deviceKey.endsWith(":") && healthKey.startsWith(deviceKey))) {
+                for (Runnable retryListener : entry.getValue()) {
+                    try {
+                        retryListener.run();
+                    } catch (RuntimeException runtimeException) {
+                        log.failure(healthKey + " retry listener failed", 13, runtimeException);
+                    }
+                }
+            }
+        }
+    }
+
+    private void attempt(Registration registration, long generation) {
+        synchronized (registration) {
+            //A retryNow replaced this attempt after it was already handed to a thread
+            if (generation != registration.generation || registration.isConnecting) {
+                return;
+            }
+            registration.isConnecting = true;
+            registration.pending = null;
+        }
+        connect(registration);
+    }
+
+    //Caller has set isConnecting
+    private boolean connect(Registration registration) {
+        long startTime = System.nanoTime();
+        boolean isConnected = false;
+        try {
+            registration.connectAction.run();
+            isConnected = isConnected(registration.deviceKey);
+        } catch (RuntimeException runtimeException) {
+            log.failure(registration.deviceKey + " connect attempt failed", 17, runtimeException);
+        } finally {
+            long attemptMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            synchronized (registration) {
+                ReconnectStats stats = registration.stats;
+                stats.attempts++;
+                stats.lastAttemptMsec = attemptMsec;
+                stats.maxAttemptMsec = Math.max(stats.maxAttemptMsec, attemptMsec);
+                stats.isConnected = isConnected;
+                long delay;
+                if (isConnected) {
+                    stats.consecutiveFailures = 0;
+                    delay = BASE_DELAY_MSEC;
+                } else {
+                    stats.failures++;
+                    stats.consecutiveFailures++;
+                    delay = withJitter(backoffDelay(stats.consecutiveFailures));
+                }
+                if (registration.isRetryRequested) {
+                    registration.isRetryRequested = false;
+                    delay = 0;
+                }
+                registration.isConnecting = false;
+                schedule(registration, delay);
+            }
+        }
+        return isConnected;
+    }
+
+    private boolean isConnected(String deviceKey) {
+        boolean isFound = false;
+        for (Map.Entry<String, DeviceHealthResponse> entry : healthRegistry.getSnapshot().getDevices().entrySet()) {
+            String registryKey = entry.getKey();
+            if (registryKey.equals(deviceKey) || (deviceKey.endsWith(":") && registryKey.startsWith(deviceKey))) {
+                if (entry.getValue().getHealthStatus() != DeviceHealth.READY) {
+                    return false;
+                }
+                isFound = true;
+            }
+        }
+        return isFound;
+    }
+
+    //Caller holds the registration lock
+    private void schedule(Registration registration, long delayMsec) {
+        registration.stats.nextDelayMsec = delayMsec;
+        long generation = ++registration.generation;
+        try {
+            registration.pending = connectExecutor.schedule(() -> attempt(registration, generation), delayMsec, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            log.failure("Unable to schedule connect for " + registration.deviceKey, 17, rejectedExecutionException);
+        }
+    }
+
+    private static class Registration {
+        private final String deviceKey;
+        private final Runnable connectAction;
+        private final ReconnectStats stats = new ReconnectStats();
+        private ScheduledFuture<?> pending;
+        private long generation;
+        private boolean isConnecting;
+        private boolean isRetryRequested;
+
+        Registration(String deviceKey, Runnable connectAction) {
+            this.deviceKey = deviceKey;
+            this.connectAction = connectAction;
+        }
+    }
+}
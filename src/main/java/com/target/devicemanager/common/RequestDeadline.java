@@ -0,0 +1,46 @@
+package com.target.devicemanager.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline the caller gave the current request with the X-Request-Timeout header, in milliseconds.
+ * Kept on the request thread by RequestDeadlineInterceptor, so device admission can wait for the device no longer
+ * than the caller is willing to wait, without passing the deadline through every controller and manager.
+ */
+public class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+    public static final long MAX_TIMEOUT_MSEC = 120000;
+    private static final ThreadLocal<Long> deadlineNanos = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * @param timeoutMsec time the caller waits for the request, capped at MAX_TIMEOUT_MSEC.
+     */
+    public static void set(long timeoutMsec) {
+        long cappedMsec = Math.max(0, Math.min(timeoutMsec, MAX_TIMEOUT_MSEC));
+        deadlineNanos.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cappedMsec));
+    }
+
+    public static void clear() {
+        deadlineNanos.remove();
+    }
+
+    public static boolean isSet() {
+        return deadlineNanos.get() != null;
+    }
+
+    /**
+     * @param defaultMsec time to use when the caller did not send a deadline.
+     * @return time left until the deadline of the current request, 0 once it has passed.
+     */
+    public static long remainingMsec(long defaultMsec) {
+        Long deadline = deadlineNanos.get();
+        if (deadline == null) {
+            return defaultMsec;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+}
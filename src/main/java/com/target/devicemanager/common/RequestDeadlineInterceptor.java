@@ -0,0 +1,42 @@
+package com.target.devicemanager.common;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Reads the X-Request-Timeout header into RequestDeadline for the duration of the request.
+ * A header that is not a number of milliseconds is ignored and the request uses the default wait.
+ */
+public class RequestDeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestDeadlineInterceptor.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "RequestDeadlineInterceptor", LOGGER);
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+        String timeout = request.getHeader(RequestDeadline.HEADER);
+        if (timeout != null) {
+            try {
+                RequestDeadline.set(Long.parseLong(timeout.trim()));
+            } catch (NumberFormatException numberFormatException) {
+                log.failure("Ignoring " + RequestDeadline.HEADER + ": " + timeout, 5, null);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception exception) {
+        RequestDeadline.clear();
+    }
+
+    //Async requests finish on another thread, the request thread goes back to the pool now
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+}
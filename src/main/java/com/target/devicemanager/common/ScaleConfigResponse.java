@@ -12,6 +12,11 @@ public class ScaleConfigResponse extends DeviceConfigResponse {
         this.has_remote_display = has_remote_display;
     }
 
+    @Override
+    public DeviceConfigResponse withFunctional(boolean isFunctional) {
+        return new ScaleConfigResponse(devicename, vidpid, usbport, manufacturer, model, config, firmware, serialnumber, isFunctional, attached, calibrated, calibrated_count, has_remote_display);
+    }
+
     public String toString() {
         return
                 super.toString() +
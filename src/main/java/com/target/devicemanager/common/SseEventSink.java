@@ -0,0 +1,56 @@
+package com.target.devicemanager.common;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * DeviceEventSink that writes the events to an SSE response.
+ * Two sinks of the same emitter are equal, so a subscriber can be removed by its emitter.
+ */
+class SseEventSink implements DeviceEventSink {
+
+    private final SseEmitter emitter;
+
+    SseEventSink(SseEmitter emitter) {
+        if (emitter == null) {
+            throw new IllegalArgumentException("emitter cannot be null");
+        }
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(String event, String id, Object data) throws IOException {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (id != null) {
+            builder.id(id);
+        }
+        if (event != null) {
+            builder.name(event);
+        }
+        emitter.send(builder.data(data, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void complete() {
+        emitter.complete();
+    }
+
+    @Override
+    public void onCompletion(Runnable callback) {
+        emitter.onCompletion(callback);
+        emitter.onTimeout(callback);
+        emitter.onError(throwable -> callback.run());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SseEventSink sseEventSink && sseEventSink.emitter == emitter;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(emitter);
+    }
+}
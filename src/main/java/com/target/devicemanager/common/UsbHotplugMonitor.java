@@ -0,0 +1,280 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.components.cashdrawer.CashDrawerManager;
+import com.target.devicemanager.components.keylock.KeylockManager;
+import com.target.devicemanager.components.linedisplay.LineDisplayManager;
+import com.target.devicemanager.components.msr.MSRManager;
+import com.target.devicemanager.components.poskeyboard.POSKeyboardManager;
+import com.target.devicemanager.components.printer.PrinterManager;
+import com.target.devicemanager.components.scale.ScaleManager;
+import com.target.devicemanager.components.scanner.ScannerManager;
+import com.target.devicemanager.components.toneindicator.ToneIndicatorManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Watches /sys/bus/usb/devices and retries the connect of a device as soon as its VID:PID shows up, instead of
+ * waiting for the next scheduled attempt. VID:PIDs are mapped to devices through the confirmout inventory.
+ * Events from a WatchService on the directory trigger a rescan. sysfs does not report every change through
+ * inotify, so the directory is also rescanned on a timer, more often when it cannot be watched at all.
+ */
+public class UsbHotplugMonitor {
+
+    static final Path USB_DEVICES_DIRECTORY = Path.of("/sys/bus/usb/devices");
+    static final long POLL_INTERVAL_MSEC = 1000;
+    static final long WATCHED_POLL_INTERVAL_MSEC = 10000;
+
+    private static final UsbHotplugMonitor usbHotplugMonitor = new UsbHotplugMonitor();
+    private final Path usbDevicesDirectory;
+    private final Supplier<List<DeviceConfigResponse>> inventorySource;
+    private final ReconnectScheduler reconnectScheduler;
+    private Map<String, String> presentDevices;
+    private ScheduledExecutorService scanExecutor;
+    private WatchService watchService;
+    private static final Logger LOGGER = LoggerFactory.getLogger(UsbHotplugMonitor.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "UsbHotplugMonitor", LOGGER);
+
+    public UsbHotplugMonitor() {
+        this(USB_DEVICES_DIRECTORY, UsbHotplugMonitor::readConfirmout, ReconnectScheduler.getReconnectScheduler());
+    }
+
+    public UsbHotplugMonitor(Path usbDevicesDirectory, Supplier<List<DeviceConfigResponse>> inventorySource, ReconnectScheduler reconnectScheduler) {
+        if (usbDevicesDirectory == null) {
+            throw new IllegalArgumentException("usbDevicesDirectory cannot be null");
+        }
+        if (inventorySource == null) {
+            throw new IllegalArgumentException("inventorySource cannot be null");
+        }
+        if (reconnectScheduler == null) {
+            throw new IllegalArgumentException("reconnectScheduler cannot be null");
+        }
+        this.usbDevicesDirectory = usbDevicesDirectory;
+        this.inventorySource = inventorySource;
+        this.reconnectScheduler = reconnectScheduler;
+    }
+
+    public static UsbHotplugMonitor getUsbHotplugMonitor() {
+        return usbHotplugMonitor;
+    }
+
+    /**
+     * Takes the current set of USB devices as the baseline and starts watching for changes.
+     * Does nothing if the directory does not exist, e.g. on a non-Linux machine.
+     */
+    public synchronized void start() {
+        if (scanExecutor != null) {
+            return;
+        }
+        if (!Files.isDirectory(usbDevicesDirectory)) {
+            log.failure(usbDevicesDirectory + " not found, USB hotplug monitor not started", 13, null);
+            return;
+        }
+        scan();
+        scanExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "usb-hotplug-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long pollIntervalMsec = watch() ? WATCHED_POLL_INTERVAL_MSEC : POLL_INTERVAL_MSEC;
+        scanExecutor.scheduleWithFixedDelay(this::scan, pollIntervalMsec, pollIntervalMsec, TimeUnit.MILLISECONDS);
+        log.success("USB hotplug monitor started on " + usbDevicesDirectory + ", polling every " + pollIntervalMsec + "ms", 5);
+    }
+
+    public synchronized void stop() {
+        if (scanExecutor == null) {
+            return;
+        }
+        scanExecutor.shutdownNow();
+        scanExecutor = null;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ioException) {
+                log.failure("Unable to close USB watch service", 13, ioException);
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Compares the USB devices present now with the previous scan and retries the connect of every device whose
+     * VID:PID was plugged in since. The first scan only records what is present.
+     * @return health registry keys that were retried.
+     */
+    synchronized Set<String> scan() {
+        Map<String, String> currentDevices = readUsbDevices();
+        Set<String> retriedKeys = new LinkedHashSet<>();
+        if (presentDevices != null) {
+            Set<String> arrivedVidPids = new LinkedHashSet<>();
+            currentDevices.forEach((entryName, vidPid) -> {
+                if (!vidPid.equals(presentDevices.get(entryName))) {
+                    arrivedVidPids.add(vidPid);
+                }
+            });
+            if (!arrivedVidPids.isEmpty()) {
+                Map<String, Set<String>> healthKeysByVidPid = mapVidPids();
+                for (String vidPid : arrivedVidPids) {
+                    Set<String> healthKeys = healthKeysByVidPid.get(vidPid);
+                    if (healthKeys == null) {
+                        continue;
+                    }
+                    for (String healthKey : healthKeys) {
+                        if (retriedKeys.add(healthKey)) {
+                            log.success("USB device " + vidPid + " plugged in, reconnecting " + healthKey, 5);
+                            reconnectScheduler.retryNow(healthKey);
+                        }
+                    }
+                }
+            }
+        }
+        presentDevices = currentDevices;
+        return retriedKeys;
+    }
+
+    /**
+     * @param deviceName device name as listed in confirmout.
+     * @return health registry key the device's manager registered for reconnect, null if POSSUM does not manage it.
+     */
+    static String healthKeyOf(String deviceName) {
+        switch (deviceName) {
+            case "flatbedscanner":
+            case "handscanner":
+                return ScannerManager.HEALTH_KEY_PREFIX;
+            case "scale":
+                return ScaleManager.HEALTH_KEY;
+            case "printer":
+                return PrinterManager.HEALTH_KEY;
+            case "linedisplay":
+                return LineDisplayManager.HEALTH_KEY;
+            case "keylock":
+                return KeylockManager.HEALTH_KEY;
+            case "poskeyboard":
+                return POSKeyboardManager.HEALTH_KEY;
+            case "msr":
+                return MSRManager.HEALTH_KEY;
+            case "toneindicator":
+                return ToneIndicatorManager.HEALTH_KEY;
+            case "cashdrawer":
+                return CashDrawerManager.HEALTH_KEY_PREFIX;
+            default:
+                return null;
+        }
+    }
+
+    private Map<String, Set<String>> mapVidPids() {
+        Map<String, Set<String>> healthKeysByVidPid = new HashMap<>();
+        List<DeviceConfigResponse> devices;
+        try {
+            devices = inventorySource.get();
+        } catch (RuntimeException runtimeException) {
+            log.failure("Unable to read peripheral inventory", 13, runtimeException);
+            return healthKeysByVidPid;
+        }
+        if (devices == null) {
+            return healthKeysByVidPid;
+        }
+        for (DeviceConfigResponse device : devices) {
+            String healthKey = healthKeyOf(device.devicename);
+            if (healthKey != null && device.vidpid != null && !device.vidpid.isEmpty()) {
+                healthKeysByVidPid.computeIfAbsent(device.vidpid.toLowerCase(), vidPid -> new LinkedHashSet<>()).add(healthKey);
+            }
+        }
+        return healthKeysByVidPid;
+    }
+
+    private Map<String, String> readUsbDevices() {
+        return readUsbDevices(usbDevicesDirectory);
+    }
+
+    /**
+     * @return entry name (e.g. 1-4) to VID:PID of every USB device; interfaces and hubs without ids are skipped.
+     */
+    static Map<String, String> readUsbDevices(Path usbDevicesDirectory) {
+        Map<String, String> usbDevices = new HashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(usbDevicesDirectory)) {
+            for (Path entry : entries) {
+                Path idVendor = entry.resolve("idVendor");
+                Path idProduct = entry.resolve("idProduct");
+                try {
+                    if (Files.isRegularFile(idVendor) && Files.isRegularFile(idProduct)) {
+                        usbDevices.put(entry.getFileName().toString(),
+                                Files.readString(idVendor).trim().toLowerCase() + ":" + Files.readString(idProduct).trim().toLowerCase());
+                    }
+                } catch (IOException ioException) {
+                    //Device went away while it was being read, the next scan sees the final state
+                }
+            }
+        } catch (IOException ioException) {
+            log.failure("Unable to read " + usbDevicesDirectory, 13, ioException);
+        }
+        return usbDevices;
+    }
+
+    private boolean watch() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            usbDevicesDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException exception) {
+            log.failure("Unable to watch " + usbDevicesDirectory + ", polling instead", 13, exception);
+            return false;
+        }
+        WatchService service = watchService;
+        ScheduledExecutorService executor = scanExecutor;
+        Thread watcherThread = new Thread(() -> watchLoop(service, executor), "usb-hotplug-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        return true;
+    }
+
+    private void watchLoop(WatchService service, ScheduledExecutorService executor) {
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            }
+            //One rescan covers every event of the burst a plug in produces
+            watchKey.pollEvents();
+            try {
+                executor.execute(this::scan);
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                return;
+            }
+            if (!watchKey.reset()) {
+                return;
+            }
+        }
+    }
+
+    private static List<DeviceConfigResponse> readConfirmout() {
+        try {
+            PeripheralInventory.Inventory inventory = PeripheralInventory.getPeripheralInventory().fromFile(Path.of(PeripheralInventory.CONFIRMOUT_LOCATION));
+            return inventory == null ? List.of() : inventory.getDevices();
+        } catch (IOException ioException) {
+            log.failure("Unable to read " + PeripheralInventory.CONFIRMOUT_LOCATION, 13, ioException);
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.target.devicemanager.common.entities;
+
+import java.util.Map;
+
+public class AdmissionStats {
+    public String deviceName;
+    public int maxQueueDepth;
+    public long defaultWaitMsec;
+    public boolean isBusy;
+    public int queueDepth;
+    public long admitted;
+    public long rejectedQueueFull;
+    public long rejectedTimeout;
+    //place in line of an admission request, 0 when admitted right away -> count
+    public Map<String, Long> queueDepthHistogram;
+    //upper bound of time waited in msec -> count of admitted requests
+    public Map<String, Long> waitMsecHistogram;
+}
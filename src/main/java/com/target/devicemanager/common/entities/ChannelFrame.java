@@ -0,0 +1,56 @@
+package com.target.devicemanager.common.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Frame sent to /v1/channel clients. Empty fields are left out.
+ * A topic frame has t, and e, id and d as the matching SSE event would have them.
+ * A command reply has re, the id the client gave the command, and ok.
+ * Both carry err when the device failed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChannelFrame {
+    @JsonProperty("t")
+    public String topic;
+    @JsonProperty("e")
+    public String event;
+    @JsonProperty("id")
+    public String id;
+    @JsonProperty("d")
+    public Object data;
+    //frames of this topic dropped since the last one sent, because the client did not keep up
+    @JsonProperty("lost")
+    public Long lost;
+    @JsonProperty("re")
+    public String replyTo;
+    @JsonProperty("ok")
+    public Boolean isOk;
+    @JsonProperty("err")
+    public DeviceError error;
+
+    public static ChannelFrame event(DeviceChannelTopic topic, String event, String id, Object data) {
+        ChannelFrame frame = new ChannelFrame();
+        frame.topic = topic.getTopicName();
+        frame.event = event;
+        frame.id = id;
+        frame.data = data;
+        return frame;
+    }
+
+    public static ChannelFrame error(DeviceChannelTopic topic, DeviceError error) {
+        ChannelFrame frame = new ChannelFrame();
+        frame.topic = topic.getTopicName();
+        frame.error = error;
+        return frame;
+    }
+
+    public static ChannelFrame reply(String replyTo, Object data, DeviceError error) {
+        ChannelFrame frame = new ChannelFrame();
+        frame.replyTo = replyTo;
+        frame.isOk = error == null;
+        frame.data = data;
+        frame.error = error;
+        return frame;
+    }
+}
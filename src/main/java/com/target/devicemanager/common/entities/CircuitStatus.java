@@ -0,0 +1,9 @@
+package com.target.devicemanager.common.entities;
+
+public class CircuitStatus {
+    public String deviceName;
+    public String state;
+    public int failureCount;
+    public long openCount;
+    public long openedAtMsec;
+}
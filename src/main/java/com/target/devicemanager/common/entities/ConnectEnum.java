@@ -1,7 +0,0 @@
-package com.target.devicemanager.common.entities;
-
-public enum ConnectEnum {
-    FIRST_CONNECT,
-    CHECK_HEALTH,
-    HEALTH_UPDATED
-}
@@ -0,0 +1,11 @@
+package com.target.devicemanager.common.entities;
+
+public class ConnectPhaseTimes {
+    public String logicalName;
+    public boolean isConnected;
+    public long openMsec;
+    public long claimMsec;
+    public long enableMsec;
+    public long totalMsec;
+    public String failedPhase;
+}
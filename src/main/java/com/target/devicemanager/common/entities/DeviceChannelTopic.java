@@ -0,0 +1,43 @@
+package com.target.devicemanager.common.entities;
+
+/**
+ * Topics of the /v1/channel WebSocket. Each subscribed topic keeps up to capacity frames for a client that reads
+ * slower than the topic publishes, dropping the oldest. Weight and keylock only keep the latest frame.
+ */
+public enum DeviceChannelTopic {
+    SCAN("scan", 16),
+    WEIGHT("weight", 1),
+    KEYS("keys", 64),
+    KEYLOCK("keylock", 1),
+    ERRORS("errors", 16),
+    PRINT_JOB("print-job", 16);
+
+    private final String topicName;
+    private final int capacity;
+
+    DeviceChannelTopic(String topicName, int capacity) {
+        this.topicName = topicName;
+        this.capacity = capacity;
+    }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @param topicName name of the topic as sent by clients.
+     * @return the topic, null if there is none by that name.
+     */
+    public static DeviceChannelTopic of(String topicName) {
+        for (DeviceChannelTopic topic : values()) {
+            if (topic.topicName.equals(topicName)) {
+                return topic;
+            }
+        }
+        return null;
+    }
+}
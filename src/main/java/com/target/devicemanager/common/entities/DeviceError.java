@@ -14,6 +14,7 @@ public class DeviceError {
     public static final DeviceError UNKNOWN_DEVICE = new DeviceError("UNKNOWN_DEVICE", "Unknown device type.", HttpStatus.BAD_REQUEST);
     public static final DeviceError SSE_TIMEOUT = new DeviceError("SSE_TIMEOUT", "Timeout reached", HttpStatus.REQUEST_TIMEOUT);
     public static final DeviceError BAD_INPUT = new DeviceError("BAD_INPUT", "Invalid data", HttpStatus.BAD_REQUEST);
+    public static final DeviceError CIRCUIT_OPEN = new DeviceError("CIRCUIT_OPEN", "Device keeps failing, requests are rejected until it recovers.", HttpStatus.SERVICE_UNAVAILABLE);
     public static final DeviceError REMOVE_CASH = new DeviceError("REMOVE_CASH", "Remove dispensed bill.", HttpStatus.BAD_REQUEST);
 
     private final String code;
@@ -2,68 +2,69 @@ package com.target.devicemanager.common.entities;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.target.devicemanager.common.DeviceAvailabilityService;
+import com.target.devicemanager.common.DeviceErrorEventBus;
+import com.target.devicemanager.common.PeripheralInventory;
 import com.target.devicemanager.common.StructuredEventLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DeviceErrorStatusResponse {
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceErrorStatusResponse.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Common", "DeviceErrorStatusResponse", LOGGER);
     private static final DeviceErrorStatusResponse deviceErrorStatusResponse = new DeviceErrorStatusResponse();
-    private static List<DeviceErrorStatus> deviceErrorStatuses;
+    static final String PRINTER_DEVICE_NAME = "printer";
+    private final DeviceErrorEventBus deviceErrorEventBus;
 
     private DeviceErrorStatusResponse(){
-        deviceErrorStatuses = new CopyOnWriteArrayList<>();
+        List<String> deviceNames = new ArrayList<>();
         ObjectMapper objectMapper = new ObjectMapper();
-        File jsonConfirm = new File("/var/tmp/CONFIRMOUT/confirmout.json");
+        File jsonConfirm = new File(PeripheralInventory.CONFIRMOUT_LOCATION);
         if(jsonConfirm.exists() && jsonConfirm.isFile()){
-            JsonNode rootDevNode = null;
             try {
-                rootDevNode = objectMapper.readTree(jsonConfirm);
+                JsonNode rootDevNode = objectMapper.readTree(jsonConfirm);
+                Iterator<String> fieldNames = rootDevNode.fieldNames();
+
+                while(fieldNames.hasNext()){
+                    deviceNames.add(fieldNames.next());
+                }
             } catch (IOException ioException) {
                 log.failure("Error in parsing confirmout", 17, ioException);
             }
-            Iterator<String> fieldNames = rootDevNode.fieldNames();
-
-            while(fieldNames.hasNext()){
-                deviceErrorStatuses.add(new DeviceErrorStatus(fieldNames.next(), false, null));
-            }
         } else {
             log.failure("JSON is in wrong format", 17, null);
         }
+        deviceErrorEventBus = new DeviceErrorEventBus(deviceNames);
+    }
+
+    public static DeviceErrorEventBus getDeviceErrorEventBus(){
+        return deviceErrorStatusResponse.deviceErrorEventBus;
     }
 
     public static List<DeviceErrorStatus> getDeviceErrorStatusResponse(){
-        return deviceErrorStatusResponse.deviceErrorStatuses;
+        return getDeviceErrorEventBus().getSnapshot().getStatuses();
     }
 
+    /**
+     * Marks the device as faulted until the error is cleared. Subscribers only receive the change.
+     */
     public static void setDeviceErrorStatusResponse(String deviceName, DeviceError deviceError){
-        for(DeviceErrorStatus deviceErrorStatus : deviceErrorStatuses){
-            if(deviceErrorStatus.deviceName.equals(deviceName)){
-                deviceErrorStatus.faultPresent = true;
-                deviceErrorStatus.deviceError = deviceError;
-            }
-        }
-        DeviceAvailabilityService.fireDeviceErrorEvent();
-        clearError();
+        getDeviceErrorEventBus().setError(deviceName, deviceError);
     }
 
-    private static void clearError(){
-        for(DeviceErrorStatus deviceErrorStatus : deviceErrorStatuses){
-                deviceErrorStatus.faultPresent = false;
-                deviceErrorStatus.deviceError = null;
-        }
+    /**
+     * Clears the printer fault. Faults of the other devices stay until they are cleared themselves.
+     */
+    public static void sendClearError(){
+        sendClearError(getDeviceErrorEventBus());
     }
 
-    public static void sendClearError(){
-        clearError();
-        DeviceAvailabilityService.fireDeviceErrorEvent();
+    static void sendClearError(DeviceErrorEventBus deviceErrorEventBus){
+        deviceErrorEventBus.clearError(PRINTER_DEVICE_NAME);
     }
 }
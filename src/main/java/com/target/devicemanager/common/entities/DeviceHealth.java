@@ -2,7 +2,8 @@ package com.target.devicemanager.common.entities;
 
 public enum DeviceHealth {
     READY(0),
-    NOTREADY(1);
+    NOTREADY(1),
+    UNKNOWN(2);
 
     private final int healthStatus;
 
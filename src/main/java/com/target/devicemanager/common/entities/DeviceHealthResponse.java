@@ -1,13 +1,21 @@
 package com.target.devicemanager.common.entities;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class DeviceHealthResponse {
 
     private final String deviceName;
     private DeviceHealth health;
+    private final DeviceHealth lastKnownHealth;
 
     public DeviceHealthResponse(String deviceName, DeviceHealth health) {
+        this(deviceName, health, null);
+    }
+
+    public DeviceHealthResponse(String deviceName, DeviceHealth health, DeviceHealth lastKnownHealth) {
         this.deviceName = deviceName == null ? "" : deviceName;
         this.health = health == null ? DeviceHealth.NOTREADY : health;
+        this.lastKnownHealth = lastKnownHealth;
     }
 
     public String getDeviceName() {
@@ -18,6 +26,15 @@ public class DeviceHealthResponse {
         return health;
     }
 
+    /**
+     * Only set when the health is UNKNOWN because the device did not answer in time.
+     * @return health last published for the device, null if there is none.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public DeviceHealth getLastKnownHealth() {
+        return lastKnownHealth;
+    }
+
     public void updateHealthStatus(DeviceHealth health) {
         this.health = health;
     }
@@ -26,7 +43,7 @@ public class DeviceHealthResponse {
         return "DeviceHealthResponse{" +
                 "deviceName='" + deviceName + '\'' +
                 ", health=" + health +
+                (lastKnownHealth == null ? "" : ", lastKnownHealth=" + lastKnownHealth) +
                 '}';
     }
 }
-
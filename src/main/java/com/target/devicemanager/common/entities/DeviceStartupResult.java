@@ -0,0 +1,7 @@
+package com.target.devicemanager.common.entities;
+
+public class DeviceStartupResult {
+    public String deviceKey;
+    public DeviceStartupStatus status;
+    public long totalMsec;
+}
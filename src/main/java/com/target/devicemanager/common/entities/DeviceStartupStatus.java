@@ -0,0 +1,9 @@
+package com.target.devicemanager.common.entities;
+
+public enum DeviceStartupStatus {
+    CONNECTING,
+    CONNECTED,
+    NOT_CONNECTED,
+    TIMED_OUT,
+    FAILED
+}
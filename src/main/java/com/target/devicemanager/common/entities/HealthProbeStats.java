@@ -0,0 +1,11 @@
+package com.target.devicemanager.common.entities;
+
+public class HealthProbeStats {
+    public long probes;
+    public long timeouts;
+    public long failures;
+    public long lastLatencyMsec;
+    public long maxLatencyMsec;
+    public long averageLatencyMsec;
+    public boolean isProbing;
+}
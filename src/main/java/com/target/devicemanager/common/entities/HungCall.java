@@ -0,0 +1,12 @@
+package com.target.devicemanager.common.entities;
+
+public class HungCall {
+    public String deviceName;
+    public String operation;
+    public long deadlineMsec;
+    public long detectedAtMsec;
+    public String threadName;
+    public String stackTrace;
+    public boolean isReturned;
+    public long returnedAfterMsec;
+}
@@ -0,0 +1,13 @@
+package com.target.devicemanager.common.entities;
+
+public class ReconnectStats {
+    public long attempts;
+    public long failures;
+    public long immediateRetries;
+    public int consecutiveFailures;
+    public boolean isConnected;
+    public boolean isConnecting;
+    public long lastAttemptMsec;
+    public long maxAttemptMsec;
+    public long nextDelayMsec;
+}
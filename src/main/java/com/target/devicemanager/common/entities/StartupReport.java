@@ -0,0 +1,11 @@
+package com.target.devicemanager.common.entities;
+
+import java.util.List;
+import java.util.Map;
+
+public class StartupReport {
+    public boolean isComplete;
+    public long startupMsec;
+    public List<DeviceStartupResult> devices;
+    public Map<String, ConnectPhaseTimes> phases;
+}
@@ -32,6 +32,8 @@ public class RegisterTypeSimulatorController {
     @Autowired
     private ObjectMapper objectMapper;
 
+    private volatile Map allDevices;
+
     @PostMapping("/register_type")
     public ResponseEntity<String> setRegisterType(@RequestParam RegisterType registerType) {
         deviceAvailabilityService.setSimulatorRegisterType(registerType.getDisplayName());
@@ -106,11 +108,18 @@ public class RegisterTypeSimulatorController {
     }
 
     private Map loadAllDevices() throws Exception {
+        //allDevices.json is a classpath resource and cannot change while running, parse it once
+        Map devices = allDevices;
+        if (devices != null) {
+            return devices;
+        }
         try (InputStream is = getClass().getClassLoader().getResourceAsStream("allDevices.json")) {
             if (is == null) {
                 throw new IllegalStateException("allDevices.json not found in resources");
             }
-            return objectMapper.readValue(is, Map.class);
+            devices = Collections.unmodifiableMap(objectMapper.readValue(is, Map.class));
+            allDevices = devices;
+            return devices;
         }
     }
 }
@@ -17,7 +17,6 @@ import org.springframework.core.env.Environment;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.Phaser;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 @Profile({"local", "dev", "prod"})
@@ -65,15 +64,17 @@ class CashDrawerConfig {
                 CashDrawer cashDrawer = new CashDrawer();
                 DynamicDevice<? extends CashDrawer> dynamicCashDrawer = new DynamicDevice<>(
                         cashDrawer, new DevicePower(),
-                        new DeviceConnector<>(cashDrawer, deviceRegistry, null, preferred, autoAdapt));
+                        new DeviceConnector<>(cashDrawer, deviceRegistry, null, preferred, autoAdapt),
+                        CashDrawerManager.HEALTH_KEY_PREFIX + i, "cashdrawer");
                 devices.put(i, new CashDrawerDevice(
                         dynamicCashDrawer,
                         new CashDrawerDeviceListener(new EventSynchronizer(new Phaser(1)))));
             }
         }
 
-        CashDrawerManager cashDrawerManager = new CashDrawerManager(devices, new ReentrantLock());
+        CashDrawerManager cashDrawerManager = new CashDrawerManager(devices, new DeviceAdmissionController("cashDrawer", workstationConfig.getAdmissionMaxQueueDepth(), workstationConfig.getAdmissionDefaultWaitMsec()));
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setCashDrawerManager(cashDrawerManager);
+        ReconnectScheduler.getReconnectScheduler().register(CashDrawerManager.HEALTH_KEY_PREFIX, cashDrawerManager::connect);
         return cashDrawerManager;
     }
 
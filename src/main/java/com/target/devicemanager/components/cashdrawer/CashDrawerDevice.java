@@ -1,6 +1,10 @@
 package com.target.devicemanager.components.cashdrawer;
 
+import com.target.devicemanager.common.DeviceCallGuard;
+import com.target.devicemanager.common.DeviceCircuitBreaker;
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
+import com.target.devicemanager.common.ReconnectScheduler;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.DeviceListener;
@@ -75,8 +79,10 @@ public class CashDrawerDevice implements StatusUpdateListener{
         Enable the device when device is connected so that we can get status update events.
         When device is disabled we will not get the status events
         */
-        CashDrawer cashDrawer;
-        synchronized (cashDrawer = dynamicCashDrawer.getDevice()) {
+        CashDrawer cashDrawer = dynamicCashDrawer.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(cashDrawer);
+        deviceLock.lock();
+        try {
             try {
                 if (!cashDrawer.getDeviceEnabled()) {
                     cashDrawer.setDeviceEnabled(true);
@@ -89,6 +95,8 @@ public class CashDrawerDevice implements StatusUpdateListener{
                 deviceConnected = false;
                 return false;
             }
+        } finally {
+            deviceLock.unlock();
         }
         return true;
     }
@@ -142,8 +150,10 @@ public class CashDrawerDevice implements StatusUpdateListener{
                 detachEventListeners();
                 areListenersAttached = false;
             }
-            CashDrawer cashDrawer;
-            synchronized (cashDrawer = dynamicCashDrawer.getDevice()) {
+            CashDrawer cashDrawer = dynamicCashDrawer.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(cashDrawer);
+            deviceLock.lock();
+            try {
                 try {
                     if (cashDrawer.getDeviceEnabled()) {
                         cashDrawer.setDeviceEnabled(false);
@@ -153,6 +163,8 @@ public class CashDrawerDevice implements StatusUpdateListener{
                 } catch (JposException jposException) {
                     log.failure("Cash Drawer Failed to Disconnect", 18, jposException);
                 }
+            } finally {
+                deviceLock.unlock();
             }
         }
         /*
@@ -160,8 +172,10 @@ public class CashDrawerDevice implements StatusUpdateListener{
         Enable the device when device is connected so that we can get status update events.
         When device is disabled we will not get the status events
         */
-        CashDrawer cashDrawer;
-        synchronized (cashDrawer = dynamicCashDrawer.getDevice()) {
+        CashDrawer cashDrawer = dynamicCashDrawer.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(cashDrawer);
+        deviceLock.lock();
+        try {
             try {
                 if (!cashDrawer.getDeviceEnabled()) {
                     cashDrawer.setDeviceEnabled(true);
@@ -174,6 +188,8 @@ public class CashDrawerDevice implements StatusUpdateListener{
                 log.failure("Cash Drawer Failed to Enable Device", 18, jposException);
                 deviceConnected = false;
             }
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -186,21 +202,25 @@ public class CashDrawerDevice implements StatusUpdateListener{
      */
     public void openCashDrawer() throws JposException, DeviceException {
         enable();
-        CashDrawer cashDrawer;
-        synchronized (cashDrawer = dynamicCashDrawer.getDevice()) {
+        CashDrawer cashDrawer = dynamicCashDrawer.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(cashDrawer);
+        deviceLock.lock();
+        try {
             if (cashDrawerOpen) {
                 DeviceException deviceException = new DeviceException(CashDrawerError.ALREADY_OPEN);
                 log.failure("Cash Drawer is already open: " + CashDrawerError.ALREADY_OPEN.getDescription(), 17, deviceException);
                 throw deviceException;
             }
             log.success("Opening cash drawer...", 1);
-            cashDrawer.openDrawer();
+            DeviceCircuitBreaker.of(cashDrawer).run("openDrawer", DeviceCallGuard.OUTPUT_DEADLINE_MSEC, cashDrawer::openDrawer);
             waitForCashDrawerClose();
             if(!deviceConnected) {
                 DeviceException deviceException = new DeviceException(CashDrawerError.DEVICE_OFFLINE);
                 log.failure("Cash Drawer is offline after closing: " + CashDrawerError.DEVICE_OFFLINE.getDescription(), 18, deviceException);
                 throw deviceException;
             }
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -234,9 +254,13 @@ public class CashDrawerDevice implements StatusUpdateListener{
      * Attaches an event listener and adding it to a new instance.
      */
     private void attachEventListeners() {
-        CashDrawer cashDrawer;
-        synchronized (cashDrawer = dynamicCashDrawer.getDevice()) {
+        CashDrawer cashDrawer = dynamicCashDrawer.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(cashDrawer);
+        deviceLock.lock();
+        try {
             cashDrawer.addStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -244,9 +268,13 @@ public class CashDrawerDevice implements StatusUpdateListener{
      * Removes status update listener for cash drawer device.
      */
     private void detachEventListeners() {
-        CashDrawer cashDrawer;
-        synchronized (cashDrawer = dynamicCashDrawer.getDevice()) {
+        CashDrawer cashDrawer = dynamicCashDrawer.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(cashDrawer);
+        deviceLock.lock();
+        try {
             cashDrawer.removeStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -284,6 +312,7 @@ public class CashDrawerDevice implements StatusUpdateListener{
             case JposConst.JPOS_SUE_POWER_ONLINE:
                 log.success("Status Update: Power online", 5);
                 deviceConnected = true;
+                ReconnectScheduler.getReconnectScheduler().retryNow(CashDrawerManager.HEALTH_KEY_PREFIX);
                 break;
             case CashDrawerConst.CASH_SUE_DRAWEROPEN:
                 log.success("Cash drawer opened", 1);
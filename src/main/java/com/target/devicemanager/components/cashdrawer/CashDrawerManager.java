@@ -1,38 +1,29 @@
 package com.target.devicemanager.components.cashdrawer;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.components.cashdrawer.entities.CashDrawerError;
 import jpos.JposException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Profile;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.locks.Lock;
 
 @Profile({"local", "dev", "prod"})
-@EnableScheduling
-@EnableCaching
 public class CashDrawerManager {
 
     public static final int MIN_DRAWER_ID = 1;
     public static final int MAX_DRAWER_ID = 4;
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY_PREFIX = "cashdrawer:";
+    private final DeviceHealthRegistry healthRegistry;
     private final Map<Integer, CashDrawerDevice> cashDrawerDevices;
     private final Lock cashDrawerLock;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
     private static final Logger LOGGER = LoggerFactory.getLogger(CashDrawerManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("CashDrawer", "CashDrawerManager", LOGGER);
 
@@ -40,7 +31,7 @@ public class CashDrawerManager {
         this(cashDrawerDevices, cashDrawerLock, null);
     }
 
-    public CashDrawerManager(Map<Integer, CashDrawerDevice> cashDrawerDevices, Lock cashDrawerLock, CacheManager cacheManager) {
+    public CashDrawerManager(Map<Integer, CashDrawerDevice> cashDrawerDevices, Lock cashDrawerLock, DeviceHealthRegistry healthRegistry) {
         if (cashDrawerDevices == null || cashDrawerDevices.isEmpty()) {
             throw new IllegalArgumentException("cashDrawerDevices cannot be null or empty");
         }
@@ -50,9 +41,7 @@ public class CashDrawerManager {
         this.cashDrawerDevices = cashDrawerDevices;
         this.cashDrawerLock = cashDrawerLock;
 
-        if (cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
     }
 
     private CashDrawerDevice getDevice(int drawerId) throws DeviceException {
@@ -66,7 +55,6 @@ public class CashDrawerManager {
         return device;
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         for (CashDrawerDevice device : cashDrawerDevices.values()) {
             if (device.tryLock()) {
@@ -77,10 +65,7 @@ public class CashDrawerManager {
                 }
             }
         }
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            connectStatus = ConnectEnum.CHECK_HEALTH;
-        }
+        getAllHealth();
     }
 
     public void reconnectDevice(int drawerId) throws DeviceException {
@@ -125,31 +110,18 @@ public class CashDrawerManager {
         } else {
             deviceHealthResponse = new DeviceHealthResponse(cashDrawerDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            String cacheName = "cashDrawer" + drawerId + "Health";
-            Objects.requireNonNull(cacheManager.getCache(cacheName)).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(cashDrawer" + drawerId + "Health) Failed", 17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY_PREFIX + drawerId, deviceHealthResponse);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus(int drawerId) throws DeviceException {
-        try {
-            String cacheName = "cashDrawer" + drawerId + "Health";
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache(cacheName)).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth(drawerId);
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache(cacheName)).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 5);
-                return getHealth(drawerId);
-            }
-        } catch (Exception exception) {
+        getDevice(drawerId);
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY_PREFIX + drawerId);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth(drawerId);
         }
+        return deviceHealthResponse;
     }
 
     public List<DeviceHealthResponse> getAllHealth() {
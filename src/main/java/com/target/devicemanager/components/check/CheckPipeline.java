@@ -0,0 +1,217 @@
+package com.target.devicemanager.components.check;
+
+import com.target.devicemanager.common.RequestDeadline;
+import com.target.devicemanager.common.StructuredEventLogger;
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceException;
+import com.target.devicemanager.components.check.entities.CheckPipelineRequest;
+import com.target.devicemanager.components.check.entities.CheckPipelineResponse;
+import com.target.devicemanager.components.check.entities.MicrData;
+import com.target.devicemanager.components.check.entities.MicrError;
+import com.target.devicemanager.components.check.entities.MicrException;
+import com.target.devicemanager.components.printer.PrinterManager;
+import com.target.devicemanager.components.printer.entities.PrinterContent;
+import com.target.devicemanager.components.printer.entities.PrinterError;
+import com.target.devicemanager.components.printer.entities.PrinterException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a check tender as one operation: insert, MICR read, optional validation, frank and withdraw.
+ * The slip is never left in the station waiting on the client between stages. The printer is only held from
+ * after the read until the check is withdrawn, so receipts keep printing while the customer inserts the check.
+ */
+public class CheckPipeline {
+
+    static final String STAGE_READ = "insertAndRead";
+    static final String STAGE_VALIDATE = "validate";
+    static final String STAGE_FRANK = "frank";
+    static final String STAGE_WITHDRAW = "withdraw";
+    static final int MAX_TEMPLATE_SIZE = 64;
+
+    private final MicrManager micrManager;
+    private final PrinterManager printerManager;
+    private final CheckValidator checkValidator;
+    private final Executor pipelineExecutor;
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckPipeline.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("Check", "CheckPipeline", LOGGER);
+
+    public CheckPipeline(MicrManager micrManager, PrinterManager printerManager) {
+        this(micrManager, printerManager, new RoutingNumberValidator(), Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "check-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public CheckPipeline(MicrManager micrManager, PrinterManager printerManager, CheckValidator checkValidator, Executor pipelineExecutor) {
+        if (micrManager == null) {
+            throw new IllegalArgumentException("micrManager cannot be null");
+        }
+        if (printerManager == null) {
+            throw new IllegalArgumentException("printerManager cannot be null");
+        }
+        if (checkValidator == null) {
+            throw new IllegalArgumentException("checkValidator cannot be null");
+        }
+        if (pipelineExecutor == null) {
+            throw new IllegalArgumentException("pipelineExecutor cannot be null");
+        }
+        this.micrManager = micrManager;
+        this.printerManager = printerManager;
+        this.checkValidator = checkValidator;
+        this.pipelineExecutor = pipelineExecutor;
+    }
+
+    /**
+     * Starts the pipeline. The returned future completes with the MICR data and the time spent in each stage,
+     * or exceptionally with the DeviceException of the stage that failed. The check is withdrawn in either case.
+     * Only one check is processed at a time, another request fails with DEVICE_BUSY instead of waiting behind it.
+     * @param request frank template and validation option.
+     * @return future holding the pipeline result.
+     */
+    CompletableFuture<CheckPipelineResponse> process(CheckPipelineRequest request) {
+        if (request != null && request.frankTemplate != null && request.frankTemplate.size() >= MAX_TEMPLATE_SIZE) {
+            return CompletableFuture.failedFuture(new DeviceException(DeviceError.BAD_INPUT));
+        }
+        if (!isRunning.compareAndSet(false, true)) {
+            log.failure("Check pipeline is already processing a check", 13, null);
+            return CompletableFuture.failedFuture(new DeviceException(DeviceError.DEVICE_BUSY));
+        }
+        //The caller's deadline is kept on the request thread, the pipeline thread waits for the printer against it
+        Long deadlineMillis = RequestDeadline.isSet() ? System.currentTimeMillis() + RequestDeadline.remainingMsec(0) : null;
+        CompletableFuture<CheckPipelineResponse> result = new CompletableFuture<>();
+        try {
+            pipelineExecutor.execute(() -> {
+                try {
+                    result.complete(run(request, deadlineMillis));
+                } catch (DeviceException deviceException) {
+                    result.completeExceptionally(deviceException);
+                } catch (RuntimeException runtimeException) {
+                    log.failure("Check pipeline failed", 17, runtimeException);
+                    result.completeExceptionally(new DeviceException(DeviceError.UNEXPECTED_ERROR));
+                } finally {
+                    isRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            isRunning.set(false);
+            log.failure("Check pipeline could not be started", 17, rejectedExecutionException);
+            return CompletableFuture.failedFuture(new DeviceException(DeviceError.UNEXPECTED_ERROR));
+        }
+        return result;
+    }
+
+    private CheckPipelineResponse run(CheckPipelineRequest request, Long deadlineMillis) throws DeviceException {
+        boolean isFranking = request != null && request.frankTemplate != null && !request.frankTemplate.isEmpty();
+        long readStart = System.currentTimeMillis();
+        MicrData micrData;
+        try {
+            micrData = micrManager.readMICRAsync(new CompletableFuture<>()).join();
+        } catch (CompletionException completionException) {
+            Throwable cause = completionException.getCause();
+            if (cause instanceof DeviceException) {
+                throw (DeviceException) cause;
+            }
+            log.failure("Check read failed", 17, cause);
+            throw new DeviceException(DeviceError.UNEXPECTED_ERROR);
+        }
+        CheckPipelineResponse response = new CheckPipelineResponse(micrData);
+        response.stageTimingsMsec.put(STAGE_READ, System.currentTimeMillis() - readStart);
+        //The printer is held from after the read until the check is withdrawn, so a print cannot get in between
+        //and leave a check that was already read unfranked. frankCheck on this thread still gets the lock.
+        boolean isPrinterLocked = false;
+        try {
+            if (isFranking) {
+                isPrinterLocked = tryLockPrinter(deadlineMillis);
+                if (!isPrinterLocked) {
+                    throw new PrinterException(PrinterError.DEVICE_BUSY);
+                }
+            }
+            validateAndFrank(request, response);
+        } finally {
+            long withdrawStart = System.currentTimeMillis();
+            try {
+                micrManager.ejectCheck();
+            } finally {
+                if (isPrinterLocked) {
+                    printerManager.unlock();
+                }
+            }
+            response.stageTimingsMsec.put(STAGE_WITHDRAW, System.currentTimeMillis() - withdrawStart);
+            log.success("check pipeline stage timings " + response.stageTimingsMsec, 9);
+        }
+        return response;
+    }
+
+    private boolean tryLockPrinter(Long deadlineMillis) {
+        if (deadlineMillis == null) {
+            return printerManager.tryLock();
+        }
+        RequestDeadline.set(deadlineMillis - System.currentTimeMillis());
+        try {
+            return printerManager.tryLock();
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private void validateAndFrank(CheckPipelineRequest request, CheckPipelineResponse response) throws DeviceException {
+        if (request == null) {
+            return;
+        }
+        if (request.validate) {
+            long validateStart = System.currentTimeMillis();
+            boolean isValid = checkValidator.isValid(response.micrData);
+            response.stageTimingsMsec.put(STAGE_VALIDATE, System.currentTimeMillis() - validateStart);
+            if (!isValid) {
+                log.failure("Check failed validation", 13, null);
+                throw new MicrException(MicrError.INVALID_CHECK);
+            }
+        }
+        if (request.frankTemplate != null && !request.frankTemplate.isEmpty()) {
+            long frankStart = System.currentTimeMillis();
+            try {
+                printerManager.frankCheck(fillTemplate(request.frankTemplate, response.micrData));
+                response.franked = true;
+            } finally {
+                response.stageTimingsMsec.put(STAGE_FRANK, System.currentTimeMillis() - frankStart);
+            }
+        }
+    }
+
+    /**
+     * @return copies of the template contents with the MICR data filled in, the template itself is left as it is.
+     */
+    static List<PrinterContent> fillTemplate(List<PrinterContent> template, MicrData micrData) {
+        List<PrinterContent> contents = new ArrayList<>();
+        for (PrinterContent content : template) {
+            if (content != null && content.data != null) {
+                PrinterContent filled = content.copy();
+                filled.data = content.data
+                        .replace("${account_number}", nullToEmpty(micrData.account_number))
+                        .replace("${bank_number}", nullToEmpty(micrData.bank_number))
+                        .replace("${transit_number}", nullToEmpty(micrData.transit_number))
+                        .replace("${sequence_number}", nullToEmpty(micrData.sequence_number));
+                contents.add(filled);
+            } else {
+                contents.add(content);
+            }
+        }
+        return contents;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,12 @@
+package com.target.devicemanager.components.check;
+
+import com.target.devicemanager.components.check.entities.MicrData;
+
+/**
+ * Hook run by the check pipeline between the MICR read and franking.
+ * Returning false rejects the check and ejects it without franking.
+ */
+@FunctionalInterface
+public interface CheckValidator {
+    boolean isValid(MicrData micrData);
+}
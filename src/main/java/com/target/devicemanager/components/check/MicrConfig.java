@@ -4,7 +4,9 @@ import com.target.devicemanager.common.DeviceAvailabilitySingleton;
 import com.target.devicemanager.common.DeviceConnector;
 import com.target.devicemanager.common.DevicePower;
 import com.target.devicemanager.common.DynamicDevice;
+import com.target.devicemanager.common.ReconnectScheduler;
 import com.target.devicemanager.components.check.simulator.SimulatedJposMicr;
+import com.target.devicemanager.components.printer.PrinterManager;
 import com.target.devicemanager.configuration.ApplicationConfig;
 import com.target.devicemanager.configuration.WorkstationConfig;
 import jpos.MICR;
@@ -48,16 +50,22 @@ class MicrConfig {
             dynamicMicr = new DynamicDevice<>(simulatedMicr, new DevicePower(), new DeviceConnector<>(simulatedMicr, deviceRegistry));
         } else {
             MICR micr = new MICR();
-            dynamicMicr = new DynamicDevice<>(micr, new DevicePower(), new DeviceConnector<>(micr, deviceRegistry, null, preferred, autoAdapt));
+            dynamicMicr = new DynamicDevice<>(micr, new DevicePower(), new DeviceConnector<>(micr, deviceRegistry, null, preferred, autoAdapt), MicrManager.HEALTH_KEY, "micr");
         }
 
         MicrManager micrManager = new MicrManager(
                 new MicrDevice(dynamicMicr,new CopyOnWriteArrayList<>(),new CopyOnWriteArrayList<>()));
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setMicrManager(micrManager);
+        ReconnectScheduler.getReconnectScheduler().register(MicrManager.HEALTH_KEY, micrManager::connect);
         return micrManager;
     }
 
+    @Bean
+    public CheckPipeline getCheckPipeline(MicrManager micrManager, PrinterManager printerManager) {
+        return new CheckPipeline(micrManager, printerManager);
+    }
+
     @Bean
     SimulatedJposMicr getSimulatedMicr(){return simulatedMicr;}
 }
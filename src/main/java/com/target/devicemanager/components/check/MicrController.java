@@ -4,6 +4,8 @@ import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.components.check.entities.CheckPipelineRequest;
+import com.target.devicemanager.components.check.entities.CheckPipelineResponse;
 import com.target.devicemanager.components.check.entities.MicrData;
 import com.target.devicemanager.components.check.entities.MicrError;
 import com.target.devicemanager.components.check.entities.MicrException;
@@ -26,9 +28,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping(value = "/v1")
@@ -38,12 +42,14 @@ public class MicrController {
 
     private final PrinterManager printerManager;
     private final MicrManager micrManager;
+    private final CheckPipeline checkPipeline;
     private final int PRINT_CONTENT_SIZE = 64;
+    private static final long RESPONSE_GRACE_MSEC = 5000;
     private static final Logger LOGGER = LoggerFactory.getLogger(MicrController.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Check", "MicrController", LOGGER);
 
     @Autowired
-    public MicrController(PrinterManager printerManager, MicrManager micrManager) {
+    public MicrController(PrinterManager printerManager, MicrManager micrManager, CheckPipeline checkPipeline) {
         if (printerManager == null) {
             throw new IllegalArgumentException("printerManager cannot be null");
         }
@@ -51,8 +57,12 @@ public class MicrController {
             throw new IllegalArgumentException("micrManager cannot be null");
 
         }
+        if (checkPipeline == null) {
+            throw new IllegalArgumentException("checkPipeline cannot be null");
+        }
         this.printerManager = printerManager;
         this.micrManager = micrManager;
+        this.checkPipeline = checkPipeline;
     }
 
     @Operation(description = "print data on a CHECK / SLIP")
@@ -99,20 +109,65 @@ public class MicrController {
             @ApiResponse(responseCode = "204", description = "CLIENT_CANCELLED_REQUEST",
                     content = @Content(schema = @Schema(implementation = MicrError.class)))
     })
-    public MicrData readCheck() throws MicrException {
+    public DeferredResult<MicrData> readCheck() {
         String url = "/v1/check";
         log.successAPI("request", 1, url, null, 0);
-        CompletableFuture<MicrData> micrDataClient = new CompletableFuture<>();
-        try {
-            MicrData data = micrManager.readMICR(micrDataClient);
-            log.successAPI("response", 1, url, null, 200);
-            return data;
-        } catch (MicrException micrException) {
-            int statusCode = micrException.getDeviceError() == null ? 0 : micrException.getDeviceError().getStatusCode().value();
-            String body = micrException.getDeviceError() == null ? null : micrException.getDeviceError().toString();
-            log.failureAPI("response", 13, url, body, statusCode, micrException);
-            throw micrException;
-        }
+        DeferredResult<MicrData> result = new DeferredResult<>(MicrManager.CHECK_READ_TIMEOUT_MSEC + RESPONSE_GRACE_MSEC);
+        micrManager.readMICRAsync(new CompletableFuture<>()).whenComplete((data, throwable) -> {
+            if (throwable == null) {
+                log.successAPI("response", 1, url, null, 200);
+                result.setResult(data);
+                return;
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (cause instanceof MicrException) {
+                MicrException micrException = (MicrException) cause;
+                int statusCode = micrException.getDeviceError() == null ? 0 : micrException.getDeviceError().getStatusCode().value();
+                String body = micrException.getDeviceError() == null ? null : micrException.getDeviceError().toString();
+                log.failureAPI("response", 13, url, body, statusCode, micrException);
+            } else {
+                log.failureAPI("response", 17, url, null, 500, cause);
+            }
+            result.setErrorResult(cause);
+        });
+        return result;
+    }
+
+    @Operation(description = "insert, read, optionally validate, frank and withdraw a CHECK / SLIP in one call")
+    @PostMapping(value = "/check/process")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "BAD_DATA, INVALID_CHECK, BAD_INPUT, INVALID_FORMAT",
+                    content = @Content(schema = @Schema(implementation = MicrError.class))),
+            @ApiResponse(responseCode = "404", description = "HARDWARE_ERROR / DEVICE OFFLINE",
+                    content = @Content(schema = @Schema(implementation = MicrError.class))),
+            @ApiResponse(responseCode = "204", description = "CLIENT_CANCELLED_REQUEST",
+                    content = @Content(schema = @Schema(implementation = MicrError.class))),
+            @ApiResponse(responseCode = "409", description = "DEVICE_BUSY",
+                    content = @Content(schema = @Schema(implementation = DeviceError.class)))
+    })
+    public DeferredResult<CheckPipelineResponse> processCheck(@Parameter(description = "Check Pipeline Request") @Valid @RequestBody(required = false) CheckPipelineRequest request) {
+        String url = "/v1/check/process";
+        log.successAPI("request", 1, url, null, 0);
+        DeferredResult<CheckPipelineResponse> result = new DeferredResult<>(MicrManager.CHECK_READ_TIMEOUT_MSEC + RESPONSE_GRACE_MSEC);
+        checkPipeline.process(request).whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                log.successAPI("response", 1, url, null, 200);
+                result.setResult(response);
+                return;
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (cause instanceof DeviceException) {
+                DeviceException deviceException = (DeviceException) cause;
+                int statusCode = deviceException.getDeviceError() == null ? 0 : deviceException.getDeviceError().getStatusCode().value();
+                String body = deviceException.getDeviceError() == null ? null : deviceException.getDeviceError().toString();
+                log.failureAPI("response", 13, url, body, statusCode, deviceException);
+            } else {
+                log.failureAPI("response", 17, url, null, 500, cause);
+            }
+            result.setErrorResult(cause);
+        });
+        return result;
     }
 
     @Operation(description = "cancel get MICR data call and/or eject the check from the station")
@@ -1,5 +1,8 @@
 package com.target.devicemanager.components.check;
 
+import com.target.devicemanager.common.DeviceCallGuard;
+import com.target.devicemanager.common.DeviceCircuitBreaker;
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.events.ConnectionEvent;
@@ -16,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -24,8 +28,11 @@ public class MicrDevice implements StatusUpdateListener, ErrorListener, DataList
     private final DynamicDevice<? extends MICR> dynamicMicr;
     private final List<ConnectionEventListener> connectionEventListeners;
     private final List<MicrEventListener> micrEventListeners;
-    private boolean isCheckCancelReceived;
+    private volatile boolean isCheckCancelReceived;
+    private volatile long cancelReceivedNanos = 0;
+    private volatile long lastCancelToEjectMsec = -1;
     private static final int RETURN_IMMEDIATE = 0;
+    private static final int INSERTION_POLL_MSEC = 250;
     private final ReentrantLock connectLock;
     private boolean isLocked = false;
     private static final Logger LOGGER = LoggerFactory.getLogger(MicrDevice.class);
@@ -169,6 +176,18 @@ public class MicrDevice implements StatusUpdateListener, ErrorListener, DataList
      * begins check insertion process.
      */
     void insertCheck() throws MicrException {
+        if (!insertCheck(this::isCheckCancelReceived)) {
+            //If we are here, CLIENT called a cancel.
+            fireMicrErrorEvent(new JposException(JposConst.JPOS_E_TIMEOUT));
+        }
+    }
+
+    /**
+     * begins check insertion process for one read.
+     * @param isReadCancelled cancel token of this read, a later read cannot undo it.
+     * @return true once the check is inserted, false if the read was cancelled first.
+     */
+    boolean insertCheck(BooleanSupplier isReadCancelled) throws MicrException {
         log.success("waiting for check to be inserted...", 1);
         /*
         We are waiting for the check to be inserted. There are only 3 ways to get out of this black hole
@@ -177,19 +196,25 @@ public class MicrDevice implements StatusUpdateListener, ErrorListener, DataList
         3. Device error occurs and a JPOS exception (other than timeout) is raised
         */
         MICR micr = dynamicMicr.getDevice();
-        synchronized (micr) {
-            while (!isCheckCancelReceived()) {
-
+        while (!isReadCancelled.getAsBoolean()) {
+            //Only hold the device lock for a single poll so withdrawCheck() can get in between polls
+            DeviceLock deviceLock = DeviceLock.of(micr);
+            deviceLock.lock();
+            try {
                 try {
-                    micr.beginInsertion(250);
-                    micr.endInsertion();
-                    return;
+                    DeviceCircuitBreaker circuitBreaker = DeviceCircuitBreaker.of(micr);
+                    circuitBreaker.run("beginInsertion", INSERTION_POLL_MSEC + DeviceCallGuard.DEADLINE_MARGIN_MSEC, () -> micr.beginInsertion(INSERTION_POLL_MSEC));
+                    circuitBreaker.run("endInsertion", DeviceCallGuard.OUTPUT_DEADLINE_MSEC, micr::endInsertion);
+                    return true;
 
                 } catch (JposException jposException) {
                     if (jposException.getErrorCode() != JposConst.JPOS_E_TIMEOUT) {
                         log.failure("Check Reader Failed to Insert Check", 17, jposException);
-                        this.micrEventListeners.forEach(listener -> listener
-                                .micrErrorEventOccurred(new MicrErrorEvent(this, jposException)));
+                        //A cancelled read has no client left, the error would fail the read that replaced it
+                        if (!isReadCancelled.getAsBoolean()) {
+                            this.micrEventListeners.forEach(listener -> listener
+                                    .micrErrorEventOccurred(new MicrErrorEvent(this, jposException)));
+                        }
                         setCheckCancelReceived(true);
                         try {
                             // Insert may fail if a check is already inserted from a previous MICR read,
@@ -201,10 +226,11 @@ public class MicrDevice implements StatusUpdateListener, ErrorListener, DataList
                         throw new MicrException(jposException);
                     }
                 }
+            } finally {
+                deviceLock.unlock();
             }
         }
-        //If we are here, CLIENT called a cancel.
-        fireMicrErrorEvent(new JposException(JposConst.JPOS_E_TIMEOUT));
+        return false;
     }
 
     /**
@@ -214,10 +240,20 @@ public class MicrDevice implements StatusUpdateListener, ErrorListener, DataList
     public void withdrawCheck() throws JposException {
         log.success("withdraw check", 5);
         try {
-            MICR micr;
-            synchronized (micr = dynamicMicr.getDevice()) {
+            MICR micr = dynamicMicr.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(micr);
+            deviceLock.lock();
+            try {
                 micr.beginRemoval(RETURN_IMMEDIATE);
                 micr.endRemoval();
+            } finally {
+                deviceLock.unlock();
+            }
+            long cancelNanos = cancelReceivedNanos;
+            if (cancelNanos != 0) {
+                cancelReceivedNanos = 0;
+                lastCancelToEjectMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cancelNanos);
+                log.success("cancel to eject took " + lastCancelToEjectMsec + " ms", 9);
             }
         } catch (JposException jposException) {
             log.failure("Check Reader Failed to Remove Check", 17, jposException);
@@ -238,9 +274,22 @@ public class MicrDevice implements StatusUpdateListener, ErrorListener, DataList
      * @param checkCancelReceived check cancel request.
      */
     public void setCheckCancelReceived(boolean checkCancelReceived) {
+        if (checkCancelReceived && !isCheckCancelReceived) {
+            cancelReceivedNanos = System.nanoTime();
+        } else if (!checkCancelReceived) {
+            cancelReceivedNanos = 0;
+        }
         isCheckCancelReceived = checkCancelReceived;
     }
 
+    /**
+     * Time between the last cancel request and the check being ejected.
+     * @return latency in milliseconds, -1 if no cancelled read has been ejected yet.
+     */
+    public long getLastCancelToEjectMsec() {
+        return lastCancelToEjectMsec;
+    }
+
     /**
      * Gets the StatusUpdate of the MCR whether its Power online/offline.
      * @param statusUpdateEvent
@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.check;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.common.events.ConnectionEvent;
@@ -12,26 +13,28 @@ import jpos.JposConst;
 import jpos.JposException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 
-import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
-@EnableScheduling
-@EnableCaching
 public class MicrManager implements MicrEventListener, ConnectionEventListener {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY = "micr";
+    private final DeviceHealthRegistry healthRegistry;
     private final MicrDevice micrDevice;
-    private CompletableFuture<MicrData> micrDataClient = null;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
+    private volatile CompletableFuture<MicrData> micrDataClient = null;
+    private final AtomicReference<CheckRead> currentRead = new AtomicReference<>();
+    private final Executor insertionExecutor;
+    private final long checkReadTimeoutMsec;
+    static final long CHECK_READ_TIMEOUT_MSEC = 120000;
     private static final Logger LOGGER = LoggerFactory.getLogger(MicrManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Check", "MicrManager", LOGGER);
 
@@ -39,22 +42,32 @@ public class MicrManager implements MicrEventListener, ConnectionEventListener {
         this(micrDevice, null, null);
     }
 
-    public MicrManager(MicrDevice micrDevice, CacheManager cacheManager, CompletableFuture<MicrData> micrDataClient) {
+    public MicrManager(MicrDevice micrDevice, DeviceHealthRegistry healthRegistry, CompletableFuture<MicrData> micrDataClient) {
+        this(micrDevice, healthRegistry, micrDataClient, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "micr-insertion");
+            thread.setDaemon(true);
+            return thread;
+        }), CHECK_READ_TIMEOUT_MSEC);
+    }
+
+    public MicrManager(MicrDevice micrDevice, DeviceHealthRegistry healthRegistry, CompletableFuture<MicrData> micrDataClient, Executor insertionExecutor, long checkReadTimeoutMsec) {
         if (micrDevice == null) {
             throw new IllegalArgumentException("micrDevice cannot be null");
         }
+        if (insertionExecutor == null) {
+            throw new IllegalArgumentException("insertionExecutor cannot be null");
+        }
+        this.insertionExecutor = insertionExecutor;
+        this.checkReadTimeoutMsec = checkReadTimeoutMsec;
         this.micrDevice = micrDevice;
         this.micrDevice.addMicrEventListener(this);
         this.micrDevice.addConnectionEventListener(this);
 
-        if(cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
 
         this.micrDataClient = micrDataClient;
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         if (micrDevice.tryLock()) {
             try {
@@ -63,10 +76,7 @@ public class MicrManager implements MicrEventListener, ConnectionEventListener {
                 micrDevice.unlock();
             }
         }
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            connectStatus = ConnectEnum.CHECK_HEALTH;
-        }
+        getHealth();
     }
 
     public void reconnectDevice() throws DeviceException {
@@ -85,27 +95,113 @@ public class MicrManager implements MicrEventListener, ConnectionEventListener {
     }
 
     MicrData readMICR(CompletableFuture<MicrData> micrDataClient) throws MicrException {
+        try {
+            return readMICRAsync(micrDataClient).join();
+        } catch (CompletionException completionException) {
+            throw toMicrException(completionException);
+        }
+    }
+
+    /**
+     * Starts waiting for a check on the insertion thread and returns without blocking the caller.
+     * The returned future completes with the MICR data, or exceptionally with a MicrException when the
+     * read fails, is cancelled or runs past the read deadline. The check is ejected on every failure.
+     * A new read cancels the read before it, which fails without ejecting the check the new read waits for.
+     * @param micrDataClient future completed by the MICR data and error events.
+     * @return future holding the MICR data.
+     */
+    CompletableFuture<MicrData> readMICRAsync(CompletableFuture<MicrData> micrDataClient) {
+        CheckRead checkRead = new CheckRead(micrDataClient);
+        CheckRead previousRead = currentRead.getAndSet(checkRead);
+        if (previousRead != null) {
+            previousRead.cancel();
+        }
         this.micrDataClient = micrDataClient;
         micrDevice.setCheckCancelReceived(false);
-        micrDevice.insertCheck();
+        long startTime = System.currentTimeMillis();
+        try {
+            checkRead.insertion = CompletableFuture.runAsync(() -> insertCheck(checkRead), insertionExecutor);
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            log.failure("Check insertion could not be started", 17, rejectedExecutionException);
+            micrDataClient.completeExceptionally(new JposException(JposConst.JPOS_E_FAILURE));
+        }
+        return micrDataClient
+                .orTimeout(checkReadTimeoutMsec, TimeUnit.MILLISECONDS)
+                .handle((micrData, throwable) -> {
+                    if (throwable == null) {
+                        log.success("check read took " + (System.currentTimeMillis() - startTime) + " ms", 9);
+                        return CompletableFuture.completedFuture(micrData);
+                    }
+                    checkRead.cancel();
+                    MicrException micrException = toMicrException(throwable);
+                    //A read that was replaced leaves the device to the read that replaced it
+                    if (currentRead.get() != checkRead) {
+                        return CompletableFuture.<MicrData>failedFuture(micrException);
+                    }
+                    //The client of this read is already complete, only the device still waits for the check
+                    micrDevice.setCheckCancelReceived(true);
+                    return ejectAsync().<MicrData>thenApply(ejected -> {
+                        throw new CompletionException(micrException);
+                    });
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Ejects the check on the insertion thread, after the insertion has seen the cancel. A read deadline is handled
+     * on the JVM wide thread behind orTimeout, which must not wait on device I/O.
+     */
+    private CompletableFuture<Void> ejectAsync() {
         try {
-            //Timeout as a double check against timing errors that would cause us to hang forever
-            return micrDataClient.get();
-        } catch (ExecutionException executionException) {
-            cancelCheckRead();
-            ejectCheck();
-            Throwable jposException = executionException.getCause();
-            MicrException micrException = new MicrException((JposException)jposException);
-            throw micrException;
-        } catch (InterruptedException interruptedException) {
-            cancelCheckRead();
-            ejectCheck();
-            MicrException micrException = new MicrException(new JposException(JposConst.JPOS_E_FAILURE));
-            throw micrException;
+            return CompletableFuture.runAsync(this::ejectCheck, insertionExecutor);
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            log.failure("Check eject could not be started", 17, rejectedExecutionException);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void insertCheck(CheckRead checkRead) {
+        CompletableFuture<MicrData> micrDataClient = checkRead.micrDataClient;
+        try {
+            if (!micrDevice.insertCheck(checkRead::isCancelled)) {
+                //Only this read's client is failed, a newer read may already be waiting on the device
+                micrDataClient.completeExceptionally(new JposException(JposConst.JPOS_E_TIMEOUT));
+            }
+        } catch (MicrException micrException) {
+            //The device already fired an error event that completes the client
+            log.failure("Check insertion failed", 13, micrException);
+        } catch (RuntimeException runtimeException) {
+            log.failure("Check insertion failed", 17, runtimeException);
+            micrDataClient.completeExceptionally(new JposException(JposConst.JPOS_E_FAILURE));
+        }
+    }
+
+    private MicrException toMicrException(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof MicrException) {
+            return (MicrException) cause;
+        }
+        if (cause instanceof JposException) {
+            return new MicrException((JposException) cause);
+        }
+        if (cause instanceof TimeoutException) {
+            log.failure("Check read deadline of " + checkReadTimeoutMsec + " ms expired", 13, cause);
+            return new MicrException(new JposException(JposConst.JPOS_E_TIMEOUT));
+        }
+        if (cause instanceof CancellationException) {
+            return new MicrException(new JposException(JposConst.JPOS_E_TIMEOUT));
         }
+        return new MicrException(new JposException(JposConst.JPOS_E_FAILURE));
     }
 
     public void cancelCheckRead(){
+        CheckRead checkRead = currentRead.get();
+        if (checkRead != null) {
+            checkRead.cancel();
+        }
         if (micrDataClient != null) {
             micrDataClient.cancel(true);
         }
@@ -139,6 +235,8 @@ public class MicrManager implements MicrEventListener, ConnectionEventListener {
 
     @Override
     public void connectionEventOccurred(ConnectionEvent connectionEvent) {
+        DeviceHealth deviceHealth = connectionEvent.isConnected() ? DeviceHealth.READY : DeviceHealth.NOTREADY;
+        healthRegistry.publish(HEALTH_KEY, new DeviceHealthResponse(micrDevice.getDeviceName(), deviceHealth));
     }
 
     public DeviceHealthResponse getHealth() {
@@ -148,28 +246,43 @@ public class MicrManager implements MicrEventListener, ConnectionEventListener {
         } else {
             deviceHealthResponse = new DeviceHealthResponse(micrDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("micrHealth")).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(micrHealth) Failed", 17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY, deviceHealthResponse);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("micrHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth();
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache("micrHealth")).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 5);
-                return getHealth();
-            }
-        } catch (Exception exception) {
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth();
         }
+        return deviceHealthResponse;
+    }
+
+    /**
+     * One check read, with its own cancel token so starting the next read cannot undo a cancel.
+     */
+    private static class CheckRead {
+        private final CompletableFuture<MicrData> micrDataClient;
+        private volatile boolean isCancelled;
+        private volatile CompletableFuture<Void> insertion;
+
+        CheckRead(CompletableFuture<MicrData> micrDataClient) {
+            this.micrDataClient = micrDataClient;
+        }
+
+        boolean isCancelled() {
+            return isCancelled;
+        }
+
+        void cancel() {
+            isCancelled = true;
+            CompletableFuture<Void> pendingInsertion = insertion;
+            if (pendingInsertion != null) {
+                //An insertion that has not started yet never runs
+                pendingInsertion.cancel(false);
+            }
+            micrDataClient.completeExceptionally(new JposException(JposConst.JPOS_E_TIMEOUT));
+        }
     }
 }
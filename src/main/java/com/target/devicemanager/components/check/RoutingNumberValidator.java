@@ -0,0 +1,31 @@
+package com.target.devicemanager.components.check;
+
+import com.target.devicemanager.components.check.entities.MicrData;
+
+/**
+ * Default check validator, verifies the transit number is a 9 digit ABA routing number with a valid check digit.
+ */
+public class RoutingNumberValidator implements CheckValidator {
+
+    private static final int[] WEIGHTS = {3, 7, 1, 3, 7, 1, 3, 7, 1};
+
+    @Override
+    public boolean isValid(MicrData micrData) {
+        if (micrData == null || micrData.transit_number == null) {
+            return false;
+        }
+        String transitNumber = micrData.transit_number.trim();
+        if (transitNumber.length() != WEIGHTS.length) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            char digit = transitNumber.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return false;
+            }
+            sum += (digit - '0') * WEIGHTS[i];
+        }
+        return sum % 10 == 0;
+    }
+}
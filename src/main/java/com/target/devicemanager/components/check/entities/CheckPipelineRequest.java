@@ -0,0 +1,23 @@
+package com.target.devicemanager.components.check.entities;
+
+import com.target.devicemanager.components.printer.entities.PrinterContent;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+
+import java.util.List;
+
+public class CheckPipelineRequest {
+    @Schema(description = "Content franked on the check. ${account_number}, ${bank_number}, ${transit_number} and ${sequence_number} are replaced with the MICR data. Leave empty to skip franking.")
+    @Valid
+    public List<PrinterContent> frankTemplate;
+    @Schema(description = "Run the check validator on the MICR data before franking.")
+    public boolean validate;
+
+    public CheckPipelineRequest() {
+    }
+
+    public CheckPipelineRequest(List<PrinterContent> frankTemplate, boolean validate) {
+        this.frankTemplate = frankTemplate;
+        this.validate = validate;
+    }
+}
@@ -0,0 +1,17 @@
+package com.target.devicemanager.components.check.entities;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CheckPipelineResponse {
+    public MicrData micrData;
+    public boolean franked;
+    public Map<String, Long> stageTimingsMsec = new LinkedHashMap<>();
+
+    public CheckPipelineResponse() {
+    }
+
+    public CheckPipelineResponse(MicrData micrData) {
+        this.micrData = micrData;
+    }
+}
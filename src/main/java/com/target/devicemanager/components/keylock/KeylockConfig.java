@@ -15,7 +15,6 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 
 import java.util.concurrent.Phaser;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 @Profile({"local", "dev", "prod"})
@@ -48,16 +47,17 @@ class KeylockConfig {
 
         } else {
             Keylock keylock = new Keylock();
-            dynamicKeylock = new DynamicDevice<>(keylock, new DevicePower(), new DeviceConnector<>(keylock, deviceRegistry, null, preferred, autoAdapt, true));
+            dynamicKeylock = new DynamicDevice<>(keylock, new DevicePower(), new DeviceConnector<>(keylock, deviceRegistry, null, preferred, autoAdapt, true), KeylockManager.HEALTH_KEY, "keylock");
         }
 
         KeylockManager keylockManager = new KeylockManager(
                 new KeylockDevice(
                         dynamicKeylock,
                         new KeylockDeviceListener(new EventSynchronizer(new Phaser(1)))),
-                new ReentrantLock());
+                new DeviceAdmissionController("keylock", workstationConfig.getAdmissionMaxQueueDepth(), workstationConfig.getAdmissionDefaultWaitMsec()));
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setKeylockManager(keylockManager);
+        ReconnectScheduler.getReconnectScheduler().register(KeylockManager.HEALTH_KEY, keylockManager::connect);
         return keylockManager;
     }
 
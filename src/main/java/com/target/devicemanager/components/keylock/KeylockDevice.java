@@ -1,6 +1,8 @@
 package com.target.devicemanager.components.keylock;
 
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
+import com.target.devicemanager.common.ReconnectScheduler;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.DeviceListener;
 import com.target.devicemanager.components.keylock.entities.KeylockPosition;
@@ -70,8 +72,10 @@ public class KeylockDevice implements StatusUpdateListener {
             areListenersAttached = true;
         }
 
-        Keylock keylock;
-        synchronized (keylock = dynamicKeylock.getDevice()) {
+        Keylock keylock = dynamicKeylock.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(keylock);
+        deviceLock.lock();
+        try {
             try {
                 if (!keylock.getDeviceEnabled()) {
                     keylock.setDeviceEnabled(true);
@@ -87,6 +91,8 @@ public class KeylockDevice implements StatusUpdateListener {
                 deviceConnected = false;
                 return false;
             }
+        } finally {
+            deviceLock.unlock();
         }
         return true;
     }
@@ -148,8 +154,10 @@ public class KeylockDevice implements StatusUpdateListener {
                 detachEventListeners();
                 areListenersAttached = false;
             }
-            Keylock keylock;
-            synchronized (keylock = dynamicKeylock.getDevice()) {
+            Keylock keylock = dynamicKeylock.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(keylock);
+            deviceLock.lock();
+            try {
                 try {
                     if (keylock.getDeviceEnabled()) {
                         keylock.setDeviceEnabled(false);
@@ -159,13 +167,17 @@ public class KeylockDevice implements StatusUpdateListener {
                 } catch (JposException jposException) {
                     log.failure("Keylock Failed to Disconnect", 18, jposException);
                 }
+            } finally {
+                deviceLock.unlock();
             }
         }
         /*
         Re-enable device when not connected to get status update events.
         */
-        Keylock keylock;
-        synchronized (keylock = dynamicKeylock.getDevice()) {
+        Keylock keylock = dynamicKeylock.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(keylock);
+        deviceLock.lock();
+        try {
             try {
                 if (!keylock.getDeviceEnabled()) {
                     keylock.setDeviceEnabled(true);
@@ -181,6 +193,8 @@ public class KeylockDevice implements StatusUpdateListener {
                 log.failure("Keylock Failed to Enable Device", 18, jposException);
                 deviceConnected = false;
             }
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -193,14 +207,18 @@ public class KeylockDevice implements StatusUpdateListener {
 
         // Read live position directly from the device
         if (dynamicKeylock.isConnected()) {
-            Keylock keylock;
-            synchronized (keylock = dynamicKeylock.getDevice()) {
+            Keylock keylock = dynamicKeylock.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(keylock);
+            deviceLock.lock();
+            try {
                 try {
                     livePosition = keylock.getKeyPosition();
                     currentPosition = livePosition;
                 } catch (JposException jposException) {
                     log.failure("Failed to read live key position, using cached value", 17, jposException);
                 }
+            } finally {
+                deviceLock.unlock();
             }
         }
 
@@ -224,9 +242,13 @@ public class KeylockDevice implements StatusUpdateListener {
      * Attaches an event listener and adding it to a new instance.
      */
     private void attachEventListeners() {
-        Keylock keylock;
-        synchronized (keylock = dynamicKeylock.getDevice()) {
+        Keylock keylock = dynamicKeylock.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(keylock);
+        deviceLock.lock();
+        try {
             keylock.addStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -234,9 +256,13 @@ public class KeylockDevice implements StatusUpdateListener {
      * Removes status update listener for keylock device.
      */
     private void detachEventListeners() {
-        Keylock keylock;
-        synchronized (keylock = dynamicKeylock.getDevice()) {
+        Keylock keylock = dynamicKeylock.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(keylock);
+        deviceLock.lock();
+        try {
             keylock.removeStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -259,6 +285,7 @@ public class KeylockDevice implements StatusUpdateListener {
             case JposConst.JPOS_SUE_POWER_ONLINE:
                 log.success("Status Update: Power online", 5);
                 deviceConnected = true;
+                ReconnectScheduler.getReconnectScheduler().retryNow(KeylockManager.HEALTH_KEY);
                 break;
             case KeylockConst.LOCK_KP_LOCK:
                 log.success("Key position: LOCKED", 1);
@@ -1,38 +1,29 @@
 package com.target.devicemanager.components.keylock;
 
+import com.target.devicemanager.common.DeviceEventSink;
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.components.keylock.entities.KeylockPosition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Profile;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
 
 @Profile({"local", "dev", "prod"})
-@EnableScheduling
-@EnableCaching
 public class KeylockManager {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY = "keylock";
+    private final DeviceHealthRegistry healthRegistry;
     private final KeylockDevice keylockDevice;
     private final Lock keylockLock;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
-    private final List<SseEmitter> eventSubscribers = new CopyOnWriteArrayList<>();
+    private final List<DeviceEventSink> eventSubscribers = new CopyOnWriteArrayList<>();
     private static final Logger LOGGER = LoggerFactory.getLogger(KeylockManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Keylock", "KeylockManager", LOGGER);
 
@@ -40,7 +31,7 @@ public class KeylockManager {
         this(keylockDevice, keylockLock, null);
     }
 
-    public KeylockManager(KeylockDevice keylockDevice, Lock keylockLock, CacheManager cacheManager) {
+    public KeylockManager(KeylockDevice keylockDevice, Lock keylockLock, DeviceHealthRegistry healthRegistry) {
         if (keylockDevice == null) {
             throw new IllegalArgumentException("keylockDevice cannot be null");
         }
@@ -50,15 +41,12 @@ public class KeylockManager {
         this.keylockDevice = keylockDevice;
         this.keylockLock = keylockLock;
 
-        if(cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
 
         // Register callback for real-time position change SSE broadcasting
         this.keylockDevice.setPositionChangeCallback(this::onPositionChange);
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         if (keylockDevice.tryLock()) {
             try {
@@ -67,10 +55,7 @@ public class KeylockManager {
                 keylockDevice.unlock();
             }
         }
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            connectStatus = ConnectEnum.CHECK_HEALTH;
-        }
+        getHealth();
     }
 
     public void reconnectDevice() throws DeviceException {
@@ -110,29 +95,17 @@ public class KeylockManager {
         } else {
             deviceHealthResponse = new DeviceHealthResponse(keylockDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("keylockHealth")).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(keylockHealth) Failed", 17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY, deviceHealthResponse);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("keylockHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth();
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache("keylockHealth")).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 5);
-                return getHealth();
-            }
-        } catch (Exception exception) {
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth();
         }
+        return deviceHealthResponse;
     }
 
     /**
@@ -141,17 +114,15 @@ public class KeylockManager {
      */
     private void onPositionChange(KeylockPosition position) {
         log.success("Position change event: " + position + ", broadcasting to " + eventSubscribers.size() + " subscribers", 1);
-        List<SseEmitter> deadEmitters = new ArrayList<>();
-        for (SseEmitter emitter : eventSubscribers) {
+        List<DeviceEventSink> deadSinks = new ArrayList<>();
+        for (DeviceEventSink sink : eventSubscribers) {
             try {
-                emitter.send(SseEmitter.event()
-                        .name("position")
-                        .data("{\"position\":\"" + position.name() + "\"}", MediaType.APPLICATION_JSON));
+                sink.send("position", null, "{\"position\":\"" + position.name() + "\"}");
             } catch (IOException ioException) {
-                deadEmitters.add(emitter);
+                deadSinks.add(sink);
             }
         }
-        eventSubscribers.removeAll(deadEmitters);
+        eventSubscribers.removeAll(deadSinks);
     }
 
     /**
@@ -159,17 +130,22 @@ public class KeylockManager {
      * Sends the current position immediately upon subscription.
      */
     public void addEventSubscriber(SseEmitter emitter) {
-        emitter.onCompletion(() -> eventSubscribers.remove(emitter));
-        emitter.onTimeout(() -> eventSubscribers.remove(emitter));
-        eventSubscribers.add(emitter);
+        addEventSubscriber(DeviceEventSink.of(emitter));
+    }
+
+    /**
+     * Adds a sink to the subscriber list for keylock position events.
+     * Sends the current position immediately upon subscription.
+     */
+    public void addEventSubscriber(DeviceEventSink sink) {
+        sink.onCompletion(() -> eventSubscribers.remove(sink));
+        eventSubscribers.add(sink);
         log.success("SSE subscriber added, total: " + eventSubscribers.size(), 5);
 
         // Send current position immediately so the client gets initial state
         try {
             KeylockPosition currentPos = keylockDevice.getKeyPosition();
-            emitter.send(SseEmitter.event()
-                    .name("position")
-                    .data("{\"position\":\"" + currentPos.name() + "\"}", MediaType.APPLICATION_JSON));
+            sink.send("position", null, "{\"position\":\"" + currentPos.name() + "\"}");
         } catch (Exception e) {
             log.failure("Failed to send initial position to SSE subscriber", 5, e);
         }
@@ -0,0 +1,224 @@
+package com.target.devicemanager.components.linedisplay;
+
+import com.target.devicemanager.common.StructuredEventLogger;
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceException;
+import com.target.devicemanager.components.linedisplay.entities.AnimationType;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayAnimation;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayData;
+import jpos.JposException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays marquee, blink and alternating message animations on the line display, so clients send one request
+ * instead of a frame every few hundred milliseconds.
+ * Animations are driven by the application's shared task scheduler and only one animation runs at a time.
+ * Starting an animation or displaying text replaces whatever is playing.
+ * Blink uses the driver's DISP_DT_BLINK attribute when the device reports blink support.
+ * Frames are picked under the animator's monitor and written to the device outside it, so a slow display write
+ * does not hold up stop() on a request thread.
+ */
+public class LineDisplayAnimator {
+
+    static final int LINE_WIDTH = 20;
+    static final long DEFAULT_MARQUEE_INTERVAL_MSEC = 300;
+    static final long DEFAULT_BLINK_INTERVAL_MSEC = 500;
+    static final long DEFAULT_ALTERNATE_INTERVAL_MSEC = 2000;
+    static final long MIN_INTERVAL_MSEC = 100;
+    static final int MAX_MESSAGES = 16;
+    private static final String MARQUEE_GAP = "   ";
+
+    private final LineDisplayDevice lineDisplayDevice;
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> tickFuture = null;
+    private ScheduledFuture<?> revertFuture = null;
+    private long generation = 0;
+    private static final Logger LOGGER = LoggerFactory.getLogger(LineDisplayAnimator.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("LineDisplay", "LineDisplayAnimator", LOGGER);
+
+    /**
+     * Uses a scheduler thread of its own, for when there is no shared scheduler to pass in.
+     * @param lineDisplayDevice device the frames are drawn on.
+     */
+    public LineDisplayAnimator(LineDisplayDevice lineDisplayDevice) {
+        this(lineDisplayDevice, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "linedisplay-animator");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public LineDisplayAnimator(LineDisplayDevice lineDisplayDevice, ScheduledExecutorService scheduler) {
+        if (lineDisplayDevice == null) {
+            throw new IllegalArgumentException("lineDisplayDevice cannot be null");
+        }
+        if (scheduler == null) {
+            throw new IllegalArgumentException("scheduler cannot be null");
+        }
+        this.lineDisplayDevice = lineDisplayDevice;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Replaces the current animation. The first frame is drawn before returning so device errors reach the caller.
+     * @param animation what to play, for how long and the idle text to show afterwards.
+     * @throws DeviceException BAD_INPUT for an invalid animation, or the device error of the first frame.
+     */
+    public void start(LineDisplayAnimation animation) throws DeviceException {
+        validate(animation);
+        long animationGeneration;
+        synchronized (this) {
+            stop();
+            animationGeneration = generation;
+        }
+        long intervalMsec = intervalOf(animation);
+        boolean isNativeBlink = animation.type == AnimationType.BLINK && lineDisplayDevice.supportsNativeBlink();
+        try {
+            if (isNativeBlink) {
+                lineDisplayDevice.displayBlinking(
+                        LineDisplayManager.formatLineText(animation.line1),
+                        LineDisplayManager.formatLineText(animation.line2),
+                        (int) intervalMsec);
+            } else {
+                render(frameAt(animation, 0));
+            }
+        } catch (JposException jposException) {
+            throw new DeviceException(jposException);
+        }
+        synchronized (this) {
+            //Replaced by another request while the first frame was drawn
+            if (animationGeneration != generation) {
+                return;
+            }
+            if (!isNativeBlink) {
+                tickFuture = scheduler.scheduleAtFixedRate(new Runnable() {
+                    private long tick = 0;
+
+                    @Override
+                    public void run() {
+                        tick(animationGeneration, frameAt(animation, ++tick));
+                    }
+                }, intervalMsec, intervalMsec, TimeUnit.MILLISECONDS);
+            }
+            if (animation.durationMsec > 0) {
+                revertFuture = scheduler.schedule(() -> revert(animationGeneration, animation), animation.durationMsec, TimeUnit.MILLISECONDS);
+            }
+        }
+        log.success("Started " + animation.type + " animation, interval " + intervalMsec + "ms, duration " + animation.durationMsec + "ms", 5);
+    }
+
+    /**
+     * Stops the current animation, if any. The text on screen stays until the next display request.
+     */
+    public synchronized void stop() {
+        generation++;
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+            tickFuture = null;
+        }
+        if (revertFuture != null) {
+            revertFuture.cancel(false);
+            revertFuture = null;
+        }
+    }
+
+    public synchronized boolean isAnimating() {
+        return tickFuture != null || revertFuture != null;
+    }
+
+    private void tick(long animationGeneration, String[] frame) {
+        if (!isCurrent(animationGeneration)) {
+            return;
+        }
+        try {
+            render(frame);
+        } catch (JposException jposException) {
+            log.failure("Animation frame failed, stopping animation", 13, jposException);
+            stop(animationGeneration);
+        }
+    }
+
+    private void revert(long animationGeneration, LineDisplayAnimation animation) {
+        synchronized (this) {
+            if (animationGeneration != generation) {
+                return;
+            }
+            stop();
+        }
+        try {
+            render(new String[]{animation.idleLine1, animation.idleLine2});
+            log.success("Animation finished, reverted to idle text", 5);
+        } catch (JposException jposException) {
+            log.failure("Failed to revert to idle text", 13, jposException);
+        }
+    }
+
+    private synchronized boolean isCurrent(long animationGeneration) {
+        return animationGeneration == generation;
+    }
+
+    //A frame that fails after its animation was replaced must not stop the one that replaced it
+    private synchronized void stop(long animationGeneration) {
+        if (animationGeneration == generation) {
+            stop();
+        }
+    }
+
+    private void render(String[] frame) throws JposException {
+        lineDisplayDevice.displayLine(LineDisplayManager.formatLineText(frame[0]), LineDisplayManager.formatLineText(frame[1]));
+    }
+
+    static String[] frameAt(LineDisplayAnimation animation, long tick) {
+        switch (animation.type) {
+            case MARQUEE:
+                return new String[]{marquee(animation.line1, tick), animation.line2};
+            case BLINK:
+                return tick % 2 == 0 ? new String[]{animation.line1, animation.line2} : new String[]{"", ""};
+            case ALTERNATE:
+                LineDisplayData message = animation.messages.get((int) (tick % animation.messages.size()));
+                return message == null ? new String[]{"", ""} : new String[]{message.line1, message.line2};
+            default:
+                return new String[]{animation.line1, animation.line2};
+        }
+    }
+
+    static String marquee(String text, long tick) {
+        if (text == null || text.length() <= LINE_WIDTH) {
+            return text;
+        }
+        String loop = text + MARQUEE_GAP;
+        int offset = (int) (tick % loop.length());
+        return (loop + loop).substring(offset, offset + LINE_WIDTH);
+    }
+
+    private static long intervalOf(LineDisplayAnimation animation) {
+        if (animation.intervalMsec > 0) {
+            return animation.intervalMsec;
+        }
+        switch (animation.type) {
+            case MARQUEE:
+                return DEFAULT_MARQUEE_INTERVAL_MSEC;
+            case BLINK:
+                return DEFAULT_BLINK_INTERVAL_MSEC;
+            default:
+                return DEFAULT_ALTERNATE_INTERVAL_MSEC;
+        }
+    }
+
+    private static void validate(LineDisplayAnimation animation) throws DeviceException {
+        if (animation == null || animation.type == null || animation.durationMsec < 0
+                || (animation.intervalMsec != 0 && animation.intervalMsec < MIN_INTERVAL_MSEC)) {
+            throw new DeviceException(DeviceError.BAD_INPUT);
+        }
+        if (animation.type == AnimationType.ALTERNATE
+                && (animation.messages == null || animation.messages.isEmpty() || animation.messages.size() > MAX_MESSAGES)) {
+            throw new DeviceException(DeviceError.BAD_INPUT);
+        }
+    }
+}
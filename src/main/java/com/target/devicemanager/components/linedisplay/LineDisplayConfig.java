@@ -13,6 +13,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 @Profile({"local","dev","prod"})
@@ -33,7 +34,7 @@ class LineDisplayConfig {
     }
 
     @Bean
-    public LineDisplayManager getLineDisplayManager() {
+    public LineDisplayManager getLineDisplayManager(ThreadPoolTaskScheduler taskScheduler) {
         DynamicDevice<LineDisplay> dynamicLineDisplay;
         JposEntryRegistry deviceRegistry = JposServiceLoader.getManager().getEntryRegistry();
         String preferred = environment.getProperty("possum.device.lineDisplay.logicalName");
@@ -46,13 +47,17 @@ class LineDisplayConfig {
             dynamicLineDisplay = new DynamicDevice<>(simulatedLineDisplay, new DevicePower(), new DeviceConnector<>(simulatedLineDisplay, deviceRegistry));
         } else {
             LineDisplay lineDisplay = new LineDisplay();
-            dynamicLineDisplay = new DynamicDevice<>(lineDisplay, new DevicePower(), new DeviceConnector<>(lineDisplay, deviceRegistry, null, preferred, autoAdapt));
+            dynamicLineDisplay = new DynamicDevice<>(lineDisplay, new DevicePower(), new DeviceConnector<>(lineDisplay, deviceRegistry, null, preferred, autoAdapt), LineDisplayManager.HEALTH_KEY, "linedisplay");
         }
 
+        LineDisplayDevice lineDisplayDevice = new LineDisplayDevice(dynamicLineDisplay);
         LineDisplayManager lineDisplayManager = new LineDisplayManager(
-                new LineDisplayDevice(dynamicLineDisplay));
+                lineDisplayDevice,
+                null,
+                new LineDisplayAnimator(lineDisplayDevice, taskScheduler.getScheduledExecutor()));
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setLineDisplayManager(lineDisplayManager);
+        ReconnectScheduler.getReconnectScheduler().register(LineDisplayManager.HEALTH_KEY, lineDisplayManager::connect);
         return lineDisplayManager;
     }
 
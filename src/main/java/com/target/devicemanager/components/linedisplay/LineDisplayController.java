@@ -4,7 +4,9 @@ import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayAnimation;
 import com.target.devicemanager.components.linedisplay.entities.LineDisplayData;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayStats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -77,6 +79,48 @@ public class LineDisplayController {
         return response;
     }
 
+    @Operation(description = "Plays an animation on the 2x20 until it is replaced, stopped or its duration ends. " +
+            "MARQUEE scrolls line1, BLINK blinks both lines, ALTERNATE cycles through messages. " +
+            "With durationMsec set, idleLine1 and idleLine2 are shown when the animation ends.")
+    @PostMapping(path = "/animation")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "BAD_INPUT", content = @Content(schema = @Schema(implementation = DeviceError.class))),
+            @ApiResponse(responseCode = "500", description = "UNEXPECTED_ERROR", content = @Content(schema = @Schema(implementation = DeviceError.class))),
+            @ApiResponse(responseCode = "404", description = "DEVICE_OFFLINE", content = @Content(schema = @Schema(implementation = DeviceError.class)))
+    })
+    public void startAnimation(@RequestBody LineDisplayAnimation animation) throws DeviceException {
+        String url = "/v1/linedisplay/animation";
+        log.successAPI("request", 1, url, animation == null ? null : String.valueOf(animation.type), 0);
+        try {
+            lineDisplayManager.startAnimation(animation);
+            log.successAPI("response", 1, url, null, 200);
+        } catch (DeviceException deviceException) {
+            int statusCode = deviceException.getDeviceError().getStatusCode().value();
+            log.failureAPI("response", 13, url, deviceException.getDeviceError().toString(), statusCode, deviceException);
+            throw deviceException;
+        }
+    }
+
+    @Operation(description = "Stops the running animation. The text on screen stays until the next display request.")
+    @DeleteMapping(path = "/animation")
+    public void stopAnimation() {
+        String url = "/v1/linedisplay/animation";
+        log.successAPI("request", 1, url, null, 0);
+        lineDisplayManager.stopAnimation();
+        log.successAPI("response", 1, url, null, 200);
+    }
+
+    @Operation(description = "Reports how many display writes were sent, avoided by diffing and coalesced, and the display update latency")
+    @GetMapping(path = "/stats")
+    public LineDisplayStats getStats() {
+        String url = "/v1/linedisplay/stats";
+        log.successAPI("request", 1, url, null, 0);
+        LineDisplayStats response = lineDisplayManager.getStats();
+        log.successAPI("response", 1, url, null, 200);
+        return response;
+    }
+
     @Operation(description = "Reconnects the line display device by releasing, then connecting.")
     @PostMapping(path = "/reconnect")
     @ApiResponses({
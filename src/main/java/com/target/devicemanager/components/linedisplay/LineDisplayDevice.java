@@ -1,9 +1,13 @@
 package com.target.devicemanager.components.linedisplay;
 
+import com.target.devicemanager.common.DeviceCallGuard;
+import com.target.devicemanager.common.DeviceCircuitBreaker;
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.events.ConnectionEvent;
 import com.target.devicemanager.common.events.ConnectionEventListener;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayStats;
 import jpos.JposConst;
 import jpos.JposException;
 import jpos.LineDisplay;
@@ -15,8 +19,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Profile({"local","dev","prod"})
@@ -24,7 +32,18 @@ public class LineDisplayDevice implements StatusUpdateListener {
     private final DynamicDevice<LineDisplay> dynamicLineDisplay;
     private final List<ConnectionEventListener> connectionEventListeners;
     private final ReentrantLock connectLock;
+    private final LineDisplayFrameBuffer frameBuffer;
+    private final AtomicReference<PendingFrame> pendingFrame = new AtomicReference<>();
+    private final AtomicLong framesRequested = new AtomicLong();
+    private final AtomicLong framesRendered = new AtomicLong();
+    private final AtomicLong framesCoalesced = new AtomicLong();
+    private final AtomicLong writesSent = new AtomicLong();
+    private final AtomicLong writesAvoided = new AtomicLong();
+    private final AtomicLong totalUpdateLatencyNanos = new AtomicLong();
+    private volatile long lastUpdateLatencyNanos = 0;
+    private volatile long maxUpdateLatencyNanos = 0;
     private boolean isLocked = false;
+    static final int LINE_COUNT = 2;
     private static final Logger LOGGER = LoggerFactory.getLogger(LineDisplayDevice.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("LineDisplay", "LineDisplayDevice", LOGGER);
 
@@ -42,15 +61,29 @@ public class LineDisplayDevice implements StatusUpdateListener {
      * @param dynamicLineDisplay The dynamic device is the line display.
      */
     public LineDisplayDevice(DynamicDevice<LineDisplay> dynamicLineDisplay, List<ConnectionEventListener> connectionEventListenerList, ReentrantLock connectLock) {
+        this(dynamicLineDisplay, connectionEventListenerList, connectLock, new LineDisplayFrameBuffer(LINE_COUNT));
+    }
+
+    /**
+     * This Constructor is Mainly for unit tests
+     * Initializes LineDisplayDevice and gets it ready for use.
+     * @param dynamicLineDisplay The dynamic device is the line display.
+     * @param frameBuffer mirror of the text on screen, used to only send what changed.
+     */
+    public LineDisplayDevice(DynamicDevice<LineDisplay> dynamicLineDisplay, List<ConnectionEventListener> connectionEventListenerList, ReentrantLock connectLock, LineDisplayFrameBuffer frameBuffer) {
         if (dynamicLineDisplay == null) {
             log.failure("dynamicLineDisplay cannot be null", 17, new IllegalArgumentException("dynamicLineDisplay cannot be null"));
             throw new IllegalArgumentException("dynamicLineDisplay cannot be null");
         }
+        if (frameBuffer == null) {
+            throw new IllegalArgumentException("frameBuffer cannot be null");
+        }
         this.dynamicLineDisplay = dynamicLineDisplay;
         this.connectionEventListeners = connectionEventListenerList;
         LineDisplay lineDisplay = dynamicLineDisplay.getDevice();
         lineDisplay.addStatusUpdateListener(this);
         this.connectLock = connectLock;
+        this.frameBuffer = frameBuffer;
     }
 
     /**
@@ -86,6 +119,7 @@ public class LineDisplayDevice implements StatusUpdateListener {
             }
             //First connection, fire the event and clear the screen
             if(connectionResult == DynamicDevice.ConnectionResult.CONNECTED) {
+                frameBuffer.invalidate();
                 lineDisplay.clearText();
                 fireConnectionEvent(true);
             }
@@ -105,6 +139,7 @@ public class LineDisplayDevice implements StatusUpdateListener {
     void disconnect() {
         if (dynamicLineDisplay.isConnected()) {
             dynamicLineDisplay.disconnect();
+            frameBuffer.invalidate();
             fireConnectionEvent(false);
         }
     }
@@ -119,21 +154,46 @@ public class LineDisplayDevice implements StatusUpdateListener {
 
     /**
      * Makes sure it displays the lines on device.
+     * Only the characters that differ from what is already on screen are written. When several callers update
+     * the display at once, the latest frame wins and frames it replaced are never written.
+     * The call returns once its frame, or a newer one, is on screen, and throws if the write that carried its
+     * text failed.
      * @param line1Text displays the first line text.
      * @param line2Text displays second line text.
      * @throws JposException
      */
     public void displayLine(String line1Text, String line2Text) throws JposException {
+        framesRequested.incrementAndGet();
+        PendingFrame frame = new PendingFrame(new String[]{line1Text, line2Text}, System.nanoTime());
+        PendingFrame replacedFrame = pendingFrame.getAndSet(frame);
+        if (replacedFrame != null) {
+            framesCoalesced.incrementAndGet();
+            //The replaced caller is waiting on text that is only written as part of this frame
+            frame.outcome.whenComplete((result, throwable) -> replacedFrame.complete(throwable));
+        }
         /*
         We are relying on the disconnect call during status notify events to shutdown the device.
         This will cause us to throw the proper exception when trying to display text to a closed device
         */
         try {
-            LineDisplay lineDisplay;
-            synchronized (lineDisplay = dynamicLineDisplay.getDevice()) {
-                lineDisplay.displayTextAt(0, 0, line1Text, LineDisplayConst.DISP_DT_NORMAL);
-                lineDisplay.displayTextAt(1, 0, line2Text, LineDisplayConst.DISP_DT_NORMAL);
+            LineDisplay lineDisplay = dynamicLineDisplay.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(lineDisplay);
+            deviceLock.lock();
+            try {
+                //Null when a caller that got here first already took this frame or a newer one
+                PendingFrame nextFrame = pendingFrame.getAndSet(null);
+                if (nextFrame != null) {
+                    try {
+                        render(lineDisplay, nextFrame);
+                        nextFrame.complete(null);
+                    } catch (JposException | RuntimeException exception) {
+                        nextFrame.complete(exception);
+                    }
+                }
+            } finally {
+                deviceLock.unlock();
             }
+            frame.await();
         } catch (JposException jposException) {
             int severity = isConnected() ? 17 : 1;
             log.failure("displayLine() failed", severity, jposException);
@@ -141,6 +201,92 @@ public class LineDisplayDevice implements StatusUpdateListener {
         }
     }
 
+    /**
+     * Shows if the driver can blink text itself.
+     * @return true when the device reports blink support.
+     */
+    public boolean supportsNativeBlink() {
+        try {
+            return dynamicLineDisplay.getDevice().getCapBlink() != LineDisplayConst.DISP_CB_NOBLINK;
+        } catch (JposException jposException) {
+            return false;
+        }
+    }
+
+    /**
+     * Displays both lines with the DISP_DT_BLINK attribute so the device blinks them without further writes.
+     * @param line1Text first line text.
+     * @param line2Text second line text.
+     * @param blinkRateMsec blink cycle, applied when the device supports setting it.
+     * @throws JposException
+     */
+    public void displayBlinking(String line1Text, String line2Text, int blinkRateMsec) throws JposException {
+        try {
+            LineDisplay lineDisplay = dynamicLineDisplay.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(lineDisplay);
+            deviceLock.lock();
+            try {
+                //Same text with a different attribute, the next normal frame has to be written in full
+                frameBuffer.invalidate();
+                if (lineDisplay.getCapBlinkRate()) {
+                    lineDisplay.setBlinkRate(blinkRateMsec);
+                }
+                DeviceCircuitBreaker circuitBreaker = DeviceCircuitBreaker.of(lineDisplay);
+                circuitBreaker.run("displayTextAt", DeviceCallGuard.OUTPUT_DEADLINE_MSEC, () -> lineDisplay.displayTextAt(0, 0, line1Text, LineDisplayConst.DISP_DT_BLINK));
+                circuitBreaker.run("displayTextAt", DeviceCallGuard.OUTPUT_DEADLINE_MSEC, () -> lineDisplay.displayTextAt(1, 0, line2Text, LineDisplayConst.DISP_DT_BLINK));
+            } finally {
+                deviceLock.unlock();
+            }
+        } catch (JposException jposException) {
+            int severity = isConnected() ? 17 : 1;
+            log.failure("displayBlinking() failed", severity, jposException);
+            throw jposException;
+        }
+    }
+
+    private void render(LineDisplay lineDisplay, PendingFrame frame) throws JposException {
+        List<LineDisplayFrameBuffer.Span> spans = frameBuffer.diff(frame.lines);
+        DeviceCircuitBreaker circuitBreaker = DeviceCircuitBreaker.of(lineDisplay);
+        try {
+            for (LineDisplayFrameBuffer.Span span : spans) {
+                circuitBreaker.run("displayTextAt", DeviceCallGuard.OUTPUT_DEADLINE_MSEC,
+                        () -> lineDisplay.displayTextAt(span.getRow(), span.getColumn(), span.getText(), LineDisplayConst.DISP_DT_NORMAL));
+            }
+        } catch (JposException jposException) {
+            //Some spans may have been written, the screen no longer matches the frame buffer
+            frameBuffer.invalidate();
+            throw jposException;
+        }
+        frameBuffer.commit(frame.lines);
+        writesSent.addAndGet(spans.size());
+        writesAvoided.addAndGet(Math.max(0, frameBuffer.getRows() - spans.size()));
+        long latencyNanos = System.nanoTime() - frame.requestedNanos;
+        framesRendered.incrementAndGet();
+        totalUpdateLatencyNanos.addAndGet(latencyNanos);
+        lastUpdateLatencyNanos = latencyNanos;
+        if (latencyNanos > maxUpdateLatencyNanos) {
+            maxUpdateLatencyNanos = latencyNanos;
+        }
+    }
+
+    /**
+     * Gets the frame buffer counters.
+     * @return frames requested, rendered and coalesced, writes sent and avoided, and update latency.
+     */
+    public LineDisplayStats getStats() {
+        LineDisplayStats lineDisplayStats = new LineDisplayStats();
+        lineDisplayStats.framesRequested = framesRequested.get();
+        lineDisplayStats.framesRendered = framesRendered.get();
+        lineDisplayStats.framesCoalesced = framesCoalesced.get();
+        lineDisplayStats.writesSent = writesSent.get();
+        lineDisplayStats.writesAvoided = writesAvoided.get();
+        lineDisplayStats.lastUpdateLatencyMsec = TimeUnit.NANOSECONDS.toMillis(lastUpdateLatencyNanos);
+        lineDisplayStats.maxUpdateLatencyMsec = TimeUnit.NANOSECONDS.toMillis(maxUpdateLatencyNanos);
+        lineDisplayStats.averageUpdateLatencyMsec = lineDisplayStats.framesRendered == 0 ? 0
+                : TimeUnit.NANOSECONDS.toMillis(totalUpdateLatencyNanos.get() / lineDisplayStats.framesRendered);
+        return lineDisplayStats;
+    }
+
     /**
      * Gets device name.
      * @return returns device name.
@@ -203,4 +349,45 @@ public class LineDisplayDevice implements StatusUpdateListener {
     public boolean getIsLocked() {
         return isLocked;
     }
+
+    private static class PendingFrame {
+        private final String[] lines;
+        private final long requestedNanos;
+        private final CompletableFuture<Void> outcome = new CompletableFuture<>();
+
+        PendingFrame(String[] lines, long requestedNanos) {
+            this.lines = lines;
+            this.requestedNanos = requestedNanos;
+        }
+
+        void complete(Throwable throwable) {
+            if (throwable == null) {
+                outcome.complete(null);
+            } else {
+                outcome.completeExceptionally(throwable);
+            }
+        }
+
+        /**
+         * Waits for the write that carried this frame. That write has already finished or is about to, the
+         * caller that took the frame completes it before releasing the device.
+         */
+        void await() throws JposException {
+            try {
+                outcome.join();
+            } catch (CompletionException completionException) {
+                Throwable cause = completionException.getCause();
+                if (cause instanceof JposException) {
+                    throw (JposException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new JposException(JposConst.JPOS_E_FAILURE, "displayLine() failed", (Exception) cause);
+            }
+        }
+    }
 }
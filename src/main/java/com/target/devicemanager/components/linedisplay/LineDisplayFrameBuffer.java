@@ -0,0 +1,113 @@
+package com.target.devicemanager.components.linedisplay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mirror of the text currently on the line display.
+ * A new frame is diffed against the mirror so only the characters that changed are sent to the device.
+ * A row is unknown (null) until it has been fully written once, and after anything that may have left the
+ * screen in an unknown state (connect, disconnect, a failed write).
+ */
+public class LineDisplayFrameBuffer {
+
+    // Unchanged runs shorter than this are rewritten instead of paying for another displayTextAt call
+    static final int SPAN_MERGE_GAP = 4;
+
+    private final String[] onScreen;
+
+    public LineDisplayFrameBuffer(int rows) {
+        if (rows <= 0) {
+            throw new IllegalArgumentException("rows must be greater than 0");
+        }
+        this.onScreen = new String[rows];
+    }
+
+    /**
+     * Works out the writes needed to turn the screen into the given frame.
+     * @param frame text of each row, rows beyond the display size are ignored.
+     * @return spans to write, empty when the frame is already on screen.
+     */
+    public synchronized List<Span> diff(String[] frame) {
+        List<Span> spans = new ArrayList<>();
+        for (int row = 0; row < onScreen.length && row < frame.length; row++) {
+            String next = frame[row] == null ? "" : frame[row];
+            String current = onScreen[row];
+            if (current == null || current.length() != next.length()) {
+                spans.add(new Span(row, 0, next));
+                continue;
+            }
+            int spanStart = -1;
+            int lastChanged = -1;
+            for (int column = 0; column < next.length(); column++) {
+                if (next.charAt(column) == current.charAt(column)) {
+                    continue;
+                }
+                if (spanStart >= 0 && column - lastChanged > SPAN_MERGE_GAP) {
+                    spans.add(new Span(row, spanStart, next.substring(spanStart, lastChanged + 1)));
+                    spanStart = -1;
+                }
+                if (spanStart < 0) {
+                    spanStart = column;
+                }
+                lastChanged = column;
+            }
+            if (spanStart >= 0) {
+                spans.add(new Span(row, spanStart, next.substring(spanStart, lastChanged + 1)));
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * Records the frame as displayed. Only call once every span from diff has been written.
+     * @param frame text of each row.
+     */
+    public synchronized void commit(String[] frame) {
+        for (int row = 0; row < onScreen.length && row < frame.length; row++) {
+            onScreen[row] = frame[row] == null ? "" : frame[row];
+        }
+    }
+
+    /**
+     * Forgets what is on screen so the next frame is written in full.
+     */
+    public synchronized void invalidate() {
+        for (int row = 0; row < onScreen.length; row++) {
+            onScreen[row] = null;
+        }
+    }
+
+    public int getRows() {
+        return onScreen.length;
+    }
+
+    public static class Span {
+        private final int row;
+        private final int column;
+        private final String text;
+
+        Span(int row, int column, String text) {
+            this.row = row;
+            this.column = column;
+            this.text = text;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return "Span{row=" + row + ", column=" + column + ", text='" + text + "'}";
+        }
+    }
+}
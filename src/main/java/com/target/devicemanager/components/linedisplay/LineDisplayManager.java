@@ -1,31 +1,24 @@
 package com.target.devicemanager.components.linedisplay;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.common.events.ConnectionEvent;
 import com.target.devicemanager.common.events.ConnectionEventListener;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayAnimation;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayStats;
 import jpos.JposException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Profile;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
-
-import java.util.Objects;
 
 @Profile({"local","dev","prod"})
-@EnableScheduling
-@EnableCaching
 public class LineDisplayManager implements ConnectionEventListener {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY = "linedisplay";
+    private final DeviceHealthRegistry healthRegistry;
     private final LineDisplayDevice lineDisplayDevice;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
+    private final LineDisplayAnimator lineDisplayAnimator;
     private static final Logger LOGGER = LoggerFactory.getLogger(LineDisplayManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("LineDisplay", "LineDisplayManager", LOGGER);
 
@@ -33,19 +26,23 @@ public class LineDisplayManager implements ConnectionEventListener {
         this(lineDisplayDevice, null);
     }
 
-    public LineDisplayManager(LineDisplayDevice lineDisplayDevice, CacheManager cacheManager) {
+    public LineDisplayManager(LineDisplayDevice lineDisplayDevice, DeviceHealthRegistry healthRegistry) {
+        this(lineDisplayDevice, healthRegistry, lineDisplayDevice == null ? null : new LineDisplayAnimator(lineDisplayDevice));
+    }
+
+    public LineDisplayManager(LineDisplayDevice lineDisplayDevice, DeviceHealthRegistry healthRegistry, LineDisplayAnimator lineDisplayAnimator) {
         if (lineDisplayDevice == null) {
             throw new IllegalArgumentException("lineDisplayDevice cannot be null");
         }
+        if (lineDisplayAnimator == null) {
+            throw new IllegalArgumentException("lineDisplayAnimator cannot be null");
+        }
         this.lineDisplayDevice = lineDisplayDevice;
+        this.lineDisplayAnimator = lineDisplayAnimator;
         this.lineDisplayDevice.addConnectionEventListener(this);
-
-        if(cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         if (lineDisplayDevice.tryLock()) {
             try {
@@ -54,10 +51,7 @@ public class LineDisplayManager implements ConnectionEventListener {
                 lineDisplayDevice.unlock();
             }
         }
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            connectStatus = ConnectEnum.CHECK_HEALTH;
-        }
+        getHealth();
     }
 
     public void reconnectDevice() throws DeviceException {
@@ -80,6 +74,7 @@ public class LineDisplayManager implements ConnectionEventListener {
         String line1formatted = formatLineText(line1);
         String line2formatted = formatLineText(line2);
         log.success("displayLine(): line1=" + line1formatted + " line2=" + line2formatted, 1);
+        lineDisplayAnimator.stop();
         try {
             lineDisplayDevice.displayLine(line1formatted, line2formatted);
         } catch (JposException jposException) {
@@ -88,10 +83,25 @@ public class LineDisplayManager implements ConnectionEventListener {
         }
     }
 
+    public void startAnimation(LineDisplayAnimation animation) throws DeviceException {
+        lineDisplayAnimator.start(animation);
+    }
+
+    public void stopAnimation() {
+        lineDisplayAnimator.stop();
+    }
+
+    public LineDisplayStats getStats() {
+        return lineDisplayDevice.getStats();
+    }
+
     @Override
-    public void connectionEventOccurred(ConnectionEvent connectionEvent) {}
+    public void connectionEventOccurred(ConnectionEvent connectionEvent) {
+        DeviceHealth deviceHealth = connectionEvent.isConnected() ? DeviceHealth.READY : DeviceHealth.NOTREADY;
+        healthRegistry.publish(HEALTH_KEY, new DeviceHealthResponse(lineDisplayDevice.getDeviceName(), deviceHealth));
+    }
 
-    private String formatLineText(String lineText) {
+    static String formatLineText(String lineText) {
         //right pad line to 20 characters (-20)
         //trim to 20 characters (.20)
         lineText = lineText == null ? "" : lineText;
@@ -105,28 +115,16 @@ public class LineDisplayManager implements ConnectionEventListener {
         } else {
             deviceHealthResponse = new DeviceHealthResponse(lineDisplayDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("lineDisplayHealth")).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(lineDisplayHealth) Failed", 17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY, deviceHealthResponse);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("lineDisplayHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth();
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache("lineDisplayHealth")).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 5);
-                return getHealth();
-            }
-        } catch (Exception exception) {
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth();
         }
+        return deviceHealthResponse;
     }
 }
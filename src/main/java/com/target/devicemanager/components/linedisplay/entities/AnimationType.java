@@ -0,0 +1,7 @@
+package com.target.devicemanager.components.linedisplay.entities;
+
+public enum AnimationType {
+    MARQUEE,
+    BLINK,
+    ALTERNATE
+}
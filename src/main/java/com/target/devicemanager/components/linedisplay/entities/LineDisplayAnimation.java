@@ -0,0 +1,14 @@
+package com.target.devicemanager.components.linedisplay.entities;
+
+import java.util.List;
+
+public class LineDisplayAnimation {
+    public AnimationType type;
+    public String line1;
+    public String line2;
+    public List<LineDisplayData> messages;
+    public long intervalMsec;
+    public long durationMsec;
+    public String idleLine1;
+    public String idleLine2;
+}
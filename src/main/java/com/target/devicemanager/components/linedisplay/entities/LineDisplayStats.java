@@ -0,0 +1,12 @@
+package com.target.devicemanager.components.linedisplay.entities;
+
+public class LineDisplayStats {
+    public long framesRequested;
+    public long framesRendered;
+    public long framesCoalesced;
+    public long writesSent;
+    public long writesAvoided;
+    public long lastUpdateLatencyMsec;
+    public long maxUpdateLatencyMsec;
+    public long averageUpdateLatencyMsec;
+}
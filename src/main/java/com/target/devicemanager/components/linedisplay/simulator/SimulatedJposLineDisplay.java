@@ -59,14 +59,26 @@ public class SimulatedJposLineDisplay extends LineDisplay  {
     @Override
     public void displayTextAt(int lineIndex, int columnIndex, String lineDisplayText, int textType) {
         if(lineIndex == 0) {
-            displayLines.line1 = lineDisplayText;
+            displayLines.line1 = writeAt(displayLines.line1, columnIndex, lineDisplayText);
         } else if (lineIndex == 1) {
-            displayLines.line2 = lineDisplayText;
+            displayLines.line2 = writeAt(displayLines.line2, columnIndex, lineDisplayText);
         }
 
         //Do nothing if the index is OOB
     }
 
+    //Overwrites the line from columnIndex on, like the device does, so partial updates land in place
+    private static String writeAt(String line, int columnIndex, String lineDisplayText) {
+        StringBuilder updated = new StringBuilder(line == null ? "" : line);
+        while (updated.length() < columnIndex) {
+            updated.append(' ');
+        }
+        String text = lineDisplayText == null ? "" : lineDisplayText;
+        int end = Math.min(updated.length(), columnIndex + text.length());
+        updated.replace(columnIndex, end, text);
+        return updated.toString();
+    }
+
     public LineDisplayData getDisplayText() {
         return displayLines;
     }
@@ -0,0 +1,194 @@
+package com.target.devicemanager.components.msr;
+
+import com.target.devicemanager.common.StructuredEventLogger;
+import com.target.devicemanager.components.msr.entities.CardData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fans card swipes out to the /v1/msr/events subscribers.
+ * Every subscriber has its own bounded queue drained off the JavaPOS event thread. A subscriber that lets
+ * its queue fill up is disconnected rather than slowing down the others.
+ * Track data is masked before it is queued for any subscriber that did not present the stream token.
+ */
+public class MSRCardStream {
+
+    static final int SUBSCRIBER_QUEUE_SIZE = 8;
+    private static final Pattern PAN_PATTERN = Pattern.compile("\\d{12,19}");
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final byte[] privilegedToken;
+    private final Executor deliveryExecutor;
+    private static final Logger LOGGER = LoggerFactory.getLogger(MSRCardStream.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("MSR", "MSRCardStream", LOGGER);
+
+    public MSRCardStream(String privilegedToken) {
+        this(privilegedToken, Executors.newFixedThreadPool(2, new StreamThreadFactory()));
+    }
+
+    public MSRCardStream(String privilegedToken, Executor deliveryExecutor) {
+        if (deliveryExecutor == null) {
+            throw new IllegalArgumentException("deliveryExecutor cannot be null");
+        }
+        this.privilegedToken = privilegedToken == null || privilegedToken.isBlank() ? null : privilegedToken.getBytes(StandardCharsets.UTF_8);
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    /**
+     * Adds a subscriber. Raw track data is only sent when the token matches the configured stream token.
+     * @param emitter SSE connection of the subscriber.
+     * @param token token presented by the subscriber, may be null.
+     * @param onRemoved called on the delivery executor once the subscriber is gone.
+     * @return true if the subscriber receives unmasked track data.
+     */
+    boolean subscribe(SseEmitter emitter, String token, Runnable onRemoved) {
+        boolean isPrivileged = isPrivileged(token);
+        Subscriber subscriber = new Subscriber(emitter, isPrivileged, onRemoved);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(throwable -> remove(subscriber));
+        subscribers.add(subscriber);
+        log.success("MSR stream subscriber added, privileged=" + isPrivileged + ", total: " + subscribers.size(), 5);
+        return isPrivileged;
+    }
+
+    /**
+     * Queues a swipe for every subscriber. Called on the JavaPOS event thread, so it never blocks.
+     * @param cardData card data read from the device.
+     */
+    void publish(CardData cardData) {
+        CardData maskedCardData = null;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isPrivileged) {
+                subscriber.offer(cardData);
+            } else {
+                if (maskedCardData == null) {
+                    maskedCardData = mask(cardData);
+                }
+                subscriber.offer(maskedCardData);
+            }
+        }
+    }
+
+    boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private boolean isPrivileged(String token) {
+        return privilegedToken != null && token != null
+                && MessageDigest.isEqual(privilegedToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            log.success("MSR stream subscriber removed, total: " + subscribers.size(), 5);
+            //A subscriber that overflows is removed on the JavaPOS event thread, which must not wait on the MSR
+            deliveryExecutor.execute(subscriber.onRemoved);
+        }
+    }
+
+    static CardData mask(CardData cardData) {
+        return new CardData(
+                maskTrack(cardData.track1Data),
+                maskTrack(cardData.track2Data),
+                maskTrack(cardData.track3Data),
+                maskTrack(cardData.track4Data));
+    }
+
+    /**
+     * Replaces every digit with '*' except the last four digits of the account number.
+     */
+    static String maskTrack(String track) {
+        if (track == null || track.isEmpty()) {
+            return track;
+        }
+        int lastFourStart = -1;
+        Matcher matcher = PAN_PATTERN.matcher(track);
+        if (matcher.find()) {
+            lastFourStart = matcher.end() - 4;
+        }
+        StringBuilder masked = new StringBuilder(track.length());
+        for (int i = 0; i < track.length(); i++) {
+            char c = track.charAt(i);
+            boolean isLastFour = lastFourStart >= 0 && i >= lastFourStart && i < lastFourStart + 4;
+            masked.append(Character.isDigit(c) && !isLastFour ? '*' : c);
+        }
+        return masked.toString();
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final boolean isPrivileged;
+        private final Runnable onRemoved;
+        private final BlockingQueue<CardData> queue = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_SIZE);
+        private final AtomicBoolean isDraining = new AtomicBoolean(false);
+
+        Subscriber(SseEmitter emitter, boolean isPrivileged, Runnable onRemoved) {
+            this.emitter = emitter;
+            this.isPrivileged = isPrivileged;
+            this.onRemoved = onRemoved;
+        }
+
+        void offer(CardData cardData) {
+            if (!queue.offer(cardData)) {
+                log.failure("MSR stream subscriber is not keeping up, disconnecting", 13, null);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            if (isDraining.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                CardData cardData;
+                while ((cardData = queue.poll()) != null) {
+                    try {
+                        emitter.send(SseEmitter.event().name("card").data(cardData, MediaType.APPLICATION_JSON));
+                    } catch (IOException | IllegalStateException exception) {
+                        log.failure("Failed to send card data to MSR stream subscriber", 5, exception);
+                        queue.clear();
+                        remove(this);
+                        isDraining.set(false);
+                        return;
+                    }
+                }
+                isDraining.set(false);
+            } while (!queue.isEmpty() && isDraining.compareAndSet(false, true));
+        }
+    }
+
+    private static class StreamThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "msr-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
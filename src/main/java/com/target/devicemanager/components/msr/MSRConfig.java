@@ -14,7 +14,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 
 import java.util.concurrent.Phaser;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 @ConditionalOnProperty(name = "possum.device.msr.enabled", havingValue = "true")
@@ -46,16 +45,19 @@ class MSRConfig {
             dynamicMSR = new SimulatedDynamicDevice<>(simulatedMSR, new DevicePower(), new DeviceConnector<>(simulatedMSR, deviceRegistry));
         } else {
             MSR msr = new MSR();
-            dynamicMSR = new DynamicDevice<>(msr, new DevicePower(), new DeviceConnector<>(msr, deviceRegistry, null, preferred, autoAdapt));
+            dynamicMSR = new DynamicDevice<>(msr, new DevicePower(), new DeviceConnector<>(msr, deviceRegistry, null, preferred, autoAdapt), MSRManager.HEALTH_KEY, "msr");
         }
 
         MSRManager msrManager = new MSRManager(
                 new MSRDevice(
                         new MSRDeviceListener(new EventSynchronizer(new Phaser(1))),
                         dynamicMSR),
-                new ReentrantLock());
+                new DeviceAdmissionController("msr", workstationConfig.getAdmissionMaxQueueDepth(), workstationConfig.getAdmissionDefaultWaitMsec()),
+                null,
+                new MSRCardStream(environment.getProperty("possum.device.msr.streamToken")));
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setMsrManager(msrManager);
+        ReconnectScheduler.getReconnectScheduler().register(MSRManager.HEALTH_KEY, msrManager::connect);
         return msrManager;
     }
 
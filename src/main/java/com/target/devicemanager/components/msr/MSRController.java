@@ -16,8 +16,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping(value = "/v1")
@@ -62,6 +64,28 @@ public class MSRController {
         }
     }
 
+    @Operation(description = "Subscribe to card swipes via Server-Sent Events (SSE). The MSR stays enabled while subscribers are connected. " +
+            "Track data is masked unless the X-MSR-Token header matches the configured stream token.")
+    @GetMapping(path = "/msr/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "SSE stream opened"),
+            @ApiResponse(responseCode = "409", description = "DEVICE_BUSY",
+                    content = @Content(schema = @Schema(implementation = DeviceError.class)))
+    })
+    public SseEmitter subscribeToCardEvents(@RequestHeader(value = "X-MSR-Token", required = false) String token) throws MSRException {
+        String url = "/v1/msr/events";
+        log.success("API Request Received", 1);
+        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+        try {
+            msrManager.subscribeToCardEvents(emitter, token);
+            log.successAPI("API Request Completed Successfully", 1, url, "SSE stream opened", 200);
+            return emitter;
+        } catch (MSRException msrException) {
+            log.failureAPI("API Request Failed with MSRException", 13, url, msrException.getDeviceError() == null ? null : msrException.getDeviceError().toString(), msrException.getDeviceError() == null ? 0 : msrException.getDeviceError().getStatusCode().value(), msrException);
+            throw msrException;
+        }
+    }
+
     @Operation(description = "Cancel previously requested card read")
     @DeleteMapping(path = "/msr/read")
     @ApiResponses({
@@ -2,6 +2,7 @@ package com.target.devicemanager.components.msr;
 
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.DeviceListener;
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
@@ -10,12 +11,14 @@ import jpos.JposConst;
 import jpos.JposException;
 import jpos.MSR;
 import jpos.events.DataEvent;
+import jpos.events.DataListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.charset.Charset;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 public class MSRDevice {
     private final DynamicDevice<? extends MSR> dynamicMSR;
@@ -25,6 +28,8 @@ public class MSRDevice {
     private static final StructuredEventLogger log = StructuredEventLogger.of("MSR", "MSRDevice", LOGGER);
     private final ReentrantLock connectLock;
     private boolean isLocked = false;
+    private volatile Consumer<CardData> streamConsumer = null;
+    private final DataListener streamListener = this::streamDataOccurred;
 
     public MSRDevice(DeviceListener deviceListener, DynamicDevice<? extends MSR> dynamicMSR) {
         this(deviceListener, dynamicMSR, new ReentrantLock(true));
@@ -111,6 +116,96 @@ public class MSRDevice {
         }
     }
 
+    /**
+     * Keeps the MSR enabled with AutoDisable off and hands every swipe to the consumer.
+     * Safe to call repeatedly, the device is only re-enabled when it is not already enabled.
+     * @param cardConsumer receives the card data of each swipe.
+     * @throws JposException if the device is offline or cannot be enabled
+     */
+    public void startStreaming(Consumer<CardData> cardConsumer) throws JposException {
+        log.success("startStreaming(in)", 1);
+        if (!isConnected()) {
+            throw new JposException(JposConst.JPOS_E_OFFLINE);
+        }
+        try {
+            MSR msr = dynamicMSR.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(msr);
+            deviceLock.lock();
+            try {
+                if (streamConsumer == null) {
+                    msr.addDataListener(streamListener);
+                }
+                streamConsumer = cardConsumer;
+                if (!msr.getDeviceEnabled()) {
+                    msr.setAutoDisable(false);
+                    msr.setDataEventEnabled(true);
+                    msr.setDeviceEnabled(true);
+                    log.success("MSR enabled for streaming", 9);
+                }
+            } finally {
+                deviceLock.unlock();
+            }
+        } catch (JposException jposException) {
+            log.failure("Failed to Start Streaming: " + jposException.getErrorCode() + ", " + jposException.getErrorCodeExtended(), 17, jposException);
+            throw jposException;
+        }
+        log.success("startStreaming(out)", 1);
+    }
+
+    /**
+     * Stops handing swipes to the stream consumer and disables the MSR.
+     */
+    public void stopStreaming() {
+        log.success("stopStreaming(in)", 1);
+        MSR msr = dynamicMSR.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(msr);
+        deviceLock.lock();
+        try {
+            if (streamConsumer != null) {
+                msr.removeDataListener(streamListener);
+                streamConsumer = null;
+            }
+        } finally {
+            deviceLock.unlock();
+        }
+        try {
+            disable();
+        } catch (JposException jposException) {
+            log.failure("Received exception in stopStreaming", 13, jposException);
+        }
+        log.success("stopStreaming(out)", 1);
+    }
+
+    public boolean isStreaming() {
+        return streamConsumer != null;
+    }
+
+    private void streamDataOccurred(DataEvent dataEvent) {
+        Consumer<CardData> cardConsumer = streamConsumer;
+        if (cardConsumer == null) {
+            return;
+        }
+        try {
+            cardConsumer.accept(handleDataEvent(dataEvent));
+        } catch (JposException jposException) {
+            log.failure("Failed to Stream Card Data", 17, jposException);
+        } finally {
+            try {
+                MSR msr = dynamicMSR.getDevice();
+                DeviceLock deviceLock = DeviceLock.of(msr);
+                deviceLock.lock();
+                try {
+                    //JavaPOS turns DataEventEnabled off after each data event
+                    msr.setDataEventEnabled(true);
+                } finally {
+                    deviceLock.unlock();
+                }
+            } catch (JposException jposException) {
+                log.failure("Failed to Re-enable Data Events", 17, jposException);
+            }
+        }
+    }
+
     /**
      * Handles the data event from the MSR and extracts track data.
      */
@@ -126,12 +221,16 @@ public class MSRDevice {
             String track2;
             String track3;
             String track4;
-            MSR msr;
-            synchronized (msr = (MSR) dataEvent.getSource()) {
+            MSR msr = (MSR) dataEvent.getSource();
+            DeviceLock deviceLock = DeviceLock.of(msr);
+            deviceLock.lock();
+            try {
                 track1 = new String(msr.getTrack1Data(), Charset.defaultCharset());
                 track2 = new String(msr.getTrack2Data(), Charset.defaultCharset());
                 track3 = new String(msr.getTrack3Data(), Charset.defaultCharset());
                 track4 = new String(msr.getTrack4Data(), Charset.defaultCharset());
+            } finally {
+                deviceLock.unlock();
             }
             CardData cardData = new CardData(track1, track2, track3, track4);
             log.success("Returning card data: " + cardData, 9);
@@ -185,11 +284,15 @@ public class MSRDevice {
         }
         deviceListener.startEventListeners();
         try {
-            MSR msr;
-            synchronized (msr = dynamicMSR.getDevice()) {
+            MSR msr = dynamicMSR.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(msr);
+            deviceLock.lock();
+            try {
                 msr.setAutoDisable(true);
                 msr.setDataEventEnabled(true);
                 msr.setDeviceEnabled(true);
+            } finally {
+                deviceLock.unlock();
             }
         } catch (JposException jposException) {
             if (isConnected()) {
@@ -209,9 +312,13 @@ public class MSRDevice {
     private void disable() throws JposException {
         log.success("disable(in)", 1);
         try {
-            MSR msr;
-            synchronized (msr = dynamicMSR.getDevice()) {
+            MSR msr = dynamicMSR.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(msr);
+            deviceLock.lock();
+            try {
                 msr.setDeviceEnabled(false);
+            } finally {
+                deviceLock.unlock();
             }
         } catch (JposException jposException) {
             if (isConnected()) {
@@ -229,11 +336,15 @@ public class MSRDevice {
      * Attaches event listeners to the device.
      */
     private void attachEventListeners() {
-        MSR msr;
-        synchronized (msr = dynamicMSR.getDevice()) {
+        MSR msr = dynamicMSR.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(msr);
+        deviceLock.lock();
+        try {
             msr.addErrorListener(deviceListener);
             msr.addDataListener(deviceListener);
             msr.addStatusUpdateListener(deviceListener);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -241,11 +352,15 @@ public class MSRDevice {
      * Removes event listeners from the device.
      */
     private void detachEventListeners() {
-        MSR msr;
-        synchronized (msr = dynamicMSR.getDevice()) {
+        MSR msr = dynamicMSR.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(msr);
+        deviceLock.lock();
+        try {
             msr.removeErrorListener(deviceListener);
             msr.removeDataListener(deviceListener);
             msr.removeStatusUpdateListener(deviceListener);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
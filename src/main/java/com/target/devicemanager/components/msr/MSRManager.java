@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.msr;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.components.msr.entities.CardData;
@@ -8,25 +9,18 @@ import com.target.devicemanager.components.msr.entities.MSRException;
 import jpos.JposException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
-@EnableScheduling
-@EnableCaching
 public class MSRManager {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY = "msr";
+    private final DeviceHealthRegistry healthRegistry;
     private final MSRDevice msrDevice;
     private final Lock msrLock;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
+    private final MSRCardStream cardStream;
     private static final Logger LOGGER = LoggerFactory.getLogger(MSRManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("MSR", "MSRManager", LOGGER);
 
@@ -34,31 +28,45 @@ public class MSRManager {
         this(msrDevice, msrLock, null);
     }
 
-    public MSRManager(MSRDevice msrDevice, Lock msrLock, CacheManager cacheManager) {
+    public MSRManager(MSRDevice msrDevice, Lock msrLock, DeviceHealthRegistry healthRegistry) {
+        this(msrDevice, msrLock, healthRegistry, new MSRCardStream(null));
+    }
+
+    public MSRManager(MSRDevice msrDevice, Lock msrLock, DeviceHealthRegistry healthRegistry, MSRCardStream cardStream) {
         if (msrDevice == null) {
             throw new IllegalArgumentException("msrDevice cannot be null");
         }
         if (msrLock == null) {
             throw new IllegalArgumentException("msrLock cannot be null");
         }
+        if (cardStream == null) {
+            throw new IllegalArgumentException("cardStream cannot be null");
+        }
         this.msrDevice = msrDevice;
         this.msrLock = msrLock;
+        this.cardStream = cardStream;
 
-        if (cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         msrDevice.connect();
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            if (!msrDevice.isConnected()) {
-                log.failure("MSR Failed to Connect", 17, null);
+        //A blocking card read holding the MSR means there is no card stream to restart
+        if (msrDevice.isConnected() && tryLockIfIdle()) {
+            try {
+                if (cardStream.hasSubscribers()) {
+                    //Device may have been power cycled or reconnected, make sure streaming is still enabled
+                    startStreaming();
+                }
+            } finally {
+                msrLock.unlock();
             }
-            connectStatus = ConnectEnum.CHECK_HEALTH;
         }
+
+        if (healthRegistry.get(HEALTH_KEY) == null && !msrDevice.isConnected()) {
+            log.failure("MSR Failed to Connect", 17, null);
+        }
+        getHealth();
     }
 
     public void reconnectDevice() throws DeviceException {
@@ -87,6 +95,10 @@ public class MSRManager {
             throw msrException;
         }
         try {
+            if (cardStream.hasSubscribers()) {
+                log.success("getData(out) - card stream active", 1);
+                throw new MSRException(MSRError.DEVICE_BUSY);
+            }
             return readCard();
         } finally {
             msrLock.unlock();
@@ -108,12 +120,57 @@ public class MSRManager {
         }
     }
 
+    /**
+     * Adds a subscriber to the continuous card stream. The first subscriber enables the MSR with AutoDisable off,
+     * it stays enabled until the last subscriber leaves.
+     * @param emitter SSE connection of the subscriber.
+     * @param token stream token presented by the subscriber, unmasked track data is only sent when it matches.
+     */
+    void subscribeToCardEvents(SseEmitter emitter, String token) throws MSRException {
+        log.success("subscribeToCardEvents(in)", 1);
+        if (!msrLock.tryLock()) {
+            log.success("subscribeToCardEvents(out) - blocking read in progress", 1);
+            throw new MSRException(MSRError.DEVICE_BUSY);
+        }
+        try {
+            cardStream.subscribe(emitter, token, this::onStreamSubscriberRemoved);
+            if (msrDevice.isConnected()) {
+                startStreaming();
+            }
+        } finally {
+            msrLock.unlock();
+        }
+        log.success("subscribeToCardEvents(out)", 1);
+    }
+
+    private void startStreaming() {
+        try {
+            msrDevice.startStreaming(cardStream::publish);
+        } catch (JposException jposException) {
+            log.failure("MSR card stream not started, will retry on next connect", 13, jposException);
+        }
+    }
+
+    //Counted and stopped under the same lock as subscribe, so a subscriber joining at the same time is not left
+    //on a stopped stream. The card stream runs this on its delivery executor, never on the JavaPOS event thread,
+    //so waiting here does not hold up publish.
+    private void onStreamSubscriberRemoved() {
+        msrLock.lock();
+        try {
+            if (!cardStream.hasSubscribers()) {
+                msrDevice.stopStreaming();
+            }
+        } finally {
+            msrLock.unlock();
+        }
+    }
+
     /**
      * Cancels the current card read request.
      */
     void cancelReadRequest() throws MSRException {
         log.success("cancelReadRequest(in)", 1);
-        if (msrLock.tryLock()) {
+        if (tryLockIfIdle()) {
             try {
                 MSRException msrException = new MSRException(MSRError.ALREADY_DISABLED);
                 log.success("cancelReadRequest(out) - already disabled", 1);
@@ -126,6 +183,16 @@ public class MSRManager {
         log.success("cancelReadRequest(out)", 1);
     }
 
+    //Unlike getData this does not wait in line for the MSR, a running card read is what cancel is for
+    private boolean tryLockIfIdle() {
+        try {
+            return msrLock.tryLock(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     public DeviceHealthResponse getHealth() {
         log.success("getHealth(in)", 1);
         DeviceHealthResponse deviceHealthResponse;
@@ -134,29 +201,17 @@ public class MSRManager {
         } else {
             deviceHealthResponse = new DeviceHealthResponse(msrDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("msrHealth")).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(msrHealth) Failed: " + exception.getMessage(), 17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY, deviceHealthResponse);
         log.success("getHealth(out)", 1);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("msrHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth();
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache("msrHealth")).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 6);
-                return getHealth();
-            }
-        } catch (Exception exception) {
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth();
         }
+        return deviceHealthResponse;
     }
 }
@@ -0,0 +1,133 @@
+package com.target.devicemanager.components.poskeyboard;
+
+import com.target.devicemanager.components.poskeyboard.entities.KeyboardEventData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring buffer of the most recent key events.
+ * Every event gets a monotonically increasing sequence id. The SSE event id is the boot epoch of the log and the
+ * sequence id, so a reconnecting client can send it back in Last-Event-ID and get the keys it missed, and a client
+ * that connected before a restart gets everything since the restart instead of skipping ahead.
+ */
+public class KeyEventLog {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final Entry[] entries;
+    private final long epoch;
+    private long latestSequence = 0;
+
+    public KeyEventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public KeyEventLog(int capacity) {
+        this(capacity, System.currentTimeMillis());
+    }
+
+    public KeyEventLog(int capacity, long epoch) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        this.entries = new Entry[capacity];
+        this.epoch = epoch;
+    }
+
+    /**
+     * Adds an event, overwriting the oldest one once the buffer is full.
+     * @param keyboardEventData key event.
+     * @return sequence id of the event.
+     */
+    public synchronized long append(KeyboardEventData keyboardEventData) {
+        long sequence = ++latestSequence;
+        entries[(int) (sequence % entries.length)] = new Entry(sequence, keyboardEventData);
+        return sequence;
+    }
+
+    /**
+     * Gets the buffered events newer than the given sequence id, oldest first.
+     * @param sequence last sequence id the caller has seen.
+     * @return events after sequence, limited to what is still in the buffer.
+     */
+    public synchronized List<Entry> since(long sequence) {
+        long from = Math.max(sequence + 1, getOldestSequence());
+        List<Entry> result = new ArrayList<>((int) Math.max(0, latestSequence - from + 1));
+        for (long current = from; current <= latestSequence; current++) {
+            result.add(entries[(int) (current % entries.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * @param sequence sequence id of an event.
+     * @return SSE event id of the event, "epoch-sequence".
+     */
+    public String getEventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Gets the sequence id to replay from for a Last-Event-ID sent by a reconnecting client.
+     * @param eventId event id the client last received.
+     * @return sequence id of the last event the client has, 0 when the id is from before a restart so every
+     * logged event is replayed, or null when the id is not a key event id.
+     */
+    public synchronized Long getResumeSequence(String eventId) {
+        if (eventId == null) {
+            return null;
+        }
+        String[] parts = eventId.trim().split("-");
+        long eventEpoch;
+        long sequence;
+        try {
+            if (parts.length == 1) {
+                //Plain sequence ids were handed out before ids carried the epoch, so they are from an earlier run
+                Long.parseLong(parts[0]);
+                return 0L;
+            }
+            if (parts.length != 2) {
+                return null;
+            }
+            eventEpoch = Long.parseLong(parts[0]);
+            sequence = Long.parseLong(parts[1]);
+        } catch (NumberFormatException numberFormatException) {
+            return null;
+        }
+        if (eventEpoch != epoch || sequence > latestSequence) {
+            return 0L;
+        }
+        return Math.max(0, sequence);
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getLatestSequence() {
+        return latestSequence;
+    }
+
+    public synchronized long getOldestSequence() {
+        return Math.max(1, latestSequence - entries.length + 1);
+    }
+
+    public static class Entry {
+        private final long sequence;
+        private final KeyboardEventData keyboardEventData;
+
+        Entry(long sequence, KeyboardEventData keyboardEventData) {
+            this.sequence = sequence;
+            this.keyboardEventData = keyboardEventData;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public KeyboardEventData getKeyboardEventData() {
+            return keyboardEventData;
+        }
+    }
+}
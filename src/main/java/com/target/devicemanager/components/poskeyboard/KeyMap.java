@@ -0,0 +1,82 @@
+package com.target.devicemanager.components.poskeyboard;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.target.devicemanager.common.StructuredEventLogger;
+import com.target.devicemanager.components.poskeyboard.entities.KeyMapEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable table from raw POSKeyData codes to logical keys. Loaded once at startup from the file in
+ * possum.device.posKeyboard.keyMapPath, or from the bundled poskeyboard_keymap.json when no file is configured.
+ */
+public class KeyMap {
+
+    static final String DEFAULT_KEY_MAP = "poskeyboard_keymap.json";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyMap.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("POSKeyboard", "KeyMap", LOGGER);
+
+    private final Map<Integer, KeyMapEntry> entries;
+
+    public KeyMap(List<KeyMapEntry> keyMapEntries) {
+        Map<Integer, KeyMapEntry> map = new HashMap<>();
+        if (keyMapEntries != null) {
+            for (KeyMapEntry keyMapEntry : keyMapEntries) {
+                if (keyMapEntry != null && keyMapEntry.key != null && keyMapEntry.type != null) {
+                    map.put(keyMapEntry.keyCode, keyMapEntry);
+                }
+            }
+        }
+        this.entries = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Loads the key map.
+     * @param keyMapPath file to load, null or blank for the bundled default.
+     * @return the key map, empty if it could not be read.
+     */
+    public static KeyMap load(String keyMapPath) {
+        try {
+            List<KeyMapEntry> keyMapEntries;
+            if (keyMapPath == null || keyMapPath.isBlank()) {
+                try (InputStream inputStream = KeyMap.class.getClassLoader().getResourceAsStream(DEFAULT_KEY_MAP)) {
+                    if (inputStream == null) {
+                        log.failure(DEFAULT_KEY_MAP + " not found, key entry assembly disabled", 13, null);
+                        return new KeyMap(null);
+                    }
+                    keyMapEntries = MAPPER.readValue(inputStream, new TypeReference<List<KeyMapEntry>>() {});
+                }
+            } else {
+                keyMapEntries = MAPPER.readValue(new File(keyMapPath), new TypeReference<List<KeyMapEntry>>() {});
+            }
+            KeyMap keyMap = new KeyMap(keyMapEntries);
+            log.success("Loaded " + keyMap.size() + " key mappings", 9);
+            return keyMap;
+        } catch (IOException ioException) {
+            log.failure("Failed to load key map " + keyMapPath + ", key entry assembly disabled", 17, ioException);
+            return new KeyMap(null);
+        }
+    }
+
+    /**
+     * @param keyCode raw POSKeyData code.
+     * @return the logical key, null when the code is not mapped.
+     */
+    public KeyMapEntry get(int keyCode) {
+        return entries.get(keyCode);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,88 @@
+package com.target.devicemanager.components.poskeyboard;
+
+import com.target.devicemanager.components.poskeyboard.entities.KeyEntryEvent;
+import com.target.devicemanager.components.poskeyboard.entities.KeyMapEntry;
+import com.target.devicemanager.components.poskeyboard.entities.KeyboardEventData;
+
+/**
+ * Turns raw key presses into entries, e.g. "3 QTY PLU 4011 ENTER" or "1000 TENDER".
+ * Keeps the state of the entry being keyed, so it must only be called from one thread at a time.
+ */
+public class KeySequenceAssembler {
+
+    static final String DEFAULT_ENTRY_TYPE = "ENTRY";
+    private static final int MAX_VALUE_LENGTH = 32;
+
+    private final KeyMap keyMap;
+    private final StringBuilder value = new StringBuilder();
+    private int quantity = 1;
+    private String entryType = null;
+
+    public KeySequenceAssembler(KeyMap keyMap) {
+        if (keyMap == null) {
+            throw new IllegalArgumentException("keyMap cannot be null");
+        }
+        this.keyMap = keyMap;
+    }
+
+    /**
+     * Feeds a key event into the assembler. Only KEY_DOWN events and mapped keys are used.
+     * @param keyboardEventData raw key event.
+     * @return the completed entry, null while an entry is still being keyed.
+     */
+    public KeyEntryEvent accept(KeyboardEventData keyboardEventData) {
+        if (!"KEY_DOWN".equals(keyboardEventData.getEventType())) {
+            return null;
+        }
+        KeyMapEntry keyMapEntry = keyMap.get(keyboardEventData.getKeyCode());
+        if (keyMapEntry == null) {
+            return null;
+        }
+        long timestamp = keyboardEventData.getTimestamp();
+        switch (keyMapEntry.type) {
+            case DIGIT:
+                if (value.length() < MAX_VALUE_LENGTH) {
+                    value.append(keyMapEntry.key);
+                }
+                return null;
+            case QUANTITY:
+                quantity = parseQuantity(value.toString());
+                value.setLength(0);
+                return null;
+            case ENTRY_TYPE:
+                entryType = keyMapEntry.key;
+                return value.length() > 0 ? complete(timestamp) : null;
+            case ENTER:
+                return complete(timestamp);
+            case CLEAR:
+                reset();
+                return null;
+            case FUNCTION:
+                reset();
+                return new KeyEntryEvent(keyMapEntry.key, "", 1, timestamp);
+            default:
+                return null;
+        }
+    }
+
+    private KeyEntryEvent complete(long timestamp) {
+        KeyEntryEvent keyEntryEvent = new KeyEntryEvent(entryType == null ? DEFAULT_ENTRY_TYPE : entryType, value.toString(), quantity, timestamp);
+        reset();
+        return keyEntryEvent;
+    }
+
+    private void reset() {
+        value.setLength(0);
+        quantity = 1;
+        entryType = null;
+    }
+
+    private int parseQuantity(String keyed) {
+        try {
+            int parsed = Integer.parseInt(keyed);
+            return parsed > 0 ? parsed : 1;
+        } catch (NumberFormatException numberFormatException) {
+            return 1;
+        }
+    }
+}
@@ -15,7 +15,6 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 
 import java.util.concurrent.Phaser;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 @Profile({"local", "dev", "prod"})
@@ -47,16 +46,22 @@ class POSKeyboardConfig {
             dynamicKeyboard = new SimulatedDynamicDevice<>(simulatedPOSKeyboard, new DevicePower(), new DeviceConnector<>(simulatedPOSKeyboard, deviceRegistry));
         } else {
             POSKeyboard keyboard = new POSKeyboard();
-            dynamicKeyboard = new DynamicDevice<>(keyboard, new DevicePower(), new DeviceConnector<>(keyboard, deviceRegistry, null, preferred, autoAdapt, false, true));
+            dynamicKeyboard = new DynamicDevice<>(keyboard, new DevicePower(), new DeviceConnector<>(keyboard, deviceRegistry, null, preferred, autoAdapt, false, true), POSKeyboardManager.HEALTH_KEY, "poskeyboard");
         }
 
         POSKeyboardManager posKeyboardManager = new POSKeyboardManager(
                 new POSKeyboardDevice(
                         dynamicKeyboard,
                         new POSKeyboardDeviceListener(new EventSynchronizer(new Phaser(1)))),
-                new ReentrantLock());
+                new DeviceAdmissionController("posKeyboard", workstationConfig.getAdmissionMaxQueueDepth(), workstationConfig.getAdmissionDefaultWaitMsec()),
+                null,
+                new KeyEventLog(),
+                new KeySequenceAssembler(KeyMap.load(environment.getProperty("possum.device.posKeyboard.keyMapPath"))),
+                POSKeyboardManager.newFanOutExecutor(),
+                POSKeyboardManager.newDeliveryExecutor());
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setPosKeyboardManager(posKeyboardManager);
+        ReconnectScheduler.getReconnectScheduler().register(POSKeyboardManager.HEALTH_KEY, posKeyboardManager::connect);
         return posKeyboardManager;
     }
 
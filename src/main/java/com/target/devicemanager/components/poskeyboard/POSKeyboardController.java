@@ -18,7 +18,9 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -30,6 +32,8 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 public class POSKeyboardController {
 
     private final POSKeyboardManager posKeyboardManager;
+    private static final String MODE_RAW = "raw";
+    private static final String MODE_ENTRIES = "entries";
     private static final Logger LOGGER = LoggerFactory.getLogger(POSKeyboardController.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("POSKeyboard", "POSKeyboardController", LOGGER);
 
@@ -42,16 +46,29 @@ public class POSKeyboardController {
     }
 
     @Operation(description = "Subscribe to real-time keyboard events via Server-Sent Events (SSE). " +
-            "Events are pushed as JSON objects containing keyCode, eventType (KEY_DOWN/KEY_UP), and timestamp.")
+            "Events are pushed as JSON objects containing keyCode, eventType (KEY_DOWN/KEY_UP), and timestamp. " +
+            "Each event carries an id, send it back in Last-Event-ID on reconnect to replay the keys that were missed. " +
+            "With mode=entries the stream carries 'entry' events assembled from the key sequence (entryType, value, quantity) instead.")
     @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "SSE stream opened")
+            @ApiResponse(responseCode = "200", description = "SSE stream opened"),
+            @ApiResponse(responseCode = "400", description = "BAD_INPUT",
+                    content = @Content(schema = @Schema(implementation = DeviceError.class)))
     })
-    public SseEmitter subscribeToKeyboardEvents() {
+    public SseEmitter subscribeToKeyboardEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                @RequestParam(value = "mode", defaultValue = MODE_RAW) String mode) throws DeviceException {
         String url = "/v1/poskeyboard/events";
-        log.successAPI("request", 1, url, null, 0);
+        log.successAPI("request", 1, url, lastEventId, 0);
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        posKeyboardManager.addEventSubscriber(emitter);
+        if (MODE_ENTRIES.equalsIgnoreCase(mode)) {
+            posKeyboardManager.addEntrySubscriber(emitter);
+        } else if (MODE_RAW.equalsIgnoreCase(mode)) {
+            posKeyboardManager.addEventSubscriber(emitter, lastEventId == null || lastEventId.isBlank() ? null : lastEventId);
+        } else {
+            DeviceException deviceException = new DeviceException(DeviceError.BAD_INPUT);
+            log.failureAPI("response", 13, url, deviceException.getDeviceError().toString(), 400, deviceException);
+            throw deviceException;
+        }
         log.successAPI("response", 1, url, "SSE stream opened", 200);
         return emitter;
     }
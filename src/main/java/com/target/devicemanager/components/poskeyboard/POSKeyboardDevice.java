@@ -1,6 +1,8 @@
 package com.target.devicemanager.components.poskeyboard;
 
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
+import com.target.devicemanager.common.ReconnectScheduler;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.DeviceListener;
 import com.target.devicemanager.components.poskeyboard.entities.KeyboardEventData;
@@ -66,8 +68,10 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
             areListenersAttached = true;
         }
 
-        POSKeyboard keyboard;
-        synchronized (keyboard = dynamicKeyboard.getDevice()) {
+        POSKeyboard keyboard = dynamicKeyboard.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(keyboard);
+        deviceLock.lock();
+        try {
             try {
                 if (!keyboard.getDeviceEnabled()) {
                     // Must set event types BEFORE enabling - tells the device to deliver key events
@@ -89,6 +93,8 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
                 deviceConnected = false;
                 return false;
             }
+        } finally {
+            deviceLock.unlock();
         }
         return true;
     }
@@ -123,8 +129,10 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
                 detachEventListeners();
                 areListenersAttached = false;
             }
-            POSKeyboard keyboard;
-            synchronized (keyboard = dynamicKeyboard.getDevice()) {
+            POSKeyboard keyboard = dynamicKeyboard.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(keyboard);
+            deviceLock.lock();
+            try {
                 try {
                     if (keyboard.getDeviceEnabled()) {
                         keyboard.setDataEventEnabled(false);
@@ -135,13 +143,17 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
                 } catch (JposException jposException) {
                     log.failure("POSKeyboard Failed to Disconnect", 18, jposException);
                 }
+            } finally {
+                deviceLock.unlock();
             }
         }
         /*
         Re-enable device when not connected to get status update events.
         */
-        POSKeyboard keyboard;
-        synchronized (keyboard = dynamicKeyboard.getDevice()) {
+        POSKeyboard keyboard = dynamicKeyboard.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(keyboard);
+        deviceLock.lock();
+        try {
             try {
                 if (!keyboard.getDeviceEnabled()) {
                     try {
@@ -161,6 +173,8 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
                 log.failure("POSKeyboard Failed to Enable Device", 18, jposException);
                 deviceConnected = false;
             }
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -189,10 +203,14 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
      * Attaches both data and status update listeners to the device.
      */
     private void attachEventListeners() {
-        POSKeyboard keyboard;
-        synchronized (keyboard = dynamicKeyboard.getDevice()) {
+        POSKeyboard keyboard = dynamicKeyboard.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(keyboard);
+        deviceLock.lock();
+        try {
             keyboard.addDataListener(this);
             keyboard.addStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -200,10 +218,14 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
      * Removes data and status update listeners from the device.
      */
     private void detachEventListeners() {
-        POSKeyboard keyboard;
-        synchronized (keyboard = dynamicKeyboard.getDevice()) {
+        POSKeyboard keyboard = dynamicKeyboard.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(keyboard);
+        deviceLock.lock();
+        try {
             keyboard.removeDataListener(this);
             keyboard.removeStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -216,8 +238,10 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
     public void dataOccurred(DataEvent dataEvent) {
         log.success("POSKeyboard dataOccurred(): " + dataEvent.getStatus(), 1);
         try {
-            POSKeyboard keyboard;
-            synchronized (keyboard = dynamicKeyboard.getDevice()) {
+            POSKeyboard keyboard = dynamicKeyboard.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(keyboard);
+            deviceLock.lock();
+            try {
                 int keyData = keyboard.getPOSKeyData();
                 int eventType = keyboard.getPOSKeyEventType();
 
@@ -237,13 +261,19 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
                 }
 
                 keyboard.setDataEventEnabled(true);
+            } finally {
+                deviceLock.unlock();
             }
         } catch (JposException jposException) {
             log.failure("Error processing keyboard data event", 17, jposException);
             try {
-                POSKeyboard keyboard;
-                synchronized (keyboard = dynamicKeyboard.getDevice()) {
+                POSKeyboard keyboard = dynamicKeyboard.getDevice();
+                DeviceLock deviceLock = DeviceLock.of(keyboard);
+                deviceLock.lock();
+                try {
                     keyboard.setDataEventEnabled(true);
+                } finally {
+                    deviceLock.unlock();
                 }
             } catch (JposException e) {
                 log.failure("Failed to re-enable data events after error", 17, e);
@@ -268,6 +298,7 @@ public class POSKeyboardDevice implements DataListener, StatusUpdateListener {
             case JposConst.JPOS_SUE_POWER_ONLINE:
                 log.success("Status Update: Power online", 5);
                 deviceConnected = true;
+                ReconnectScheduler.getReconnectScheduler().retryNow(POSKeyboardManager.HEALTH_KEY);
                 break;
             default:
                 break;
@@ -1,38 +1,41 @@
 package com.target.devicemanager.components.poskeyboard;
 
+import com.target.devicemanager.common.DeviceEventSink;
+import com.target.devicemanager.common.DeviceHealthRegistry;
+import com.target.devicemanager.common.DeviceThreads;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
+import com.target.devicemanager.components.poskeyboard.entities.KeyEntryEvent;
 import com.target.devicemanager.components.poskeyboard.entities.KeyboardEventData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Profile;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 
 @Profile({"local", "dev", "prod"})
-@EnableScheduling
-@EnableCaching
 public class POSKeyboardManager {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY = "poskeyboard";
+    static final int SUBSCRIBER_QUEUE_SIZE = 64;
+    private final DeviceHealthRegistry healthRegistry;
     private final POSKeyboardDevice posKeyboardDevice;
     private final Lock posKeyboardLock;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
-    private final List<SseEmitter> eventSubscribers = new CopyOnWriteArrayList<>();
+    private final List<Subscriber> eventSubscribers = new CopyOnWriteArrayList<>();
+    private final List<Subscriber> entrySubscribers = new CopyOnWriteArrayList<>();
+    private final KeyEventLog keyEventLog;
+    private final KeySequenceAssembler keySequenceAssembler;
+    private final Executor fanOutExecutor;
+    private final Executor deliveryExecutor;
     private static final Logger LOGGER = LoggerFactory.getLogger(POSKeyboardManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("POSKeyboard", "POSKeyboardManager", LOGGER);
 
@@ -40,25 +43,56 @@ public class POSKeyboardManager {
         this(posKeyboardDevice, posKeyboardLock, null);
     }
 
-    public POSKeyboardManager(POSKeyboardDevice posKeyboardDevice, Lock posKeyboardLock, CacheManager cacheManager) {
+    public POSKeyboardManager(POSKeyboardDevice posKeyboardDevice, Lock posKeyboardLock, DeviceHealthRegistry healthRegistry) {
+        this(posKeyboardDevice, posKeyboardLock, healthRegistry, new KeyEventLog(), new KeySequenceAssembler(KeyMap.load(null)),
+                newFanOutExecutor(), newDeliveryExecutor());
+    }
+
+    static Executor newFanOutExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "poskeyboard-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static Executor newDeliveryExecutor() {
+        return Executors.newFixedThreadPool(2, DeviceThreads.newThreadFactory("poskeyboard-delivery-"));
+    }
+
+    public POSKeyboardManager(POSKeyboardDevice posKeyboardDevice, Lock posKeyboardLock, DeviceHealthRegistry healthRegistry, KeyEventLog keyEventLog,
+                              KeySequenceAssembler keySequenceAssembler, Executor fanOutExecutor, Executor deliveryExecutor) {
         if (posKeyboardDevice == null) {
             throw new IllegalArgumentException("posKeyboardDevice cannot be null");
         }
         if (posKeyboardLock == null) {
             throw new IllegalArgumentException("posKeyboardLock cannot be null");
         }
+        if (keyEventLog == null) {
+            throw new IllegalArgumentException("keyEventLog cannot be null");
+        }
+        if (keySequenceAssembler == null) {
+            throw new IllegalArgumentException("keySequenceAssembler cannot be null");
+        }
+        if (fanOutExecutor == null) {
+            throw new IllegalArgumentException("fanOutExecutor cannot be null");
+        }
+        if (deliveryExecutor == null) {
+            throw new IllegalArgumentException("deliveryExecutor cannot be null");
+        }
         this.posKeyboardDevice = posKeyboardDevice;
         this.posKeyboardLock = posKeyboardLock;
+        this.keyEventLog = keyEventLog;
+        this.keySequenceAssembler = keySequenceAssembler;
+        this.fanOutExecutor = fanOutExecutor;
+        this.deliveryExecutor = deliveryExecutor;
 
-        if (cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
 
         // Register this manager as the event callback on the device
         this.posKeyboardDevice.setEventCallback(this::onKeyEvent);
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         if (posKeyboardDevice.tryLock()) {
             try {
@@ -67,10 +101,7 @@ public class POSKeyboardManager {
                 posKeyboardDevice.unlock();
             }
         }
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            connectStatus = ConnectEnum.CHECK_HEALTH;
-        }
+        getHealth();
     }
 
     public void reconnectDevice() throws DeviceException {
@@ -90,39 +121,187 @@ public class POSKeyboardManager {
 
     /**
      * Callback invoked by the device when a key event occurs.
-     * Sends the event to all connected SSE subscribers.
+     * Records the event in the key event log and hands entry assembly and delivery to the fan-out thread
+     * so the JavaPOS thread returns right away.
      */
     private void onKeyEvent(KeyboardEventData event) {
-        log.success("Key event received: " + event, 1);
-        List<SseEmitter> deadEmitters = new ArrayList<>();
-        for (SseEmitter emitter : eventSubscribers) {
-            try {
-                emitter.send(event, MediaType.APPLICATION_JSON);
-            } catch (IOException ioException) {
-                deadEmitters.add(emitter);
+        long sequence = keyEventLog.append(event);
+        log.success("Key event received: " + event + ", sequence " + sequence, 1);
+        fanOutExecutor.execute(() -> {
+            KeyEntryEvent keyEntryEvent = keySequenceAssembler.accept(event);
+            if (keyEntryEvent != null) {
+                sendEntry(keyEntryEvent);
+            }
+            fanOut();
+        });
+    }
+
+    private void sendEntry(KeyEntryEvent keyEntryEvent) {
+        log.success("Key entry assembled: " + keyEntryEvent, 1);
+        for (Subscriber subscriber : entrySubscribers) {
+            if (!subscriber.queue.offer(new QueuedEvent("entry", null, keyEntryEvent))) {
+                //Entries are not logged, so a subscriber that cannot keep up is dropped rather than given a partial stream
+                log.failure("Key entry subscriber is not keeping up, disconnecting", 13, null);
+                removeSubscriber(subscriber);
+                subscriber.sink.complete();
+                continue;
             }
+            subscriber.startDraining();
+        }
+    }
+
+    /**
+     * Queues for every subscriber the logged events it has not seen yet.
+     * Only runs on the fan-out thread, so events reach each subscriber once and in order. Sending happens on
+     * the delivery threads, so a slow subscriber only holds up itself. A subscriber whose queue is full gets
+     * the rest from the key event log once it has caught up.
+     */
+    private void fanOut() {
+        for (Subscriber subscriber : eventSubscribers) {
+            List<KeyEventLog.Entry> entries = keyEventLog.since(subscriber.lastQueuedSequence);
+            if (!entries.isEmpty() && entries.get(0).getSequence() > subscriber.lastQueuedSequence + 1) {
+                log.failure("Key events " + (subscriber.lastQueuedSequence + 1) + " to " + (entries.get(0).getSequence() - 1)
+                        + " are no longer in the key event log", 13, null);
+            }
+            for (KeyEventLog.Entry entry : entries) {
+                if (!subscriber.queue.offer(new QueuedEvent(null, keyEventLog.getEventId(entry.getSequence()),
+                        entry.getKeyboardEventData()))) {
+                    break;
+                }
+                subscriber.lastQueuedSequence = entry.getSequence();
+            }
+            subscriber.startDraining();
         }
-        eventSubscribers.removeAll(deadEmitters);
     }
 
     /**
      * Adds an SSE emitter to the subscriber list for keyboard events.
      */
     public void addEventSubscriber(SseEmitter emitter) {
-        emitter.onCompletion(() -> eventSubscribers.remove(emitter));
-        emitter.onTimeout(() -> eventSubscribers.remove(emitter));
-        eventSubscribers.add(emitter);
+        addEventSubscriber(DeviceEventSink.of(emitter), null);
+    }
+
+    /**
+     * Adds an SSE emitter to the subscriber list for keyboard events, replaying the events after lastEventId.
+     * @param emitter SSE connection of the subscriber.
+     * @param lastEventId id of the last event the client received, null for a new subscription.
+     */
+    public void addEventSubscriber(SseEmitter emitter, String lastEventId) {
+        addEventSubscriber(DeviceEventSink.of(emitter), lastEventId);
+    }
+
+    /**
+     * Adds a sink to the subscriber list for keyboard events, replaying the events after lastEventId.
+     * @param sink where the events of the subscriber go.
+     * @param lastEventId id of the last event the client received, null for a new subscription.
+     */
+    public void addEventSubscriber(DeviceEventSink sink, String lastEventId) {
+        long latestSequence = keyEventLog.getLatestSequence();
+        long lastQueuedSequence = latestSequence;
+        if (lastEventId != null) {
+            Long resumeSequence = keyEventLog.getResumeSequence(lastEventId);
+            if (resumeSequence == null) {
+                log.failure("Ignoring invalid Last-Event-ID " + lastEventId, 5, null);
+            } else {
+                lastQueuedSequence = resumeSequence;
+            }
+        }
+        Subscriber subscriber = new Subscriber(sink, lastQueuedSequence);
+        sink.onCompletion(() -> removeSubscriber(subscriber));
+        eventSubscribers.add(subscriber);
         log.success("SSE subscriber added, total: " + eventSubscribers.size(), 5);
+        if (lastQueuedSequence < latestSequence) {
+            fanOutExecutor.execute(this::fanOut);
+        }
+    }
+
+    /**
+     * Adds an SSE emitter that receives assembled key entries instead of raw key events.
+     */
+    public void addEntrySubscriber(SseEmitter emitter) {
+        addEntrySubscriber(DeviceEventSink.of(emitter));
+    }
+
+    /**
+     * Adds a sink that receives assembled key entries instead of raw key events.
+     */
+    public void addEntrySubscriber(DeviceEventSink sink) {
+        Subscriber subscriber = new Subscriber(sink, 0);
+        sink.onCompletion(() -> removeSubscriber(subscriber));
+        entrySubscribers.add(subscriber);
+        log.success("SSE entry subscriber added, total: " + entrySubscribers.size(), 5);
     }
 
     /**
      * Removes an SSE emitter from the subscriber list.
      */
     public void removeEventSubscriber(SseEmitter emitter) {
-        eventSubscribers.remove(emitter);
+        DeviceEventSink sink = DeviceEventSink.of(emitter);
+        eventSubscribers.removeIf(subscriber -> subscriber.sink.equals(sink));
+        entrySubscribers.removeIf(subscriber -> subscriber.sink.equals(sink));
         log.success("SSE subscriber removed, total: " + eventSubscribers.size(), 5);
     }
 
+    private void removeSubscriber(Subscriber subscriber) {
+        if (eventSubscribers.remove(subscriber) || entrySubscribers.remove(subscriber)) {
+            log.success("SSE subscriber removed, total: " + eventSubscribers.size(), 5);
+        }
+    }
+
+    private static class QueuedEvent {
+        private final String event;
+        private final String id;
+        private final Object data;
+
+        QueuedEvent(String event, String id, Object data) {
+            this.event = event;
+            this.id = id;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Subscriber with its own bounded queue, drained on the delivery threads.
+     */
+    private class Subscriber {
+        private final DeviceEventSink sink;
+        private final BlockingQueue<QueuedEvent> queue = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_SIZE);
+        private final AtomicBoolean isDraining = new AtomicBoolean(false);
+        //Only changed on the fan-out thread
+        private volatile long lastQueuedSequence;
+
+        Subscriber(DeviceEventSink sink, long lastQueuedSequence) {
+            this.sink = sink;
+            this.lastQueuedSequence = lastQueuedSequence;
+        }
+
+        void startDraining() {
+            if (!queue.isEmpty() && isDraining.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                QueuedEvent event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        sink.send(event.event, event.id, event.data);
+                    } catch (IOException | IllegalStateException exception) {
+                        queue.clear();
+                        removeSubscriber(this);
+                        isDraining.set(false);
+                        return;
+                    }
+                }
+                isDraining.set(false);
+            } while (!queue.isEmpty() && isDraining.compareAndSet(false, true));
+            if (eventSubscribers.contains(this) && lastQueuedSequence < keyEventLog.getLatestSequence()) {
+                fanOutExecutor.execute(POSKeyboardManager.this::fanOut);
+            }
+        }
+    }
+
     public DeviceHealthResponse getHealth() {
         DeviceHealthResponse deviceHealthResponse;
         if (posKeyboardDevice.isConnected()) {
@@ -130,28 +309,16 @@ public class POSKeyboardManager {
         } else {
             deviceHealthResponse = new DeviceHealthResponse(posKeyboardDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("posKeyboardHealth")).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(posKeyboardHealth) Failed", 17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY, deviceHealthResponse);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("posKeyboardHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth();
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache("posKeyboardHealth")).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 5);
-                return getHealth();
-            }
-        } catch (Exception exception) {
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth();
         }
+        return deviceHealthResponse;
     }
 }
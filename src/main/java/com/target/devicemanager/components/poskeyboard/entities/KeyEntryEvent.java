@@ -0,0 +1,45 @@
+package com.target.devicemanager.components.poskeyboard.entities;
+
+/**
+ * An entry assembled from a sequence of key presses, e.g. "3 QTY PLU 4011 ENTER" becomes
+ * entryType PLU, value 4011, quantity 3.
+ */
+public class KeyEntryEvent {
+    private final String entryType;
+    private final String value;
+    private final int quantity;
+    private final long timestamp;
+
+    public KeyEntryEvent(String entryType, String value, int quantity, long timestamp) {
+        this.entryType = entryType;
+        this.value = value;
+        this.quantity = quantity;
+        this.timestamp = timestamp;
+    }
+
+    public String getEntryType() {
+        return entryType;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyEntryEvent{" +
+                "entryType='" + entryType + '\'' +
+                ", value='" + value + '\'' +
+                ", quantity=" + quantity +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.target.devicemanager.components.poskeyboard.entities;
+
+public class KeyMapEntry {
+    public int keyCode;
+    public String key;
+    public KeyType type;
+
+    public KeyMapEntry() {
+    }
+
+    public KeyMapEntry(int keyCode, String key, KeyType type) {
+        this.keyCode = keyCode;
+        this.key = key;
+        this.type = type;
+    }
+}
@@ -0,0 +1,19 @@
+package com.target.devicemanager.components.poskeyboard.entities;
+
+/**
+ * Role of a key in entry assembly.
+ */
+public enum KeyType {
+    /** Appended to the value being keyed, digits and decimal point. */
+    DIGIT,
+    /** Turns the value keyed so far into the quantity of the entry. */
+    QUANTITY,
+    /** Sets the entry type, e.g. PLU or TENDER. Completes the entry when a value was already keyed. */
+    ENTRY_TYPE,
+    /** Completes the entry. */
+    ENTER,
+    /** Discards the entry being keyed. */
+    CLEAR,
+    /** Standalone key that is sent as its own entry, e.g. VOID or NO_SALE. */
+    FUNCTION
+}
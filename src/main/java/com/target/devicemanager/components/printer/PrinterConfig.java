@@ -14,7 +14,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 
 import java.util.concurrent.Phaser;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 @ConditionalOnProperty(name = "possum.device.printer.enabled", havingValue = "true")
@@ -48,14 +47,15 @@ class PrinterConfig {
 
         } else {
             POSPrinter posPrinter = new POSPrinter();
-            dynamicPrinter = new DynamicDevice<>(posPrinter, new DevicePower(), new DeviceConnector<>(posPrinter, deviceRegistry, null, preferred, autoAdapt));
+            dynamicPrinter = new DynamicDevice<>(posPrinter, new DevicePower(), new DeviceConnector<>(posPrinter, deviceRegistry, null, preferred, autoAdapt), PrinterManager.HEALTH_KEY, "printer");
         }
 
         PrinterManager printerManager = new PrinterManager(
                 new PrinterDevice(dynamicPrinter, new PrinterDeviceListener(new EventSynchronizer(new Phaser(1)))),
-                new ReentrantLock());
+                new DeviceAdmissionController("printer", workstationConfig.getAdmissionMaxQueueDepth(), workstationConfig.getAdmissionDefaultWaitMsec()));
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setPrinterManager(printerManager);
+        ReconnectScheduler.getReconnectScheduler().register(PrinterManager.HEALTH_KEY, printerManager::connect);
         return printerManager;
     }
 
@@ -1,7 +1,10 @@
 package com.target.devicemanager.components.printer;
 
+import com.target.devicemanager.common.DeviceCircuitBreaker;
 import com.target.devicemanager.common.DeviceListener;
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
+import com.target.devicemanager.common.ReconnectScheduler;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.components.printer.entities.*;
 import jpos.JposConst;
@@ -76,8 +79,10 @@ public class PrinterDevice implements StatusUpdateListener {
             attachEventListeners();
             areListenersAttached = true;
         }
-        POSPrinter printer;
-        synchronized (printer = dynamicPrinter.getDevice()) {
+        POSPrinter printer = dynamicPrinter.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(printer);
+        deviceLock.lock();
+        try {
             try {
                 if (!printer.getDeviceEnabled()) {
                     printer.setDeviceEnabled(true);
@@ -88,6 +93,8 @@ public class PrinterDevice implements StatusUpdateListener {
                 deviceConnected = false;
                 return false;
             }
+        } finally {
+            deviceLock.unlock();
         }
         return true;
     }
@@ -124,8 +131,10 @@ public class PrinterDevice implements StatusUpdateListener {
             detachDeviceListeners();
             areListenersAttached = false;
         }
-        POSPrinter printer;
-        synchronized (printer = dynamicPrinter.getDevice()) {
+        POSPrinter printer = dynamicPrinter.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(printer);
+        deviceLock.lock();
+        try {
             try {
                 if (printer.getDeviceEnabled()) {
                     printer.setDeviceEnabled(false);
@@ -133,6 +142,8 @@ public class PrinterDevice implements StatusUpdateListener {
             } catch (JposException jposException) {
                 log.failure("Unable to disable: " + getDeviceName() + " - " + jposException.getMessage(), 17, jposException);
             }
+        } finally {
+            deviceLock.unlock();
         }
         dynamicPrinter.disconnect();
         deviceConnected = false;
@@ -159,8 +170,12 @@ public class PrinterDevice implements StatusUpdateListener {
      */
     public Void printContent(List<PrinterContent> contents, int printerStation) throws JposException, PrinterException {
         if (tryLock()) {
-            POSPrinter printer;
-            synchronized (printer = dynamicPrinter.getDevice()) {
+            POSPrinter printer = dynamicPrinter.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(printer);
+            deviceLock.lock();
+            try {
+                DeviceCircuitBreaker circuitBreaker = DeviceCircuitBreaker.of(printer);
+                boolean isSentToPrinter = false;
                 try {
                     if (contents == null || contents.isEmpty()) {
                         PrinterException printerException = new PrinterException(PrinterError.INVALID_FORMAT);
@@ -168,6 +183,8 @@ public class PrinterDevice implements StatusUpdateListener {
                         throw printerException;
                     }
                     enable();
+                    circuitBreaker.acquire("printContent");
+                    isSentToPrinter = true;
                     if (printerStation != PrinterStationType.CHECK_PRINTER.getValue() && (wasPaperEmpty || paperEmptyCheck())) {
                         // Throw JPOS extended error JPOS_EPTR_REC_EMPTY
                         throw new JposException(114, 203);
@@ -190,17 +207,26 @@ public class PrinterDevice implements StatusUpdateListener {
                     }
                     printer.transactionPrint(printerStation, POSPrinterConst.PTR_TP_NORMAL);
                     deviceListener.waitForOutputToComplete();
+                    circuitBreaker.recordSuccess();
 
                 } catch (JposException jposException) {
                     log.failure("Printer Failed to Print Content: " + jposException.getErrorCode() + ", " + jposException.getErrorCodeExtended(), 18, jposException);
+                    if (isSentToPrinter) {
+                        circuitBreaker.recordFailure(jposException);
+                    }
 
                     boolean failureOrDisabledError = jposException.getErrorCode() == 111 || jposException.getErrorCode() == 105;
                     boolean badPrintContentError = jposException.getErrorCode() == 106 || (jposException.getErrorCode() == 114 && jposException.getErrorCodeExtended() == 207);
                     if ((failureOrDisabledError || badPrintContentError)) {
                         log.failure("Received Printer " + jposException.getErrorCode() + " error.  Disconnecting device.", 18, jposException);
                         disconnect();
-                        log.failure("Received Printer " + jposException.getErrorCode() + " error.  Reconnecting device.", 18, jposException);
-                        connect();
+                        //Once the circuit is open the reconnect schedule probes the printer, reconnecting here would only fail again
+                        if (circuitBreaker.getState() == DeviceCircuitBreaker.State.OPEN) {
+                            log.failure("Printer circuit is open, leaving the reconnect to the reconnect schedule", 18, jposException);
+                        } else {
+                            log.failure("Received Printer " + jposException.getErrorCode() + " error.  Reconnecting device.", 18, jposException);
+                            connect();
+                        }
                         if (badPrintContentError) {
                             throw new PrinterException(PrinterError.INVALID_FORMAT);
                         }
@@ -230,6 +256,8 @@ public class PrinterDevice implements StatusUpdateListener {
                         throw jposException;
                     }
                 }
+            } finally {
+                deviceLock.unlock();
             }
             return null;
         } else {
@@ -301,10 +329,14 @@ public class PrinterDevice implements StatusUpdateListener {
      */
     public void withdrawCheck() throws JposException {
         try {
-            POSPrinter printer;
-            synchronized (printer = dynamicPrinter.getDevice()) {
+            POSPrinter printer = dynamicPrinter.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(printer);
+            deviceLock.lock();
+            try {
                 printer.beginRemoval(RETURN_IMMEDIATE);
                 printer.endRemoval();
+            } finally {
+                deviceLock.unlock();
             }
         } catch (JposException jposException) {
             log.failure("Printer Failed to Remove Check: " + jposException.getErrorCode() + ", " + jposException.getErrorCodeExtended(), 18, jposException);
@@ -358,14 +390,18 @@ public class PrinterDevice implements StatusUpdateListener {
      * @throws JposException
      */
     private void reconnectR5Printer() throws JposException {
-        POSPrinter printer;
-        synchronized (printer = dynamicPrinter.getDevice()) {
+        POSPrinter printer = dynamicPrinter.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(printer);
+        deviceLock.lock();
+        try {
             if (printer.getPhysicalDeviceName().contains(R5PrinterName) && getIsReconnectNeeded()) {
                 log.success("Reconnecting R5 printer", 9);
                 disconnect();
                 connect();
                 setIsReconnectNeeded(false);
             }
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -382,14 +418,18 @@ public class PrinterDevice implements StatusUpdateListener {
      * @throws JposException
      */
     public boolean paperEmptyCheck() throws JposException {
-        POSPrinter printer;
-        synchronized (printer = dynamicPrinter.getDevice()) {
+        POSPrinter printer = dynamicPrinter.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(printer);
+        deviceLock.lock();
+        try {
             if (printer.getPhysicalDeviceName().contains(R5PrinterName)) {
                 printer.directIO(105, ref, null);
                 if (this.ref[0] == -2147482880) {
                     return true;
                 }
             }
+        } finally {
+            deviceLock.unlock();
         }
         return false;
     }
@@ -413,6 +453,7 @@ public class PrinterDevice implements StatusUpdateListener {
             case JposConst.JPOS_SUE_POWER_ONLINE:
                 log.success("Printer Status Update: Power offline", 5);
                 deviceConnected = true;
+                ReconnectScheduler.getReconnectScheduler().retryNow(PrinterManager.HEALTH_KEY);
                 break;
             case POSPrinterConst.PTR_SUE_COVER_OPEN:
                 log.success("Status Update: Printer cover is open", 13);
@@ -471,11 +512,15 @@ public class PrinterDevice implements StatusUpdateListener {
      * Listens for device event.
      */
     private void attachEventListeners() {
-        POSPrinter printer;
-        synchronized (printer = dynamicPrinter.getDevice()) {
+        POSPrinter printer = dynamicPrinter.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(printer);
+        deviceLock.lock();
+        try {
             printer.addErrorListener(deviceListener);
             printer.addOutputCompleteListener(deviceListener);
             printer.addStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -483,11 +528,15 @@ public class PrinterDevice implements StatusUpdateListener {
      * Removes the error, output and status listeners
      */
     private void detachDeviceListeners() {
-        POSPrinter printer;
-        synchronized (printer = dynamicPrinter.getDevice()) {
+        POSPrinter printer = dynamicPrinter.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(printer);
+        deviceLock.lock();
+        try {
             printer.removeErrorListener(deviceListener);
             printer.removeOutputCompleteListener(deviceListener);
             printer.removeStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -1,6 +1,7 @@
 package com.target.devicemanager.components.printer;
 
 import com.target.devicemanager.common.LogPayloadBuilder;
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.components.printer.entities.PrinterContent;
@@ -11,30 +12,20 @@ import jpos.JposConst;
 import jpos.JposException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.*;
 import java.util.concurrent.locks.Lock;
 
-@EnableScheduling
-@EnableCaching
 public class PrinterManager {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY = "printer";
+    private final DeviceHealthRegistry healthRegistry;
     private final PrinterDevice printerDevice;
     private final Lock printerLock;
     private static final int PRINTER_TIMEOUT = 10;  // Timeout value for printContent call in seconds
     private Future<Void> future;
     private boolean isTest = false;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
     private static final Logger LOGGER = LoggerFactory.getLogger(PrinterManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Printer", "PrinterManager", LOGGER);
 
@@ -42,7 +33,7 @@ public class PrinterManager {
         this(printerDevice, printerLock, null, null, false);
     }
 
-    public PrinterManager(PrinterDevice printerDevice, Lock printerLock, CacheManager cacheManager, Future<Void> future, boolean isTest) {
+    public PrinterManager(PrinterDevice printerDevice, Lock printerLock, DeviceHealthRegistry healthRegistry, Future<Void> future, boolean isTest) {
         if (printerDevice == null) {
             throw new IllegalArgumentException("printerDevice cannot be null");
         }
@@ -53,9 +44,7 @@ public class PrinterManager {
         this.printerDevice = printerDevice;
         this.printerLock = printerLock;
 
-        if(cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
 
         if(future != null) {
             this.future = future;
@@ -64,7 +53,6 @@ public class PrinterManager {
         this.isTest = isTest;
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         if (printerDevice.tryLock()) {
             try {
@@ -73,10 +61,7 @@ public class PrinterManager {
                 printerDevice.unlock();
             }
         }
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            connectStatus = ConnectEnum.CHECK_HEALTH;
-        }
+        getHealth();
     }
 
     public void reconnectDevice() throws DeviceException {
@@ -137,6 +122,19 @@ public class PrinterManager {
         }
     }
 
+    /**
+     * Holds the printer across several steps, like the check pipeline does from MICR read to frank.
+     * Calls from the thread holding it, like frankCheck, still get the printer.
+     * @return true if the printer is now held by the current thread.
+     */
+    public boolean tryLock() {
+        return printerLock.tryLock();
+    }
+
+    public void unlock() {
+        printerLock.unlock();
+    }
+
     public void frankCheck(List<PrinterContent> contents) throws PrinterException {
         if (!printerLock.tryLock()) {
             PrinterException printerException = new PrinterException(PrinterError.DEVICE_BUSY);
@@ -160,29 +158,17 @@ public class PrinterManager {
         } else {
             deviceHealthResponse = new DeviceHealthResponse(printerDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("printerHealth")).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(printerHealth) Failed",17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY, deviceHealthResponse);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("printerHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth();
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache("printerHealth")).get("health").get();
-            } else {
-                log.failure("Not able to retrieve from cache, checking getHealth()", 5, null);
-                return getHealth();
-            }
-        } catch (Exception exception) {
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth();
         }
+        return deviceHealthResponse;
     }
 
     public static int getPrinterTimeoutValue() {
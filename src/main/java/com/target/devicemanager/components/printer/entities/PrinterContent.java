@@ -15,7 +15,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
         @JsonSubTypes.Type(value = ImageContent.class, name = "IMAGE")
 })
 
-public abstract class PrinterContent {
+public abstract class PrinterContent implements Cloneable {
     @Schema(description = "Three types are possible, their models are defined in the models section at the bottom of the page.")
     public ContentType type;
     @Schema(example = "Test Print\n\n\n From POSSUM\u001B|100fP")
@@ -28,6 +28,17 @@ public abstract class PrinterContent {
     public void setData(String data) {
         this.data = data;
     }
+
+    /**
+     * @return copy of this content, of the same type, that can be changed without changing this one.
+     */
+    public PrinterContent copy() {
+        try {
+            return (PrinterContent) clone();
+        } catch (CloneNotSupportedException cloneNotSupportedException) {
+            throw new IllegalStateException(cloneNotSupportedException);
+        }
+    }
 }
 
 
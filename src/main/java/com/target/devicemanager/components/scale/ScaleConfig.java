@@ -47,7 +47,7 @@ class ScaleConfig {
             dynamicScale = new SimulatedDynamicDevice<>(simulatedJposScale, new DevicePower(), new DeviceConnector<>(simulatedJposScale, deviceRegistry));
         } else {
             Scale scale = new Scale();
-            dynamicScale = new DynamicDevice<>(scale, new DevicePower(), new DeviceConnector<>(scale, deviceRegistry, null, preferred, autoAdapt));
+            dynamicScale = new DynamicDevice<>(scale, new DevicePower(), new DeviceConnector<>(scale, deviceRegistry, null, preferred, autoAdapt), ScaleManager.HEALTH_KEY, "scale");
         }
 
         ScaleManager scaleManager = new ScaleManager(
@@ -56,6 +56,7 @@ class ScaleConfig {
                 new CopyOnWriteArrayList<>());
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setScaleManager(scaleManager);
+        ReconnectScheduler.getReconnectScheduler().register(ScaleManager.HEALTH_KEY, scaleManager::connect);
         return scaleManager;
     }
 
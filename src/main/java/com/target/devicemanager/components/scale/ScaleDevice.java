@@ -1,5 +1,8 @@
 package com.target.devicemanager.components.scale;
 
+import com.target.devicemanager.common.DeviceCallGuard;
+import com.target.devicemanager.common.DeviceCircuitBreaker;
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.events.ConnectionEvent;
@@ -191,15 +194,19 @@ public class ScaleDevice implements StatusUpdateListener, ErrorListener {
             //Only need to trigger this function once until returned
             return;
         }
-        Scale scale;
-        synchronized (scale = dynamicScale.getDevice()) {
+        Scale scale = dynamicScale.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(scale);
+        deviceLock.lock();
+        try {
             stableWeightInProgress = true;
             long currentTimeMsec = System.currentTimeMillis();
             long endTimeMsec = currentTimeMsec + timeout;
             while (currentTimeMsec <= endTimeMsec) {
                 log.success("Read Weight Time Remaining " + (endTimeMsec - currentTimeMsec), 1);
                 try {
-                    scale.readWeight(weight, STABLE_WEIGHT_READ_TIMEOUT);
+                    int[] weightBuffer = weight;
+                    DeviceCircuitBreaker.of(scale).run("readWeight", STABLE_WEIGHT_READ_TIMEOUT + DeviceCallGuard.DEADLINE_MARGIN_MSEC,
+                            () -> scale.readWeight(weightBuffer, STABLE_WEIGHT_READ_TIMEOUT));
                     log.success("After ReadWeight " + weight[0], 1);
                     fireScaleStableWeightDataEvent(new FormattedWeight(weight[0]));
                     stableWeightInProgress = false;
@@ -218,6 +225,8 @@ public class ScaleDevice implements StatusUpdateListener, ErrorListener {
             }
             fireScaleWeightErrorEvent(new JposException(JposConst.JPOS_E_TIMEOUT));
             stableWeightInProgress = false;
+        } finally {
+            deviceLock.unlock();
         }
     }
 
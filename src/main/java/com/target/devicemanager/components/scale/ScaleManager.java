@@ -1,5 +1,7 @@
 package com.target.devicemanager.components.scale;
 
+import com.target.devicemanager.common.DeviceEventSink;
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.common.events.ConnectionEvent;
@@ -10,46 +12,35 @@ import jpos.JposConst;
 import jpos.JposException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-@EnableScheduling
-@EnableCaching
 public class ScaleManager implements ScaleEventListener, ConnectionEventListener {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY = "scale";
+    private final DeviceHealthRegistry healthRegistry;
     private final ScaleDevice scaleDevice;
     private boolean isScaleReady = false;
-    private final List<SseEmitter> liveWeightClients;
+    private final List<DeviceEventSink> liveWeightClients;
     private final List<CompletableFuture<FormattedWeight>> stableWeightClients;
     private static final int STABLE_WEIGHT_TIMEOUT_MSEC = 10000;
     private static final int HANG_TIMEOUT_MSEC = STABLE_WEIGHT_TIMEOUT_MSEC + 20000;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
-    private List<SseEmitter> deadEmitterList;
+    private List<DeviceEventSink> deadClientList;
     private static final Logger LOGGER = LoggerFactory.getLogger(ScaleManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Scale", "ScaleManager", LOGGER);
 
-    public ScaleManager(ScaleDevice scaleDevice, List<SseEmitter> liveWeightClients, List<CompletableFuture<FormattedWeight>> stableWeightClients) {
+    public ScaleManager(ScaleDevice scaleDevice, List<DeviceEventSink> liveWeightClients, List<CompletableFuture<FormattedWeight>> stableWeightClients) {
         this(scaleDevice, liveWeightClients, stableWeightClients, null, null);
     }
 
-    public ScaleManager(ScaleDevice scaleDevice, List<SseEmitter> liveWeightClients, List<CompletableFuture<FormattedWeight>> stableWeightClients, CacheManager cacheManager, List<SseEmitter> deadEmitterList) {
+    public ScaleManager(ScaleDevice scaleDevice, List<DeviceEventSink> liveWeightClients, List<CompletableFuture<FormattedWeight>> stableWeightClients, DeviceHealthRegistry healthRegistry, List<DeviceEventSink> deadClientList) {
         if (scaleDevice == null) {
             throw new IllegalArgumentException("scaleDevice cannot be null");
         }
@@ -65,18 +56,15 @@ public class ScaleManager implements ScaleEventListener, ConnectionEventListener
         this.scaleDevice.addScaleEventListener(this);
         this.scaleDevice.addConnectionEventListener(this);
 
-        if(cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
 
-        if(deadEmitterList != null) {
-            this.deadEmitterList = deadEmitterList;
+        if(deadClientList != null) {
+            this.deadClientList = deadClientList;
         } else {
-            this.deadEmitterList = new ArrayList<>();
+            this.deadClientList = new ArrayList<>();
         }
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         if (scaleDevice.tryLock()) {
             try {
@@ -85,10 +73,7 @@ public class ScaleManager implements ScaleEventListener, ConnectionEventListener
                 scaleDevice.unlock();
             }
         }
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            connectStatus = ConnectEnum.CHECK_HEALTH;
-        }
+        getHealth();
     }
 
     public void reconnectDevice() throws DeviceException {
@@ -107,11 +92,14 @@ public class ScaleManager implements ScaleEventListener, ConnectionEventListener
         }
     }
 
-    void subscribeToLiveWeight(SseEmitter liveWeightEmitter) throws IOException {
-        liveWeightEmitter.onCompletion(() -> this.liveWeightClients.remove(liveWeightEmitter));
-        liveWeightEmitter.onTimeout(() -> this.liveWeightClients.remove(liveWeightEmitter));
-        liveWeightClients.add(liveWeightEmitter);
-        liveWeightEmitter.send(scaleDevice.getLiveWeight(), MediaType.APPLICATION_JSON);
+    public void subscribeToLiveWeight(SseEmitter liveWeightEmitter) throws IOException {
+        subscribeToLiveWeight(DeviceEventSink.of(liveWeightEmitter));
+    }
+
+    public void subscribeToLiveWeight(DeviceEventSink liveWeightClient) throws IOException {
+        liveWeightClient.onCompletion(() -> this.liveWeightClients.remove(liveWeightClient));
+        liveWeightClients.add(liveWeightClient);
+        liveWeightClient.send(null, null, scaleDevice.getLiveWeight());
     }
 
     public FormattedWeight getStableWeight(CompletableFuture<FormattedWeight> stableWeightClient) throws ScaleException {
@@ -144,16 +132,16 @@ public class ScaleManager implements ScaleEventListener, ConnectionEventListener
 
     @Override
     public void scaleLiveWeightEventOccurred(WeightEvent liveWeightEvent) {
-        this.liveWeightClients.forEach(emitter -> {
+        this.liveWeightClients.forEach(client -> {
             try {
-                emitter.send(liveWeightEvent.getWeight(), MediaType.APPLICATION_JSON);
+                client.send(null, null, liveWeightEvent.getWeight());
             } catch(IOException ioException) {
                 //Remove the client from the connection pool
-                deadEmitterList.add(emitter);
+                deadClientList.add(client);
             }
         });
-        this.liveWeightClients.removeAll(deadEmitterList);
-        deadEmitterList.clear();
+        this.liveWeightClients.removeAll(deadClientList);
+        deadClientList.clear();
     }
 
     @Override
@@ -171,6 +159,8 @@ public class ScaleManager implements ScaleEventListener, ConnectionEventListener
     @Override
     public void connectionEventOccurred(ConnectionEvent connectionEvent) {
         isScaleReady = connectionEvent.isConnected();
+        DeviceHealth deviceHealth = isScaleReady ? DeviceHealth.READY : DeviceHealth.NOTREADY;
+        healthRegistry.publish(HEALTH_KEY, new DeviceHealthResponse(scaleDevice.getDeviceName(), deviceHealth));
     }
 
     /**
@@ -192,28 +182,16 @@ public class ScaleManager implements ScaleEventListener, ConnectionEventListener
         } else {
             deviceHealthResponse = new DeviceHealthResponse(scaleDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("scaleHealth")).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(scaleHealth) Failed", 17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY, deviceHealthResponse);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("scaleHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth();
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache("scaleHealth")).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 5);
-                return getHealth();
-            }
-        } catch (Exception exception) {
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth();
         }
+        return deviceHealthResponse;
     }
 }
@@ -18,7 +18,6 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Phaser;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 @ConditionalOnExpression(
@@ -65,7 +64,7 @@ class ScannerConfig {
                 Scanner flatbedScanner = new Scanner();
                 scanners.add(new ScannerDevice(
                         new ScannerDeviceListener(new EventSynchronizer(new Phaser(1))),
-                        new DynamicDevice<>(flatbedScanner, new DevicePower(), new DeviceConnector<>(flatbedScanner, deviceRegistry, new SimpleEntry<>("deviceType", "Flatbed"), preferredFlatbed, autoAdapt)),
+                        new DynamicDevice<>(flatbedScanner, new DevicePower(), new DeviceConnector<>(flatbedScanner, deviceRegistry, new SimpleEntry<>("deviceType", "Flatbed"), preferredFlatbed, autoAdapt), ScannerManager.HEALTH_KEY_PREFIX + ScannerType.FLATBED, "flatbedscanner"),
                         ScannerType.FLATBED, applicationConfig));
             }
 
@@ -73,7 +72,7 @@ class ScannerConfig {
                 Scanner handScanner = new Scanner();
                 scanners.add(new ScannerDevice(
                         new ScannerDeviceListener(new EventSynchronizer(new Phaser(1))),
-                        new DynamicDevice<>(handScanner, new DevicePower(), new DeviceConnector<>(handScanner, deviceRegistry, new SimpleEntry<>("deviceType", "HandScanner"), preferredHand, autoAdapt)),
+                        new DynamicDevice<>(handScanner, new DevicePower(), new DeviceConnector<>(handScanner, deviceRegistry, new SimpleEntry<>("deviceType", "HandScanner"), preferredHand, autoAdapt), ScannerManager.HEALTH_KEY_PREFIX + ScannerType.HANDHELD, "handscanner"),
                         ScannerType.HANDHELD, applicationConfig));
             }
         }
@@ -83,9 +82,10 @@ class ScannerConfig {
 
     @Bean
     public ScannerManager getScannerManager() {
-        ScannerManager scannerManager = new ScannerManager(getScanners(), new ReentrantLock());
+        ScannerManager scannerManager = new ScannerManager(getScanners(), new DeviceAdmissionController("scanner", workstationConfig.getAdmissionMaxQueueDepth(), workstationConfig.getAdmissionDefaultWaitMsec()));
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setScannerManager(scannerManager);
+        ReconnectScheduler.getReconnectScheduler().register(ScannerManager.HEALTH_KEY_PREFIX, scannerManager::connect);
         return scannerManager;
     }
 
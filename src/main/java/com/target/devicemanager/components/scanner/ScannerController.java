@@ -100,6 +100,15 @@ public class ScannerController {
         }
     }
 
+    /**
+     * Cancels the scan only if it was requested from the given thread, like the scan topic of /v1/channel does when
+     * its last subscriber leaves. A scan requested by another client keeps running.
+     * @param scanThread thread the scan was requested from.
+     */
+    public void cancelScanRequestFrom(Thread scanThread) throws ScannerException {
+        scannerManager.cancelScanRequest(scanThread);
+    }
+
     @Operation(description = "Reports the health of one scanner (FLATBED or HANDHELD)")
     @GetMapping(path = {"/scanner/health", "/scanner/health/{scannerType}"})
     public ResponseEntity<List<DeviceHealthResponse>> getHealth(@Parameter(description = "Scanner to Call") @PathVariable(required = false) ScannerType scannerType) {
@@ -2,6 +2,7 @@ package com.target.devicemanager.components.scanner;
 
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.DeviceListener;
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
@@ -150,8 +151,10 @@ public class ScannerDevice {
             String data;
             int type;
             ScannerType source;
-            Scanner scanner;
-            synchronized (scanner = (Scanner) dataEvent.getSource()) {
+            Scanner scanner = (Scanner) dataEvent.getSource();
+            DeviceLock deviceLock = DeviceLock.of(scanner);
+            deviceLock.lock();
+            try {
                 data = new String(scanner.getScanDataLabel(), Charset.defaultCharset());
                 type = scanner.getScanDataType();
                 if (applicationConfig != null && applicationConfig.IsSimulationMode()) {
@@ -159,6 +162,8 @@ public class ScannerDevice {
                 } else {
                     source = scannerType;
                 }
+            } finally {
+                deviceLock.unlock();
             }
             Barcode barcode = new Barcode(data, type, source);
             log.success(barcode.source + " - returning scanned data type: " + barcode.type + " of size " + data.length(), 9);
@@ -220,8 +225,10 @@ public class ScannerDevice {
         }
         deviceListener.startEventListeners();
         try {
-            Scanner scanner;
-            synchronized (scanner = dynamicScanner.getDevice()) {
+            Scanner scanner = dynamicScanner.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(scanner);
+            deviceLock.lock();
+            try {
                 scanner.setAutoDisable(true);
                 scanner.setDecodeData(true);
                 scanner.setDataEventEnabled(true);
@@ -233,6 +240,8 @@ public class ScannerDevice {
                         //ignore
                     }
                 }
+            } finally {
+                deviceLock.unlock();
             }
         } catch (JposException jposException) {
             if(isConnected()) {
@@ -259,9 +268,13 @@ public class ScannerDevice {
     private void disable() throws JposException {
         log.success(getScannerType() + " disable(in)", 1);
         try {
-            Scanner scanner;
-            synchronized (scanner = dynamicScanner.getDevice()) {
+            Scanner scanner = dynamicScanner.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(scanner);
+            deviceLock.lock();
+            try {
                 scanner.setDeviceEnabled(false);
+            } finally {
+                deviceLock.unlock();
             }
         } catch (JposException jposException) {
             if(isConnected()) {
@@ -284,11 +297,15 @@ public class ScannerDevice {
      * Attaches an event listener and adding it to a new instances.
      */
     private void attachEventListeners() {
-        Scanner scanner;
-        synchronized (scanner = dynamicScanner.getDevice()) {
+        Scanner scanner = dynamicScanner.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(scanner);
+        deviceLock.lock();
+        try {
             scanner.addErrorListener(deviceListener);
             scanner.addDataListener(deviceListener);
             scanner.addStatusUpdateListener(deviceListener);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -296,11 +313,15 @@ public class ScannerDevice {
      * Removes error, data, and status update device listeners
      */
     private void detachEventListeners() {
-        Scanner scanner;
-        synchronized (scanner = dynamicScanner.getDevice()) {
+        Scanner scanner = dynamicScanner.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(scanner);
+        deviceLock.lock();
+        try {
             scanner.removeErrorListener(deviceListener);
             scanner.removeDataListener(deviceListener);
             scanner.removeStatusUpdateListener(deviceListener);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
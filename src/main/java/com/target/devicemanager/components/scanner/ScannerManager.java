@@ -1,5 +1,7 @@
 package com.target.devicemanager.components.scanner;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
+import com.target.devicemanager.common.DeviceThreads;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.components.scanner.entities.Barcode;
@@ -9,31 +11,24 @@ import com.target.devicemanager.components.scanner.entities.ScannerType;
 import jpos.JposException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.*;
 import java.util.concurrent.locks.Lock;
 
-@EnableScheduling
-@EnableCaching
 public class ScannerManager {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY_PREFIX = "scanner:";
+    private final DeviceHealthRegistry healthRegistry;
     private final List<? extends ScannerDevice> scanners;
     private final Lock scannerLock;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
     private static final Logger LOGGER = LoggerFactory.getLogger(ScannerManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("Scanner", "ScannerManager", LOGGER);
     private ExecutorService executor;
+    //Thread of the scan holding the scanner, set and cleared under the monitor so a cancel by owner is exact
+    private final Object scanOwnerMonitor = new Object();
+    private Thread scanThread;
     private boolean isTest = false;
     private List<Future<Boolean>> results;
 
@@ -41,7 +36,7 @@ public class ScannerManager {
         this(scanners, scannerLock, null, null, null, false);
     }
 
-    public ScannerManager(List<? extends ScannerDevice> scanners, Lock scannerLock, CacheManager cacheManager, ExecutorService executor, List<Future<Boolean>> results, boolean isTest) {
+    public ScannerManager(List<? extends ScannerDevice> scanners, Lock scannerLock, DeviceHealthRegistry healthRegistry, ExecutorService executor, List<Future<Boolean>> results, boolean isTest) {
         if (scanners == null) {
             throw new IllegalArgumentException("scanners cannot be null");
         }
@@ -53,32 +48,27 @@ public class ScannerManager {
         this.executor = executor;
         this.results = results;
 
-        if(cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
 
         this.isTest = isTest;
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         scanners.forEach(ScannerDevice::connect);
 
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            for (ScannerDevice scanner : scanners) {
-                if(!scanner.isConnected()) {
-                    log.failure(scanner.getScannerType() + " Failed to Connect", 17, null);
-                }
+        for (ScannerDevice scanner : scanners) {
+            if (healthRegistry.get(HEALTH_KEY_PREFIX + scanner.getScannerType()) == null && !scanner.isConnected()) {
+                log.failure(scanner.getScannerType() + " Failed to Connect", 17, null);
             }
-            connectStatus = ConnectEnum.CHECK_HEALTH;
         }
+        getHealth(ScannerType.BOTH);
     }
 
     public void reconnectScanners() throws DeviceException {
         List<Callable<Boolean>> taskList = new ArrayList<>();
         scanners.forEach(scanner -> taskList.add(scanner::reconnect));
         if(!isTest) {
-            executor = Executors.newFixedThreadPool(taskList.size());
+            executor = Executors.newFixedThreadPool(taskList.size(), DeviceThreads.newThreadFactory("scanner-"));
         }
         try {
             List<Future<Boolean>> executorInvoked = executor.invokeAll(taskList);
@@ -103,6 +93,16 @@ public class ScannerManager {
         }
     }
 
+    //Unlike getData this does not wait in line for the scanner, a running scan is what cancel is for
+    private boolean tryLockIfIdle() {
+        try {
+            return scannerLock.tryLock(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     Barcode getData(ScannerType scannerType) throws ScannerException {
         log.success("getData(in)", 1);
         if (!scannerLock.tryLock()) {
@@ -110,9 +110,15 @@ public class ScannerManager {
             log.success("getData(out) - device busy", 1);
             throw scannerException;
         }
+        synchronized (scanOwnerMonitor) {
+            scanThread = Thread.currentThread();
+        }
         try {
             return enableScanners(scannerType);
         } finally {
+            synchronized (scanOwnerMonitor) {
+                scanThread = null;
+            }
             scannerLock.unlock();
             log.success("getData(out)", 1);
         }
@@ -134,7 +140,7 @@ public class ScannerManager {
             }
         }
         if(!isTest) {
-            executor = Executors.newFixedThreadPool(taskList.size());
+            executor = Executors.newFixedThreadPool(taskList.size(), DeviceThreads.newThreadFactory("scanner-"));
         }
         try {
             Barcode barcode = executor.invokeAny(taskList);
@@ -163,7 +169,7 @@ public class ScannerManager {
     void cancelScanRequest() throws ScannerException {
         log.success("cancelScanRequest(in)", 1);
         //This makes sure no new scan data requests come in while we are cancelling
-        if (scannerLock.tryLock()) {
+        if (tryLockIfIdle()) {
             //Nothing to disable
             try {
                 ScannerException scannerException = new ScannerException(ScannerError.ALREADY_DISABLED);
@@ -173,6 +179,28 @@ public class ScannerManager {
                 scannerLock.unlock();
             }
         }
+        cancelRunningScan();
+        log.success("cancelScanRequest(out)", 1);
+    }
+
+    /**
+     * Cancels the running scan only if it was requested from the given thread, so a client that shares the scanner
+     * does not cancel a scan another client is waiting for.
+     * @param requestThread thread the scan to cancel was requested from.
+     */
+    void cancelScanRequest(Thread requestThread) throws ScannerException {
+        log.success("cancelScanRequest(in)", 1);
+        synchronized (scanOwnerMonitor) {
+            if (requestThread == null || scanThread != requestThread) {
+                log.success("cancelScanRequest(out) - no scan of this requester", 1);
+                throw new ScannerException(ScannerError.ALREADY_DISABLED);
+            }
+            cancelRunningScan();
+        }
+        log.success("cancelScanRequest(out)", 1);
+    }
+
+    private void cancelRunningScan() throws ScannerException {
         try {
             disableScanners();
         } catch (InterruptedException exception) {
@@ -182,7 +210,6 @@ public class ScannerManager {
         } catch (Exception exception) {
             log.failure("Error in cancelScanRequest: " + exception.getMessage(), 17, exception);
         }
-        log.success("cancelScanRequest(out)", 1);
     }
 
     public List<DeviceHealthResponse> getHealth(ScannerType scannerType) {
@@ -193,45 +220,39 @@ public class ScannerManager {
                 case "FLATBED":
                 case "HANDHELD":
                     if(scanner.getScannerType().equals(scannerType.name())) {
-                        if (scanner.isConnected()) {
-                            response.add(new DeviceHealthResponse(scanner.getDeviceName(), DeviceHealth.READY));
-                        } else {
-                            response.add(new DeviceHealthResponse(scanner.getDeviceName(), DeviceHealth.NOTREADY));
-                        }
+                        response.add(getHealth(scanner));
                     }
                     break;
                 default:
-                    if (scanner.isConnected()) {
-                        response.add(new DeviceHealthResponse(scanner.getDeviceName(), DeviceHealth.READY));
-                    } else {
-                        response.add(new DeviceHealthResponse(scanner.getDeviceName(), DeviceHealth.NOTREADY));
-                    }
+                    response.add(getHealth(scanner));
             }
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("scannerHealth")).put("health", response);
-        } catch (Exception exception) {
-            log.failure("getCache(scannerHealth) Failed: " + exception.getMessage(), 17, exception);
-        }
         log.success("getHealth(out)", 1);
         return response;
     }
 
+    private DeviceHealthResponse getHealth(ScannerDevice scanner) {
+        DeviceHealthResponse deviceHealthResponse;
+        if (scanner.isConnected()) {
+            deviceHealthResponse = new DeviceHealthResponse(scanner.getDeviceName(), DeviceHealth.READY);
+        } else {
+            deviceHealthResponse = new DeviceHealthResponse(scanner.getDeviceName(), DeviceHealth.NOTREADY);
+        }
+        healthRegistry.publish(HEALTH_KEY_PREFIX + scanner.getScannerType(), deviceHealthResponse);
+        return deviceHealthResponse;
+    }
+
     public List<DeviceHealthResponse> getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("scannerHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth(ScannerType.BOTH);
-                }
-                return (List<DeviceHealthResponse>) Objects.requireNonNull(cacheManager.getCache("scannerHealth")).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 6);
+        List<DeviceHealthResponse> response = new ArrayList<>();
+        for (ScannerDevice scanner : scanners) {
+            DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY_PREFIX + scanner.getScannerType());
+            if (deviceHealthResponse == null) {
+                log.success("No published health yet, checking getHealth()", 6);
                 return getHealth(ScannerType.BOTH);
             }
-        } catch (Exception exception) {
-            return getHealth(ScannerType.BOTH);
+            response.add(deviceHealthResponse);
         }
+        return response;
     }
 
     public DeviceHealth getScannerHealthStatus(String scannerType) {
@@ -262,7 +283,7 @@ public class ScannerManager {
         try {
             scanners.forEach(scanner -> taskList.add(scanner::cancelScannerData));
             if(!isTest) {
-                executor = Executors.newFixedThreadPool(taskList.size());
+                executor = Executors.newFixedThreadPool(taskList.size(), DeviceThreads.newThreadFactory("scanner-"));
             }
             executor.invokeAll(taskList);
             executor.shutdown();
@@ -15,7 +15,6 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 
 import java.util.concurrent.Phaser;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 @Profile({"local", "dev", "prod"})
@@ -48,16 +47,17 @@ class ToneIndicatorConfig {
             dynamicToneIndicator = new SimulatedDynamicDevice<>(simulatedToneIndicator, new DevicePower(), new DeviceConnector<>(simulatedToneIndicator, deviceRegistry));
         } else {
             ToneIndicator toneIndicator = new ToneIndicator();
-            dynamicToneIndicator = new DynamicDevice<>(toneIndicator, new DevicePower(), new DeviceConnector<>(toneIndicator, deviceRegistry, null, preferred, autoAdapt));
+            dynamicToneIndicator = new DynamicDevice<>(toneIndicator, new DevicePower(), new DeviceConnector<>(toneIndicator, deviceRegistry, null, preferred, autoAdapt), ToneIndicatorManager.HEALTH_KEY, "toneindicator");
         }
 
         ToneIndicatorManager toneIndicatorManager = new ToneIndicatorManager(
                 new ToneIndicatorDevice(
                         dynamicToneIndicator,
                         new ToneIndicatorDeviceListener(new EventSynchronizer(new Phaser(1)))),
-                new ReentrantLock());
+                new DeviceAdmissionController("toneIndicator", workstationConfig.getAdmissionMaxQueueDepth(), workstationConfig.getAdmissionDefaultWaitMsec()));
 
         DeviceAvailabilitySingleton.getDeviceAvailabilitySingleton().setToneIndicatorManager(toneIndicatorManager);
+        ReconnectScheduler.getReconnectScheduler().register(ToneIndicatorManager.HEALTH_KEY, toneIndicatorManager::connect);
         return toneIndicatorManager;
     }
 
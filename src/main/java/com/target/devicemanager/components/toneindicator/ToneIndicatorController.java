@@ -38,10 +38,13 @@ public class ToneIndicatorController {
         this.toneIndicatorManager = toneIndicatorManager;
     }
 
-    @Operation(description = "Plays a tone with the specified parameters and returns when the tone finishes.")
+    @Operation(description = "Queues a tone with the specified parameters and returns right away. " +
+            "With wait=true the tone is played on the request and the call returns when the tone finishes.")
     @PostMapping("/sound")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "BAD_INPUT",
+                    content = @Content(schema = @Schema(implementation = DeviceError.class))),
             @ApiResponse(responseCode = "412", description = "SOUND_FAILED",
                     content = @Content(schema = @Schema(implementation = ToneIndicatorError.class))),
             @ApiResponse(responseCode = "500", description = "UNEXPECTED_ERROR",
@@ -51,11 +54,38 @@ public class ToneIndicatorController {
             @ApiResponse(responseCode = "409", description = "DEVICE_BUSY",
                     content = @Content(schema = @Schema(implementation = DeviceError.class)))
     })
-    public void playSound(@RequestBody ToneRequest toneRequest) throws DeviceException {
+    public void playSound(@RequestBody ToneRequest toneRequest,
+                          @RequestParam(value = "wait", defaultValue = "false") boolean wait) throws DeviceException {
         String url = "/v1/toneindicator/sound";
-        log.successAPI("request", 1, url, toneRequest.toString(), 0);
+        log.successAPI("request", 1, url, String.valueOf(toneRequest), 0);
+        try {
+            if (wait) {
+                toneIndicatorManager.playSound(toneRequest);
+            } else {
+                toneIndicatorManager.queueSound(toneRequest);
+            }
+            log.successAPI("response", 1, url, null, 200);
+        } catch (DeviceException deviceException) {
+            int statusCode = deviceException.getDeviceError().getStatusCode().value();
+            log.failureAPI("response", 13, url, deviceException.getDeviceError().toString(), statusCode, deviceException);
+            throw deviceException;
+        }
+    }
+
+    @Operation(description = "Queues a named tone: GOOD_SCAN, BAD_SCAN, ATTENTION or ERROR.")
+    @PostMapping("/sound/{preset}")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "BAD_INPUT",
+                    content = @Content(schema = @Schema(implementation = DeviceError.class))),
+            @ApiResponse(responseCode = "404", description = "DEVICE_OFFLINE",
+                    content = @Content(schema = @Schema(implementation = DeviceError.class)))
+    })
+    public void playPreset(@PathVariable("preset") String preset) throws DeviceException {
+        String url = "/v1/toneindicator/sound/" + preset;
+        log.successAPI("request", 1, url, null, 0);
         try {
-            toneIndicatorManager.playSound(toneRequest);
+            toneIndicatorManager.playPreset(preset);
             log.successAPI("response", 1, url, null, 200);
         } catch (DeviceException deviceException) {
             int statusCode = deviceException.getDeviceError().getStatusCode().value();
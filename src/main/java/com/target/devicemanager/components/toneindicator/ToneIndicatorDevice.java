@@ -1,6 +1,8 @@
 package com.target.devicemanager.components.toneindicator;
 
+import com.target.devicemanager.common.DeviceLock;
 import com.target.devicemanager.common.DynamicDevice;
+import com.target.devicemanager.common.ReconnectScheduler;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.DeviceListener;
@@ -26,6 +28,9 @@ public class ToneIndicatorDevice implements StatusUpdateListener {
     private boolean areListenersAttached;
     private final ReentrantLock connectLock;
     private boolean isLocked = false;
+    //Settings last written to the device, guarded by the device lock. UNKNOWN forces a write.
+    private ToneRequest appliedSettings = unknownSettings();
+    private static final int UNKNOWN = -1;
     private static final Logger LOGGER = LoggerFactory.getLogger(ToneIndicatorDevice.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("ToneIndicator", "ToneIndicatorDevice", LOGGER);
 
@@ -60,10 +65,13 @@ public class ToneIndicatorDevice implements StatusUpdateListener {
             areListenersAttached = true;
         }
 
-        ToneIndicator toneIndicator;
-        synchronized (toneIndicator = dynamicToneIndicator.getDevice()) {
+        ToneIndicator toneIndicator = dynamicToneIndicator.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(toneIndicator);
+        deviceLock.lock();
+        try {
             try {
                 if (!toneIndicator.getDeviceEnabled()) {
+                    appliedSettings = unknownSettings();
                     toneIndicator.setDeviceEnabled(true);
                     deviceConnected = true;
                 }
@@ -71,6 +79,8 @@ public class ToneIndicatorDevice implements StatusUpdateListener {
                 deviceConnected = false;
                 return false;
             }
+        } finally {
+            deviceLock.unlock();
         }
         return true;
     }
@@ -93,10 +103,13 @@ public class ToneIndicatorDevice implements StatusUpdateListener {
                 detachEventListeners();
                 areListenersAttached = false;
             }
-            ToneIndicator toneIndicator;
-            synchronized (toneIndicator = dynamicToneIndicator.getDevice()) {
+            ToneIndicator toneIndicator = dynamicToneIndicator.getDevice();
+            DeviceLock deviceLock = DeviceLock.of(toneIndicator);
+            deviceLock.lock();
+            try {
                 try {
                     if (toneIndicator.getDeviceEnabled()) {
+                        appliedSettings = unknownSettings();
                         toneIndicator.setDeviceEnabled(false);
                         dynamicToneIndicator.disconnect();
                         deviceConnected = false;
@@ -104,29 +117,22 @@ public class ToneIndicatorDevice implements StatusUpdateListener {
                 } catch (JposException jposException) {
                     log.failure("Tone Indicator Failed to Disconnect", 18, jposException);
                 }
+            } finally {
+                deviceLock.unlock();
             }
         }
     }
 
     public void playSound(ToneRequest toneRequest) throws JposException, DeviceException {
         enable();
-        ToneIndicator toneIndicator;
-        synchronized (toneIndicator = dynamicToneIndicator.getDevice()) {
+        ToneIndicator toneIndicator = dynamicToneIndicator.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(toneIndicator);
+        deviceLock.lock();
+        try {
             try {
                 log.success("Playing tone: " + toneRequest, 1);
 
-                // Configure tone 1
-                toneIndicator.setTone1Pitch(toneRequest.pitch1);
-                toneIndicator.setTone1Duration(toneRequest.duration1);
-                toneIndicator.setTone1Volume(toneRequest.volume1);
-
-                // Configure tone 2 if pitch2 is specified
-                if (toneRequest.pitch2 > 0) {
-                    toneIndicator.setTone2Pitch(toneRequest.pitch2);
-                    toneIndicator.setTone2Duration(toneRequest.duration2);
-                    toneIndicator.setTone2Volume(toneRequest.volume2);
-                    toneIndicator.setInterToneWait(toneRequest.interToneWait);
-                }
+                applySettings(toneIndicator, toneRequest);
 
                 // Play the tone synchronously (numberOfCycles=1, interSoundWait=0)
                 int numberOfTones = toneRequest.pitch2 > 0 ? 2 : 1;
@@ -137,7 +143,58 @@ public class ToneIndicatorDevice implements StatusUpdateListener {
                 log.failure("Failed to play tone", 18, jposException);
                 throw jposException;
             }
+        } finally {
+            deviceLock.unlock();
+        }
+    }
+
+    /**
+     * Writes only the tone properties that differ from what the device already has. A one tone request
+     * makes sure tone 2 is silent instead of replaying the tone 2 of an earlier request.
+     * Must be called holding the device lock.
+     */
+    private void applySettings(ToneIndicator toneIndicator, ToneRequest toneRequest) throws JposException {
+        ToneRequest applied = appliedSettings;
+        //Unknown until every write went through
+        appliedSettings = unknownSettings();
+        if (applied.pitch1 != toneRequest.pitch1) {
+            toneIndicator.setTone1Pitch(toneRequest.pitch1);
+            applied.pitch1 = toneRequest.pitch1;
+        }
+        if (applied.duration1 != toneRequest.duration1) {
+            toneIndicator.setTone1Duration(toneRequest.duration1);
+            applied.duration1 = toneRequest.duration1;
+        }
+        if (applied.volume1 != toneRequest.volume1) {
+            toneIndicator.setTone1Volume(toneRequest.volume1);
+            applied.volume1 = toneRequest.volume1;
+        }
+        if (toneRequest.pitch2 > 0) {
+            if (applied.pitch2 != toneRequest.pitch2) {
+                toneIndicator.setTone2Pitch(toneRequest.pitch2);
+                applied.pitch2 = toneRequest.pitch2;
+            }
+            if (applied.duration2 != toneRequest.duration2) {
+                toneIndicator.setTone2Duration(toneRequest.duration2);
+                applied.duration2 = toneRequest.duration2;
+            }
+            if (applied.volume2 != toneRequest.volume2) {
+                toneIndicator.setTone2Volume(toneRequest.volume2);
+                applied.volume2 = toneRequest.volume2;
+            }
+            if (applied.interToneWait != toneRequest.interToneWait) {
+                toneIndicator.setInterToneWait(toneRequest.interToneWait);
+                applied.interToneWait = toneRequest.interToneWait;
+            }
+        } else if (applied.duration2 != 0) {
+            toneIndicator.setTone2Duration(0);
+            applied.duration2 = 0;
         }
+        appliedSettings = applied;
+    }
+
+    private static ToneRequest unknownSettings() {
+        return new ToneRequest(UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN);
     }
 
     private void enable() throws JposException {
@@ -158,16 +215,24 @@ public class ToneIndicatorDevice implements StatusUpdateListener {
     }
 
     private void attachEventListeners() {
-        ToneIndicator toneIndicator;
-        synchronized (toneIndicator = dynamicToneIndicator.getDevice()) {
+        ToneIndicator toneIndicator = dynamicToneIndicator.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(toneIndicator);
+        deviceLock.lock();
+        try {
             toneIndicator.addStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
     private void detachEventListeners() {
-        ToneIndicator toneIndicator;
-        synchronized (toneIndicator = dynamicToneIndicator.getDevice()) {
+        ToneIndicator toneIndicator = dynamicToneIndicator.getDevice();
+        DeviceLock deviceLock = DeviceLock.of(toneIndicator);
+        deviceLock.lock();
+        try {
             toneIndicator.removeStatusUpdateListener(this);
+        } finally {
+            deviceLock.unlock();
         }
     }
 
@@ -185,6 +250,7 @@ public class ToneIndicatorDevice implements StatusUpdateListener {
             case JposConst.JPOS_SUE_POWER_ONLINE:
                 log.success("Status Update: Power online", 5);
                 deviceConnected = true;
+                ReconnectScheduler.getReconnectScheduler().retryNow(ToneIndicatorManager.HEALTH_KEY);
                 break;
             default:
                 break;
@@ -1,33 +1,27 @@
 package com.target.devicemanager.components.toneindicator;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.StructuredEventLogger;
 import com.target.devicemanager.common.entities.*;
 import com.target.devicemanager.components.toneindicator.entities.ToneIndicatorError;
+import com.target.devicemanager.components.toneindicator.entities.TonePreset;
 import com.target.devicemanager.components.toneindicator.entities.ToneRequest;
 import jpos.JposException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Profile;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 
-import java.util.Objects;
+import java.util.Locale;
 import java.util.concurrent.locks.Lock;
 
 @Profile({"local", "dev", "prod"})
-@EnableScheduling
-@EnableCaching
 public class ToneIndicatorManager {
 
-    @Autowired
-    private CacheManager cacheManager;
-
+    public static final String HEALTH_KEY = "toneindicator";
+    private final DeviceHealthRegistry healthRegistry;
     private final ToneIndicatorDevice toneIndicatorDevice;
     private final Lock toneIndicatorLock;
-    private ConnectEnum connectStatus = ConnectEnum.FIRST_CONNECT;
+    private final ToneQueue toneQueue;
     private static final Logger LOGGER = LoggerFactory.getLogger(ToneIndicatorManager.class);
     private static final StructuredEventLogger log = StructuredEventLogger.of("ToneIndicator", "ToneIndicatorManager", LOGGER);
 
@@ -35,22 +29,28 @@ public class ToneIndicatorManager {
         this(toneIndicatorDevice, toneIndicatorLock, null);
     }
 
-    public ToneIndicatorManager(ToneIndicatorDevice toneIndicatorDevice, Lock toneIndicatorLock, CacheManager cacheManager) {
+    public ToneIndicatorManager(ToneIndicatorDevice toneIndicatorDevice, Lock toneIndicatorLock, DeviceHealthRegistry healthRegistry) {
+        this(toneIndicatorDevice, toneIndicatorLock, healthRegistry,
+                toneIndicatorDevice == null || toneIndicatorLock == null ? null : new ToneQueue(toneIndicatorDevice, toneIndicatorLock));
+    }
+
+    public ToneIndicatorManager(ToneIndicatorDevice toneIndicatorDevice, Lock toneIndicatorLock, DeviceHealthRegistry healthRegistry, ToneQueue toneQueue) {
         if (toneIndicatorDevice == null) {
             throw new IllegalArgumentException("toneIndicatorDevice cannot be null");
         }
         if (toneIndicatorLock == null) {
             throw new IllegalArgumentException("toneIndicatorLock cannot be null");
         }
+        if (toneQueue == null) {
+            throw new IllegalArgumentException("toneQueue cannot be null");
+        }
         this.toneIndicatorDevice = toneIndicatorDevice;
         this.toneIndicatorLock = toneIndicatorLock;
+        this.toneQueue = toneQueue;
 
-        if (cacheManager != null) {
-            this.cacheManager = cacheManager;
-        }
+        this.healthRegistry = healthRegistry == null ? DeviceHealthRegistry.getDeviceHealthRegistry() : healthRegistry;
     }
 
-    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
     public void connect() {
         if (toneIndicatorDevice.tryLock()) {
             try {
@@ -59,10 +59,7 @@ public class ToneIndicatorManager {
                 toneIndicatorDevice.unlock();
             }
         }
-
-        if (connectStatus == ConnectEnum.FIRST_CONNECT) {
-            connectStatus = ConnectEnum.CHECK_HEALTH;
-        }
+        getHealth();
     }
 
     public void reconnectDevice() throws DeviceException {
@@ -97,6 +94,36 @@ public class ToneIndicatorManager {
         }
     }
 
+    /**
+     * Queues a tone and returns without waiting for it to play. Playback errors are logged, not returned.
+     * @param toneRequest tone to play.
+     * @throws DeviceException BAD_INPUT without a tone, DEVICE_OFFLINE when the device is not connected.
+     */
+    public void queueSound(ToneRequest toneRequest) throws DeviceException {
+        if (toneRequest == null) {
+            throw new DeviceException(DeviceError.BAD_INPUT);
+        }
+        if (!toneIndicatorDevice.isConnected()) {
+            throw new DeviceException(DeviceError.DEVICE_OFFLINE);
+        }
+        toneQueue.submit(toneRequest);
+    }
+
+    /**
+     * Queues one of the named tones.
+     * @param presetName name of a TonePreset, case insensitive.
+     * @throws DeviceException BAD_INPUT for an unknown preset, DEVICE_OFFLINE when the device is not connected.
+     */
+    public void playPreset(String presetName) throws DeviceException {
+        TonePreset tonePreset;
+        try {
+            tonePreset = TonePreset.valueOf(presetName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException exception) {
+            throw new DeviceException(DeviceError.BAD_INPUT);
+        }
+        queueSound(tonePreset.toToneRequest());
+    }
+
     public DeviceHealthResponse getHealth() {
         DeviceHealthResponse deviceHealthResponse;
         if (toneIndicatorDevice.isConnected()) {
@@ -104,28 +131,16 @@ public class ToneIndicatorManager {
         } else {
             deviceHealthResponse = new DeviceHealthResponse(toneIndicatorDevice.getDeviceName(), DeviceHealth.NOTREADY);
         }
-        try {
-            Objects.requireNonNull(cacheManager.getCache("toneIndicatorHealth")).put("health", deviceHealthResponse);
-        } catch (Exception exception) {
-            log.failure("getCache(toneIndicatorHealth) Failed", 17, exception);
-        }
+        healthRegistry.publish(HEALTH_KEY, deviceHealthResponse);
         return deviceHealthResponse;
     }
 
     public DeviceHealthResponse getStatus() {
-        try {
-            if (cacheManager != null && Objects.requireNonNull(cacheManager.getCache("toneIndicatorHealth")).get("health") != null) {
-                if (connectStatus == ConnectEnum.CHECK_HEALTH) {
-                    connectStatus = ConnectEnum.HEALTH_UPDATED;
-                    return getHealth();
-                }
-                return (DeviceHealthResponse) Objects.requireNonNull(cacheManager.getCache("toneIndicatorHealth")).get("health").get();
-            } else {
-                log.success("Not able to retrieve from cache, checking getHealth()", 5);
-                return getHealth();
-            }
-        } catch (Exception exception) {
+        DeviceHealthResponse deviceHealthResponse = healthRegistry.get(HEALTH_KEY);
+        if (deviceHealthResponse == null) {
+            log.success("No published health yet, checking getHealth()", 5);
             return getHealth();
         }
+        return deviceHealthResponse;
     }
 }
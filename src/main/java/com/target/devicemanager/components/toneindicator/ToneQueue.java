@@ -0,0 +1,129 @@
+package com.target.devicemanager.components.toneindicator;
+
+import com.target.devicemanager.common.StructuredEventLogger;
+import com.target.devicemanager.common.entities.DeviceException;
+import com.target.devicemanager.components.toneindicator.entities.ToneRequest;
+import jpos.JposException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Plays tones off the request thread, one at a time and in order.
+ * The queue is small and drops the oldest tone when it is full, so a burst of beeps plays the latest few
+ * instead of keeping the speaker busy long after the burst is over.
+ */
+public class ToneQueue {
+
+    static final int QUEUE_CAPACITY = 4;
+
+    private final ToneIndicatorDevice toneIndicatorDevice;
+    private final Lock toneIndicatorLock;
+    private final Executor playerExecutor;
+    private final Deque<ToneRequest> queue = new ArrayDeque<>(QUEUE_CAPACITY);
+    private boolean isDraining = false;
+    private final AtomicLong tonesPlayed = new AtomicLong();
+    private final AtomicLong tonesDropped = new AtomicLong();
+    private static final Logger LOGGER = LoggerFactory.getLogger(ToneQueue.class);
+    private static final StructuredEventLogger log = StructuredEventLogger.of("ToneIndicator", "ToneQueue", LOGGER);
+
+    public ToneQueue(ToneIndicatorDevice toneIndicatorDevice, Lock toneIndicatorLock) {
+        this(toneIndicatorDevice, toneIndicatorLock, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tone-player");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public ToneQueue(ToneIndicatorDevice toneIndicatorDevice, Lock toneIndicatorLock, Executor playerExecutor) {
+        if (toneIndicatorDevice == null) {
+            throw new IllegalArgumentException("toneIndicatorDevice cannot be null");
+        }
+        if (toneIndicatorLock == null) {
+            throw new IllegalArgumentException("toneIndicatorLock cannot be null");
+        }
+        if (playerExecutor == null) {
+            throw new IllegalArgumentException("playerExecutor cannot be null");
+        }
+        this.toneIndicatorDevice = toneIndicatorDevice;
+        this.toneIndicatorLock = toneIndicatorLock;
+        this.playerExecutor = playerExecutor;
+    }
+
+    /**
+     * Queues a tone and returns right away.
+     * @param toneRequest tone to play.
+     * @return false if an older tone was dropped to make room.
+     */
+    public boolean submit(ToneRequest toneRequest) {
+        boolean isDropped = false;
+        boolean shouldStartDrain = false;
+        synchronized (queue) {
+            if (queue.size() >= QUEUE_CAPACITY) {
+                queue.pollFirst();
+                isDropped = true;
+            }
+            queue.offerLast(toneRequest);
+            if (!isDraining) {
+                isDraining = true;
+                shouldStartDrain = true;
+            }
+        }
+        if (isDropped) {
+            tonesDropped.incrementAndGet();
+            log.success("Tone queue full, dropped oldest tone", 5);
+        }
+        if (shouldStartDrain) {
+            playerExecutor.execute(this::drain);
+        }
+        return !isDropped;
+    }
+
+    private void drain() {
+        while (true) {
+            ToneRequest toneRequest;
+            synchronized (queue) {
+                toneRequest = queue.pollFirst();
+                if (toneRequest == null) {
+                    isDraining = false;
+                    return;
+                }
+            }
+            play(toneRequest);
+        }
+    }
+
+    private void play(ToneRequest toneRequest) {
+        toneIndicatorLock.lock();
+        try {
+            toneIndicatorDevice.playSound(toneRequest);
+            tonesPlayed.incrementAndGet();
+        } catch (JposException | DeviceException exception) {
+            log.failure("Queued tone failed to play", 13, exception);
+        } catch (RuntimeException runtimeException) {
+            log.failure("Queued tone failed to play", 17, runtimeException);
+        } finally {
+            toneIndicatorLock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public long getTonesPlayed() {
+        return tonesPlayed.get();
+    }
+
+    public long getTonesDropped() {
+        return tonesDropped.get();
+    }
+}
@@ -0,0 +1,34 @@
+package com.target.devicemanager.components.toneindicator.entities;
+
+/**
+ * Named tones, so clients do not have to send pitch, duration and volume for the common sounds.
+ * Playing the same preset again does not touch the device settings.
+ */
+public enum TonePreset {
+    GOOD_SCAN(1500, 60, 50, 0, 0, 0, 0),
+    BAD_SCAN(400, 200, 75, 300, 200, 75, 50),
+    ATTENTION(2000, 100, 75, 2000, 100, 75, 100),
+    ERROR(300, 500, 90, 0, 0, 0, 0);
+
+    private final int pitch1;
+    private final int duration1;
+    private final int volume1;
+    private final int pitch2;
+    private final int duration2;
+    private final int volume2;
+    private final int interToneWait;
+
+    TonePreset(int pitch1, int duration1, int volume1, int pitch2, int duration2, int volume2, int interToneWait) {
+        this.pitch1 = pitch1;
+        this.duration1 = duration1;
+        this.volume1 = volume1;
+        this.pitch2 = pitch2;
+        this.duration2 = duration2;
+        this.volume2 = volume2;
+        this.interToneWait = interToneWait;
+    }
+
+    public ToneRequest toToneRequest() {
+        return new ToneRequest(pitch1, duration1, volume1, pitch2, duration2, volume2, interToneWait);
+    }
+}
@@ -1,19 +1,17 @@
 package com.target.devicemanager.configuration;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.target.devicemanager.common.RequestDeadlineInterceptor;
 import com.target.devicemanager.common.StructuredEventLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class ApplicationConfig {
@@ -43,23 +41,15 @@ public class ApplicationConfig {
                         .allowedOrigins(allowedOrigins)
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD", "PATCH"); //set global CORS policy
             }
-        };
-    }
-
-    @Bean
-    public Caffeine caffeineConfig() {
-        // Keeping cache for 1 hr
-        return Caffeine.newBuilder().expireAfterWrite(60, TimeUnit.MINUTES);
-    }
 
-    @Bean
-    public CacheManager cacheManager(Caffeine caffeine) {
-        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
-        caffeineCacheManager.setCaffeine(caffeine);
-        return caffeineCacheManager;
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestDeadlineInterceptor());
+            }
+        };
     }
 
-    private String[] getCORSOrigins() {
+    static String[] getCORSOrigins() {
         String origins = System.getenv("CORS_ORIGINS");
         return origins != null ? origins.split("\\,") : null;
     }
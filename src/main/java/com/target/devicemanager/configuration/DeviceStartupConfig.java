@@ -0,0 +1,115 @@
+package com.target.devicemanager.configuration;
+
+import com.target.devicemanager.common.DeviceStartupOrchestrator;
+import com.target.devicemanager.common.entities.DeviceStartupResult;
+import com.target.devicemanager.common.entities.StartupReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.health.AdditionalHealthEndpointPath;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthEndpointGroup;
+import org.springframework.boot.actuate.health.HealthEndpointGroups;
+import org.springframework.boot.actuate.health.HealthEndpointGroupsPostProcessor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.HttpCodeStatusMapper;
+import org.springframework.boot.actuate.health.StatusAggregator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.util.Set;
+
+/**
+ * Connects all devices when the application is ready and reports readiness as the deviceStartup health
+ * indicator. It is only part of the readiness group (/health/readiness); /health leaves it out, so a device
+ * still connecting does not take the application down.
+ */
+@Configuration
+public class DeviceStartupConfig {
+
+    static final String HEALTH_INDICATOR_NAME = "deviceStartup";
+
+    @Autowired(required = false)
+    private WorkstationConfig workstationConfig;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void connectDevicesOnStartup() {
+        int parallelism = workstationConfig != null ? workstationConfig.getStartupParallelism() : WorkstationConfig.StartupSettings.DEFAULT_PARALLELISM;
+        long deviceTimeoutMsec = workstationConfig != null ? workstationConfig.getStartupDeviceTimeoutMsec() : WorkstationConfig.StartupSettings.DEFAULT_DEVICE_TIMEOUT_MSEC;
+        Thread startupThread = new Thread(() -> DeviceStartupOrchestrator.getDeviceStartupOrchestrator().connectAll(parallelism, deviceTimeoutMsec), "device-startup");
+        startupThread.setDaemon(true);
+        startupThread.start();
+    }
+
+    @Bean(HEALTH_INDICATOR_NAME)
+    HealthIndicator deviceStartup() {
+        return () -> {
+            StartupReport report = DeviceStartupOrchestrator.getDeviceStartupOrchestrator().getReport();
+            Health.Builder health = report.isComplete ? Health.up() : Health.outOfService();
+            health.withDetail("startupMsec", report.startupMsec);
+            for (DeviceStartupResult device : report.devices) {
+                health.withDetail(device.deviceKey, device.status);
+            }
+            return health.build();
+        };
+    }
+
+    @Bean
+    HealthEndpointGroupsPostProcessor deviceStartupReadinessOnly() {
+        return groups -> new HealthEndpointGroups() {
+            @Override
+            public HealthEndpointGroup getPrimary() {
+                return new PrimaryGroupWithoutDeviceStartup(groups.getPrimary());
+            }
+
+            @Override
+            public Set<String> getNames() {
+                return groups.getNames();
+            }
+
+            @Override
+            public HealthEndpointGroup get(String name) {
+                return groups.get(name);
+            }
+        };
+    }
+
+    static class PrimaryGroupWithoutDeviceStartup implements HealthEndpointGroup {
+        private final HealthEndpointGroup primary;
+
+        PrimaryGroupWithoutDeviceStartup(HealthEndpointGroup primary) {
+            this.primary = primary;
+        }
+
+        @Override
+        public boolean isMember(String name) {
+            return !HEALTH_INDICATOR_NAME.equals(name) && primary.isMember(name);
+        }
+
+        @Override
+        public boolean showComponents(SecurityContext securityContext) {
+            return primary.showComponents(securityContext);
+        }
+
+        @Override
+        public boolean showDetails(SecurityContext securityContext) {
+            return primary.showDetails(securityContext);
+        }
+
+        @Override
+        public StatusAggregator getStatusAggregator() {
+            return primary.getStatusAggregator();
+        }
+
+        @Override
+        public HttpCodeStatusMapper getHttpCodeStatusMapper() {
+            return primary.getHttpCodeStatusMapper();
+        }
+
+        @Override
+        public AdditionalHealthEndpointPath getAdditionalPath() {
+            return primary.getAdditionalPath();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.target.devicemanager.configuration;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
@@ -9,11 +10,16 @@ import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 public class SchedulingConfig implements SchedulingConfigurer {
     private static final int DEFAULT_THREAD_POOL = 10;
 
-    @Override
-    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    //Shared with the device components that schedule their own work, like the line display animator
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
         ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
         taskScheduler.setPoolSize(DEFAULT_THREAD_POOL);
-        taskScheduler.initialize();
-        taskRegistrar.setTaskScheduler(taskScheduler);
+        return taskScheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(taskScheduler());
     }
 }
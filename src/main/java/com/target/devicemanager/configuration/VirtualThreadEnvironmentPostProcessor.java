@@ -0,0 +1,20 @@
+package com.target.devicemanager.configuration;
+
+import com.target.devicemanager.common.DeviceThreads;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Reads spring.threads.virtual.enabled before any Spring beans are created, so the device executors made while
+ * the beans are created use the same kind of threads as Tomcat.
+ */
+public class VirtualThreadEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment,
+                                       SpringApplication application) {
+        DeviceThreads.setVirtualThreadsEnabled(
+                environment.getProperty(DeviceThreads.VIRTUAL_THREADS_PROPERTY, Boolean.class, false));
+    }
+}
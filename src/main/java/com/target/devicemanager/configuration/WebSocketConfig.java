@@ -0,0 +1,30 @@
+package com.target.devicemanager.configuration;
+
+import com.target.devicemanager.common.DeviceChannelHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    private final DeviceChannelHandler deviceChannelHandler;
+
+    @Autowired
+    public WebSocketConfig(DeviceChannelHandler deviceChannelHandler) {
+        if (deviceChannelHandler == null) {
+            throw new IllegalArgumentException("deviceChannelHandler cannot be null");
+        }
+        this.deviceChannelHandler = deviceChannelHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        //Same origins as the REST API
+        String[] origins = ApplicationConfig.getCORSOrigins();
+        registry.addHandler(deviceChannelHandler, "/v1/channel")
+                .setAllowedOrigins(origins != null ? origins : new String[0]);
+    }
+}
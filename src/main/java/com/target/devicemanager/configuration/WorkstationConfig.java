@@ -21,6 +21,8 @@ public class WorkstationConfig {
     private DeviceMappings devices;
     private DiscoverySettings discovery;
     private PostgrestConfig postgrest;
+    private StartupSettings startup;
+    private AdmissionSettings admission;
 
     // ---- Getters and Setters ----
 
@@ -64,6 +66,22 @@ public class WorkstationConfig {
         this.postgrest = postgrest;
     }
 
+    public StartupSettings getStartup() {
+        return startup;
+    }
+
+    public void setStartup(StartupSettings startup) {
+        this.startup = startup;
+    }
+
+    public AdmissionSettings getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(AdmissionSettings admission) {
+        this.admission = admission;
+    }
+
     // ---- Helper methods ----
 
     /**
@@ -99,6 +117,22 @@ public class WorkstationConfig {
         return discovery != null && discovery.isEnabled();
     }
 
+    public int getStartupParallelism() {
+        return startup != null ? startup.getParallelism() : StartupSettings.DEFAULT_PARALLELISM;
+    }
+
+    public long getStartupDeviceTimeoutMsec() {
+        return startup != null ? startup.getDeviceTimeoutMsec() : StartupSettings.DEFAULT_DEVICE_TIMEOUT_MSEC;
+    }
+
+    public int getAdmissionMaxQueueDepth() {
+        return admission != null ? admission.getMaxQueueDepth() : AdmissionSettings.DEFAULT_MAX_QUEUE_DEPTH;
+    }
+
+    public long getAdmissionDefaultWaitMsec() {
+        return admission != null ? admission.getDefaultWaitMsec() : AdmissionSettings.DEFAULT_WAIT_MSEC;
+    }
+
     // ---- Nested POJOs ----
 
     public static class StoreInfo {
@@ -180,4 +214,28 @@ public class WorkstationConfig {
         public boolean isAutoAdapt() { return autoAdapt; }
         public void setAutoAdapt(boolean autoAdapt) { this.autoAdapt = autoAdapt; }
     }
+
+    public static class StartupSettings {
+        public static final int DEFAULT_PARALLELISM = 4;
+        public static final long DEFAULT_DEVICE_TIMEOUT_MSEC = 20000;
+        private int parallelism = DEFAULT_PARALLELISM;
+        private long deviceTimeoutMsec = DEFAULT_DEVICE_TIMEOUT_MSEC;
+
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+        public long getDeviceTimeoutMsec() { return deviceTimeoutMsec; }
+        public void setDeviceTimeoutMsec(long deviceTimeoutMsec) { this.deviceTimeoutMsec = deviceTimeoutMsec; }
+    }
+
+    public static class AdmissionSettings {
+        public static final int DEFAULT_MAX_QUEUE_DEPTH = 4;
+        public static final long DEFAULT_WAIT_MSEC = 1000;
+        private int maxQueueDepth = DEFAULT_MAX_QUEUE_DEPTH;
+        private long defaultWaitMsec = DEFAULT_WAIT_MSEC;
+
+        public int getMaxQueueDepth() { return maxQueueDepth; }
+        public void setMaxQueueDepth(int maxQueueDepth) { this.maxQueueDepth = maxQueueDepth; }
+        public long getDefaultWaitMsec() { return defaultWaitMsec; }
+        public void setDefaultWaitMsec(long defaultWaitMsec) { this.defaultWaitMsec = defaultWaitMsec; }
+    }
 }
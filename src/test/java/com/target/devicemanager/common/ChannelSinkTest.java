@@ -0,0 +1,132 @@
+package com.target.devicemanager.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelSinkTest {
+
+    private ChannelSink channelSink;
+    private final List<Object[]> events = new ArrayList<>();
+    private final List<String> calls = new ArrayList<>();
+
+    @BeforeEach
+    public void testInitialize() {
+        events.clear();
+        calls.clear();
+        channelSink = new ChannelSink((event, id, data) -> events.add(new Object[]{event, id, data}), () -> calls.add("ended"));
+    }
+
+    @Test
+    public void ctor_WhenListenerIsNull_ThrowsException() {
+        try {
+            new ChannelSink(null, () -> {});
+        } catch (IllegalArgumentException iae) {
+            assertEquals("listener cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenCompletedByPublisherIsNull_ThrowsException() {
+        try {
+            new ChannelSink((event, id, data) -> {}, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("completedByPublisher cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void send_PassesEventIdAndDataToListener() throws IOException {
+        //arrange
+        List<String> data = List.of("printer");
+
+        //act
+        channelSink.send("entry", "12", data);
+
+        //assert
+        assertEquals(1, events.size());
+        assertEquals("entry", events.get(0)[0]);
+        assertEquals("12", events.get(0)[1]);
+        assertSame(data, events.get(0)[2]);
+    }
+
+    @Test
+    public void send_WhenDataHasLineBreaks_PassesDataUnchanged() throws IOException {
+        //act
+        channelSink.send(null, null, "{\n\"position\":\"LOCKED\"\n}");
+
+        //assert
+        assertEquals(1, events.size());
+        assertNull(events.get(0)[0]);
+        assertNull(events.get(0)[1]);
+        assertEquals("{\n\"position\":\"LOCKED\"\n}", events.get(0)[2]);
+    }
+
+    @Test
+    public void close_RunsCompletionCallbacksOnce() {
+        //arrange
+        channelSink.onCompletion(() -> calls.add("completion"));
+
+        //act
+        channelSink.close();
+        channelSink.close();
+
+        //assert
+        assertEquals(List.of("completion"), calls);
+        assertTrue(channelSink.isClosed());
+    }
+
+    @Test
+    public void complete_EndsTopicAndRunsCompletionCallbacks() {
+        //arrange
+        channelSink.onCompletion(() -> calls.add("completion"));
+
+        //act
+        channelSink.complete();
+        channelSink.complete();
+
+        //assert
+        assertEquals(List.of("ended", "completion"), calls);
+        assertTrue(channelSink.isClosed());
+    }
+
+    @Test
+    public void onCompletion_WhenClosed_RunsCallback() {
+        //arrange
+        channelSink.close();
+
+        //act
+        channelSink.onCompletion(() -> calls.add("completion"));
+
+        //assert
+        assertEquals(List.of("completion"), calls);
+    }
+
+    @Test
+    public void send_WhenClosed_ThrowsIOException() {
+        //arrange
+        channelSink.close();
+
+        //act
+        try {
+            channelSink.send(null, null, "data");
+        } catch (IOException ioException) {
+            //assert
+            assertTrue(events.isEmpty());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+}
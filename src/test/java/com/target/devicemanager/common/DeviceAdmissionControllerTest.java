@@ -0,0 +1,220 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.AdmissionStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceAdmissionControllerTest {
+
+    private DeviceAdmissionController deviceAdmissionController;
+
+    @BeforeEach
+    public void testInitialize() {
+        deviceAdmissionController = new DeviceAdmissionController("printer", 1, 2000);
+    }
+
+    @AfterEach
+    public void testCleanup() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    public void ctor_WhenDeviceNameIsNull_ThrowsException() {
+        try {
+            new DeviceAdmissionController(null, 1, 2000);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("deviceName cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenMaxQueueDepthIsNegative_ThrowsException() {
+        try {
+            new DeviceAdmissionController("printer", -1, 2000);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("maxQueueDepth cannot be negative", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void tryLock_WhenFree_AdmitsRightAway() {
+        //act
+        boolean actual = deviceAdmissionController.tryLock();
+
+        //assert
+        assertTrue(actual);
+        AdmissionStats stats = deviceAdmissionController.getStats();
+        assertEquals(1, stats.admitted);
+        assertEquals(1L, stats.queueDepthHistogram.get("0"));
+        assertEquals(1L, stats.waitMsecHistogram.get("0"));
+        deviceAdmissionController.unlock();
+    }
+
+    @Test
+    public void tryLock_WhenBusy_WaitsUntilReleased() throws Exception {
+        //arrange
+        CountDownLatch isHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdDevice(isHeld, release);
+
+        //act
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            boolean isAdmitted = deviceAdmissionController.tryLock();
+            if (isAdmitted) {
+                deviceAdmissionController.unlock();
+            }
+            return isAdmitted;
+        });
+        awaitQueueDepth(1);
+        release.countDown();
+
+        //assert
+        assertTrue(waiter.get(2, TimeUnit.SECONDS));
+        holder.join();
+        AdmissionStats stats = deviceAdmissionController.getStats();
+        assertEquals(2, stats.admitted);
+        assertEquals(0, stats.queueDepth);
+        assertEquals(0L, stats.queueDepthHistogram.get("0"));
+        assertEquals(1L, stats.queueDepthHistogram.get("1"));
+        assertEquals(1L, stats.waitMsecHistogram.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void tryLock_WhenQueueFull_RejectsRightAway() throws Exception {
+        //arrange
+        CountDownLatch isHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdDevice(isHeld, release);
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(deviceAdmissionController::tryLock);
+        awaitQueueDepth(1);
+
+        //act
+        long startNanos = System.nanoTime();
+        boolean actual = deviceAdmissionController.tryLock();
+        long elapsedMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        //assert
+        release.countDown();
+        holder.join();
+        waiter.get(2, TimeUnit.SECONDS);
+        assertFalse(actual);
+        assertTrue(elapsedMsec < 500);
+        assertEquals(1, deviceAdmissionController.getStats().rejectedQueueFull);
+    }
+
+    @Test
+    public void tryLock_WhenCallerDeadlinePasses_Rejects() throws InterruptedException {
+        //arrange
+        CountDownLatch isHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdDevice(isHeld, release);
+        RequestDeadline.set(50);
+
+        //act
+        long startNanos = System.nanoTime();
+        boolean actual = deviceAdmissionController.tryLock();
+        long elapsedMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        //assert
+        release.countDown();
+        holder.join();
+        assertFalse(actual);
+        assertTrue(elapsedMsec >= 40 && elapsedMsec < 1500);
+        assertEquals(1, deviceAdmissionController.getStats().rejectedTimeout);
+    }
+
+    @Test
+    public void tryLock_WhenCallerDeadlineIsZero_RejectsWithoutQueueing() throws InterruptedException {
+        //arrange
+        CountDownLatch isHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdDevice(isHeld, release);
+        RequestDeadline.set(0);
+
+        //act
+        boolean actual = deviceAdmissionController.tryLock();
+
+        //assert
+        release.countDown();
+        holder.join();
+        assertFalse(actual);
+        assertEquals(0L, deviceAdmissionController.getStats().queueDepthHistogram.get("0"));
+        assertEquals(1, deviceAdmissionController.getStats().rejectedTimeout);
+    }
+
+    @Test
+    public void tryLockWithTime_WhenBusy_DoesNotQueue() throws InterruptedException {
+        //arrange
+        CountDownLatch isHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdDevice(isHeld, release);
+
+        //act
+        boolean actual = deviceAdmissionController.tryLock(0, TimeUnit.MILLISECONDS);
+
+        //assert
+        release.countDown();
+        holder.join();
+        assertFalse(actual);
+        assertEquals(0, deviceAdmissionController.getStats().rejectedTimeout);
+    }
+
+    @Test
+    public void bucketOf_ReturnsFirstBucketAtOrAboveWait() {
+        //assert
+        assertEquals(0, DeviceAdmissionController.bucketOf(0));
+        assertEquals(1, DeviceAdmissionController.bucketOf(10));
+        assertEquals(2, DeviceAdmissionController.bucketOf(11));
+        assertEquals(DeviceAdmissionController.WAIT_MSEC_BUCKETS.length, DeviceAdmissionController.bucketOf(60000));
+    }
+
+    @Test
+    public void getAdmissionStats_ContainsController() {
+        //arrange
+        new DeviceAdmissionController("keylock", 2, 500);
+
+        //act
+        List<AdmissionStats> actual = DeviceAdmissionController.getAdmissionStats();
+
+        //assert
+        assertTrue(actual.stream().anyMatch(stats -> "keylock".equals(stats.deviceName) && stats.maxQueueDepth == 2));
+    }
+
+    private Thread holdDevice(CountDownLatch isHeld, CountDownLatch release) throws InterruptedException {
+        Thread holder = new Thread(() -> {
+            deviceAdmissionController.lock();
+            try {
+                isHeld.countDown();
+                release.await();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            } finally {
+                deviceAdmissionController.unlock();
+            }
+        });
+        holder.start();
+        isHeld.await();
+        return holder;
+    }
+
+    private void awaitQueueDepth(int queueDepth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (deviceAdmissionController.getStats().queueDepth < queueDepth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -19,7 +19,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -122,6 +129,26 @@ class DeviceAvailabilityServiceTest {
         assertEquals(DeviceHealth.NOTREADY, deviceAvailabilityService.findDevStatus("UNKNOWN"));
     }
 
+    @Test
+    void getHealth_ListsConfiguredDevicesThatHaveNotPublished() throws Exception {
+        //arrange
+        DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
+        DeviceAvailabilityService service = new DeviceAvailabilityService(null, new DeviceHealthAggregator(), PeripheralInventory.getPeripheralInventory(), healthRegistry);
+        healthRegistry.publish(PrinterManager.HEALTH_KEY, new DeviceHealthResponse("printer", DeviceHealth.READY));
+        deviceAvailabilitySingleton.setPrinterManager(mockPrinterManager);
+        deviceAvailabilitySingleton.setScaleManager(mockScaleManager);
+        when(mockScaleManager.getHealth()).thenReturn(new DeviceHealthResponse("scale", DeviceHealth.NOTREADY));
+
+        //act
+        List<DeviceHealthResponse> actual = service.getHealth(false).getBody();
+
+        //assert
+        assertNotNull(actual);
+        assertTrue(actual.stream().anyMatch(health -> "printer".equals(health.getDeviceName()) && health.getHealthStatus() == DeviceHealth.READY));
+        assertTrue(actual.stream().anyMatch(health -> "scale".equals(health.getDeviceName()) && health.getHealthStatus() == DeviceHealth.NOTREADY));
+        verify(mockPrinterManager, never()).getHealth();
+    }
+
     @Test
     void Test_getAvailableDevices_scale_null_null_null() {
         String confirmout_loc = "src/test/resources/scale_callibrated_null_callibration_null_has_remore_display_null.json";
@@ -176,4 +203,49 @@ class DeviceAvailabilityServiceTest {
         assertTrue(respString.contains("calibrated_count=null"));
         assertTrue(respString.contains("has_remote_display=false"));
     }
+
+    @Test
+    void Test_getAvailableDevices_SameFileAndHealth_ReturnsSameEtag() {
+        //arrange
+        String confirmout_loc = "src/test/resources/scale_callibrated_true_callibration_1_has_remore_display_null.json";
+        deviceAvailabilitySingleton.setScaleManager(mockScaleManager);
+        when(mockScaleManager.getStatus()).thenReturn(new DeviceHealthResponse("scale", DeviceHealth.READY));
+        DeviceAvailabilityResponse expected = deviceAvailabilityService.getAvailableDevices(confirmout_loc);
+
+        //act
+        DeviceAvailabilityResponse actual = deviceAvailabilityService.getAvailableDevices(confirmout_loc);
+
+        //assert
+        assertNotNull(expected.getEtag());
+        assertEquals(expected.getEtag(), actual.getEtag());
+        assertNotSame(expected.devicelist.get(0), actual.devicelist.get(0));
+    }
+
+    @Test
+    void Test_getAvailableDevices_HealthChanges_ReturnsNewEtag() {
+        //arrange
+        String confirmout_loc = "src/test/resources/scale_callibrated_true_callibration_1_has_remore_display_null.json";
+        deviceAvailabilitySingleton.setScaleManager(mockScaleManager);
+        when(mockScaleManager.getStatus()).thenReturn(new DeviceHealthResponse("scale", DeviceHealth.NOTREADY));
+        DeviceAvailabilityResponse expected = deviceAvailabilityService.getAvailableDevices(confirmout_loc);
+        when(mockScaleManager.getStatus()).thenReturn(new DeviceHealthResponse("scale", DeviceHealth.READY));
+
+        //act
+        DeviceAvailabilityResponse actual = deviceAvailabilityService.getAvailableDevices(confirmout_loc);
+
+        //assert
+        assertFalse(expected.devicelist.get(0).isFunctional);
+        assertTrue(actual.devicelist.get(0).isFunctional);
+        assertNotEquals(expected.getEtag(), actual.getEtag());
+    }
+
+    @Test
+    void Test_getAvailableDevices_FileMissing_ReturnsEmptyListWithoutEtag() {
+        //act
+        DeviceAvailabilityResponse actual = deviceAvailabilityService.getAvailableDevices("src/test/resources/missing_confirmout.json");
+
+        //assert
+        assertTrue(actual.devicelist.isEmpty());
+        assertNull(actual.getEtag());
+    }
 }
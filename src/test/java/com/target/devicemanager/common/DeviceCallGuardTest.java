@@ -0,0 +1,235 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.HungCall;
+import jpos.JposConst;
+import jpos.JposException;
+import jpos.POSPrinter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeviceCallGuardTest {
+
+    private DeviceCallGuard deviceCallGuard;
+
+    @Mock
+    private POSPrinter mockPrinter;
+
+    @BeforeEach
+    public void testInitialize() {
+        deviceCallGuard = new DeviceCallGuard("printer");
+    }
+
+    @Test
+    public void ctor_WhenDeviceNameIsNull_ThrowsException() {
+        try {
+            new DeviceCallGuard(null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("deviceName cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void of_ReturnsSameGuardForSameControl() {
+        //act
+        DeviceCallGuard actual = DeviceCallGuard.of(mockPrinter);
+
+        //assert
+        assertSame(actual, DeviceCallGuard.of(mockPrinter));
+    }
+
+    @Test
+    public void call_RunsOnDeviceThreadAndReturnsResult() throws JposException {
+        //act
+        String actual = deviceCallGuard.call("getName", 1000, () -> Thread.currentThread().getName());
+
+        //assert
+        assertTrue(actual.startsWith("jpos-call-printer-"));
+    }
+
+    @Test
+    public void call_WhenDriverThrows_RethrowsJposException() {
+        //act
+        try {
+            deviceCallGuard.run("open", 1000, () -> {
+                throw new JposException(JposConst.JPOS_E_NOHARDWARE);
+            });
+        } catch (JposException jposException) {
+            //assert
+            assertEquals(JposConst.JPOS_E_NOHARDWARE, jposException.getErrorCode());
+            assertFalse(deviceCallGuard.isQuarantined());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void call_WhenDeadlinePasses_ReturnsAndQuarantinesDevice() throws InterruptedException {
+        //arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger callsRun = new AtomicInteger();
+
+        //act
+        JposException timeout = assertThrows(JposException.class, () -> assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> deviceCallGuard.run("claim", 100, () -> awaitUninterruptibly(release))));
+        JposException quarantined = assertThrows(JposException.class, () -> deviceCallGuard.run("release", 1000, callsRun::incrementAndGet));
+
+        //assert
+        try {
+            assertEquals(JposConst.JPOS_E_TIMEOUT, timeout.getErrorCode());
+            assertEquals(JposConst.JPOS_E_OFFLINE, quarantined.getErrorCode());
+            assertTrue(deviceCallGuard.isQuarantined());
+            assertEquals(0, callsRun.get());
+            List<HungCall> hungCalls = DeviceCallGuard.getHungCalls();
+            HungCall hungCall = hungCalls.get(hungCalls.size() - 1);
+            assertEquals("printer", hungCall.deviceName);
+            assertEquals("claim", hungCall.operation);
+            assertTrue(hungCall.stackTrace.contains("awaitUninterruptibly"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void call_WhenStuckCallReturns_LiftsQuarantine() throws JposException, InterruptedException {
+        //arrange
+        CountDownLatch release = new CountDownLatch(1);
+        assertThrows(JposException.class, () -> deviceCallGuard.run("claim", 100, () -> awaitUninterruptibly(release)));
+
+        //act
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (deviceCallGuard.isQuarantined() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        String actual = deviceCallGuard.call("getName", 1000, () -> Thread.currentThread().getName());
+
+        //assert
+        assertFalse(deviceCallGuard.isQuarantined());
+        assertEquals("jpos-call-printer-2", actual);
+        List<HungCall> hungCalls = DeviceCallGuard.getHungCalls();
+        assertTrue(hungCalls.get(hungCalls.size() - 1).isReturned);
+    }
+
+    @Test
+    public void call_WhenWaitingBehindAnotherCall_StartsDeadlineWhenCallStarts() throws Exception {
+        //arrange
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        Thread firstCaller = new Thread(() -> {
+            try {
+                deviceCallGuard.run("claim", 2000, () -> {
+                    firstStarted.countDown();
+                    sleepUninterruptibly(300);
+                });
+            } catch (JposException jposException) {
+                //not expected, asserted through the quarantine below
+            }
+        });
+        firstCaller.start();
+        firstStarted.await();
+
+        //act
+        String actual = deviceCallGuard.call("getName", 200, () -> "printer");
+
+        //assert
+        firstCaller.join();
+        assertEquals("printer", actual);
+        assertFalse(deviceCallGuard.isQuarantined());
+    }
+
+    @Test
+    public void call_WhenWaitingBehindStuckCall_FailsAsQuarantined() throws Exception {
+        //arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuckStarted = new CountDownLatch(1);
+        AtomicInteger callsRun = new AtomicInteger();
+        Thread stuckCaller = new Thread(() -> assertThrows(JposException.class, () -> deviceCallGuard.run("claim", 300, () -> {
+            stuckStarted.countDown();
+            awaitUninterruptibly(release);
+        })));
+        stuckCaller.start();
+        stuckStarted.await();
+
+        //act
+        try {
+            JposException actual = assertThrows(JposException.class, () -> assertTimeoutPreemptively(Duration.ofSeconds(2),
+                    () -> deviceCallGuard.run("release", 5000, callsRun::incrementAndGet)));
+
+            //assert
+            assertEquals(JposConst.JPOS_E_OFFLINE, actual.getErrorCode());
+            assertEquals(0, callsRun.get());
+            List<HungCall> hungCalls = DeviceCallGuard.getHungCalls();
+            assertEquals("claim", hungCalls.get(hungCalls.size() - 1).operation);
+        } finally {
+            release.countDown();
+            stuckCaller.join();
+        }
+    }
+
+    @Test
+    public void call_AfterShutdown_ThrowsFailure() {
+        //arrange
+        deviceCallGuard.shutdown();
+
+        //act
+        try {
+            deviceCallGuard.run("open", 1000, () -> {});
+        } catch (JposException jposException) {
+            //assert
+            assertEquals(JposConst.JPOS_E_FAILURE, jposException.getErrorCode());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void call_FromDeviceThread_RunsDirectly() throws JposException {
+        //act
+        String actual = deviceCallGuard.call("outer", 1000,
+                () -> deviceCallGuard.call("inner", 1000, () -> Thread.currentThread().getName()));
+
+        //assert
+        assertTrue(actual.startsWith("jpos-call-printer-"));
+    }
+
+    private static void sleepUninterruptibly(long msec) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(msec);
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1);
+            } catch (InterruptedException interruptedException) {
+                //keeps the driver busy for the whole time
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException interruptedException) {
+                //a wedged driver does not answer interrupts either
+            }
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.target.devicemanager.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.components.cashdrawer.CashDrawerController;
+import com.target.devicemanager.components.keylock.KeylockManager;
+import com.target.devicemanager.components.linedisplay.LineDisplayController;
+import com.target.devicemanager.components.poskeyboard.POSKeyboardManager;
+import com.target.devicemanager.components.printer.PrinterController;
+import com.target.devicemanager.components.printer.entities.PrinterError;
+import com.target.devicemanager.components.printer.entities.PrinterException;
+import com.target.devicemanager.components.scale.ScaleManager;
+import com.target.devicemanager.components.scanner.ScannerController;
+import com.target.devicemanager.components.scanner.entities.Barcode;
+import com.target.devicemanager.components.scanner.entities.BarcodeType;
+import com.target.devicemanager.components.scanner.entities.ScannerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeviceChannelHandlerTest {
+
+    private DeviceChannelHandler deviceChannelHandler;
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+
+    @Mock
+    private WebSocketSession mockSession;
+    @Mock
+    private DeviceAvailabilityService mockDeviceAvailabilityService;
+    @Mock
+    private ObjectProvider<ScaleManager> mockScaleManagerProvider;
+    @Mock
+    private ObjectProvider<KeylockManager> mockKeylockManagerProvider;
+    @Mock
+    private ObjectProvider<POSKeyboardManager> mockPosKeyboardManagerProvider;
+    @Mock
+    private ObjectProvider<ScannerController> mockScannerControllerProvider;
+    @Mock
+    private ObjectProvider<PrinterController> mockPrinterControllerProvider;
+    @Mock
+    private ObjectProvider<LineDisplayController> mockLineDisplayControllerProvider;
+    @Mock
+    private ObjectProvider<CashDrawerController> mockCashDrawerControllerProvider;
+    @Mock
+    private KeylockManager mockKeylockManager;
+    @Mock
+    private PrinterController mockPrinterController;
+    @Mock
+    private CashDrawerController mockCashDrawerController;
+
+    @BeforeEach
+    public void testInitialize() {
+        pendingTasks.clear();
+        when(mockSession.getId()).thenReturn("session-1");
+        when(mockSession.isOpen()).thenReturn(true);
+        when(mockKeylockManagerProvider.getIfAvailable()).thenReturn(mockKeylockManager);
+        when(mockPrinterControllerProvider.getIfAvailable()).thenReturn(mockPrinterController);
+        when(mockCashDrawerControllerProvider.getIfAvailable()).thenReturn(mockCashDrawerController);
+        deviceChannelHandler = newHandler(pendingTasks::add);
+        deviceChannelHandler.afterConnectionEstablished(mockSession);
+    }
+
+    @Test
+    public void ctor_WhenObjectMapperIsNull_ThrowsException() {
+        try {
+            new DeviceChannelHandler(null, mockDeviceAvailabilityService, mockScaleManagerProvider, mockKeylockManagerProvider,
+                    mockPosKeyboardManagerProvider, mockScannerControllerProvider, mockPrinterControllerProvider,
+                    mockLineDisplayControllerProvider, mockCashDrawerControllerProvider, Runnable::run, Runnable::run);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("objectMapper cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenExecutorIsNull_ThrowsException() {
+        try {
+            newHandler(null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("executor cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenScanExecutorIsNull_ThrowsException() {
+        try {
+            newHandler(Runnable::run, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("scanExecutor cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void subscribe_Keylock_SendsManagerEventsAsCompactFrames() throws Exception {
+        //arrange
+        ArgumentCaptor<DeviceEventSink> sinkCaptor = ArgumentCaptor.forClass(DeviceEventSink.class);
+
+        //act
+        receive("{\"op\":\"sub\",\"topic\":\"keylock\",\"id\":\"1\"}");
+        verify(mockKeylockManager).addEventSubscriber(sinkCaptor.capture());
+        sinkCaptor.getValue().send("position", null, "{\"position\":\"LOCKED\"}");
+        runPendingTasks();
+
+        //assert
+        assertEquals(List.of("{\"re\":\"1\",\"ok\":true}", "{\"t\":\"keylock\",\"e\":\"position\",\"d\":{\"position\":\"LOCKED\"}}"), sentFrames());
+    }
+
+    @Test
+    public void subscribe_WhenDeviceNotConfigured_RepliesDeviceOffline() throws Exception {
+        //arrange
+        when(mockScaleManagerProvider.getIfAvailable()).thenReturn(null);
+
+        //act
+        receive("{\"op\":\"sub\",\"topic\":\"weight\",\"id\":\"1\"}");
+
+        //assert
+        assertEquals(List.of("{\"re\":\"1\",\"ok\":false,\"err\":{\"code\":\"DEVICE_OFFLINE\",\"description\":\"" + DeviceError.DEVICE_OFFLINE.getDescription() + "\"}}"), sentFrames());
+    }
+
+    @Test
+    public void subscribe_WhenUnknownTopic_RepliesBadInput() throws Exception {
+        //act
+        receive("{\"op\":\"sub\",\"topic\":\"lights\",\"id\":\"1\"}");
+
+        //assert
+        assertTrue(sentFrames().get(0).contains("\"code\":\"BAD_INPUT\""));
+    }
+
+    @Test
+    public void handleTextMessage_WhenNotJson_RepliesBadInput() throws Exception {
+        //act
+        receive("print");
+
+        //assert
+        assertEquals(1, sentFrames().size());
+        assertTrue(sentFrames().get(0).startsWith("{\"ok\":false,\"err\":{\"code\":\"BAD_INPUT\""));
+    }
+
+    @Test
+    public void subscribe_WhenClientFallsBehind_KeepsLatestWeightAndCountsLost() throws Exception {
+        //arrange
+        ScaleManager mockScaleManager = mock(ScaleManager.class);
+        when(mockScaleManagerProvider.getIfAvailable()).thenReturn(mockScaleManager);
+        ArgumentCaptor<DeviceEventSink> sinkCaptor = ArgumentCaptor.forClass(DeviceEventSink.class);
+        receive("{\"op\":\"sub\",\"topic\":\"weight\"}");
+        verify(mockScaleManager).subscribeToLiveWeight(sinkCaptor.capture());
+
+        //act
+        sinkCaptor.getValue().send(null, null, "{\"weight\":1}");
+        sinkCaptor.getValue().send(null, null, "{\"weight\":2}");
+        sinkCaptor.getValue().send(null, null, "{\"weight\":3}");
+        runPendingTasks();
+
+        //assert
+        assertEquals(List.of("{\"t\":\"weight\",\"d\":{\"weight\":3},\"lost\":2}"), sentFrames());
+    }
+
+    @Test
+    public void command_Print_PrintsThroughControllerAndPublishesPrintJob() throws Exception {
+        //arrange
+        receive("{\"op\":\"sub\",\"topic\":\"print-job\"}");
+
+        //act
+        receive("{\"op\":\"cmd\",\"id\":\"7\",\"cmd\":\"print\",\"body\":[{\"type\":\"TEXT\",\"data\":\"Hello\"}]}");
+        runPendingTasks();
+
+        //assert
+        verify(mockPrinterController).print(anyList());
+        List<String> frames = sentFrames();
+        assertTrue(frames.contains("{\"re\":\"7\",\"ok\":true}"));
+        assertTrue(frames.contains("{\"t\":\"print-job\",\"e\":\"printed\",\"id\":\"7\"}"));
+    }
+
+    @Test
+    public void command_WhenPrinterFails_RepliesWithPrinterError() throws Exception {
+        //arrange
+        doThrow(new PrinterException(PrinterError.OUT_OF_PAPER)).when(mockPrinterController).print(anyList());
+
+        //act
+        receive("{\"op\":\"cmd\",\"id\":\"7\",\"cmd\":\"print\",\"body\":[{\"type\":\"TEXT\",\"data\":\"Hello\"}]}");
+        runPendingTasks();
+
+        //assert
+        assertEquals(1, sentFrames().size());
+        assertTrue(sentFrames().get(0).startsWith("{\"re\":\"7\",\"ok\":false,\"err\":{\"code\":\"OUT_OF_PAPER\""));
+    }
+
+    @Test
+    public void command_OpenDrawer_OpensRequestedDrawer() throws Exception {
+        //act
+        receive("{\"op\":\"cmd\",\"id\":\"8\",\"cmd\":\"openDrawer\",\"body\":{\"drawerId\":2}}");
+        runPendingTasks();
+
+        //assert
+        verify(mockCashDrawerController).openCashDrawer(2);
+        assertEquals(List.of("{\"re\":\"8\",\"ok\":true}"), sentFrames());
+    }
+
+    @Test
+    public void command_WhenUnknown_RepliesBadInput() throws Exception {
+        //act
+        receive("{\"op\":\"cmd\",\"id\":\"9\",\"cmd\":\"dance\"}");
+        runPendingTasks();
+
+        //assert
+        assertTrue(sentFrames().get(0).startsWith("{\"re\":\"9\",\"ok\":false,\"err\":{\"code\":\"BAD_INPUT\""));
+    }
+
+    @Test
+    public void afterConnectionClosed_RemovesManagerSubscribers() throws Exception {
+        //arrange
+        ArgumentCaptor<DeviceEventSink> sinkCaptor = ArgumentCaptor.forClass(DeviceEventSink.class);
+        receive("{\"op\":\"sub\",\"topic\":\"keylock\"}");
+        verify(mockKeylockManager).addEventSubscriber(sinkCaptor.capture());
+        List<String> removed = new ArrayList<>();
+        sinkCaptor.getValue().onCompletion(() -> removed.add("keylock"));
+
+        //act
+        deviceChannelHandler.afterConnectionClosed(mockSession, CloseStatus.NORMAL);
+
+        //assert
+        assertEquals(List.of("keylock"), removed);
+        assertEquals(0, deviceChannelHandler.getSessionCount());
+        try {
+            sinkCaptor.getValue().send("position", null, "{\"position\":\"LOCKED\"}");
+        } catch (IOException ioException) {
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void subscribe_Keylock_KeepsMultiLineDataIntact() throws Exception {
+        //arrange
+        ArgumentCaptor<DeviceEventSink> sinkCaptor = ArgumentCaptor.forClass(DeviceEventSink.class);
+        receive("{\"op\":\"sub\",\"topic\":\"keylock\"}");
+        verify(mockKeylockManager).addEventSubscriber(sinkCaptor.capture());
+
+        //act
+        sinkCaptor.getValue().send("position", "3", "{\n\"position\":\n\"LOCKED\"\n}");
+        runPendingTasks();
+
+        //assert
+        assertEquals(List.of("{\"t\":\"keylock\",\"e\":\"position\",\"id\":\"3\",\"d\":{\"position\":\"LOCKED\"}}"), sentFrames());
+    }
+
+    @Test
+    public void subscribe_WhenManagerCompletesSink_UnsubscribesAndEndsTopic() throws Exception {
+        //arrange
+        ArgumentCaptor<DeviceEventSink> sinkCaptor = ArgumentCaptor.forClass(DeviceEventSink.class);
+        receive("{\"op\":\"sub\",\"topic\":\"keylock\"}");
+        verify(mockKeylockManager).addEventSubscriber(sinkCaptor.capture());
+        List<String> removed = new ArrayList<>();
+        sinkCaptor.getValue().onCompletion(() -> removed.add("keylock"));
+
+        //act
+        sinkCaptor.getValue().complete();
+        runPendingTasks();
+        receive("{\"op\":\"sub\",\"topic\":\"keylock\"}");
+
+        //assert
+        assertEquals(List.of("keylock"), removed);
+        assertEquals(List.of("{\"t\":\"keylock\",\"e\":\"end\"}"), sentFrames());
+        verify(mockKeylockManager, times(2)).addEventSubscriber(any(DeviceEventSink.class));
+    }
+
+    @Test
+    public void command_WhenExecutorIsFull_RepliesDeviceBusy() throws Exception {
+        //arrange
+        deviceChannelHandler = newHandler(task -> {
+            throw new RejectedExecutionException("full");
+        });
+        deviceChannelHandler.afterConnectionEstablished(mockSession);
+
+        //act
+        receive("{\"op\":\"cmd\",\"id\":\"7\",\"cmd\":\"openDrawer\"}");
+
+        //assert
+        verify(mockCashDrawerController, never()).openCashDrawer(anyInt());
+        assertEquals(1, sentFrames().size());
+        assertTrue(sentFrames().get(0).startsWith("{\"re\":\"7\",\"ok\":false,\"err\":{\"code\":\"DEVICE_BUSY\""));
+    }
+
+    @Test
+    public void subscribe_Scan_WhenScanExecutorIsFull_RepliesDeviceBusy() throws Exception {
+        //arrange
+        when(mockScannerControllerProvider.getIfAvailable()).thenReturn(mock(ScannerController.class));
+        deviceChannelHandler = newHandler(pendingTasks::add, task -> {
+            throw new RejectedExecutionException("full");
+        });
+        deviceChannelHandler.afterConnectionEstablished(mockSession);
+
+        //act
+        receive("{\"op\":\"sub\",\"topic\":\"scan\",\"id\":\"1\"}");
+
+        //assert
+        assertEquals(1, sentFrames().size());
+        assertTrue(sentFrames().get(0).startsWith("{\"re\":\"1\",\"ok\":false,\"err\":{\"code\":\"DEVICE_BUSY\""));
+    }
+
+    @Test
+    public void subscribe_Scan_FansOneReaderOutToEverySession() throws Exception {
+        //arrange
+        ScannerController mockScannerController = mock(ScannerController.class);
+        when(mockScannerControllerProvider.getIfAvailable()).thenReturn(mockScannerController);
+        List<Runnable> scanTasks = new ArrayList<>();
+        deviceChannelHandler = newHandler(pendingTasks::add, scanTasks::add);
+        WebSocketSession mockOtherSession = mock(WebSocketSession.class);
+        when(mockOtherSession.getId()).thenReturn("session-2");
+        when(mockOtherSession.isOpen()).thenReturn(true);
+        deviceChannelHandler.afterConnectionEstablished(mockSession);
+        deviceChannelHandler.afterConnectionEstablished(mockOtherSession);
+        receive("{\"op\":\"sub\",\"topic\":\"scan\"}");
+        deviceChannelHandler.handleMessage(mockOtherSession, new TextMessage("{\"op\":\"sub\",\"topic\":\"scan\"}"));
+        when(mockScannerController.getScannerData(null))
+                .thenReturn(new Barcode("12345", BarcodeType.UPCA, ScannerType.HANDHELD))
+                .thenAnswer(invocation -> {
+                    runPendingTasks();
+                    deviceChannelHandler.afterConnectionClosed(mockSession, CloseStatus.NORMAL);
+                    deviceChannelHandler.afterConnectionClosed(mockOtherSession, CloseStatus.NORMAL);
+                    return null;
+                });
+
+        //act
+        scanTasks.remove(0).run();
+
+        //assert
+        assertTrue(scanTasks.isEmpty());
+        verify(mockScannerController, times(2)).getScannerData(null);
+        assertEquals(1, sentFrames().size());
+        assertTrue(sentFrames().get(0).contains("\"data\":\"12345\""));
+        verify(mockOtherSession).sendMessage(any(TextMessage.class));
+        verify(mockScannerController).cancelScanRequestFrom(Thread.currentThread());
+        verify(mockScannerController, never()).cancelScanRequest();
+    }
+
+    @Test
+    public void unsubscribe_Scan_WhenOtherSessionStillSubscribed_DoesNotCancel() throws Exception {
+        //arrange
+        ScannerController mockScannerController = mock(ScannerController.class);
+        when(mockScannerControllerProvider.getIfAvailable()).thenReturn(mockScannerController);
+        List<Runnable> scanTasks = new ArrayList<>();
+        deviceChannelHandler = newHandler(pendingTasks::add, scanTasks::add);
+        WebSocketSession mockOtherSession = mock(WebSocketSession.class);
+        when(mockOtherSession.getId()).thenReturn("session-2");
+        deviceChannelHandler.afterConnectionEstablished(mockSession);
+        deviceChannelHandler.afterConnectionEstablished(mockOtherSession);
+        receive("{\"op\":\"sub\",\"topic\":\"scan\"}");
+        deviceChannelHandler.handleMessage(mockOtherSession, new TextMessage("{\"op\":\"sub\",\"topic\":\"scan\"}"));
+
+        //act
+        receive("{\"op\":\"unsub\",\"topic\":\"scan\"}");
+
+        //assert
+        assertEquals(1, scanTasks.size());
+        verify(mockScannerController, never()).cancelScanRequestFrom(any());
+        verify(mockScannerController, never()).cancelScanRequest();
+    }
+
+    private DeviceChannelHandler newHandler(Executor executor) {
+        return newHandler(executor, executor);
+    }
+
+    private DeviceChannelHandler newHandler(Executor executor, Executor scanExecutor) {
+        return new DeviceChannelHandler(new ObjectMapper(), mockDeviceAvailabilityService, mockScaleManagerProvider,
+                mockKeylockManagerProvider, mockPosKeyboardManagerProvider, mockScannerControllerProvider,
+                mockPrinterControllerProvider, mockLineDisplayControllerProvider, mockCashDrawerControllerProvider,
+                executor, scanExecutor);
+    }
+
+    private void receive(String payload) throws Exception {
+        deviceChannelHandler.handleMessage(mockSession, new TextMessage(payload));
+    }
+
+    private void runPendingTasks() {
+        while (!pendingTasks.isEmpty()) {
+            pendingTasks.remove(0).run();
+        }
+    }
+
+    private List<String> sentFrames() throws IOException {
+        ArgumentCaptor<TextMessage> messageCaptor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(mockSession, atLeast(0)).sendMessage(messageCaptor.capture());
+        List<String> frames = new ArrayList<>();
+        for (TextMessage message : messageCaptor.getAllValues()) {
+            frames.add(message.getPayload());
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,301 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.CircuitStatus;
+import jpos.JposConst;
+import jpos.JposException;
+import jpos.POSPrinter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeviceCircuitBreakerTest {
+
+    private static final long OPEN_MSEC = 100;
+    private DeviceCircuitBreaker deviceCircuitBreaker;
+    private final List<DeviceCircuitBreaker.State> stateChanges = new CopyOnWriteArrayList<>();
+
+    @Mock
+    private POSPrinter mockPrinter;
+
+    @BeforeEach
+    public void testInitialize() {
+        deviceCircuitBreaker = new DeviceCircuitBreaker("printer", new DeviceCallGuard("printer"), 3, OPEN_MSEC);
+        deviceCircuitBreaker.addStateListener(stateChanges::add);
+    }
+
+    @Test
+    public void ctor_WhenDeviceNameIsNull_ThrowsException() {
+        try {
+            new DeviceCircuitBreaker(null, new DeviceCallGuard("printer"));
+        } catch (IllegalArgumentException iae) {
+            assertEquals("deviceName cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenCallGuardIsNull_ThrowsException() {
+        try {
+            new DeviceCircuitBreaker("printer", null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("callGuard cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void of_ReturnsSameBreakerForSameControl() {
+        //act
+        DeviceCircuitBreaker actual = DeviceCircuitBreaker.of(mockPrinter);
+
+        //assert
+        assertSame(actual, DeviceCircuitBreaker.of(mockPrinter));
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, actual.getState());
+    }
+
+    @Test
+    public void recordFailure_BelowThreshold_StaysClosed() {
+        //act
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_OFFLINE);
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_OFFLINE);
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, deviceCircuitBreaker.getState());
+        assertTrue(deviceCircuitBreaker.tryAcquire());
+        assertTrue(stateChanges.isEmpty());
+    }
+
+    @Test
+    public void recordFailure_AtThreshold_Opens() {
+        //act
+        openCircuit();
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.OPEN, deviceCircuitBreaker.getState());
+        assertFalse(deviceCircuitBreaker.tryAcquire());
+        assertEquals(List.of(DeviceCircuitBreaker.State.OPEN), stateChanges);
+    }
+
+    @Test
+    public void recordFailure_WhenNotDeviceFailure_ResetsCount() {
+        //arrange
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_FAILURE);
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_FAILURE);
+
+        //act
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_ILLEGAL);
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_FAILURE);
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, deviceCircuitBreaker.getState());
+        assertEquals(1, deviceCircuitBreaker.getStatus().failureCount);
+    }
+
+    @Test
+    public void recordSuccess_ResetsCount() {
+        //arrange
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_OFFLINE);
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_OFFLINE);
+
+        //act
+        deviceCircuitBreaker.recordSuccess();
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_OFFLINE);
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, deviceCircuitBreaker.getState());
+    }
+
+    @Test
+    public void tryAcquire_AfterOpenTime_LetsOneProbeThrough() throws InterruptedException {
+        //arrange
+        openCircuit();
+        Thread.sleep(OPEN_MSEC + 50);
+
+        //act
+        boolean first = deviceCircuitBreaker.tryAcquire();
+        boolean second = deviceCircuitBreaker.tryAcquire();
+
+        //assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(DeviceCircuitBreaker.State.HALF_OPEN, deviceCircuitBreaker.getState());
+    }
+
+    @Test
+    public void allowProbe_WhenOpen_LetsOneProbeThroughRightAway() {
+        //arrange
+        openCircuit();
+
+        //act
+        deviceCircuitBreaker.allowProbe();
+
+        //assert
+        assertTrue(deviceCircuitBreaker.tryAcquire());
+        assertFalse(deviceCircuitBreaker.tryAcquire());
+        assertEquals(DeviceCircuitBreaker.State.HALF_OPEN, deviceCircuitBreaker.getState());
+    }
+
+    @Test
+    public void cancelProbe_WhenProbing_LetsNextCallProbe() throws InterruptedException {
+        //arrange
+        openCircuit();
+        Thread.sleep(OPEN_MSEC + 50);
+        deviceCircuitBreaker.tryAcquire();
+
+        //act
+        deviceCircuitBreaker.cancelProbe();
+
+        //assert
+        assertTrue(deviceCircuitBreaker.tryAcquire());
+        assertEquals(DeviceCircuitBreaker.State.HALF_OPEN, deviceCircuitBreaker.getState());
+    }
+
+    @Test
+    public void recordSuccess_WhenProbing_Closes() throws InterruptedException {
+        //arrange
+        openCircuit();
+        Thread.sleep(OPEN_MSEC + 50);
+        deviceCircuitBreaker.tryAcquire();
+
+        //act
+        deviceCircuitBreaker.recordSuccess();
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, deviceCircuitBreaker.getState());
+        assertTrue(deviceCircuitBreaker.tryAcquire());
+        assertEquals(List.of(DeviceCircuitBreaker.State.OPEN, DeviceCircuitBreaker.State.HALF_OPEN, DeviceCircuitBreaker.State.CLOSED), stateChanges);
+    }
+
+    @Test
+    public void recordFailure_WhenProbing_OpensAgain() throws InterruptedException {
+        //arrange
+        openCircuit();
+        Thread.sleep(OPEN_MSEC + 50);
+        deviceCircuitBreaker.tryAcquire();
+
+        //act
+        deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_NOHARDWARE);
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.OPEN, deviceCircuitBreaker.getState());
+        assertFalse(deviceCircuitBreaker.tryAcquire());
+        assertEquals(2, deviceCircuitBreaker.getStatus().openCount);
+    }
+
+    @Test
+    public void call_WhenOpen_FailsWithoutCallingDriver() {
+        //arrange
+        openCircuit();
+        AtomicInteger driverCalls = new AtomicInteger();
+
+        //act
+        try {
+            deviceCircuitBreaker.run("printNormal", 1000, driverCalls::incrementAndGet);
+        } catch (JposException jposException) {
+            //assert
+            assertEquals(JposConst.JPOS_E_OFFLINE, jposException.getErrorCode());
+            assertEquals(0, driverCalls.get());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void call_WhenDriverKeepsFailing_Opens() {
+        //act
+        for (int i = 0; i < 3; i++) {
+            assertThrows(JposException.class, () -> deviceCircuitBreaker.run("printNormal", 1000, () -> {
+                throw new JposException(JposConst.JPOS_E_FAILURE);
+            }));
+        }
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.OPEN, deviceCircuitBreaker.getState());
+    }
+
+    @Test
+    public void call_WhenDriverTimesOutNormally_StaysClosed() {
+        //act
+        for (int i = 0; i < 3; i++) {
+            assertThrows(JposException.class, () -> deviceCircuitBreaker.run("readWeight", 1000, () -> {
+                throw new JposException(JposConst.JPOS_E_TIMEOUT);
+            }));
+        }
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, deviceCircuitBreaker.getState());
+    }
+
+    @Test
+    public void call_WhenProbeHangsInDriver_OpensAgain() throws InterruptedException {
+        //arrange
+        openCircuit();
+        deviceCircuitBreaker.allowProbe();
+        CountDownLatch release = new CountDownLatch(1);
+
+        //act
+        try {
+            JposException actual = assertThrows(JposException.class, () -> deviceCircuitBreaker.run("printNormal", 50, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+            //assert
+            assertEquals(JposConst.JPOS_E_TIMEOUT, actual.getErrorCode());
+            assertEquals(DeviceCircuitBreaker.State.OPEN, deviceCircuitBreaker.getState());
+            assertEquals(List.of(DeviceCircuitBreaker.State.OPEN, DeviceCircuitBreaker.State.HALF_OPEN, DeviceCircuitBreaker.State.OPEN), stateChanges);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void recordFailure_WhenGuardMissedDeadline_CountsAsDeviceFailure() {
+        //act
+        for (int i = 0; i < 3; i++) {
+            deviceCircuitBreaker.recordFailure(new DeviceCallGuard.DeadlineMissedException("printNormal did not return"));
+        }
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.OPEN, deviceCircuitBreaker.getState());
+    }
+
+    @Test
+    public void getCircuitStatuses_ContainsBreakerOfControl() {
+        //arrange
+        DeviceCircuitBreaker.of(mockPrinter).recordFailure(JposConst.JPOS_E_OFFLINE);
+
+        //act
+        List<CircuitStatus> actual = DeviceCircuitBreaker.getCircuitStatuses();
+
+        //assert
+        assertTrue(actual.stream().anyMatch(status -> status.failureCount == 1 && "CLOSED".equals(status.state)));
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            deviceCircuitBreaker.recordFailure(JposConst.JPOS_E_OFFLINE);
+        }
+    }
+}
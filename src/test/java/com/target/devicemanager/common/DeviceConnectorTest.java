@@ -0,0 +1,277 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.ConnectPhaseTimes;
+import jpos.JposConst;
+import jpos.JposException;
+import jpos.POSPrinter;
+import jpos.config.JposEntryRegistry;
+import jpos.config.simple.SimpleEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeviceConnectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LastGoodDeviceStore lastGoodDeviceStore;
+    private final AtomicInteger probesCreated = new AtomicInteger();
+
+    @Mock
+    private POSPrinter mockPrinter;
+    @Mock
+    private POSPrinter mockProbePrinter;
+    @Mock
+    private JposEntryRegistry mockDeviceRegistry;
+
+    @BeforeEach
+    public void testInitialize() {
+        probesCreated.set(0);
+        lastGoodDeviceStore = new LastGoodDeviceStore(tempDir.resolve("lastGoodDevices.properties"));
+    }
+
+    @Test
+    public void ctor_WhenLastGoodDeviceStoreIsNull_ThrowsException() {
+        try {
+            new DeviceConnector<>(mockPrinter, mockDeviceRegistry, null, null, true, false, false, null, () -> mockProbePrinter);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("lastGoodDeviceStore cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenProbeDeviceFactoryIsNull_ThrowsException() {
+        try {
+            new DeviceConnector<>(mockPrinter, mockDeviceRegistry, null, null, true, false, false, lastGoodDeviceStore, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("probeDeviceFactory cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void discoverConnectedDevice_WithLastGoodName_TriesItFirst() throws JposException {
+        //arrange
+        registryWith("printerA", "printerB");
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+        lastGoodDeviceStore.put(lastGoodKey(), "printerB");
+
+        //act
+        boolean actual = deviceConnector.discoverConnectedDevice();
+
+        //assert
+        assertTrue(actual);
+        assertEquals("printerB", deviceConnector.getConnectedDeviceName());
+        verify(mockPrinter, never()).open("printerA");
+        assertEquals(0, probesCreated.get());
+    }
+
+    @Test
+    public void discoverConnectedDevice_WithSeveralCandidates_ConnectsToTheOneThatResponds() throws JposException {
+        //arrange
+        registryWith("printerA", "printerB", "printerC");
+        doThrow(new JposException(JposConst.JPOS_E_NOHARDWARE)).when(mockProbePrinter).open("printerA");
+        doThrow(new JposException(JposConst.JPOS_E_NOHARDWARE)).when(mockProbePrinter).open("printerC");
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+
+        //act
+        boolean actual = deviceConnector.discoverConnectedDevice();
+
+        //assert
+        assertTrue(actual);
+        assertEquals("printerB", deviceConnector.getConnectedDeviceName());
+        assertEquals(3, probesCreated.get());
+        verify(mockProbePrinter).claim(DeviceConnector.PROBE_CLAIM_TIMEOUT_IN_MSEC);
+        verify(mockPrinter).open("printerB");
+        verify(mockPrinter, never()).open("printerA");
+        assertEquals("printerB", lastGoodDeviceStore.get(lastGoodKey()));
+    }
+
+    @Test
+    public void discoverConnectedDevice_MakesProbeCallsOnProbeGuardThreads() throws JposException {
+        //arrange
+        registryWith("printerA", "printerB");
+        List<String> probeThreads = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            probeThreads.add(Thread.currentThread().getName());
+            return null;
+        }).when(mockProbePrinter).open(anyString());
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+
+        //act
+        deviceConnector.discoverConnectedDevice();
+
+        //assert
+        assertEquals(2, probeThreads.size());
+        for (String probeThread : probeThreads) {
+            assertTrue(probeThread.startsWith("jpos-call-" + lastGoodKey() + "-probe-printer"), probeThread);
+        }
+    }
+
+    @Test
+    public void discoverConnectedDevice_WhenLastGoodNameFails_ProbesTheRest() throws JposException {
+        //arrange
+        registryWith("printerA", "printerB", "printerC");
+        lastGoodDeviceStore.put(lastGoodKey(), "printerA");
+        doThrow(new JposException(JposConst.JPOS_E_NOHARDWARE)).when(mockPrinter).open("printerA");
+        doThrow(new JposException(JposConst.JPOS_E_NOHARDWARE)).when(mockProbePrinter).open("printerB");
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+
+        //act
+        boolean actual = deviceConnector.discoverConnectedDevice();
+
+        //assert
+        assertTrue(actual);
+        assertEquals("printerC", deviceConnector.getConnectedDeviceName());
+        verify(mockProbePrinter, never()).open("printerA");
+        assertEquals("printerC", lastGoodDeviceStore.get(lastGoodKey()));
+    }
+
+    @Test
+    public void discoverConnectedDevice_WhenNoCandidateResponds_ReturnsFalse() throws JposException {
+        //arrange
+        registryWith("printerA", "printerB");
+        doThrow(new JposException(JposConst.JPOS_E_TIMEOUT)).when(mockProbePrinter).claim(anyInt());
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+
+        //act
+        boolean actual = deviceConnector.discoverConnectedDevice();
+
+        //assert
+        assertFalse(actual);
+        verify(mockPrinter, never()).open(anyString());
+        verify(mockProbePrinter, times(2)).close();
+        assertNull(lastGoodDeviceStore.get(lastGoodKey()));
+    }
+
+    @Test
+    public void discoverConnectedDevice_WithSingleCandidate_ConnectsWithoutProbing() throws JposException {
+        //arrange
+        registryWith("printerA");
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+
+        //act
+        boolean actual = deviceConnector.discoverConnectedDevice();
+
+        //assert
+        assertTrue(actual);
+        assertEquals(0, probesCreated.get());
+        verify(mockPrinter).open("printerA");
+    }
+
+    @Test
+    public void discoverConnectedDevice_WhenProbeCannotBeCreated_ConnectsOneByOne() throws JposException {
+        //arrange
+        registryWith("printerA", "printerB");
+        doThrow(new JposException(JposConst.JPOS_E_NOHARDWARE)).when(mockPrinter).open("printerA");
+        DeviceConnector<POSPrinter> deviceConnector = new DeviceConnector<>(mockPrinter, mockDeviceRegistry, null, null, true, false, false,
+                lastGoodDeviceStore, () -> {
+                    throw new IllegalStateException("no probe");
+                });
+
+        //act
+        boolean actual = deviceConnector.discoverConnectedDevice();
+
+        //assert
+        assertTrue(actual);
+        assertEquals("printerB", deviceConnector.getConnectedDeviceName());
+    }
+
+    @Test
+    public void discoverConnectedDevice_IndexesRegistryOnce() {
+        //arrange
+        registryWith("printerA");
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+
+        //act
+        deviceConnector.discoverConnectedDevice();
+        deviceConnector.discoverConnectedDevice();
+
+        //assert
+        verify(mockDeviceRegistry, times(1)).getEntries();
+    }
+
+    @Test
+    public void discoverConnectedDevice_WhenClaimFails_RecordsFailedPhase() throws JposException {
+        //arrange
+        registryWith("printerA");
+        doThrow(new JposException(JposConst.JPOS_E_TIMEOUT)).when(mockPrinter).claim(anyInt());
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+
+        //act
+        deviceConnector.discoverConnectedDevice();
+
+        //assert
+        ConnectPhaseTimes actual = ConnectTimings.getConnectTimings().getAll().get(lastGoodKey());
+        assertEquals("printerA", actual.logicalName);
+        assertFalse(actual.isConnected);
+        assertEquals("claim", actual.failedPhase);
+    }
+
+    @Test
+    public void discoverConnectedDevice_WhenRegistryEmpty_DoesNotWaitForLoad() {
+        //arrange
+        when(mockDeviceRegistry.getSize()).thenReturn(0);
+        when(mockDeviceRegistry.getEntries()).thenAnswer(invocation -> Collections.emptyEnumeration());
+        DeviceConnector<POSPrinter> deviceConnector = newDeviceConnector();
+
+        //act
+        boolean actual = assertTimeoutPreemptively(Duration.ofMillis(500), () -> deviceConnector.discoverConnectedDevice());
+
+        //assert
+        assertFalse(actual);
+        verify(mockDeviceRegistry, times(1)).load();
+    }
+
+    private DeviceConnector<POSPrinter> newDeviceConnector() {
+        return new DeviceConnector<>(mockPrinter, mockDeviceRegistry, null, null, true, false, false, lastGoodDeviceStore, () -> {
+            probesCreated.incrementAndGet();
+            return mockProbePrinter;
+        });
+    }
+
+    private String lastGoodKey() {
+        return mockPrinter.getClass().getSimpleName();
+    }
+
+    private void registryWith(String... logicalNames) {
+        List<SimpleEntry> entries = new ArrayList<>();
+        for (String logicalName : logicalNames) {
+            SimpleEntry entry = mock(SimpleEntry.class);
+            when(entry.getPropertyValue("deviceCategory")).thenReturn(mockPrinter.getClass().getSimpleName());
+            when(entry.getPropertyValue("logicalName")).thenReturn(logicalName);
+            entries.add(entry);
+        }
+        SimpleEntry otherEntry = mock(SimpleEntry.class);
+        when(otherEntry.getPropertyValue("deviceCategory")).thenReturn("Scanner");
+        when(otherEntry.getPropertyValue("logicalName")).thenReturn("scanner");
+        entries.add(otherEntry);
+        when(mockDeviceRegistry.getSize()).thenReturn(entries.size());
+        when(mockDeviceRegistry.getEntries()).thenAnswer(invocation -> Collections.enumeration(entries));
+    }
+}
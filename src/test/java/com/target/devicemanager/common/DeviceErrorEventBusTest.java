@@ -0,0 +1,217 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceErrorStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeviceErrorEventBusTest {
+
+    private DeviceErrorEventBus deviceErrorEventBus;
+    private final List<Runnable> pendingDeliveries = new ArrayList<>();
+
+    @Mock
+    private SseEmitter mockEmitter;
+
+    @BeforeEach
+    public void testInitialize() {
+        pendingDeliveries.clear();
+        deviceErrorEventBus = new DeviceErrorEventBus(List.of("printer", "scale"), Runnable::run);
+    }
+
+    @Test
+    public void ctor_WhenDeviceNamesIsNull_ThrowsException() {
+        try {
+            new DeviceErrorEventBus(null, Runnable::run);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("deviceNames cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenDeliveryExecutorIsNull_ThrowsException() {
+        try {
+            new DeviceErrorEventBus(List.of(), null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("deliveryExecutor cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void setError_UpdatesSnapshotWithoutChangingPreviousOne() {
+        //arrange
+        DeviceErrorEventBus.Snapshot before = deviceErrorEventBus.getSnapshot();
+
+        //act
+        deviceErrorEventBus.setError("printer", DeviceError.DEVICE_OFFLINE);
+
+        //assert
+        DeviceErrorEventBus.Snapshot actual = deviceErrorEventBus.getSnapshot();
+        assertEquals(1, actual.getVersion());
+        assertTrue(actual.getStatuses().get(0).faultPresent);
+        assertEquals(DeviceError.DEVICE_OFFLINE, actual.getStatuses().get(0).deviceError);
+        assertFalse(before.getStatuses().get(0).faultPresent);
+        assertSame(before.getStatuses().get(1), actual.getStatuses().get(1));
+    }
+
+    @Test
+    public void setError_WhenNothingChanges_KeepsVersion() {
+        //arrange
+        deviceErrorEventBus.setError("printer", DeviceError.DEVICE_OFFLINE);
+
+        //act
+        deviceErrorEventBus.setError("printer", DeviceError.DEVICE_OFFLINE);
+        deviceErrorEventBus.setError("unknown", DeviceError.DEVICE_OFFLINE);
+
+        //assert
+        assertEquals(1, deviceErrorEventBus.getSnapshot().getVersion());
+    }
+
+    @Test
+    public void clearError_ClearsOnlyThatDevice() {
+        //arrange
+        deviceErrorEventBus.setError("printer", DeviceError.CIRCUIT_OPEN);
+        deviceErrorEventBus.setError("scale", DeviceError.DEVICE_OFFLINE);
+
+        //act
+        deviceErrorEventBus.clearError("printer");
+
+        //assert
+        DeviceErrorEventBus.Snapshot actual = deviceErrorEventBus.getSnapshot();
+        assertEquals(3, actual.getVersion());
+        assertFalse(actual.getStatuses().get(0).faultPresent);
+        assertTrue(actual.getStatuses().get(1).faultPresent);
+    }
+
+    @Test
+    public void subscribe_SendsSnapshotThenOnlyChanges() throws IOException {
+        //arrange
+        deviceErrorEventBus.subscribe(mockEmitter, null);
+
+        //act
+        deviceErrorEventBus.setError("scale", DeviceError.DEVICE_BUSY);
+
+        //assert
+        List<List<DeviceErrorStatus>> sent = sentStatuses(2);
+        assertEquals(2, sent.get(0).size());
+        assertEquals(1, sent.get(1).size());
+        assertEquals("scale", sent.get(1).get(0).deviceName);
+        assertEquals(DeviceError.DEVICE_BUSY, sent.get(1).get(0).deviceError);
+    }
+
+    @Test
+    public void subscribe_WithCurrentVersion_SendsNothing() throws IOException {
+        //arrange
+        deviceErrorEventBus.setError("printer", DeviceError.DEVICE_OFFLINE);
+
+        //act
+        deviceErrorEventBus.subscribe(mockEmitter, 1L);
+
+        //assert
+        verify(mockEmitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void subscribe_WithOlderVersion_SendsMissedDeltas() throws IOException {
+        //arrange
+        deviceErrorEventBus.setError("printer", DeviceError.DEVICE_OFFLINE);
+        deviceErrorEventBus.setError("scale", DeviceError.DEVICE_BUSY);
+        deviceErrorEventBus.clearErrors();
+
+        //act
+        deviceErrorEventBus.subscribe(mockEmitter, 1L);
+
+        //assert
+        List<List<DeviceErrorStatus>> sent = sentStatuses(2);
+        assertEquals("scale", sent.get(0).get(0).deviceName);
+        assertEquals(2, sent.get(1).size());
+        assertFalse(sent.get(1).get(0).faultPresent);
+    }
+
+    @Test
+    public void subscribe_WithVersionFromBeforeRestart_SendsSnapshot() throws IOException {
+        //arrange
+        deviceErrorEventBus.setError("printer", DeviceError.DEVICE_OFFLINE);
+
+        //act
+        deviceErrorEventBus.subscribe(mockEmitter, 42L);
+
+        //assert
+        List<List<DeviceErrorStatus>> sent = sentStatuses(1);
+        assertEquals(2, sent.get(0).size());
+        assertTrue(sent.get(0).get(0).faultPresent);
+    }
+
+    @Test
+    public void subscribe_WhenClientFallsBehind_ReplacesQueueWithSnapshot() throws IOException {
+        //arrange
+        deviceErrorEventBus = new DeviceErrorEventBus(List.of("printer", "scale"), pendingDeliveries::add);
+        deviceErrorEventBus.subscribe(mockEmitter, null);
+
+        //act
+        for (int i = 0; i < DeviceErrorEventBus.SUBSCRIBER_QUEUE_SIZE; i++) {
+            if (i % 2 == 0) {
+                deviceErrorEventBus.setError("printer", DeviceError.DEVICE_OFFLINE);
+            } else {
+                deviceErrorEventBus.clearErrors();
+            }
+        }
+        pendingDeliveries.forEach(Runnable::run);
+
+        //assert
+        List<List<DeviceErrorStatus>> sent = sentStatuses(1);
+        assertEquals(deviceErrorEventBus.getSnapshot().getStatuses(), sent.get(0));
+        assertEquals(1, deviceErrorEventBus.getSubscriberCount());
+    }
+
+    @Test
+    public void subscribe_WhenSendFails_RemovesSubscriber() throws IOException {
+        //arrange
+        doThrow(new IOException()).when(mockEmitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        //act
+        deviceErrorEventBus.subscribe(mockEmitter, null);
+
+        //assert
+        assertEquals(0, deviceErrorEventBus.getSubscriberCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<DeviceErrorStatus>> sentStatuses(int expectedEvents) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(mockEmitter, times(expectedEvents)).send(captor.capture());
+        List<List<DeviceErrorStatus>> sent = new ArrayList<>();
+        for (SseEmitter.SseEventBuilder event : captor.getAllValues()) {
+            for (ResponseBodyEmitter.DataWithMediaType data : event.build()) {
+                if (data.getData() instanceof List) {
+                    sent.add((List<DeviceErrorStatus>) data.getData());
+                }
+            }
+        }
+        return sent;
+    }
+}
@@ -0,0 +1,207 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceHealth;
+import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.common.entities.HealthProbeStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceHealthAggregatorTest {
+
+    private static final long PROBE_TIMEOUT_MSEC = 100;
+
+    private DeviceHealthRegistry deviceHealthRegistry;
+    private ExecutorService probeExecutor;
+    private DeviceHealthAggregator deviceHealthAggregator;
+    private final CountDownLatch releaseHungProbe = new CountDownLatch(1);
+
+    @BeforeEach
+    public void testInitialize() {
+        deviceHealthRegistry = new DeviceHealthRegistry();
+        probeExecutor = Executors.newCachedThreadPool();
+        deviceHealthAggregator = new DeviceHealthAggregator(deviceHealthRegistry, probeExecutor, PROBE_TIMEOUT_MSEC);
+    }
+
+    @AfterEach
+    public void testCleanup() {
+        releaseHungProbe.countDown();
+        probeExecutor.shutdownNow();
+    }
+
+    @Test
+    public void ctor_WhenHealthRegistryIsNull_ThrowsException() {
+        try {
+            new DeviceHealthAggregator(null, probeExecutor, PROBE_TIMEOUT_MSEC);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("healthRegistry cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenProbeExecutorIsNull_ThrowsException() {
+        try {
+            new DeviceHealthAggregator(deviceHealthRegistry, null, PROBE_TIMEOUT_MSEC);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("probeExecutor cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void probe_ReturnsResultsInProbeOrder() {
+        //arrange
+        Map<String, Callable<List<DeviceHealthResponse>>> probes = new LinkedHashMap<>();
+        probes.put("printer", () -> List.of(new DeviceHealthResponse("printer", DeviceHealth.READY)));
+        probes.put("scanner:", () -> List.of(new DeviceHealthResponse("HANDHELD", DeviceHealth.READY),
+                new DeviceHealthResponse("FLATBED", DeviceHealth.NOTREADY)));
+
+        //act
+        List<DeviceHealthResponse> actual = deviceHealthAggregator.probe(probes);
+
+        //assert
+        assertEquals(3, actual.size());
+        assertEquals("printer", actual.get(0).getDeviceName());
+        assertEquals("HANDHELD", actual.get(1).getDeviceName());
+        assertEquals(DeviceHealth.NOTREADY, actual.get(2).getHealthStatus());
+    }
+
+    @Test
+    public void probe_WhenDeviceHangs_ReportsUnknownWithLastKnownHealth() {
+        //arrange
+        deviceHealthRegistry.publish("scale", new DeviceHealthResponse("scale", DeviceHealth.READY));
+        Map<String, Callable<List<DeviceHealthResponse>>> probes = new LinkedHashMap<>();
+        probes.put("printer", () -> List.of(new DeviceHealthResponse("printer", DeviceHealth.READY)));
+        probes.put("scale", hungProbe());
+
+        //act
+        long startTime = System.currentTimeMillis();
+        List<DeviceHealthResponse> actual = deviceHealthAggregator.probe(probes);
+        long elapsedMsec = System.currentTimeMillis() - startTime;
+
+        //assert
+        assertTrue(elapsedMsec < PROBE_TIMEOUT_MSEC * 10);
+        assertEquals(DeviceHealth.READY, actual.get(0).getHealthStatus());
+        assertEquals("scale", actual.get(1).getDeviceName());
+        assertEquals(DeviceHealth.UNKNOWN, actual.get(1).getHealthStatus());
+        assertEquals(DeviceHealth.READY, actual.get(1).getLastKnownHealth());
+        assertEquals(1, deviceHealthAggregator.getProbeStats().get("scale").timeouts);
+    }
+
+    @Test
+    public void probe_WhenPrefixedDeviceHangs_ReportsEveryPublishedEntry() {
+        //arrange
+        deviceHealthRegistry.publish("cashdrawer:1", new DeviceHealthResponse("drawer1", DeviceHealth.READY));
+        deviceHealthRegistry.publish("cashdrawer:2", new DeviceHealthResponse("drawer2", DeviceHealth.NOTREADY));
+        Map<String, Callable<List<DeviceHealthResponse>>> probes = new LinkedHashMap<>();
+        probes.put("cashdrawer:", hungProbe());
+
+        //act
+        List<DeviceHealthResponse> actual = deviceHealthAggregator.probe(probes);
+
+        //assert
+        assertEquals(2, actual.size());
+        assertEquals(DeviceHealth.UNKNOWN, actual.get(0).getHealthStatus());
+        assertEquals(DeviceHealth.READY, actual.get(0).getLastKnownHealth());
+        assertEquals(DeviceHealth.NOTREADY, actual.get(1).getLastKnownHealth());
+    }
+
+    @Test
+    public void probe_WhenNothingPublished_ReportsUnknownWithoutLastKnownHealth() {
+        //arrange
+        Map<String, Callable<List<DeviceHealthResponse>>> probes = new LinkedHashMap<>();
+        probes.put("scanner:", hungProbe());
+
+        //act
+        List<DeviceHealthResponse> actual = deviceHealthAggregator.probe(probes);
+
+        //assert
+        assertEquals("scanner", actual.get(0).getDeviceName());
+        assertEquals(DeviceHealth.UNKNOWN, actual.get(0).getHealthStatus());
+        assertNull(actual.get(0).getLastKnownHealth());
+    }
+
+    @Test
+    public void probe_WhenPreviousProbeStillRunning_DoesNotStartAnother() {
+        //arrange
+        AtomicInteger probeCount = new AtomicInteger();
+        Map<String, Callable<List<DeviceHealthResponse>>> probes = new LinkedHashMap<>();
+        probes.put("printer", () -> {
+            probeCount.incrementAndGet();
+            return hungProbe().call();
+        });
+
+        //act
+        deviceHealthAggregator.probe(probes);
+        deviceHealthAggregator.probe(probes);
+
+        //assert
+        assertEquals(1, probeCount.get());
+        assertTrue(deviceHealthAggregator.getProbeStats().get("printer").isProbing);
+        assertEquals(2, deviceHealthAggregator.getProbeStats().get("printer").timeouts);
+    }
+
+    @Test
+    public void probe_WhenProbeThrows_ReportsUnknownAndCountsFailure() {
+        //arrange
+        deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.NOTREADY));
+        Map<String, Callable<List<DeviceHealthResponse>>> probes = new LinkedHashMap<>();
+        probes.put("printer", () -> {
+            throw new IllegalStateException("driver failure");
+        });
+
+        //act
+        List<DeviceHealthResponse> actual = deviceHealthAggregator.probe(probes);
+
+        //assert
+        assertEquals(DeviceHealth.UNKNOWN, actual.get(0).getHealthStatus());
+        assertEquals(DeviceHealth.NOTREADY, actual.get(0).getLastKnownHealth());
+        HealthProbeStats stats = deviceHealthAggregator.getProbeStats().get("printer");
+        assertEquals(1, stats.probes);
+        assertEquals(1, stats.failures);
+    }
+
+    @Test
+    public void getProbeStats_RecordsLatencyOfCompletedProbes() {
+        //arrange
+        Map<String, Callable<List<DeviceHealthResponse>>> probes = new LinkedHashMap<>();
+        probes.put("printer", () -> {
+            Thread.sleep(20);
+            return List.of(new DeviceHealthResponse("printer", DeviceHealth.READY));
+        });
+
+        //act
+        deviceHealthAggregator.probe(probes);
+
+        //assert
+        HealthProbeStats stats = deviceHealthAggregator.getProbeStats().get("printer");
+        assertEquals(1, stats.probes);
+        assertEquals(0, stats.timeouts);
+        assertTrue(stats.lastLatencyMsec >= 20);
+        assertEquals(stats.lastLatencyMsec, stats.maxLatencyMsec);
+        assertFalse(stats.isProbing);
+    }
+
+    private Callable<List<DeviceHealthResponse>> hungProbe() {
+        return () -> {
+            releaseHungProbe.await();
+            return List.of();
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceHealth;
+import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceHealthRegistryTest {
+
+    private DeviceHealthRegistry deviceHealthRegistry;
+
+    @BeforeEach
+    public void testInitialize() {
+        deviceHealthRegistry = new DeviceHealthRegistry();
+    }
+
+    @Test
+    public void get_WhenNothingPublished_ReturnsNull() {
+        //act
+        DeviceHealthResponse actual = deviceHealthRegistry.get("printer");
+
+        //assert
+        assertNull(actual);
+        assertTrue(deviceHealthRegistry.getAll().isEmpty());
+    }
+
+    @Test
+    public void publish_StoresHealthAndBumpsVersion() {
+        //arrange
+        DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.READY);
+
+        //act
+        boolean actual = deviceHealthRegistry.publish("printer", expected);
+
+        //assert
+        assertTrue(actual);
+        assertEquals(expected.toString(), deviceHealthRegistry.get("printer").toString());
+        assertEquals(1, deviceHealthRegistry.getSnapshot().getVersion());
+    }
+
+    @Test
+    public void publish_WhenHealthUnchanged_KeepsSnapshot() {
+        //arrange
+        deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.READY));
+        DeviceHealthRegistry.Snapshot before = deviceHealthRegistry.getSnapshot();
+
+        //act
+        boolean actual = deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.READY));
+
+        //assert
+        assertFalse(actual);
+        assertSame(before, deviceHealthRegistry.getSnapshot());
+    }
+
+    @Test
+    public void publish_WhenHealthChanges_ReplacesEntryInPlace() {
+        //arrange
+        deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.READY));
+        deviceHealthRegistry.publish("scale", new DeviceHealthResponse("scale", DeviceHealth.READY));
+
+        //act
+        deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.NOTREADY));
+
+        //assert
+        List<DeviceHealthResponse> actual = deviceHealthRegistry.getAll();
+        assertEquals(2, actual.size());
+        assertEquals("printer", actual.get(0).getDeviceName());
+        assertEquals(DeviceHealth.NOTREADY, actual.get(0).getHealthStatus());
+        assertEquals("scale", actual.get(1).getDeviceName());
+    }
+
+    @Test
+    public void getAll_ReturnsSnapshotThatDoesNotChange() {
+        //arrange
+        deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.READY));
+        List<DeviceHealthResponse> before = deviceHealthRegistry.getAll();
+
+        //act
+        deviceHealthRegistry.publish("scale", new DeviceHealthResponse("scale", DeviceHealth.READY));
+
+        //assert
+        assertEquals(1, before.size());
+        assertEquals(2, deviceHealthRegistry.getAll().size());
+        try {
+            before.add(new DeviceHealthResponse("scanner", DeviceHealth.READY));
+        } catch (UnsupportedOperationException unsupportedOperationException) {
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void publish_WhenKeyOrHealthIsNull_IsIgnored() {
+        //act
+        boolean nullKey = deviceHealthRegistry.publish(null, new DeviceHealthResponse("printer", DeviceHealth.READY));
+        boolean nullHealth = deviceHealthRegistry.publish("printer", null);
+
+        //assert
+        assertFalse(nullKey);
+        assertFalse(nullHealth);
+        assertEquals(0, deviceHealthRegistry.getSnapshot().getVersion());
+    }
+}
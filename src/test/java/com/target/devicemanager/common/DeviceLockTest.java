@@ -0,0 +1,94 @@
+package com.target.devicemanager.common;
+
+import jpos.POSPrinter;
+import jpos.Scale;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeviceLockTest {
+
+    @Mock
+    private POSPrinter mockPrinter;
+    @Mock
+    private Scale mockScale;
+
+    @Test
+    public void of_ReturnsSameLockForSameControl() {
+        //act
+        DeviceLock actual = DeviceLock.of(mockPrinter);
+
+        //assert
+        assertSame(actual, DeviceLock.of(mockPrinter));
+        assertNotSame(actual, DeviceLock.of(mockScale));
+    }
+
+    @Test
+    public void lock_IsReentrant() {
+        //arrange
+        DeviceLock deviceLock = DeviceLock.of(mockPrinter);
+
+        //act
+        deviceLock.lock();
+        deviceLock.lock();
+        deviceLock.unlock();
+
+        //assert
+        assertTrue(deviceLock.isHeldByCurrentThread());
+        deviceLock.unlock();
+        assertFalse(deviceLock.isLocked());
+    }
+
+    @Test
+    public void lock_WhenHeldByOtherThread_WaitsForUnlock() throws Exception {
+        //arrange
+        DeviceLock deviceLock = DeviceLock.of(mockPrinter);
+        deviceLock.lock();
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> {
+            deviceLock.lock();
+            deviceLock.unlock();
+            return true;
+        });
+
+        //act
+        try {
+            other.get(100, TimeUnit.MILLISECONDS);
+            fail("Expected Exception, but got none");
+        } catch (TimeoutException timeoutException) {
+            deviceLock.unlock();
+        }
+
+        //assert
+        assertTrue(other.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void tryLock_WhenHeldByOtherThread_ReturnsFalseWithoutWaiting() throws Exception {
+        //arrange
+        DeviceLock deviceLock = DeviceLock.of(mockPrinter);
+        deviceLock.lock();
+
+        //act
+        try {
+            boolean actual = CompletableFuture.supplyAsync(deviceLock::tryLock).get(2, TimeUnit.SECONDS);
+
+            //assert
+            assertFalse(actual);
+        } finally {
+            deviceLock.unlock();
+        }
+        assertTrue(deviceLock.tryLock());
+        deviceLock.unlock();
+    }
+}
@@ -0,0 +1,86 @@
+package com.target.devicemanager.common;
+
+import jpos.BaseJposControl;
+import jpos.JposConst;
+import jpos.POSPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * Compares DevicePower.getPowerState with the reflective lookup it replaced.
+ * Not part of the test run. Run it from the IDE or with
+ * java -cp build/classes/java/main:build/classes/java/test:[runtime classpath] com.target.devicemanager.common.DevicePowerBenchmark
+ * Like a JMH average time benchmark it runs warmup iterations first and logs ns/op for the measured iterations.
+ */
+public class DevicePowerBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static final int OPERATIONS_PER_ITERATION = 2_000_000;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DevicePowerBenchmark.class);
+
+    public static void main(String[] args) throws Exception {
+        BaseJposControl device = new OnlinePrinter();
+        DevicePower devicePower = new DevicePower();
+
+        double reflective = measure("reflective lookup", () -> reflectivePowerState(device));
+        double cached = measure("cached method handles", () -> devicePower.getPowerState(device));
+        LOGGER.info(String.format("speedup: %.1fx", reflective / cached));
+    }
+
+    //The previous DevicePower.getPowerState
+    private static int reflectivePowerState(BaseJposControl device) throws Exception {
+        Method getPowerStateInstanceMethod = device.getClass().getMethod("getPowerState");
+        Method getCapPowerNotifyInstanceMethod = device.getClass().getMethod("getCapPowerReporting");
+
+        int powerReportingCapability = (int) getCapPowerNotifyInstanceMethod.invoke(device);
+        if (powerReportingCapability == JposConst.JPOS_PR_NONE) {
+            return JposConst.JPOS_PS_UNKNOWN;
+        }
+        return (int) getPowerStateInstanceMethod.invoke(device);
+    }
+
+    private static double measure(String name, PowerStateCall call) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += run(call);
+        }
+        long totalNanos = 0;
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long startTime = System.nanoTime();
+            sink += run(call);
+            totalNanos += System.nanoTime() - startTime;
+        }
+        double nanosPerOperation = (double) totalNanos / ((long) MEASUREMENT_ITERATIONS * OPERATIONS_PER_ITERATION);
+        //Logging the sink keeps the JIT from dropping the calls
+        LOGGER.info(String.format("%-22s %8.2f ns/op (sink %d)", name, nanosPerOperation, sink));
+        return nanosPerOperation;
+    }
+
+    private static long run(PowerStateCall call) throws Exception {
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS_PER_ITERATION; i++) {
+            sum += call.getPowerState();
+        }
+        return sum;
+    }
+
+    private interface PowerStateCall {
+        int getPowerState() throws Exception;
+    }
+
+    //Answers like an open printer without a device service behind it
+    public static class OnlinePrinter extends POSPrinter {
+        @Override
+        public int getCapPowerReporting() {
+            return JposConst.JPOS_PR_STANDARD;
+        }
+
+        @Override
+        public int getPowerState() {
+            return JposConst.JPOS_PS_ONLINE;
+        }
+    }
+}
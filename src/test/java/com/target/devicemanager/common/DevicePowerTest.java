@@ -0,0 +1,154 @@
+package com.target.devicemanager.common;
+
+import jpos.BaseJposControl;
+import jpos.JposConst;
+import jpos.JposException;
+import jpos.POSPrinter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DevicePowerTest {
+
+    private DevicePower devicePower;
+
+    @Mock
+    private POSPrinter mockPrinter;
+    @Mock
+    private BaseJposControl mockControl;
+
+    @BeforeEach
+    public void testInitialize() throws JposException {
+        devicePower = new DevicePower();
+        when(mockPrinter.getCapPowerReporting()).thenReturn(JposConst.JPOS_PR_STANDARD);
+        when(mockPrinter.getPowerState()).thenReturn(JposConst.JPOS_PS_ONLINE);
+    }
+
+    @Test
+    public void getPowerState_WhenPowerReported_ReturnsDeviceState() {
+        //act
+        int actual = devicePower.getPowerState(mockPrinter);
+
+        //assert
+        assertEquals(JposConst.JPOS_PS_ONLINE, actual);
+    }
+
+    @Test
+    public void getPowerState_WhenPowerNotReported_ReturnsUnknown() throws JposException {
+        //arrange
+        when(mockPrinter.getCapPowerReporting()).thenReturn(JposConst.JPOS_PR_NONE);
+
+        //act
+        int actual = devicePower.getPowerState(mockPrinter);
+
+        //assert
+        assertEquals(JposConst.JPOS_PS_UNKNOWN, actual);
+        verify(mockPrinter, never()).getPowerState();
+    }
+
+    @Test
+    public void getPowerState_WhenDeviceThrows_ReturnsUnknown() throws JposException {
+        //arrange
+        when(mockPrinter.getPowerState()).thenThrow(new JposException(JposConst.JPOS_E_CLOSED));
+
+        //act
+        int actual = devicePower.getPowerState(mockPrinter);
+
+        //assert
+        assertEquals(JposConst.JPOS_PS_UNKNOWN, actual);
+    }
+
+    @Test
+    public void getPowerState_WhenControlHasNoPowerMethods_ReturnsUnknown() {
+        //act
+        int actual = devicePower.getPowerState(mockControl);
+
+        //assert
+        assertEquals(JposConst.JPOS_PS_UNKNOWN, actual);
+    }
+
+    @Test
+    public void getPowerState_ReadsCapPowerReportingOnce() throws JposException {
+        //act
+        devicePower.getPowerState(mockPrinter);
+        devicePower.getPowerState(mockPrinter);
+        devicePower.getPowerState(mockPrinter);
+
+        //assert
+        verify(mockPrinter, times(1)).getCapPowerReporting();
+        verify(mockPrinter, times(3)).getPowerState();
+    }
+
+    @Test
+    public void getPowerState_WhenCapPowerReportingFails_ReadsItAgain() throws JposException {
+        //arrange
+        when(mockPrinter.getCapPowerReporting())
+                .thenThrow(new JposException(JposConst.JPOS_E_CLOSED))
+                .thenReturn(JposConst.JPOS_PR_STANDARD);
+
+        //act
+        int first = devicePower.getPowerState(mockPrinter);
+        int second = devicePower.getPowerState(mockPrinter);
+
+        //assert
+        assertEquals(JposConst.JPOS_PS_UNKNOWN, first);
+        assertEquals(JposConst.JPOS_PS_ONLINE, second);
+    }
+
+    @Test
+    public void enablePowerNotification_ReadsCapPowerReportingAgain() throws JposException {
+        //arrange
+        devicePower.getPowerState(mockPrinter);
+        when(mockPrinter.getCapPowerReporting()).thenReturn(JposConst.JPOS_PR_NONE);
+
+        //act
+        devicePower.enablePowerNotification(mockPrinter);
+
+        //assert
+        assertEquals(JposConst.JPOS_PS_UNKNOWN, devicePower.getPowerState(mockPrinter));
+        verify(mockPrinter, times(2)).getCapPowerReporting();
+    }
+
+    @Test
+    public void enablePowerNotification_WhenDisabled_EnablesIt() throws JposException {
+        //arrange
+        when(mockPrinter.getPowerNotify()).thenReturn(JposConst.JPOS_PN_DISABLED);
+
+        //act
+        devicePower.enablePowerNotification(mockPrinter);
+
+        //assert
+        verify(mockPrinter).setPowerNotify(JposConst.JPOS_PN_ENABLED);
+    }
+
+    @Test
+    public void enablePowerNotification_WhenEnabled_DoesNothing() throws JposException {
+        //arrange
+        when(mockPrinter.getPowerNotify()).thenReturn(JposConst.JPOS_PN_ENABLED);
+
+        //act
+        devicePower.enablePowerNotification(mockPrinter);
+
+        //assert
+        verify(mockPrinter, never()).setPowerNotify(anyInt());
+    }
+
+    @Test
+    public void enablePowerNotification_WhenControlHasNoPowerMethods_DoesNothing() {
+        //act
+        devicePower.enablePowerNotification(mockControl);
+
+        //assert
+        assertEquals(JposConst.JPOS_PS_UNKNOWN, devicePower.getPowerState(mockControl));
+    }
+}
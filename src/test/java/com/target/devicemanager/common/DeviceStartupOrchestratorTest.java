@@ -0,0 +1,215 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.ConnectPhaseTimes;
+import com.target.devicemanager.common.entities.DeviceStartupResult;
+import com.target.devicemanager.common.entities.DeviceStartupStatus;
+import com.target.devicemanager.common.entities.StartupReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeviceStartupOrchestratorTest {
+
+    private DeviceStartupOrchestrator deviceStartupOrchestrator;
+    private ConnectTimings connectTimings;
+
+    @Mock
+    private ReconnectScheduler mockReconnectScheduler;
+
+    @BeforeEach
+    public void testInitialize() {
+        connectTimings = new ConnectTimings();
+        deviceStartupOrchestrator = new DeviceStartupOrchestrator(mockReconnectScheduler, connectTimings);
+        when(mockReconnectScheduler.getDeviceKeys()).thenReturn(List.of("printer", "scale", "scanner:"));
+        when(mockReconnectScheduler.connectNow(anyString())).thenReturn(true);
+    }
+
+    @Test
+    public void ctor_WhenReconnectSchedulerIsNull_ThrowsException() {
+        try {
+            new DeviceStartupOrchestrator(null, connectTimings);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("reconnectScheduler cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenConnectTimingsIsNull_ThrowsException() {
+        try {
+            new DeviceStartupOrchestrator(mockReconnectScheduler, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("connectTimings cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void isComplete_BeforeConnectAll_ReturnsFalse() {
+        //act
+        StartupReport actual = deviceStartupOrchestrator.getReport();
+
+        //assert
+        assertFalse(deviceStartupOrchestrator.isComplete());
+        assertFalse(actual.isComplete);
+        assertTrue(actual.devices.isEmpty());
+    }
+
+    @Test
+    public void connectAll_ConnectsEveryDevice() {
+        //act
+        deviceStartupOrchestrator.connectAll(2, 5000);
+
+        //assert
+        assertTrue(deviceStartupOrchestrator.isComplete());
+        StartupReport report = deviceStartupOrchestrator.getReport();
+        assertEquals(3, report.devices.size());
+        for (DeviceStartupResult device : report.devices) {
+            assertEquals(DeviceStartupStatus.CONNECTED, device.status);
+        }
+        verify(mockReconnectScheduler).connectNow("printer");
+        verify(mockReconnectScheduler).connectNow("scale");
+        verify(mockReconnectScheduler).connectNow("scanner:");
+    }
+
+    @Test
+    public void connectAll_ReportsDevicesThatDidNotConnect() {
+        //arrange
+        when(mockReconnectScheduler.connectNow("scale")).thenReturn(false);
+        when(mockReconnectScheduler.connectNow("scanner:")).thenThrow(new IllegalStateException("driver failure"));
+
+        //act
+        deviceStartupOrchestrator.connectAll(2, 5000);
+
+        //assert
+        assertEquals(DeviceStartupStatus.CONNECTED, statusOf("printer"));
+        assertEquals(DeviceStartupStatus.NOT_CONNECTED, statusOf("scale"));
+        assertEquals(DeviceStartupStatus.FAILED, statusOf("scanner:"));
+        assertTrue(deviceStartupOrchestrator.isComplete());
+    }
+
+    @Test
+    public void connectAll_WhenDeviceHangs_TimesItOutAndConnectsTheRest() {
+        //arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockReconnectScheduler.connectNow("printer")).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+
+        //act
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> deviceStartupOrchestrator.connectAll(2, 200));
+        } finally {
+            release.countDown();
+        }
+
+        //assert
+        assertEquals(DeviceStartupStatus.TIMED_OUT, statusOf("printer"));
+        assertEquals(DeviceStartupStatus.CONNECTED, statusOf("scale"));
+        assertEquals(DeviceStartupStatus.CONNECTED, statusOf("scanner:"));
+    }
+
+    @Test
+    public void connectAll_WhenDeviceTimesOut_KeepsItsSlotUntilConnectReturns() throws InterruptedException {
+        //arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockReconnectScheduler.connectNow("printer")).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+        Thread startupThread = new Thread(() -> deviceStartupOrchestrator.connectAll(1, 100));
+        startupThread.setDaemon(true);
+
+        //act
+        startupThread.start();
+        try {
+            Thread.sleep(500);
+
+            //assert
+            assertEquals(DeviceStartupStatus.TIMED_OUT, statusOf("printer"));
+            verify(mockReconnectScheduler, never()).connectNow("scale");
+            assertFalse(deviceStartupOrchestrator.isComplete());
+        } finally {
+            release.countDown();
+        }
+        startupThread.join(5000);
+        assertTrue(deviceStartupOrchestrator.isComplete());
+        assertEquals(DeviceStartupStatus.CONNECTED, statusOf("scale"));
+        assertEquals(DeviceStartupStatus.CONNECTED, statusOf("scanner:"));
+    }
+
+    @Test
+    public void connectAll_ConnectsNoMoreThanParallelismAtOnce() {
+        //arrange
+        AtomicInteger connecting = new AtomicInteger();
+        AtomicInteger maxConnecting = new AtomicInteger();
+        when(mockReconnectScheduler.getDeviceKeys()).thenReturn(List.of("a", "b", "c", "d", "e", "f"));
+        when(mockReconnectScheduler.connectNow(anyString())).thenAnswer(invocation -> {
+            maxConnecting.accumulateAndGet(connecting.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            connecting.decrementAndGet();
+            return true;
+        });
+
+        //act
+        deviceStartupOrchestrator.connectAll(2, 5000);
+
+        //assert
+        assertTrue(maxConnecting.get() <= 2);
+        verify(mockReconnectScheduler, times(6)).connectNow(anyString());
+    }
+
+    @Test
+    public void connectAll_WhenCalledTwice_ConnectsOnce() {
+        //act
+        deviceStartupOrchestrator.connectAll(2, 5000);
+        deviceStartupOrchestrator.connectAll(2, 5000);
+
+        //assert
+        verify(mockReconnectScheduler, times(1)).connectNow("printer");
+    }
+
+    @Test
+    public void getReport_IncludesConnectPhaseTimes() {
+        //arrange
+        ConnectPhaseTimes phaseTimes = new ConnectPhaseTimes();
+        phaseTimes.logicalName = "Printer1";
+        phaseTimes.claimMsec = 1200;
+        connectTimings.record("POSPrinter", phaseTimes);
+
+        //act
+        StartupReport actual = deviceStartupOrchestrator.getReport();
+
+        //assert
+        assertEquals(1200, actual.phases.get("POSPrinter").claimMsec);
+    }
+
+    private DeviceStartupStatus statusOf(String deviceKey) {
+        for (DeviceStartupResult device : deviceStartupOrchestrator.getReport().devices) {
+            if (device.deviceKey.equals(deviceKey)) {
+                return device.status;
+            }
+        }
+        return null;
+    }
+}
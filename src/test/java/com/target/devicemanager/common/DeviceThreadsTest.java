@@ -0,0 +1,64 @@
+package com.target.devicemanager.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceThreadsTest {
+
+    @AfterEach
+    public void testCleanup() {
+        DeviceThreads.setVirtualThreadsEnabled(false);
+    }
+
+    @Test
+    public void newThreadFactory_ByDefault_MakesNamedDaemonThreads() {
+        //arrange
+        ThreadFactory threadFactory = DeviceThreads.newThreadFactory("scanner-");
+
+        //act
+        Thread actual = threadFactory.newThread(() -> {});
+
+        //assert
+        assertEquals("scanner-1", actual.getName());
+        assertTrue(actual.isDaemon());
+        assertFalse(isVirtual(actual));
+    }
+
+    @Test
+    public void newThreadFactory_WhenVirtualThreadsEnabled_MakesVirtualThreadsIfSupported() {
+        //arrange
+        DeviceThreads.setVirtualThreadsEnabled(true);
+        ThreadFactory threadFactory = DeviceThreads.newThreadFactory("scanner-");
+
+        //act
+        Thread actual = threadFactory.newThread(() -> {});
+
+        //assert
+        assertEquals(DeviceThreads.isVirtualThreadSupported(), DeviceThreads.isVirtualThreadsEnabled());
+        assertEquals(DeviceThreads.isVirtualThreadSupported(), isVirtual(actual));
+        assertEquals("scanner-1", actual.getName());
+        assertTrue(actual.isDaemon());
+    }
+
+    @Test
+    public void setVirtualThreadsEnabled_WhenFalse_IsNotEnabled() {
+        //act
+        DeviceThreads.setVirtualThreadsEnabled(false);
+
+        //assert
+        assertFalse(DeviceThreads.isVirtualThreadsEnabled());
+    }
+
+    //Thread.isVirtual() without compiling against Java 21
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException exception) {
+            return false;
+        }
+    }
+}
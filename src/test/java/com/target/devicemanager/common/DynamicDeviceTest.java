@@ -0,0 +1,456 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceErrorStatus;
+import com.target.devicemanager.common.entities.DeviceHealth;
+import jpos.JposConst;
+import jpos.JposException;
+import jpos.POSPrinter;
+import jpos.events.ErrorEvent;
+import jpos.events.ErrorListener;
+import jpos.events.StatusUpdateEvent;
+import jpos.events.StatusUpdateListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DynamicDeviceTest {
+
+    private DynamicDevice<POSPrinter> dynamicDevice;
+
+    @Mock
+    private POSPrinter mockPrinter;
+    @Mock
+    private DevicePower mockDevicePower;
+    @Mock
+    private DeviceConnector<POSPrinter> mockDeviceConnector;
+
+    @BeforeEach
+    public void testInitialize() throws JposException {
+        dynamicDevice = new DynamicDevice<>(mockPrinter, mockDevicePower, mockDeviceConnector);
+        when(mockDeviceConnector.discoverConnectedDevice()).thenReturn(true);
+        when(mockDeviceConnector.getConnectedDeviceName()).thenReturn("printer");
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_IDLE);
+        when(mockPrinter.getClaimed()).thenReturn(true);
+        when(mockDevicePower.getPowerState(mockPrinter)).thenReturn(JposConst.JPOS_PS_ONLINE);
+    }
+
+    @Test
+    public void ctor_WhenDeviceIsNull_ThrowsException() {
+        try {
+            new DynamicDevice<>(null, mockDevicePower, mockDeviceConnector);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("device cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenDevicePowerIsNull_ThrowsException() {
+        try {
+            new DynamicDevice<>(mockPrinter, null, mockDeviceConnector);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("devicePower cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenDeviceConnectorIsNull_ThrowsException() {
+        try {
+            new DynamicDevice<>(mockPrinter, mockDevicePower, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("deviceConnector cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void isConnected_BeforeConnect_ReturnsFalseWithoutAskingDriver() {
+        //act
+        boolean actual = dynamicDevice.isConnected();
+
+        //assert
+        assertFalse(actual);
+        verify(mockPrinter, never()).getState();
+    }
+
+    @Test
+    public void connect_WhenDeviceFound_IsConnected() {
+        //arrange
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_CLOSED, JposConst.JPOS_S_IDLE);
+
+        //act
+        DynamicDevice.ConnectionResult actual = dynamicDevice.connect();
+
+        //assert
+        assertEquals(DynamicDevice.ConnectionResult.CONNECTED, actual);
+        assertTrue(dynamicDevice.isConnected());
+        verify(mockDevicePower).enablePowerNotification(mockPrinter);
+        verify(mockPrinter).addStatusUpdateListener(any(StatusUpdateListener.class));
+        verify(mockPrinter).addErrorListener(any(ErrorListener.class));
+    }
+
+    @Test
+    public void connect_WhenDeviceNotFound_ReturnsNotConnected() {
+        //arrange
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_CLOSED);
+        when(mockDeviceConnector.discoverConnectedDevice()).thenReturn(false);
+
+        //act
+        DynamicDevice.ConnectionResult actual = dynamicDevice.connect();
+
+        //assert
+        assertEquals(DynamicDevice.ConnectionResult.NOT_CONNECTED, actual);
+        assertFalse(dynamicDevice.isConnected());
+    }
+
+    @Test
+    public void connect_WhenAlreadyConnected_DoesNotDiscover() {
+        //act
+        DynamicDevice.ConnectionResult actual = dynamicDevice.connect();
+
+        //assert
+        assertEquals(DynamicDevice.ConnectionResult.ALREADY_CONNECTED, actual);
+        verify(mockDeviceConnector, never()).discoverConnectedDevice();
+    }
+
+    @Test
+    public void connect_WhenDriverLostClaim_UpdatesCachedState() throws JposException {
+        //arrange
+        dynamicDevice.connect();
+        when(mockPrinter.getClaimed()).thenReturn(false);
+        when(mockDeviceConnector.discoverConnectedDevice()).thenReturn(false);
+
+        //act
+        dynamicDevice.connect();
+
+        //assert
+        assertFalse(dynamicDevice.isConnected());
+    }
+
+    @Test
+    public void isConnected_WhileDeviceBusy_DoesNotWaitForDeviceLock() throws InterruptedException {
+        //arrange
+        dynamicDevice.connect();
+        CountDownLatch isHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread printThread = new Thread(() -> {
+            DeviceLock deviceLock = DeviceLock.of(mockPrinter);
+            deviceLock.lock();
+            try {
+                isHeld.countDown();
+                release.await();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            } finally {
+                deviceLock.unlock();
+            }
+        });
+        printThread.start();
+        isHeld.await();
+
+        //act
+        try {
+            boolean actual = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> dynamicDevice.isConnected());
+
+            //assert
+            assertTrue(actual);
+        } finally {
+            release.countDown();
+            printThread.join();
+        }
+    }
+
+    @Test
+    public void connect_WhileDeviceInUse_KeepsLastKnownStateWithoutWaiting() throws InterruptedException {
+        //arrange
+        dynamicDevice.connect();
+        CountDownLatch isHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread printThread = new Thread(() -> {
+            DeviceLock deviceLock = DeviceLock.of(mockPrinter);
+            deviceLock.lock();
+            try {
+                isHeld.countDown();
+                release.await();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            } finally {
+                deviceLock.unlock();
+            }
+        });
+        printThread.start();
+        isHeld.await();
+        clearInvocations(mockPrinter);
+
+        //act
+        try {
+            DynamicDevice.ConnectionResult actual = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> dynamicDevice.connect());
+
+            //assert
+            assertEquals(DynamicDevice.ConnectionResult.ALREADY_CONNECTED, actual);
+            assertTrue(assertTimeoutPreemptively(Duration.ofSeconds(2), () -> dynamicDevice.verifyConnection()));
+            verify(mockPrinter, never()).getState();
+        } finally {
+            release.countDown();
+            printThread.join();
+        }
+    }
+
+    @Test
+    public void verifyConnection_ReadsDriverStateThroughCallGuard() {
+        //arrange
+        dynamicDevice.connect();
+        Thread testThread = Thread.currentThread();
+        List<Thread> readThreads = new CopyOnWriteArrayList<>();
+        when(mockPrinter.getState()).thenAnswer(invocation -> {
+            readThreads.add(Thread.currentThread());
+            return JposConst.JPOS_S_IDLE;
+        });
+
+        //act
+        boolean actual = dynamicDevice.verifyConnection();
+
+        //assert
+        assertTrue(actual);
+        assertEquals(1, readThreads.size());
+        assertNotSame(testThread, readThreads.get(0));
+    }
+
+    @Test
+    public void verifyConnection_WhenClaimedThrows_ReturnsFalse() throws JposException {
+        //arrange
+        dynamicDevice.connect();
+        when(mockPrinter.getClaimed()).thenThrow(new JposException(JposConst.JPOS_E_FAILURE));
+
+        //act
+        boolean actual = dynamicDevice.verifyConnection();
+
+        //assert
+        assertFalse(actual);
+        assertFalse(dynamicDevice.isConnected());
+    }
+
+    @Test
+    public void statusUpdate_WhenPowerGoesOffAndOn_UpdatesState() {
+        //arrange
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_CLOSED, JposConst.JPOS_S_IDLE);
+        dynamicDevice.connect();
+        StatusUpdateListener stateListener = captureStatusUpdateListener();
+
+        //act
+        stateListener.statusUpdateOccurred(new StatusUpdateEvent(mockPrinter, JposConst.JPOS_SUE_POWER_OFF_OFFLINE));
+        boolean afterPowerOff = dynamicDevice.isConnected();
+        int powerStateAfterPowerOff = dynamicDevice.getConnectionState().getPowerState();
+        stateListener.statusUpdateOccurred(new StatusUpdateEvent(mockPrinter, JposConst.JPOS_SUE_POWER_ONLINE));
+
+        //assert
+        assertFalse(afterPowerOff);
+        assertEquals(JposConst.JPOS_PS_OFF_OFFLINE, powerStateAfterPowerOff);
+        assertTrue(dynamicDevice.isConnected());
+        assertEquals(JposConst.JPOS_PS_ONLINE, dynamicDevice.getConnectionState().getPowerState());
+    }
+
+    @Test
+    public void statusUpdate_WithHealthKey_PublishesHealthOnEveryChange() {
+        //arrange
+        DynamicDevice<POSPrinter> publishingDevice = new DynamicDevice<>(mockPrinter, mockDevicePower, mockDeviceConnector, "dynamicDeviceTest");
+        DeviceHealthRegistry healthRegistry = DeviceHealthRegistry.getDeviceHealthRegistry();
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_CLOSED, JposConst.JPOS_S_IDLE);
+        publishingDevice.connect();
+        DeviceHealth afterConnect = healthRegistry.get("dynamicDeviceTest").getHealthStatus();
+        StatusUpdateListener stateListener = captureStatusUpdateListener();
+
+        //act
+        stateListener.statusUpdateOccurred(new StatusUpdateEvent(mockPrinter, JposConst.JPOS_SUE_POWER_OFF_OFFLINE));
+        DeviceHealth afterPowerOff = healthRegistry.get("dynamicDeviceTest").getHealthStatus();
+        stateListener.statusUpdateOccurred(new StatusUpdateEvent(mockPrinter, JposConst.JPOS_SUE_POWER_ONLINE));
+        DeviceHealth afterPowerOn = healthRegistry.get("dynamicDeviceTest").getHealthStatus();
+        publishingDevice.disconnect();
+
+        //assert
+        assertEquals(DeviceHealth.READY, afterConnect);
+        assertEquals(DeviceHealth.NOTREADY, afterPowerOff);
+        assertEquals(DeviceHealth.READY, afterPowerOn);
+        assertEquals(DeviceHealth.NOTREADY, healthRegistry.get("dynamicDeviceTest").getHealthStatus());
+        assertEquals("printer", healthRegistry.get("dynamicDeviceTest").getDeviceName());
+    }
+
+    @Test
+    public void statusUpdate_WhenNotConnected_StaysDisconnected() {
+        //arrange
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_CLOSED, JposConst.JPOS_S_IDLE);
+        dynamicDevice.connect();
+        StatusUpdateListener stateListener = captureStatusUpdateListener();
+        dynamicDevice.disconnect();
+
+        //act
+        stateListener.statusUpdateOccurred(new StatusUpdateEvent(mockPrinter, JposConst.JPOS_SUE_POWER_ONLINE));
+
+        //assert
+        assertFalse(dynamicDevice.isConnected());
+    }
+
+    @Test
+    public void errorOccurred_WhenDeviceOffline_IsDisconnected() {
+        //arrange
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_CLOSED, JposConst.JPOS_S_IDLE);
+        dynamicDevice.connect();
+        ArgumentCaptor<ErrorListener> captor = ArgumentCaptor.forClass(ErrorListener.class);
+        verify(mockPrinter).addErrorListener(captor.capture());
+
+        //act
+        captor.getValue().errorOccurred(new ErrorEvent(mockPrinter, JposConst.JPOS_E_OFFLINE, 0, JposConst.JPOS_EL_OUTPUT, JposConst.JPOS_ER_CLEAR));
+
+        //assert
+        assertFalse(dynamicDevice.isConnected());
+    }
+
+    @Test
+    public void disconnect_IsNotConnected() throws JposException {
+        //arrange
+        dynamicDevice.connect();
+
+        //act
+        dynamicDevice.disconnect();
+
+        //assert
+        assertFalse(dynamicDevice.isConnected());
+        verify(mockPrinter).release();
+        verify(mockPrinter).close();
+    }
+
+    @Test
+    public void connect_WhenQuarantined_DoesNotTouchDriver() throws InterruptedException {
+        //arrange
+        dynamicDevice.connect();
+        CountDownLatch release = new CountDownLatch(1);
+        assertThrows(JposException.class, () -> DeviceCallGuard.of(mockPrinter).run("claim", 50, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        //act
+        try {
+            DynamicDevice.ConnectionResult actual = dynamicDevice.connect();
+
+            //assert
+            assertEquals(DynamicDevice.ConnectionResult.NOT_CONNECTED, actual);
+            assertFalse(dynamicDevice.isConnected());
+            verify(mockDeviceConnector, never()).discoverConnectedDevice();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void connect_WhenDeviceKeepsMissing_KeepsCircuitClosed() {
+        //arrange
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_CLOSED);
+        when(mockDeviceConnector.discoverConnectedDevice()).thenReturn(false);
+        for (int i = 0; i < DeviceCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            dynamicDevice.connect();
+        }
+
+        //act
+        DynamicDevice.ConnectionResult actual = dynamicDevice.connect();
+
+        //assert
+        assertEquals(DynamicDevice.ConnectionResult.NOT_CONNECTED, actual);
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, DeviceCircuitBreaker.of(mockPrinter).getState());
+        verify(mockDeviceConnector, times(DeviceCircuitBreaker.FAILURE_THRESHOLD + 1)).discoverConnectedDevice();
+    }
+
+    @Test
+    public void errorOccurred_WhenCircuitOpens_FaultsDeviceUnderErrorKey() {
+        //arrange
+        DeviceErrorEventBus deviceErrorEventBus = new DeviceErrorEventBus(List.of("printer", "scale"), Runnable::run);
+        when(mockDeviceConnector.getConnectedDeviceName()).thenReturn("Printer1");
+        DynamicDevice<POSPrinter> faultingDevice = new DynamicDevice<>(mockPrinter, mockDevicePower, mockDeviceConnector,
+                "dynamicDeviceTest", "printer", deviceErrorEventBus);
+        when(mockPrinter.getState()).thenReturn(JposConst.JPOS_S_CLOSED, JposConst.JPOS_S_IDLE);
+        faultingDevice.connect();
+        ArgumentCaptor<ErrorListener> captor = ArgumentCaptor.forClass(ErrorListener.class);
+        verify(mockPrinter).addErrorListener(captor.capture());
+
+        //act
+        for (int i = 0; i < DeviceCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            captor.getValue().errorOccurred(new ErrorEvent(mockPrinter, JposConst.JPOS_E_OFFLINE, 0, JposConst.JPOS_EL_OUTPUT, JposConst.JPOS_ER_CLEAR));
+        }
+
+        //assert
+        assertEquals(DeviceCircuitBreaker.State.OPEN, DeviceCircuitBreaker.of(mockPrinter).getState());
+        List<DeviceErrorStatus> actual = deviceErrorEventBus.getSnapshot().getStatuses();
+        assertTrue(actual.get(0).faultPresent);
+        assertEquals(DeviceError.CIRCUIT_OPEN, actual.get(0).deviceError);
+        assertFalse(actual.get(1).faultPresent);
+        assertEquals(DeviceHealth.NOTREADY, DeviceHealthRegistry.getDeviceHealthRegistry().get("dynamicDeviceTest").getHealthStatus());
+    }
+
+    @Test
+    public void connect_AfterRetryNow_ConnectsWhileCircuitOpen() {
+        //arrange
+        DynamicDevice<POSPrinter> retriedDevice = new DynamicDevice<>(mockPrinter, mockDevicePower, mockDeviceConnector, "dynamicDeviceRetryTest");
+        ReconnectScheduler.getReconnectScheduler().register("dynamicDeviceRetryTest", () -> {});
+        for (int i = 0; i < DeviceCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            DeviceCircuitBreaker.of(mockPrinter).recordFailure(JposConst.JPOS_E_FAILURE);
+        }
+        DynamicDevice.ConnectionResult whileOpen = retriedDevice.connect();
+
+        //act
+        ReconnectScheduler.getReconnectScheduler().retryNow("dynamicDeviceRetryTest");
+        DynamicDevice.ConnectionResult actual = retriedDevice.connect();
+
+        //assert
+        assertEquals(DynamicDevice.ConnectionResult.NOT_CONNECTED, whileOpen);
+        assertNotEquals(DynamicDevice.ConnectionResult.NOT_CONNECTED, actual);
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, DeviceCircuitBreaker.of(mockPrinter).getState());
+    }
+
+    @Test
+    public void isConnected_WhenCircuitOpen_ReturnsFalse() {
+        //arrange
+        dynamicDevice.connect();
+        for (int i = 0; i < DeviceCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            DeviceCircuitBreaker.of(mockPrinter).recordFailure(JposConst.JPOS_E_FAILURE);
+        }
+
+        //act
+        boolean actual = dynamicDevice.isConnected();
+
+        //assert
+        assertFalse(actual);
+    }
+
+    private StatusUpdateListener captureStatusUpdateListener() {
+        ArgumentCaptor<StatusUpdateListener> captor = ArgumentCaptor.forClass(StatusUpdateListener.class);
+        verify(mockPrinter).addStatusUpdateListener(captor.capture());
+        return captor.getValue();
+    }
+}
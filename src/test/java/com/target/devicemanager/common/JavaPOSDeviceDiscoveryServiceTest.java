@@ -0,0 +1,313 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceDiscoveryResponse;
+import com.target.devicemanager.common.entities.DeviceTestResult;
+import jpos.JposConst;
+import jpos.JposException;
+import jpos.POSPrinter;
+import jpos.config.JposEntryRegistry;
+import jpos.config.simple.SimpleEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JavaPOSDeviceDiscoveryServiceTest {
+
+    private JavaPOSDeviceDiscoveryService discoveryService;
+    private final List<SimpleEntry> entries = new ArrayList<>();
+    private final List<String> openedNames = new CopyOnWriteArrayList<>();
+    private final Map<String, JposException> openFailures = new ConcurrentHashMap<>();
+    private String usbTopology;
+
+    @Mock
+    private JposEntryRegistry mockDeviceRegistry;
+
+    @BeforeEach
+    public void testInitialize() {
+        entries.clear();
+        openedNames.clear();
+        openFailures.clear();
+        usbTopology = "1-1=05e0:1200\n";
+        when(mockDeviceRegistry.getSize()).thenAnswer(invocation -> entries.size());
+        when(mockDeviceRegistry.getEntries()).thenAnswer(invocation -> Collections.enumeration(entries));
+        discoveryService = new JavaPOSDeviceDiscoveryService(() -> mockDeviceRegistry, category -> newPrinter(), () -> usbTopology, 5000);
+    }
+
+    @Test
+    public void ctor_WhenRegistrySourceIsNull_ThrowsException() {
+        try {
+            new JavaPOSDeviceDiscoveryService(null, category -> newPrinter(), () -> usbTopology, 5000);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("registrySource cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenUsbTopologySourceIsNull_ThrowsException() {
+        try {
+            new JavaPOSDeviceDiscoveryService(() -> mockDeviceRegistry, category -> newPrinter(), null, 5000);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("usbTopologySource cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void testAllDevices_ReturnsResultsInDeviceOrder() {
+        //arrange
+        addEntry("printerA", "vendorA");
+        addEntry("printerB", "vendorB");
+        addEntry("printerC", "vendorC");
+        openFailures.put("printerB", new JposException(JposConst.JPOS_E_NOHARDWARE));
+
+        //act
+        DeviceDiscoveryResponse actual = discoveryService.testAllDevices();
+
+        //assert
+        List<DeviceTestResult> results = actual.getTestResults();
+        assertEquals(List.of("printerA", "printerB", "printerC"), List.of(results.get(0).getLogicalName(), results.get(1).getLogicalName(), results.get(2).getLogicalName()));
+        assertTrue(results.get(0).isFunctional());
+        assertFalse(results.get(1).isFunctional());
+        assertTrue(results.get(2).isFunctional());
+    }
+
+    @Test
+    public void testAllDevices_TestsDevicesInParallel() {
+        //arrange
+        CountDownLatch allOpening = new CountDownLatch(JavaPOSDeviceDiscoveryService.MAX_PARALLEL_TESTS);
+        discoveryService = new JavaPOSDeviceDiscoveryService(() -> mockDeviceRegistry, category -> {
+            POSPrinter printer = newPrinter();
+            try {
+                doAnswer(invocation -> {
+                    allOpening.countDown();
+                    //Only returns once every test is opening at the same time
+                    allOpening.await();
+                    return null;
+                }).when(printer).open(anyString());
+            } catch (JposException jposException) {
+                fail(jposException);
+            }
+            return printer;
+        }, () -> usbTopology, 5000);
+        for (int i = 0; i < JavaPOSDeviceDiscoveryService.MAX_PARALLEL_TESTS; i++) {
+            addEntry("printer" + i, "vendor");
+        }
+
+        //act
+        DeviceDiscoveryResponse actual = assertTimeoutPreemptively(Duration.ofSeconds(4), () -> discoveryService.testAllDevices());
+
+        //assert
+        for (DeviceTestResult result : actual.getTestResults()) {
+            assertTrue(result.isFunctional());
+        }
+    }
+
+    @Test
+    public void testAllDevices_WhenDriverHangs_TimesOutAtDeadline() {
+        //arrange
+        CountDownLatch release = new CountDownLatch(1);
+        discoveryService = new JavaPOSDeviceDiscoveryService(() -> mockDeviceRegistry, category -> {
+            POSPrinter printer = newPrinter();
+            try {
+                doAnswer(invocation -> {
+                    if ("printerA".equals(invocation.getArgument(0))) {
+                        release.await();
+                    }
+                    return null;
+                }).when(printer).open(anyString());
+            } catch (JposException jposException) {
+                fail(jposException);
+            }
+            return printer;
+        }, () -> usbTopology, 200);
+        addEntry("printerA", "vendorA");
+        addEntry("printerB", "vendorB");
+
+        //act
+        DeviceDiscoveryResponse actual;
+        try {
+            actual = assertTimeoutPreemptively(Duration.ofSeconds(4), () -> discoveryService.testAllDevices());
+        } finally {
+            release.countDown();
+        }
+
+        //assert
+        assertFalse(actual.getTestResults().get(0).isFunctional());
+        assertTrue(actual.getTestResults().get(0).getMessage().startsWith("Test timed out"));
+        assertTrue(actual.getTestResults().get(1).isFunctional());
+    }
+
+    @Test
+    public void testAllDevices_WhenTestTimesOut_ClosesDeviceOnTestThreadOnceClaimReturns() throws JposException {
+        //arrange
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> claimThreads = new CopyOnWriteArrayList<>();
+        List<Thread> closeThreads = new CopyOnWriteArrayList<>();
+        POSPrinter printer = newPrinter();
+        doAnswer(invocation -> {
+            claimThreads.add(Thread.currentThread());
+            release.await();
+            return null;
+        }).when(printer).claim(anyInt());
+        doAnswer(invocation -> {
+            closeThreads.add(Thread.currentThread());
+            return null;
+        }).when(printer).close();
+        discoveryService = new JavaPOSDeviceDiscoveryService(() -> mockDeviceRegistry, category -> printer, () -> usbTopology, 200);
+        addEntry("printerA", "vendorA");
+
+        //act
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(4), () -> discoveryService.testAllDevices());
+
+            //assert
+            verify(printer, after(200).never()).close();
+        } finally {
+            release.countDown();
+        }
+        verify(printer, timeout(2000)).close();
+        verify(printer).release();
+        verify(printer, never()).setDeviceEnabled(true);
+        assertEquals(claimThreads, closeThreads);
+    }
+
+    @Test
+    public void testAllDevices_WhenNothingChanged_UsesCachedResults() {
+        //arrange
+        addEntry("printerA", "vendorA");
+        addEntry("printerB", "vendorB");
+        discoveryService.testAllDevices();
+        openedNames.clear();
+
+        //act
+        DeviceDiscoveryResponse actual = discoveryService.testAllDevices();
+
+        //assert
+        assertTrue(openedNames.isEmpty());
+        assertEquals(2, actual.getTestResults().size());
+        assertTrue(actual.getTestResults().get(0).isFunctional());
+    }
+
+    @Test
+    public void testAllDevices_WhenEntryChanged_RetestsOnlyThatEntry() {
+        //arrange
+        addEntry("printerA", "vendorA");
+        addEntry("printerB", "vendorB");
+        discoveryService.testAllDevices();
+        openedNames.clear();
+        entries.set(1, entry("printerB", "vendorB2"));
+        JposRegistryIndex.refresh(mockDeviceRegistry);
+
+        //act
+        discoveryService.testAllDevices();
+
+        //assert
+        assertEquals(List.of("printerB"), openedNames);
+    }
+
+    @Test
+    public void testAllDevices_WhenUsbDevicesChanged_RetestsEverything() {
+        //arrange
+        addEntry("printerA", "vendorA");
+        addEntry("printerB", "vendorB");
+        discoveryService.testAllDevices();
+        openedNames.clear();
+        usbTopology = "1-1=05e0:1200\n1-2=0404:0311\n";
+
+        //act
+        discoveryService.testAllDevices();
+
+        //assert
+        assertEquals(2, openedNames.size());
+    }
+
+    @Test
+    public void testAllDevices_WithForceRetest_RetestsEverything() {
+        //arrange
+        addEntry("printerA", "vendorA");
+        discoveryService.testAllDevices();
+        openedNames.clear();
+
+        //act
+        discoveryService.testAllDevices(true);
+
+        //assert
+        assertEquals(List.of("printerA"), openedNames);
+    }
+
+    @Test
+    public void usbTopologyOf_IsIndependentOfOrder() {
+        //arrange
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("1-2", "0404:0311");
+        first.put("1-1", "05e0:1200");
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("1-1", "05e0:1200");
+        second.put("1-2", "0404:0311");
+
+        //act
+        String actual = JavaPOSDeviceDiscoveryService.usbTopologyOf(first);
+
+        //assert
+        assertEquals(JavaPOSDeviceDiscoveryService.usbTopologyOf(second), actual);
+    }
+
+    private POSPrinter newPrinter() {
+        POSPrinter printer = mock(POSPrinter.class);
+        try {
+            doAnswer(invocation -> {
+                String logicalName = invocation.getArgument(0);
+                openedNames.add(logicalName);
+                JposException failure = openFailures.get(logicalName);
+                if (failure != null) {
+                    throw failure;
+                }
+                return null;
+            }).when(printer).open(anyString());
+        } catch (JposException jposException) {
+            fail(jposException);
+        }
+        return printer;
+    }
+
+    private void addEntry(String logicalName, String vendorName) {
+        entries.add(entry(logicalName, vendorName));
+    }
+
+    private SimpleEntry entry(String logicalName, String vendorName) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("logicalName", logicalName);
+        properties.put("deviceCategory", "POSPrinter");
+        properties.put("vendorName", vendorName);
+        SimpleEntry entry = mock(SimpleEntry.class);
+        when(entry.getPropertyValue(anyString())).thenAnswer(invocation -> properties.get(invocation.getArgument(0)));
+        when(entry.getPropertyNames()).thenAnswer(invocation -> Collections.enumeration(properties.keySet()));
+        return entry;
+    }
+}
@@ -0,0 +1,165 @@
+package com.target.devicemanager.common;
+
+import jpos.config.JposEntryRegistry;
+import jpos.config.simple.SimpleEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JposRegistryIndexTest {
+
+    private final List<SimpleEntry> entries = new ArrayList<>();
+
+    @Mock
+    private JposEntryRegistry mockDeviceRegistry;
+
+    @BeforeEach
+    public void testInitialize() {
+        entries.clear();
+        when(mockDeviceRegistry.getSize()).thenAnswer(invocation -> entries.size());
+        when(mockDeviceRegistry.getEntries()).thenAnswer(invocation -> Collections.enumeration(new ArrayList<>(entries)));
+    }
+
+    @Test
+    public void of_IndexesEntriesByCategoryLogicalNameAndDeviceType() {
+        //arrange
+        entries.add(entry("printer", "POSPrinter", null));
+        entries.add(entry("flatbed", "Scanner", "Flatbed"));
+        entries.add(entry("handheld", "Scanner", "HandScanner"));
+
+        //act
+        JposRegistryIndex actual = JposRegistryIndex.of(mockDeviceRegistry);
+
+        //assert
+        assertEquals(3, actual.size());
+        assertEquals(2, actual.getEntries("Scanner").size());
+        assertSame(entries.get(0), actual.getEntry("printer"));
+        assertNull(actual.getEntry("missing"));
+        assertEquals(List.of(entries.get(2)), actual.getEntriesByDeviceType("HandScanner"));
+        assertEquals(entries, actual.getEntries());
+    }
+
+    @Test
+    public void getLogicalNames_WithDeviceTypeFilter_ReturnsMatchingCategoryOnly() {
+        //arrange
+        entries.add(entry("flatbed", "Scanner", "Flatbed"));
+        entries.add(entry("handheld", "Scanner", "HandScanner"));
+        entries.add(entry("otherFlatbed", "Scale", "Flatbed"));
+
+        //act
+        List<String> actual = JposRegistryIndex.of(mockDeviceRegistry).getLogicalNames("Scanner", new AbstractMap.SimpleEntry<>("deviceType", "Flatbed"));
+
+        //assert
+        assertEquals(List.of("flatbed"), actual);
+    }
+
+    @Test
+    public void getLogicalNames_WithoutFilter_ReturnsCategoryInRegistryOrder() {
+        //arrange
+        entries.add(entry("drawerB", "CashDrawer", null));
+        entries.add(entry("printer", "POSPrinter", null));
+        entries.add(entry("drawerA", "CashDrawer", null));
+
+        //act
+        List<String> actual = JposRegistryIndex.of(mockDeviceRegistry).getLogicalNames("CashDrawer", null);
+
+        //assert
+        assertEquals(List.of("drawerB", "drawerA"), actual);
+    }
+
+    @Test
+    public void of_WhenCalledAgain_DoesNotEnumerateRegistry() {
+        //arrange
+        entries.add(entry("printer", "POSPrinter", null));
+
+        //act
+        JposRegistryIndex first = JposRegistryIndex.of(mockDeviceRegistry);
+        JposRegistryIndex second = JposRegistryIndex.of(mockDeviceRegistry);
+
+        //assert
+        assertSame(first, second);
+        verify(mockDeviceRegistry, times(1)).getEntries();
+    }
+
+    @Test
+    public void of_WhenRegistryEmpty_LoadsOnceWithoutWaiting() {
+        //act
+        JposRegistryIndex actual = assertTimeoutPreemptively(Duration.ofMillis(500), () -> JposRegistryIndex.of(mockDeviceRegistry));
+        JposRegistryIndex.of(mockDeviceRegistry);
+
+        //assert
+        assertEquals(0, actual.size());
+        verify(mockDeviceRegistry, times(1)).load();
+    }
+
+    @Test
+    public void of_WhenRegistryLoadsLater_ReturnsNewSnapshot() {
+        //arrange
+        JposRegistryIndex.of(mockDeviceRegistry);
+        entries.add(entry("printer", "POSPrinter", null));
+
+        //act
+        JposRegistryIndex actual = JposRegistryIndex.of(mockDeviceRegistry);
+
+        //assert
+        assertEquals(List.of("printer"), actual.getLogicalNames("POSPrinter", null));
+    }
+
+    @Test
+    public void refresh_LoadsRegistryAgainAndReplacesSnapshot() {
+        //arrange
+        entries.add(entry("printerA", "POSPrinter", null));
+        JposRegistryIndex before = JposRegistryIndex.of(mockDeviceRegistry);
+        entries.set(0, entry("printerB", "POSPrinter", null));
+
+        //act
+        JposRegistryIndex actual = JposRegistryIndex.refresh(mockDeviceRegistry);
+
+        //assert
+        verify(mockDeviceRegistry).load();
+        assertEquals(List.of("printerA"), before.getLogicalNames("POSPrinter", null));
+        assertEquals(List.of("printerB"), actual.getLogicalNames("POSPrinter", null));
+        assertSame(actual, JposRegistryIndex.of(mockDeviceRegistry));
+    }
+
+    @Test
+    public void getEntries_IsImmutable() {
+        //arrange
+        entries.add(entry("printer", "POSPrinter", null));
+        JposRegistryIndex index = JposRegistryIndex.of(mockDeviceRegistry);
+
+        //act
+        try {
+            index.getEntries().clear();
+        } catch (UnsupportedOperationException unsupportedOperationException) {
+            //assert
+            assertEquals(1, index.size());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    private SimpleEntry entry(String logicalName, String deviceCategory, String deviceType) {
+        SimpleEntry entry = mock(SimpleEntry.class);
+        when(entry.getPropertyValue("logicalName")).thenReturn(logicalName);
+        when(entry.getPropertyValue("deviceCategory")).thenReturn(deviceCategory);
+        when(entry.getPropertyValue("deviceType")).thenReturn(deviceType);
+        return entry;
+    }
+}
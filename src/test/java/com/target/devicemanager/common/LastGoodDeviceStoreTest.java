@@ -0,0 +1,68 @@
+package com.target.devicemanager.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LastGoodDeviceStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void ctor_WhenStorePathIsNull_ThrowsException() {
+        try {
+            new LastGoodDeviceStore(null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("storePath cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void get_WhenFileMissing_ReturnsNull() {
+        //arrange
+        LastGoodDeviceStore lastGoodDeviceStore = new LastGoodDeviceStore(tempDir.resolve("missing.properties"));
+
+        //act
+        String actual = lastGoodDeviceStore.get("POSPrinter");
+
+        //assert
+        assertNull(actual);
+    }
+
+    @Test
+    public void put_SurvivesRestart() {
+        //arrange
+        Path storePath = tempDir.resolve("possum").resolve("lastGoodDevices.properties");
+        new LastGoodDeviceStore(storePath).put("POSPrinter", "NCR7199Printer");
+
+        //act
+        String actual = new LastGoodDeviceStore(storePath).get("POSPrinter");
+
+        //assert
+        assertEquals("NCR7199Printer", actual);
+    }
+
+    @Test
+    public void put_WhenNameUnchanged_DoesNotRewriteFile() throws IOException {
+        //arrange
+        Path storePath = tempDir.resolve("lastGoodDevices.properties");
+        LastGoodDeviceStore lastGoodDeviceStore = new LastGoodDeviceStore(storePath);
+        lastGoodDeviceStore.put("POSPrinter", "NCR7199Printer");
+        Files.writeString(storePath, "");
+
+        //act
+        lastGoodDeviceStore.put("POSPrinter", "NCR7199Printer");
+
+        //assert
+        assertEquals("", Files.readString(storePath));
+    }
+}
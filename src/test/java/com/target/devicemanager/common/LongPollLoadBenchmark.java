@@ -0,0 +1,126 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.DeviceMain;
+import jpos.util.JposPropertiesConst;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts POSSUM with the simulated scanner and sends many GET /v1/scan requests at the same time, the way long-poll
+ * clients wait for a barcode, then logs how many were in progress at once and the heap the server used for them.
+ * The requests wait in the scanner's admission queue, which is made deep enough for all of them, until the
+ * benchmark answers them one by one with POST /v1/simulate/scan.
+ * With platform threads Tomcat serves at most server.tomcat.threads.max (200) requests at once; with
+ * spring.threads.virtual.enabled=true every request has its own virtual thread. The stacks of platform threads are
+ * outside the heap, so their heap figure understates what they cost.
+ * Not part of the test run. Virtual threads need Java 21 or later. Run it once per thread kind with
+ * java -cp build/classes/java/main:build/resources/main:build/classes/java/test:[runtime classpath] com.target.devicemanager.common.LongPollLoadBenchmark [clients] [virtual]
+ */
+public class LongPollLoadBenchmark {
+
+    private static final int DEFAULT_CLIENTS = 1000;
+    private static final long SETTLE_MSEC = 5000;
+    private static final long STARTUP_TIMEOUT_MSEC = 30000;
+    private static final long ANSWER_TIMEOUT_MSEC = 120000;
+    private static final String BARCODE = "{\"data\":\"012345678905\",\"type\":\"UPCA\",\"source\":\"FLATBED\"}";
+    private static final Logger LOGGER = LoggerFactory.getLogger(LongPollLoadBenchmark.class);
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        boolean isVirtual = args.length > 1 && Boolean.parseBoolean(args[1]);
+
+        //Same JavaPOS setup as DeviceMain.main
+        System.setProperty(JposPropertiesConst.JPOS_POPULATOR_FILE_PROP_NAME, "devcon.xml");
+        System.setProperty("jpos.config.regPopulatorClass", "jpos.config.simple.xml.SimpleXmlRegPopulator");
+        System.setProperty(JposPropertiesConst.JPOS_SERVICE_MANAGER_CLASS_PROP_NAME2, "jpos.loader.simple.SimpleServiceManager");
+        System.setProperty("jpos.util.tracing.TurnOnAllNamedTracers", "OFF");
+        System.setProperty("useSimulators", "true");
+
+        //Arguments, so they win over application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DeviceMain.class)
+                .run("--server.port=0",
+                        "--possum.device.handScanner.enabled=true",
+                        "--possum.admission.maxQueueDepth=" + clients,
+                        "--logging.level.root=WARN",
+                        "--" + DeviceThreads.VIRTUAL_THREADS_PROPERTY + "=" + isVirtual);
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            awaitReady(httpClient, baseUrl);
+            measure(isVirtual && DeviceThreads.isVirtualThreadsEnabled() ? "virtual threads" : "platform threads",
+                    httpClient, baseUrl, clients);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void measure(String name, HttpClient httpClient, String baseUrl, int clients) throws Exception {
+        HttpRequest scanRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/scan"))
+                .header(RequestDeadline.HEADER, String.valueOf(ANSWER_TIMEOUT_MSEC))
+                .timeout(Duration.ofMillis(ANSWER_TIMEOUT_MSEC + SETTLE_MSEC))
+                .GET().build();
+        AtomicInteger answered = new AtomicInteger();
+        Map<Integer, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+        List<CompletableFuture<?>> responses = new ArrayList<>();
+        long heapBefore = usedHeap();
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < clients; i++) {
+            responses.add(httpClient.sendAsync(scanRequest, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, throwable) -> {
+                        int status = response == null ? -1 : response.statusCode();
+                        statusCounts.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+                        answered.incrementAndGet();
+                    }));
+        }
+
+        Thread.sleep(SETTLE_MSEC);
+        int concurrent = clients - answered.get();
+        long heapUsed = usedHeap() - heapBefore;
+
+        HttpRequest barcodeRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/simulate/scan"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(BARCODE)).build();
+        long answerEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ANSWER_TIMEOUT_MSEC);
+        while (answered.get() < clients && System.nanoTime() < answerEnd) {
+            httpClient.send(barcodeRequest, HttpResponse.BodyHandlers.discarding());
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).handle((ignored, throwable) -> null).join();
+        long totalMsec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        LOGGER.warn(String.format("%-16s %6d/%d in progress at once, %6d KB heap, all answered after %d ms, status counts %s",
+                name, concurrent, clients, heapUsed / 1024, totalMsec, statusCounts));
+    }
+
+    private static void awaitReady(HttpClient httpClient, String baseUrl) throws Exception {
+        HttpRequest readinessRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/health/readiness")).GET().build();
+        long startupEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STARTUP_TIMEOUT_MSEC);
+        while (System.nanoTime() < startupEnd) {
+            if (httpClient.send(readinessRequest, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("POSSUM was not ready after " + STARTUP_TIMEOUT_MSEC + " ms");
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
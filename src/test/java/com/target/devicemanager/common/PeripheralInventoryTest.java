@@ -0,0 +1,142 @@
+package com.target.devicemanager.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeripheralInventoryTest {
+
+    private static final String PRINTER_CONFIRMOUT = "{\"printer\":[{\"vidpid\":\"0404:0202\",\"usbport\":\"bus=1\",\"manufacturer\":\"NCR\","
+            + "\"model\":\"7199\",\"config\":\"cfg\",\"firmware\":\"fw\",\"serialnumber\":\"123\"}]}";
+    private static final String SCANNER_CONFIRMOUT = "{\"flatbedscanner\":[{\"vidpid\":\"\",\"usbport\":\"\",\"manufacturer\":\"\","
+            + "\"model\":\"\",\"config\":\"\",\"firmware\":\"\",\"serialnumber\":\"\"}]}";
+
+    @TempDir
+    Path tempDir;
+
+    private PeripheralInventory peripheralInventory;
+
+    @BeforeEach
+    public void testInitialize() {
+        peripheralInventory = new PeripheralInventory();
+    }
+
+    @Test
+    public void fromFile_ParsesDevicesWithoutHealth() throws IOException {
+        //arrange
+        Path confirmout = Files.writeString(tempDir.resolve("confirmout.json"), PRINTER_CONFIRMOUT);
+
+        //act
+        PeripheralInventory.Inventory actual = peripheralInventory.fromFile(confirmout);
+
+        //assert
+        assertEquals(1, actual.getDevices().size());
+        DeviceConfigResponse device = actual.getDevices().get(0);
+        assertEquals("printer", device.devicename);
+        assertEquals("7199", device.model);
+        assertTrue(device.attached);
+        assertFalse(device.isFunctional);
+    }
+
+    @Test
+    public void fromFile_WhenFileUnchanged_ReturnsSameInventory() throws IOException {
+        //arrange
+        Path confirmout = Files.writeString(tempDir.resolve("confirmout.json"), PRINTER_CONFIRMOUT);
+        PeripheralInventory.Inventory expected = peripheralInventory.fromFile(confirmout);
+
+        //act
+        PeripheralInventory.Inventory actual = peripheralInventory.fromFile(confirmout);
+
+        //assert
+        assertSame(expected, actual);
+    }
+
+    @Test
+    public void fromFile_WhenFileMissing_ReturnsNull() throws IOException {
+        //act
+        PeripheralInventory.Inventory actual = peripheralInventory.fromFile(tempDir.resolve("missing.json"));
+
+        //assert
+        assertNull(actual);
+    }
+
+    @Test
+    public void fromFile_WhenFileIsNotJson_ThrowsException() throws IOException {
+        //arrange
+        Path confirmout = Files.writeString(tempDir.resolve("confirmout.json"), "{\"printer\":[");
+
+        //act
+        try {
+            peripheralInventory.fromFile(confirmout);
+        } catch (IOException ioException) {
+            return;
+        }
+
+        //assert
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void fromFile_AfterInvalidate_ParsesFileAgain() throws IOException {
+        //arrange
+        Path confirmout = Files.writeString(tempDir.resolve("confirmout.json"), PRINTER_CONFIRMOUT);
+        PeripheralInventory.Inventory before = peripheralInventory.fromFile(confirmout);
+        Files.writeString(confirmout, SCANNER_CONFIRMOUT);
+
+        //act
+        peripheralInventory.invalidate(confirmout);
+        PeripheralInventory.Inventory actual = peripheralInventory.fromFile(confirmout);
+
+        //assert
+        assertNotSame(before, actual);
+        assertNotEquals(before.getContentHash(), actual.getContentHash());
+        assertEquals("flatbedscanner", actual.getDevices().get(0).devicename);
+        assertFalse(actual.getDevices().get(0).attached);
+    }
+
+    @Test
+    public void fromFile_WhenFileRewritten_WatcherInvalidatesInventory() throws Exception {
+        //arrange
+        Path confirmout = Files.writeString(tempDir.resolve("confirmout.json"), PRINTER_CONFIRMOUT);
+        peripheralInventory.fromFile(confirmout);
+
+        //act
+        Files.writeString(confirmout, SCANNER_CONFIRMOUT);
+
+        //assert
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            if ("flatbedscanner".equals(peripheralInventory.fromFile(confirmout).getDevices().get(0).devicename)) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Expected inventory to be reloaded after the file changed");
+    }
+
+    @Test
+    public void fromResource_ParsesResourceOnce() throws IOException {
+        //act
+        PeripheralInventory.Inventory expected = peripheralInventory.fromResource("simulator_confirmout.json");
+        PeripheralInventory.Inventory actual = peripheralInventory.fromResource("simulator_confirmout.json");
+
+        //assert
+        assertFalse(expected.getDevices().isEmpty());
+        assertSame(expected, actual);
+    }
+
+    @Test
+    public void fromResource_WhenResourceMissing_ReturnsNull() throws IOException {
+        //act
+        PeripheralInventory.Inventory actual = peripheralInventory.fromResource("missing_confirmout.json");
+
+        //assert
+        assertNull(actual);
+    }
+}
@@ -0,0 +1,318 @@
+package com.target.devicemanager.common;
+
+import com.target.devicemanager.common.entities.DeviceHealth;
+import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.common.entities.ReconnectStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReconnectSchedulerTest {
+
+    private DeviceHealthRegistry deviceHealthRegistry;
+    private ReconnectScheduler reconnectScheduler;
+    private final List<Runnable> scheduledAttempts = new ArrayList<>();
+    private final List<Long> scheduledDelays = new ArrayList<>();
+
+    @Mock
+    private ScheduledExecutorService mockConnectExecutor;
+    @Mock
+    private ScheduledFuture<?> mockFuture;
+
+    @BeforeEach
+    public void testInitialize() {
+        scheduledAttempts.clear();
+        scheduledDelays.clear();
+        deviceHealthRegistry = new DeviceHealthRegistry();
+        doAnswer(invocation -> {
+            scheduledAttempts.add(invocation.getArgument(0));
+            scheduledDelays.add(invocation.getArgument(1));
+            return mockFuture;
+        }).when(mockConnectExecutor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        //0.5 puts the jitter factor at exactly 1 so delays are predictable
+        reconnectScheduler = new ReconnectScheduler(deviceHealthRegistry, mockConnectExecutor, () -> 0.5);
+    }
+
+    @Test
+    public void ctor_WhenHealthRegistryIsNull_ThrowsException() {
+        try {
+            new ReconnectScheduler(null, mockConnectExecutor, () -> 0.5);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("healthRegistry cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenConnectExecutorIsNull_ThrowsException() {
+        try {
+            new ReconnectScheduler(deviceHealthRegistry, null, () -> 0.5);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("connectExecutor cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenJitterSourceIsNull_ThrowsException() {
+        try {
+            new ReconnectScheduler(deviceHealthRegistry, mockConnectExecutor, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("jitterSource cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void backoffDelay_DoublesUpToMaximum() {
+        //assert
+        assertEquals(5000, ReconnectScheduler.backoffDelay(1));
+        assertEquals(10000, ReconnectScheduler.backoffDelay(2));
+        assertEquals(20000, ReconnectScheduler.backoffDelay(3));
+        assertEquals(40000, ReconnectScheduler.backoffDelay(4));
+        assertEquals(60000, ReconnectScheduler.backoffDelay(5));
+        assertEquals(60000, ReconnectScheduler.backoffDelay(100));
+    }
+
+    @Test
+    public void register_SchedulesFirstAttemptWithJitter() {
+        //arrange
+        reconnectScheduler = new ReconnectScheduler(deviceHealthRegistry, mockConnectExecutor, () -> 0.0);
+
+        //act
+        reconnectScheduler.register("printer", () -> {});
+
+        //assert
+        assertEquals(List.of(4000L), scheduledDelays);
+    }
+
+    @Test
+    public void register_WhenAlreadyRegistered_DoesNotScheduleTwice() {
+        //act
+        reconnectScheduler.register("printer", () -> {});
+        reconnectScheduler.register("printer", () -> {});
+
+        //assert
+        assertEquals(1, scheduledAttempts.size());
+    }
+
+    @Test
+    public void attempt_WhenConnected_ChecksAgainAtBaseDelay() {
+        //arrange
+        reconnectScheduler.register("printer", () -> deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.READY)));
+
+        //act
+        scheduledAttempts.get(0).run();
+
+        //assert
+        assertEquals(ReconnectScheduler.BASE_DELAY_MSEC, scheduledDelays.get(1));
+        ReconnectStats stats = reconnectScheduler.getStats().get("printer");
+        assertEquals(1, stats.attempts);
+        assertEquals(0, stats.failures);
+        assertTrue(stats.isConnected);
+    }
+
+    @Test
+    public void attempt_WhenNotConnected_BacksOff() {
+        //arrange
+        reconnectScheduler.register("printer", () -> deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.NOTREADY)));
+
+        //act
+        scheduledAttempts.get(0).run();
+        scheduledAttempts.get(1).run();
+        scheduledAttempts.get(2).run();
+
+        //assert
+        assertEquals(List.of(5000L, 5000L, 10000L, 20000L), scheduledDelays);
+        ReconnectStats stats = reconnectScheduler.getStats().get("printer");
+        assertEquals(3, stats.failures);
+        assertEquals(3, stats.consecutiveFailures);
+        assertEquals(20000, stats.nextDelayMsec);
+    }
+
+    @Test
+    public void attempt_WhenConnectThrows_CountsFailure() {
+        //arrange
+        reconnectScheduler.register("printer", () -> {
+            throw new IllegalStateException("driver failure");
+        });
+
+        //act
+        scheduledAttempts.get(0).run();
+
+        //assert
+        assertEquals(1, reconnectScheduler.getStats().get("printer").failures);
+        assertEquals(2, scheduledAttempts.size());
+    }
+
+    @Test
+    public void attempt_WithPrefixKey_NeedsEveryDeviceReady() {
+        //arrange
+        deviceHealthRegistry.publish("scanner:FLATBED", new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
+        deviceHealthRegistry.publish("scanner:HANDHELD", new DeviceHealthResponse("HANDHELD", DeviceHealth.NOTREADY));
+        reconnectScheduler.register("scanner:", () -> {});
+
+        //act
+        scheduledAttempts.get(0).run();
+
+        //assert
+        assertFalse(reconnectScheduler.getStats().get("scanner:").isConnected);
+    }
+
+    @Test
+    public void retryNow_DropsBackoffAndRunsRightAway() {
+        //arrange
+        AtomicInteger connectCount = new AtomicInteger();
+        reconnectScheduler.register("printer", connectCount::incrementAndGet);
+        scheduledAttempts.get(0).run();
+        scheduledAttempts.get(1).run();
+
+        //act
+        reconnectScheduler.retryNow("printer");
+
+        //assert
+        verify(mockFuture).cancel(false);
+        assertEquals(0L, scheduledDelays.get(3));
+        assertEquals(0, reconnectScheduler.getStats().get("printer").consecutiveFailures);
+        assertEquals(1, reconnectScheduler.getStats().get("printer").immediateRetries);
+        //The replaced attempt must not run the device a second time
+        scheduledAttempts.get(2).run();
+        assertEquals(2, connectCount.get());
+    }
+
+    @Test
+    public void retryNow_WhileConnecting_RetriesRightAfter() {
+        //arrange
+        reconnectScheduler.register("printer", () -> reconnectScheduler.retryNow("printer"));
+
+        //act
+        scheduledAttempts.get(0).run();
+
+        //assert
+        assertEquals(List.of(5000L, 0L), scheduledDelays);
+    }
+
+    @Test
+    public void retryNow_RunsRetryListenersOfCoveredDevices() {
+        //arrange
+        List<String> retried = new ArrayList<>();
+        reconnectScheduler.register("scanner:", () -> {});
+        reconnectScheduler.addRetryListener("scanner:FLATBED", () -> retried.add("scanner:FLATBED"));
+        reconnectScheduler.addRetryListener("scanner:HANDHELD", () -> retried.add("scanner:HANDHELD"));
+        reconnectScheduler.addRetryListener("scale", () -> retried.add("scale"));
+
+        //act
+        reconnectScheduler.retryNow("scanner:");
+
+        //assert
+        assertEquals(2, retried.size());
+        assertTrue(retried.containsAll(List.of("scanner:FLATBED", "scanner:HANDHELD")));
+    }
+
+    @Test
+    public void retryNow_WhenNotRegistered_DoesNothing() {
+        //act
+        reconnectScheduler.retryNow("printer");
+
+        //assert
+        assertTrue(scheduledAttempts.isEmpty());
+        assertTrue(reconnectScheduler.getStats().isEmpty());
+    }
+
+    @Test
+    public void connectNow_RunsOnCallerAndReplacesScheduledAttempt() {
+        //arrange
+        AtomicInteger connectCount = new AtomicInteger();
+        reconnectScheduler.register("printer", () -> {
+            connectCount.incrementAndGet();
+            deviceHealthRegistry.publish("printer", new DeviceHealthResponse("printer", DeviceHealth.READY));
+        });
+
+        //act
+        boolean actual = reconnectScheduler.connectNow("printer");
+
+        //assert
+        assertTrue(actual);
+        verify(mockFuture).cancel(false);
+        assertEquals(ReconnectScheduler.BASE_DELAY_MSEC, scheduledDelays.get(1));
+        //The replaced attempt must not run the device a second time
+        scheduledAttempts.get(0).run();
+        assertEquals(1, connectCount.get());
+    }
+
+    @Test
+    public void connectNow_WhenNotConnected_BacksOff() {
+        //arrange
+        reconnectScheduler.register("printer", () -> {});
+
+        //act
+        boolean actual = reconnectScheduler.connectNow("printer");
+
+        //assert
+        assertFalse(actual);
+        assertEquals(1, reconnectScheduler.getStats().get("printer").consecutiveFailures);
+    }
+
+    @Test
+    public void connectNow_WhileConnecting_DoesNotConnectAgain() {
+        //arrange
+        AtomicInteger connectCount = new AtomicInteger();
+        reconnectScheduler.register("printer", () -> {
+            connectCount.incrementAndGet();
+            reconnectScheduler.connectNow("printer");
+        });
+
+        //act
+        scheduledAttempts.get(0).run();
+
+        //assert
+        assertEquals(1, connectCount.get());
+    }
+
+    @Test
+    public void connectNow_WhenNotRegistered_ReturnsFalse() {
+        //act
+        boolean actual = reconnectScheduler.connectNow("printer");
+
+        //assert
+        assertFalse(actual);
+    }
+
+    @Test
+    public void getDeviceKeys_ReturnsRegisteredKeys() {
+        //arrange
+        reconnectScheduler.register("printer", () -> {});
+        reconnectScheduler.register("scanner:", () -> {});
+
+        //act
+        List<String> actual = reconnectScheduler.getDeviceKeys();
+
+        //assert
+        assertEquals(2, actual.size());
+        assertTrue(actual.containsAll(List.of("printer", "scanner:")));
+    }
+}
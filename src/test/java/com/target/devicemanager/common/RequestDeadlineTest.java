@@ -0,0 +1,82 @@
+package com.target.devicemanager.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineTest {
+
+    @AfterEach
+    public void testCleanup() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    public void remainingMsec_WhenNotSet_ReturnsDefault() {
+        //act
+        long actual = RequestDeadline.remainingMsec(1000);
+
+        //assert
+        assertEquals(1000, actual);
+        assertFalse(RequestDeadline.isSet());
+    }
+
+    @Test
+    public void remainingMsec_WhenSet_ReturnsTimeLeft() {
+        //arrange
+        RequestDeadline.set(5000);
+
+        //act
+        long actual = RequestDeadline.remainingMsec(1000);
+
+        //assert
+        assertTrue(actual > 1000 && actual <= 5000);
+    }
+
+    @Test
+    public void set_WhenAboveMax_CapsTimeout() {
+        //arrange
+        RequestDeadline.set(Long.MAX_VALUE);
+
+        //act
+        long actual = RequestDeadline.remainingMsec(1000);
+
+        //assert
+        assertTrue(actual <= RequestDeadline.MAX_TIMEOUT_MSEC);
+    }
+
+    @Test
+    public void preHandle_WhenHeaderPresent_SetsDeadlineUntilCompletion() {
+        //arrange
+        RequestDeadlineInterceptor interceptor = new RequestDeadlineInterceptor();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(RequestDeadline.HEADER, "250");
+
+        //act
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        long during = RequestDeadline.remainingMsec(1000);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        //assert
+        assertTrue(during <= 250);
+        assertFalse(RequestDeadline.isSet());
+    }
+
+    @Test
+    public void preHandle_WhenHeaderInvalid_UsesDefault() {
+        //arrange
+        RequestDeadlineInterceptor interceptor = new RequestDeadlineInterceptor();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(RequestDeadline.HEADER, "soon");
+
+        //act
+        boolean actual = interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        //assert
+        assertTrue(actual);
+        assertFalse(RequestDeadline.isSet());
+    }
+}
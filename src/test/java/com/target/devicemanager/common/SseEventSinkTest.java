@@ -0,0 +1,82 @@
+package com.target.devicemanager.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SseEventSinkTest {
+
+    @Mock
+    private SseEmitter mockEmitter;
+
+    @Test
+    public void ctor_WhenEmitterIsNull_ThrowsException() {
+        try {
+            new SseEventSink(null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("emitter cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void send_SendsEventWithIdNameAndJsonData() throws IOException {
+        //arrange
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+
+        //act
+        DeviceEventSink.of(mockEmitter).send("entry", "12", "{\"key\":65}");
+
+        //assert
+        verify(mockEmitter).send(captor.capture());
+        Set<ResponseBodyEmitter.DataWithMediaType> sent = captor.getValue().build();
+        StringBuilder text = new StringBuilder();
+        boolean hasJsonData = false;
+        for (ResponseBodyEmitter.DataWithMediaType item : sent) {
+            text.append(item.getData());
+            hasJsonData |= "{\"key\":65}".equals(item.getData()) && MediaType.APPLICATION_JSON.equals(item.getMediaType());
+        }
+        assertTrue(text.toString().startsWith("id:12\nevent:entry\ndata:"));
+        assertTrue(hasJsonData);
+    }
+
+    @Test
+    public void onCompletion_RunsCallbackWhenEmitterCompletesTimesOutOrFails() {
+        //arrange
+        Runnable callback = mock(Runnable.class);
+
+        //act
+        DeviceEventSink.of(mockEmitter).onCompletion(callback);
+
+        //assert
+        verify(mockEmitter).onCompletion(callback);
+        verify(mockEmitter).onTimeout(callback);
+        verify(mockEmitter).onError(any());
+    }
+
+    @Test
+    public void equals_WhenSameEmitter_ReturnsTrue() {
+        //assert
+        assertEquals(DeviceEventSink.of(mockEmitter), DeviceEventSink.of(mockEmitter));
+        assertEquals(DeviceEventSink.of(mockEmitter).hashCode(), DeviceEventSink.of(mockEmitter).hashCode());
+        assertNotEquals(DeviceEventSink.of(mockEmitter), DeviceEventSink.of(mock(SseEmitter.class)));
+    }
+}
@@ -0,0 +1,251 @@
+package com.target.devicemanager.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UsbHotplugMonitorTest {
+
+    @TempDir
+    Path sysfsDevices;
+
+    private UsbHotplugMonitor usbHotplugMonitor;
+    private final List<DeviceConfigResponse> inventory = new ArrayList<>();
+
+    @Mock
+    private ReconnectScheduler mockReconnectScheduler;
+
+    @BeforeEach
+    public void testInitialize() {
+        inventory.clear();
+        inventory.add(device("printer", "0404:0202"));
+        inventory.add(device("flatbedscanner", "05e0:0890"));
+        inventory.add(device("scale", "05e0:0890"));
+        inventory.add(device("handscanner", ""));
+        usbHotplugMonitor = new UsbHotplugMonitor(sysfsDevices, () -> inventory, mockReconnectScheduler);
+    }
+
+    @Test
+    public void ctor_WhenUsbDevicesDirectoryIsNull_ThrowsException() {
+        try {
+            new UsbHotplugMonitor(null, () -> inventory, mockReconnectScheduler);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("usbDevicesDirectory cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenInventorySourceIsNull_ThrowsException() {
+        try {
+            new UsbHotplugMonitor(sysfsDevices, null, mockReconnectScheduler);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("inventorySource cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenReconnectSchedulerIsNull_ThrowsException() {
+        try {
+            new UsbHotplugMonitor(sysfsDevices, () -> inventory, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("reconnectScheduler cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void scan_FirstScan_OnlyRecordsPresentDevices() throws IOException {
+        //arrange
+        plugIn("1-4", "0404", "0202");
+
+        //act
+        Set<String> actual = usbHotplugMonitor.scan();
+
+        //assert
+        assertTrue(actual.isEmpty());
+        verify(mockReconnectScheduler, never()).retryNow(anyString());
+    }
+
+    @Test
+    public void scan_WhenKnownDevicePluggedIn_RetriesItsManager() throws IOException {
+        //arrange
+        usbHotplugMonitor.scan();
+        plugIn("1-4", "0404", "0202");
+
+        //act
+        Set<String> actual = usbHotplugMonitor.scan();
+
+        //assert
+        assertEquals(Set.of("printer"), actual);
+        verify(mockReconnectScheduler).retryNow("printer");
+    }
+
+    @Test
+    public void scan_WhenVidPidIsShared_RetriesEveryDevice() throws IOException {
+        //arrange
+        usbHotplugMonitor.scan();
+        plugIn("2-7", "05E0", "0890");
+
+        //act
+        Set<String> actual = usbHotplugMonitor.scan();
+
+        //assert
+        assertEquals(Set.of("scanner:", "scale"), actual);
+        verify(mockReconnectScheduler).retryNow("scanner:");
+        verify(mockReconnectScheduler).retryNow("scale");
+    }
+
+    @Test
+    public void scan_WhenUnknownDevicePluggedIn_DoesNothing() throws IOException {
+        //arrange
+        usbHotplugMonitor.scan();
+        plugIn("1-2", "046d", "c31c");
+
+        //act
+        Set<String> actual = usbHotplugMonitor.scan();
+
+        //assert
+        assertTrue(actual.isEmpty());
+        verify(mockReconnectScheduler, never()).retryNow(anyString());
+    }
+
+    @Test
+    public void scan_WhenDeviceReplugged_RetriesAgain() throws IOException {
+        //arrange
+        plugIn("1-4", "0404", "0202");
+        usbHotplugMonitor.scan();
+        unplug("1-4");
+        usbHotplugMonitor.scan();
+        plugIn("1-4", "0404", "0202");
+
+        //act
+        usbHotplugMonitor.scan();
+
+        //assert
+        verify(mockReconnectScheduler, times(1)).retryNow("printer");
+    }
+
+    @Test
+    public void scan_WhenNothingChanged_DoesNothing() throws IOException {
+        //arrange
+        plugIn("1-4", "0404", "0202");
+        usbHotplugMonitor.scan();
+
+        //act
+        Set<String> actual = usbHotplugMonitor.scan();
+
+        //assert
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void scan_IgnoresEntriesWithoutIds() throws IOException {
+        //arrange
+        usbHotplugMonitor.scan();
+        Files.createDirectories(sysfsDevices.resolve("1-4:1.0"));
+        Files.writeString(Files.createDirectories(sysfsDevices.resolve("usb1")).resolve("idVendor"), "1d6b\n");
+
+        //act
+        Set<String> actual = usbHotplugMonitor.scan();
+
+        //assert
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void scan_WhenInventoryFails_DoesNotRetry() throws IOException {
+        //arrange
+        usbHotplugMonitor = new UsbHotplugMonitor(sysfsDevices, () -> {
+            throw new IllegalStateException("bad inventory");
+        }, mockReconnectScheduler);
+        usbHotplugMonitor.scan();
+        plugIn("1-4", "0404", "0202");
+
+        //act
+        Set<String> actual = usbHotplugMonitor.scan();
+
+        //assert
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void start_WhenDirectoryMissing_DoesNotStart() {
+        //arrange
+        usbHotplugMonitor = new UsbHotplugMonitor(sysfsDevices.resolve("missing"), () -> inventory, mockReconnectScheduler);
+
+        //act
+        usbHotplugMonitor.start();
+        usbHotplugMonitor.stop();
+
+        //assert
+        verify(mockReconnectScheduler, never()).retryNow(anyString());
+    }
+
+    @Test
+    public void start_WhenDevicePluggedIn_RetriesWithoutManualScan() throws Exception {
+        //arrange
+        usbHotplugMonitor.start();
+
+        //act
+        plugIn("1-4", "0404", "0202");
+
+        //assert
+        try {
+            verify(mockReconnectScheduler, timeout(15000)).retryNow("printer");
+        } finally {
+            usbHotplugMonitor.stop();
+        }
+    }
+
+    @Test
+    public void healthKeyOf_MapsConfirmoutNames() {
+        //assert
+        assertEquals("scanner:", UsbHotplugMonitor.healthKeyOf("handscanner"));
+        assertEquals("printer", UsbHotplugMonitor.healthKeyOf("printer"));
+        assertEquals("linedisplay", UsbHotplugMonitor.healthKeyOf("linedisplay"));
+        assertNull(UsbHotplugMonitor.healthKeyOf("touchscreen"));
+    }
+
+    private void plugIn(String entryName, String idVendor, String idProduct) throws IOException {
+        Path entry = Files.createDirectories(sysfsDevices.resolve(entryName));
+        Files.writeString(entry.resolve("idVendor"), idVendor + "\n");
+        Files.writeString(entry.resolve("idProduct"), idProduct + "\n");
+    }
+
+    private void unplug(String entryName) throws IOException {
+        Path entry = sysfsDevices.resolve(entryName);
+        Files.delete(entry.resolve("idVendor"));
+        Files.delete(entry.resolve("idProduct"));
+        Files.delete(entry);
+    }
+
+    private static DeviceConfigResponse device(String deviceName, String vidPid) {
+        return new DeviceConfigResponse(deviceName, vidPid, "", "", "", "", "", "", false, !vidPid.isEmpty());
+    }
+}
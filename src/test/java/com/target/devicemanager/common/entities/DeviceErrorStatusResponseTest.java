@@ -0,0 +1,30 @@
+package com.target.devicemanager.common.entities;
+
+import com.target.devicemanager.common.DeviceErrorEventBus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceErrorStatusResponseTest {
+
+    @Test
+    public void sendClearError_ClearsPrinterAndKeepsOtherDeviceFaults() {
+        //arrange
+        DeviceErrorEventBus deviceErrorEventBus = new DeviceErrorEventBus(List.of("printer", "scale"), Runnable::run);
+        deviceErrorEventBus.setError("printer", DeviceError.DEVICE_OFFLINE);
+        deviceErrorEventBus.setError("scale", DeviceError.DEVICE_OFFLINE);
+
+        //act
+        DeviceErrorStatusResponse.sendClearError(deviceErrorEventBus);
+
+        //assert
+        List<DeviceErrorStatus> actual = deviceErrorEventBus.getSnapshot().getStatuses();
+        assertEquals("printer", actual.get(0).deviceName);
+        assertFalse(actual.get(0).faultPresent);
+        assertEquals("scale", actual.get(1).deviceName);
+        assertTrue(actual.get(1).faultPresent);
+        assertEquals(DeviceError.DEVICE_OFFLINE, actual.get(1).deviceError);
+    }
+}
@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.cashdrawer;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
@@ -14,12 +15,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.locks.Lock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -40,62 +37,14 @@ public class CashDrawerManagerTest {
     private CashDrawerDevice mockCashDrawerDevice;
     @Mock
     private Lock mockCashDrawerLock;
-    @Mock
-    private CacheManager mockCacheManager;
-
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "cashDrawer1Health";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if (cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
 
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
-
-        }
-
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         Map<Integer, CashDrawerDevice> devices = Map.of(DRAWER_ID, mockCashDrawerDevice);
         cashDrawerManager = new CashDrawerManager(devices, mockCashDrawerLock);
-        cashDrawerManagerCache = new CashDrawerManager(devices, mockCashDrawerLock, mockCacheManager);
+        cashDrawerManagerCache = new CashDrawerManager(devices, mockCashDrawerLock, healthRegistry);
     }
 
     @Test
@@ -277,47 +226,32 @@ public class CashDrawerManagerTest {
     public void getHealth_WhenDeviceOffline_ShouldReturnNotReadyHealthResponse() throws DeviceException {
         when(mockCashDrawerDevice.isConnected()).thenReturn(false);
         when(mockCashDrawerDevice.getDeviceName()).thenReturn("cashDrawer");
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("cashDrawer", DeviceHealth.NOTREADY);
 
         DeviceHealthResponse deviceHealthResponse = cashDrawerManagerCache.getHealth(DRAWER_ID);
 
         assertEquals("cashDrawer", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(CashDrawerManager.HEALTH_KEY_PREFIX + DRAWER_ID).toString());
     }
 
     @Test
     public void getHealth_WhenDeviceOnline_ShouldReturnReadyHealthResponse() throws DeviceException {
         when(mockCashDrawerDevice.isConnected()).thenReturn(true);
         when(mockCashDrawerDevice.getDeviceName()).thenReturn("cashDrawer");
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("cashDrawer", DeviceHealth.READY);
 
         DeviceHealthResponse deviceHealthResponse = cashDrawerManagerCache.getHealth(DRAWER_ID);
 
         assertEquals("cashDrawer", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(CashDrawerManager.HEALTH_KEY_PREFIX + DRAWER_ID).toString());
     }
 
     @Test
-    public void getHealth_WhenCacheFails_ShouldReturnReadyHealthResponse() throws DeviceException {
-        when(mockCashDrawerDevice.isConnected()).thenReturn(true);
-        when(mockCashDrawerDevice.getDeviceName()).thenReturn("cashDrawer");
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(null);
-
-        DeviceHealthResponse deviceHealthResponse = cashDrawerManagerCache.getHealth(DRAWER_ID);
-
-        assertEquals("cashDrawer", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-    }
-
-    @Test
-    public void getStatus_WhenCacheExists() throws DeviceException {
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(testCache);
+    public void getStatus_WhenHealthPublished() throws DeviceException {
         DeviceHealthResponse expected = new DeviceHealthResponse("cashDrawer", DeviceHealth.READY);
-        testCache.put("health", expected);
+        healthRegistry.publish(CashDrawerManager.HEALTH_KEY_PREFIX + DRAWER_ID, expected);
 
         DeviceHealthResponse deviceHealthResponse = cashDrawerManagerCache.getStatus(DRAWER_ID);
 
@@ -325,25 +259,23 @@ public class CashDrawerManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() throws DeviceException {
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("cashDrawer", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        cashDrawerManagerCache.connect();
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() throws DeviceException {
         when(mockCashDrawerDevice.isConnected()).thenReturn(true);
         when(mockCashDrawerDevice.getDeviceName()).thenReturn("cashDrawer");
+        DeviceHealthResponse expected = new DeviceHealthResponse("cashDrawer", DeviceHealth.READY);
+        cashDrawerManagerCache.connect();
+        when(mockCashDrawerDevice.isConnected()).thenReturn(false);
 
-        DeviceHealthResponse deviceHealthResponse = cashDrawerManagerCache.getStatus(DRAWER_ID);
+        DeviceHealthResponse actual = cashDrawerManagerCache.getStatus(DRAWER_ID);
 
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(CashDrawerManager.HEALTH_KEY_PREFIX + DRAWER_ID).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() throws DeviceException {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() throws DeviceException {
         when(mockCashDrawerDevice.isConnected()).thenReturn(false);
         when(mockCashDrawerDevice.getDeviceName()).thenReturn("cashDrawer");
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("cashDrawer", DeviceHealth.NOTREADY);
 
         DeviceHealthResponse deviceHealthResponse = cashDrawerManagerCache.getStatus(DRAWER_ID);
@@ -352,10 +284,9 @@ public class CashDrawerManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() throws DeviceException {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() throws DeviceException {
         when(mockCashDrawerDevice.isConnected()).thenReturn(true);
         when(mockCashDrawerDevice.getDeviceName()).thenReturn("cashDrawer");
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("cashDrawer", DeviceHealth.READY);
 
         DeviceHealthResponse deviceHealthResponse = cashDrawerManagerCache.getStatus(DRAWER_ID);
@@ -363,23 +294,10 @@ public class CashDrawerManagerTest {
         assertEquals(expected.toString(), deviceHealthResponse.toString());
     }
 
-    @Test
-    public void getStatus_WhenCacheNull_CallHealth() throws DeviceException {
-        when(mockCashDrawerDevice.isConnected()).thenReturn(true);
-        when(mockCashDrawerDevice.getDeviceName()).thenReturn("cashDrawer");
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(null);
-
-        DeviceHealthResponse deviceHealthResponse = cashDrawerManagerCache.getStatus(DRAWER_ID);
-
-        assertEquals("cashDrawer", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-    }
-
     @Test
     public void getAllHealth_ReturnsListWithOneDrawer() {
         when(mockCashDrawerDevice.isConnected()).thenReturn(true);
         when(mockCashDrawerDevice.getDeviceName()).thenReturn("cashDrawer");
-        when(mockCacheManager.getCache("cashDrawer1Health")).thenReturn(testCache);
 
         var responses = cashDrawerManagerCache.getAllHealth();
 
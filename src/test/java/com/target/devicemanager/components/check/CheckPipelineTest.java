@@ -0,0 +1,326 @@
+package com.target.devicemanager.components.check;
+
+import com.target.devicemanager.common.RequestDeadline;
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceException;
+import com.target.devicemanager.components.check.entities.CheckPipelineRequest;
+import com.target.devicemanager.components.check.entities.CheckPipelineResponse;
+import com.target.devicemanager.components.check.entities.MicrData;
+import com.target.devicemanager.components.check.entities.MicrError;
+import com.target.devicemanager.components.check.entities.MicrException;
+import com.target.devicemanager.components.printer.PrinterManager;
+import com.target.devicemanager.components.printer.entities.ContentType;
+import com.target.devicemanager.components.printer.entities.PrinterContent;
+import com.target.devicemanager.components.printer.entities.PrinterError;
+import com.target.devicemanager.components.printer.entities.PrinterException;
+import com.target.devicemanager.components.printer.entities.TextContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class CheckPipelineTest {
+
+    private CheckPipeline checkPipeline;
+    private final MicrData micrData = new MicrData("1234567890", "12345", "011000015", "o0500o t011000015t 1234567890 o", "0100");
+
+    @Mock
+    private MicrManager mockMicrManager;
+    @Mock
+    private PrinterManager mockPrinterManager;
+    @Mock
+    private CheckValidator mockCheckValidator;
+
+    @BeforeEach
+    public void testInitialize() {
+        checkPipeline = new CheckPipeline(mockMicrManager, mockPrinterManager, mockCheckValidator, Runnable::run);
+        when(mockMicrManager.readMICRAsync(any())).thenReturn(CompletableFuture.completedFuture(micrData));
+        when(mockCheckValidator.isValid(any())).thenReturn(true);
+        when(mockPrinterManager.tryLock()).thenReturn(true);
+    }
+
+    private List<PrinterContent> frankTemplate(String data) {
+        TextContent textContent = new TextContent();
+        textContent.setType(ContentType.TEXT);
+        textContent.setData(data);
+        List<PrinterContent> template = new ArrayList<>();
+        template.add(textContent);
+        return template;
+    }
+
+    @Test
+    public void ctor_WhenMicrManagerIsNull_ThrowsException() {
+        try {
+            new CheckPipeline(null, mockPrinterManager);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("micrManager cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenPrinterManagerIsNull_ThrowsException() {
+        try {
+            new CheckPipeline(mockMicrManager, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("printerManager cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void process_RunsAllStagesInOrder() throws PrinterException {
+        //arrange
+        CheckPipelineRequest request = new CheckPipelineRequest(frankTemplate("Deposit only ${account_number}"), true);
+
+        //act
+        CheckPipelineResponse response = checkPipeline.process(request).join();
+
+        //assert
+        ArgumentCaptor<List<PrinterContent>> contents = ArgumentCaptor.forClass(List.class);
+        verify(mockCheckValidator).isValid(micrData);
+        verify(mockPrinterManager).frankCheck(contents.capture());
+        verify(mockMicrManager).ejectCheck();
+        assertEquals("Deposit only 1234567890", contents.getValue().get(0).data);
+        assertEquals(micrData, response.micrData);
+        assertTrue(response.franked);
+        assertEquals(List.of(CheckPipeline.STAGE_READ, CheckPipeline.STAGE_VALIDATE, CheckPipeline.STAGE_FRANK, CheckPipeline.STAGE_WITHDRAW),
+                new ArrayList<>(response.stageTimingsMsec.keySet()));
+    }
+
+    @Test
+    public void process_DoesNotChangeRequestTemplate() {
+        //arrange
+        CheckPipelineRequest request = new CheckPipelineRequest(frankTemplate("Deposit only ${account_number}"), false);
+
+        //act
+        checkPipeline.process(request).join();
+
+        //assert
+        assertEquals("Deposit only ${account_number}", request.frankTemplate.get(0).data);
+    }
+
+    @Test
+    public void process_HoldsPrinterFromAfterReadUntilWithdraw() throws PrinterException {
+        //arrange
+        CheckPipelineRequest request = new CheckPipelineRequest(frankTemplate("Deposit only"), false);
+
+        //act
+        checkPipeline.process(request).join();
+
+        //assert
+        InOrder inOrder = inOrder(mockPrinterManager, mockMicrManager);
+        inOrder.verify(mockMicrManager).readMICRAsync(any());
+        inOrder.verify(mockPrinterManager).tryLock();
+        inOrder.verify(mockPrinterManager).frankCheck(any());
+        inOrder.verify(mockMicrManager).ejectCheck();
+        inOrder.verify(mockPrinterManager).unlock();
+    }
+
+    @Test
+    public void process_WhenPrinterBusyAfterRead_WithdrawsWithoutFranking() throws PrinterException {
+        //arrange
+        when(mockPrinterManager.tryLock()).thenReturn(false);
+        CheckPipelineRequest request = new CheckPipelineRequest(frankTemplate("Deposit only"), false);
+
+        //act
+        try {
+            checkPipeline.process(request).join();
+        }
+
+        //assert
+        catch (CompletionException completionException) {
+            verify(mockMicrManager).ejectCheck();
+            verify(mockPrinterManager, never()).frankCheck(any());
+            verify(mockPrinterManager, never()).unlock();
+            assertEquals(PrinterError.DEVICE_BUSY, ((PrinterException) completionException.getCause()).getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void process_WaitsForPrinterAgainstCallerDeadline() {
+        //arrange
+        AtomicLong remainingMsec = new AtomicLong(-1);
+        when(mockPrinterManager.tryLock()).thenAnswer(invocation -> {
+            remainingMsec.set(RequestDeadline.remainingMsec(-1));
+            return true;
+        });
+        checkPipeline = new CheckPipeline(mockMicrManager, mockPrinterManager, mockCheckValidator, runnable -> new Thread(runnable).start());
+        RequestDeadline.set(5000);
+
+        //act
+        try {
+            checkPipeline.process(new CheckPipelineRequest(frankTemplate("Deposit only"), false)).join();
+        } finally {
+            RequestDeadline.clear();
+        }
+
+        //assert
+        assertTrue(remainingMsec.get() > 0 && remainingMsec.get() <= 5000);
+    }
+
+    @Test
+    public void process_WhenAlreadyRunning_ReturnsDeviceBusy() {
+        //arrange
+        List<Runnable> pendingTasks = new ArrayList<>();
+        checkPipeline = new CheckPipeline(mockMicrManager, mockPrinterManager, mockCheckValidator, pendingTasks::add);
+        CompletableFuture<CheckPipelineResponse> first = checkPipeline.process(new CheckPipelineRequest());
+
+        //act
+        try {
+            checkPipeline.process(new CheckPipelineRequest()).join();
+        }
+
+        //assert
+        catch (CompletionException completionException) {
+            assertEquals(DeviceError.DEVICE_BUSY, ((DeviceException) completionException.getCause()).getDeviceError());
+            pendingTasks.get(0).run();
+            assertEquals(micrData, first.join().micrData);
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void process_WithoutTemplateOrValidation_ReadsAndWithdraws() throws PrinterException {
+        //arrange
+
+        //act
+        CheckPipelineResponse response = checkPipeline.process(new CheckPipelineRequest()).join();
+
+        //assert
+        verify(mockCheckValidator, never()).isValid(any());
+        verify(mockPrinterManager, never()).frankCheck(any());
+        verify(mockMicrManager).ejectCheck();
+        verify(mockPrinterManager, never()).tryLock();
+        assertFalse(response.franked);
+    }
+
+    @Test
+    public void process_WhenValidationFails_WithdrawsWithoutFranking() throws PrinterException {
+        //arrange
+        when(mockCheckValidator.isValid(any())).thenReturn(false);
+        CheckPipelineRequest request = new CheckPipelineRequest(frankTemplate("Deposit only"), true);
+
+        //act
+        try {
+            checkPipeline.process(request).join();
+        }
+
+        //assert
+        catch (CompletionException completionException) {
+            verify(mockPrinterManager, never()).frankCheck(any());
+            verify(mockMicrManager).ejectCheck();
+            assertEquals(MicrError.INVALID_CHECK, ((MicrException) completionException.getCause()).getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void process_WhenFrankFails_StillWithdraws() throws PrinterException {
+        //arrange
+        doThrow(new PrinterException(PrinterError.DEVICE_BUSY)).when(mockPrinterManager).frankCheck(any());
+        CheckPipelineRequest request = new CheckPipelineRequest(frankTemplate("Deposit only"), false);
+
+        //act
+        try {
+            checkPipeline.process(request).join();
+        }
+
+        //assert
+        catch (CompletionException completionException) {
+            verify(mockMicrManager).ejectCheck();
+            verify(mockPrinterManager).unlock();
+            assertEquals(PrinterError.DEVICE_BUSY, ((PrinterException) completionException.getCause()).getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void process_WhenReadFails_DoesNotTakePrinter() throws PrinterException {
+        //arrange
+        when(mockMicrManager.readMICRAsync(any())).thenReturn(CompletableFuture.failedFuture(new MicrException(MicrError.BAD_DATA)));
+        CheckPipelineRequest request = new CheckPipelineRequest(frankTemplate("Deposit only"), true);
+
+        //act
+        try {
+            checkPipeline.process(request).join();
+        }
+
+        //assert
+        catch (CompletionException completionException) {
+            verify(mockPrinterManager, never()).tryLock();
+            verify(mockPrinterManager, never()).frankCheck(any());
+            assertEquals(MicrError.BAD_DATA, ((MicrException) completionException.getCause()).getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void process_WhenTemplateTooLong_ReturnsBadInput() {
+        //arrange
+        List<PrinterContent> template = new ArrayList<>();
+        for (int i = 0; i < CheckPipeline.MAX_TEMPLATE_SIZE; i++) {
+            template.addAll(frankTemplate("line " + i));
+        }
+
+        //act
+        try {
+            checkPipeline.process(new CheckPipelineRequest(template, false)).join();
+        }
+
+        //assert
+        catch (CompletionException completionException) {
+            verify(mockMicrManager, never()).readMICRAsync(any());
+            assertEquals(DeviceError.BAD_INPUT, ((DeviceException) completionException.getCause()).getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void routingNumberValidator_ChecksAbaCheckDigit() {
+        //arrange
+        RoutingNumberValidator routingNumberValidator = new RoutingNumberValidator();
+
+        //act
+
+        //assert
+        assertTrue(routingNumberValidator.isValid(micrData));
+        assertFalse(routingNumberValidator.isValid(new MicrData("1", "1", "011000016", "", "")));
+        assertFalse(routingNumberValidator.isValid(new MicrData("1", "1", "01100001", "", "")));
+        assertFalse(routingNumberValidator.isValid(new MicrData("1", "1", "01100001A", "", "")));
+    }
+}
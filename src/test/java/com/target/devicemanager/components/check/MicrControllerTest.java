@@ -4,6 +4,10 @@ import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
 import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.components.check.entities.CheckPipelineRequest;
+import com.target.devicemanager.components.check.entities.CheckPipelineResponse;
+import com.target.devicemanager.components.check.entities.MicrData;
+import com.target.devicemanager.components.check.entities.MicrError;
 import com.target.devicemanager.components.check.entities.MicrException;
 import com.target.devicemanager.components.printer.PrinterManager;
 import com.target.devicemanager.components.printer.entities.PrinterContent;
@@ -19,9 +23,12 @@ import org.mockito.quality.Strictness;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -38,16 +45,18 @@ public class MicrControllerTest {
     private MicrManager mockMicrManager;
     @Mock
     private PrinterManager mockPrinterManager;
+    @Mock
+    private CheckPipeline mockCheckPipeline;
 
     @BeforeEach
     public void testInitialize() {
-        micrController = new MicrController(mockPrinterManager, mockMicrManager);
+        micrController = new MicrController(mockPrinterManager, mockMicrManager, mockCheckPipeline);
     }
 
     @Test
     public void ctor_WhenPrinterManagerAndMicrManagerAreNull_ThrowsException() {
         try {
-            new MicrController(null, null);
+            new MicrController(null, null, null);
         } catch (IllegalArgumentException iae) {
             assertEquals("printerManager cannot be null", iae.getMessage());
             return;
@@ -59,7 +68,7 @@ public class MicrControllerTest {
     @Test
     public void ctor_WhenPrinterManagerIsNull_ThrowsException() {
         try {
-            new MicrController(null, mockMicrManager);
+            new MicrController(null, mockMicrManager, mockCheckPipeline);
         } catch (IllegalArgumentException iae) {
             assertEquals("printerManager cannot be null", iae.getMessage());
             return;
@@ -71,7 +80,7 @@ public class MicrControllerTest {
     @Test
     public void ctor_WhenMicrManagerIsNull_ThrowsException() {
         try {
-            new MicrController(mockPrinterManager, null);
+            new MicrController(mockPrinterManager, null, mockCheckPipeline);
         } catch (IllegalArgumentException iae) {
             assertEquals("micrManager cannot be null", iae.getMessage());
             return;
@@ -83,12 +92,24 @@ public class MicrControllerTest {
     @Test
     public void ctor_WhenPrinterManagerAndMicrManagerAreNotNull_DoesNotThrowException() {
         try {
-            new MicrController(mockPrinterManager, mockMicrManager);
+            new MicrController(mockPrinterManager, mockMicrManager, mockCheckPipeline);
         } catch(Exception exception) {
             fail("Existing Manager Arguments should not result in an Exception");
         }
     }
 
+    @Test
+    public void ctor_WhenCheckPipelineIsNull_ThrowsException() {
+        try {
+            new MicrController(mockPrinterManager, mockMicrManager, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("checkPipeline cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
     @Test
     public void print_CallsThroughToPrinterManager() throws PrinterException {
         //arrange
@@ -142,33 +163,59 @@ public class MicrControllerTest {
     }
 
     @Test
-    public void readCheck_CallsThroughToMicrManager() throws MicrException {
+    public void readCheck_CallsThroughToMicrManager() {
         //arrange
+        MicrData micrData = new MicrData("1234567890", "12345", "123456789", "o0500o t123456789t 1234567890 o", "0100");
+        when(mockMicrManager.readMICRAsync(any())).thenReturn(CompletableFuture.completedFuture(micrData));
 
         //act
-        micrController.readCheck();
+        DeferredResult<MicrData> result = micrController.readCheck();
 
         //assert
-        verify(mockMicrManager).readMICR(any());
+        verify(mockMicrManager).readMICRAsync(any());
+        assertEquals(micrData, result.getResult());
     }
 
     @Test
-    public void readCheck_WhenThrowsError() throws MicrException {
+    public void readCheck_WhenThrowsError() {
         //arrange
-        doThrow(new MicrException(DeviceError.DEVICE_BUSY)).when(mockMicrManager).readMICR(any());
+        MicrException expected = new MicrException(DeviceError.DEVICE_BUSY);
+        when(mockMicrManager.readMICRAsync(any())).thenReturn(CompletableFuture.failedFuture(new CompletionException(expected)));
 
         //act
-        try {
-            micrController.readCheck();
-        }
+        DeferredResult<MicrData> result = micrController.readCheck();
 
         //assert
-        catch(MicrException micrException) {
-            verify(mockMicrManager).readMICR(any());
-            assertEquals(DeviceError.DEVICE_BUSY, micrException.getDeviceError());
-            return;
-        }
-        fail("Expected Exception, but got none.");
+        verify(mockMicrManager).readMICRAsync(any());
+        assertEquals(expected, result.getResult());
+    }
+
+    @Test
+    public void processCheck_CallsThroughToCheckPipeline() {
+        //arrange
+        CheckPipelineRequest request = new CheckPipelineRequest();
+        CheckPipelineResponse expected = new CheckPipelineResponse(new MicrData());
+        when(mockCheckPipeline.process(request)).thenReturn(CompletableFuture.completedFuture(expected));
+
+        //act
+        DeferredResult<CheckPipelineResponse> result = micrController.processCheck(request);
+
+        //assert
+        verify(mockCheckPipeline).process(request);
+        assertEquals(expected, result.getResult());
+    }
+
+    @Test
+    public void processCheck_WhenThrowsError() {
+        //arrange
+        MicrException expected = new MicrException(MicrError.INVALID_CHECK);
+        when(mockCheckPipeline.process(any())).thenReturn(CompletableFuture.failedFuture(new CompletionException(expected)));
+
+        //act
+        DeferredResult<CheckPipelineResponse> result = micrController.processCheck(new CheckPipelineRequest());
+
+        //assert
+        assertEquals(expected, result.getResult());
     }
 
     @Test
@@ -577,6 +577,19 @@ public class MicrDeviceTest {
         assertEquals(JposConst.JPOS_E_TIMEOUT, micrErrorEvent.getValue().getError().getErrorCode());
     }
 
+    @Test
+    public void insertCheck_WhenReadTokenCancelled_ReturnsFalseWithoutErrorEvent() throws MicrException {
+        //arrange
+        micrDeviceListenerLock.addMicrEventListener(mockMicrEventListener);
+
+        //act
+        boolean actual = micrDeviceListenerLock.insertCheck(() -> true);
+
+        //assert
+        assertFalse(actual);
+        verify(mockMicrEventListener, never()).micrErrorEventOccurred(any());
+    }
+
     @Test
     public void insertCheck_BeginEndInsertion_UntilDone() throws JposException, MicrException{
         //arrange
@@ -620,6 +633,31 @@ public class MicrDeviceTest {
         verify(mockMicr).endRemoval();
     }
 
+    @Test
+    public void withdrawCheck_AfterCancel_RecordsCancelToEjectLatency() throws JposException {
+        //arrange
+        when(mockDynamicMicr.getDevice()).thenReturn(mockMicr);
+        micrDevice.setCheckCancelReceived(true);
+
+        //act
+        micrDevice.withdrawCheck();
+
+        //assert
+        assertTrue(micrDevice.getLastCancelToEjectMsec() >= 0);
+    }
+
+    @Test
+    public void withdrawCheck_WithoutCancel_DoesNotRecordLatency() throws JposException {
+        //arrange
+        when(mockDynamicMicr.getDevice()).thenReturn(mockMicr);
+
+        //act
+        micrDevice.withdrawCheck();
+
+        //assert
+        assertEquals(-1, micrDevice.getLastCancelToEjectMsec());
+    }
+
     @Test
     public void withdrawCheck_ThrowsException() throws JposException {
         //arrange
@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.check;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
@@ -16,16 +17,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 
@@ -39,62 +41,14 @@ public class MicrManagerTest {
     @Mock
     private MicrDevice mockMicrDevice;
     @Mock
-    private CacheManager mockCacheManager;
-    @Mock
     CompletableFuture<MicrData> mockFutureClient;
 
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "micrHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if(cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
-
-        }
-
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         micrManager = new MicrManager(mockMicrDevice);
-        micrManagerCacheClient = new MicrManager(mockMicrDevice, mockCacheManager, mockFutureClient);
+        micrManagerCacheClient = new MicrManager(mockMicrDevice, healthRegistry, mockFutureClient, Runnable::run, MicrManager.CHECK_READ_TIMEOUT_MSEC);
     }
 
     @Test
@@ -201,38 +155,38 @@ public class MicrManagerTest {
         fail("Expected DEVICE_OFFLINE, but got none.");
     }
 
-
     @Test
-    public void readMICR_ReturnsMICRDataFromDevice() throws MicrException, ExecutionException, InterruptedException {
+    public void readMICR_ReturnsMICRDataFromDevice() throws MicrException {
         //arrange
-        CompletableFuture<MicrData> mockFuture = mock(CompletableFuture.class);
+        CompletableFuture<MicrData> future = new CompletableFuture<>();
         MicrData micrData = new MicrData( "1234567890",  "12345","123456789", "o0500o t123456789t 1234567890 o", "0100");
-        when(mockFuture.get()).thenReturn(micrData);
+        doAnswer(invocation -> future.complete(micrData)).when(mockMicrDevice).insertCheck(any());
 
         //act
-        MicrData actual = micrManagerCacheClient.readMICR(mockFuture);
+        MicrData actual = micrManagerCacheClient.readMICR(future);
 
         //assert
         verify(mockMicrDevice).setCheckCancelReceived(false);
-        verify(mockMicrDevice).insertCheck();
+        verify(mockMicrDevice).insertCheck(any());
         assertEquals(micrData, actual);
     }
 
     @Test
-    public void readMICR_WhenBadDataRead_ThrowException() throws ExecutionException, InterruptedException, MicrException {
+    public void readMICR_WhenBadDataRead_ThrowException() throws MicrException, JposException {
         //arrange
-        CompletableFuture<MicrData> mockFuture = mock(CompletableFuture.class);
-        doThrow(new ExecutionException("Test", new JposException(MICRConst.JPOS_EMICR_BADDATA))).when(mockFuture).get();
+        CompletableFuture<MicrData> future = new CompletableFuture<>();
+        doAnswer(invocation -> future.completeExceptionally(new JposException(MICRConst.JPOS_EMICR_BADDATA))).when(mockMicrDevice).insertCheck(any());
 
         //act
         try {
-            micrManagerCacheClient.readMICR(mockFuture);
+            micrManagerCacheClient.readMICR(future);
         }
 
         //assert
         catch (MicrException micrException) {
             verify(mockMicrDevice).setCheckCancelReceived(false);
-            verify(mockMicrDevice).insertCheck();
+            verify(mockMicrDevice).insertCheck(any());
+            verify(mockMicrDevice).withdrawCheck();
             assertEquals(MicrError.BAD_DATA, micrException.getDeviceError());
             return;
         }
@@ -241,20 +195,20 @@ public class MicrManagerTest {
     }
 
     @Test
-    public void readMICR_WhenDeviceError_ThrowException() throws ExecutionException, InterruptedException, MicrException {
+    public void readMICR_WhenDeviceError_ThrowException() throws MicrException {
         //arrange
-        CompletableFuture<MicrData> mockFuture = mock(CompletableFuture.class);
-        doThrow(new ExecutionException("Test", new JposException(MICRConst.JPOS_EMICR_COVEROPEN))).when(mockFuture).get();
+        CompletableFuture<MicrData> future = new CompletableFuture<>();
+        doAnswer(invocation -> future.completeExceptionally(new JposException(MICRConst.JPOS_EMICR_COVEROPEN))).when(mockMicrDevice).insertCheck(any());
 
         //act
         try {
-            micrManagerCacheClient.readMICR(mockFuture);
+            micrManagerCacheClient.readMICR(future);
         }
 
         //assert
         catch (MicrException micrException) {
             verify(mockMicrDevice).setCheckCancelReceived(false);
-            verify(mockMicrDevice).insertCheck();
+            verify(mockMicrDevice).insertCheck(any());
             assertEquals(MicrError.HARDWARE_ERROR, micrException.getDeviceError());
             return;
         }
@@ -263,21 +217,20 @@ public class MicrManagerTest {
     }
 
     @Test
-    public void readMICR_WhenInterrupted_ThrowInternalError() throws ExecutionException, InterruptedException, MicrException {
+    public void readMICR_WhenInsertionThrowsRuntimeException_ThrowInternalError() throws MicrException {
         //arrange
-        CompletableFuture<MicrData> mockFuture = mock(CompletableFuture.class);
-        Exception exception = new InterruptedException("quick question");
-        doThrow(exception).when(mockFuture).get();
+        CompletableFuture<MicrData> future = new CompletableFuture<>();
+        doThrow(new IllegalStateException("quick question")).when(mockMicrDevice).insertCheck(any());
 
         //act
         try {
-            micrManagerCacheClient.readMICR(mockFuture);
+            micrManagerCacheClient.readMICR(future);
         }
 
         //assert
         catch (MicrException micrException) {
             verify(mockMicrDevice).setCheckCancelReceived(false);
-            verify(mockMicrDevice).insertCheck();
+            verify(mockMicrDevice).insertCheck(any());
             assertEquals(MicrError.UNEXPECTED_ERROR, micrException.getDeviceError());
             return;
         }
@@ -285,6 +238,106 @@ public class MicrManagerTest {
         fail("Expected Exception, but got none");
     }
 
+    @Test
+    public void readMICR_WhenDeadlineExpires_CancelsAndEjects() throws JposException {
+        //arrange
+        MicrManager micrManagerShortDeadline = new MicrManager(mockMicrDevice, healthRegistry, null, Runnable::run, 50);
+
+        //act
+        try {
+            micrManagerShortDeadline.readMICR(new CompletableFuture<>());
+        }
+
+        //assert
+        catch (MicrException micrException) {
+            verify(mockMicrDevice).setCheckCancelReceived(true);
+            verify(mockMicrDevice).withdrawCheck();
+            assertEquals(MicrError.CLIENT_CANCELLED_REQUEST, micrException.getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void readMICRAsync_WhenDeadlineExpires_EjectsOnInsertionThread() throws JposException, InterruptedException {
+        //arrange
+        List<Runnable> insertionTasks = new CopyOnWriteArrayList<>();
+        when(mockMicrDevice.insertCheck(any())).thenReturn(true);
+        MicrManager micrManagerShortDeadline = new MicrManager(mockMicrDevice, healthRegistry, null, insertionTasks::add, 50);
+        CompletableFuture<MicrData> actual = micrManagerShortDeadline.readMICRAsync(new CompletableFuture<>());
+        insertionTasks.remove(0).run();
+
+        //act
+        long waitUntil = System.currentTimeMillis() + 5000;
+        while (insertionTasks.isEmpty() && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+        }
+        verify(mockMicrDevice).setCheckCancelReceived(true);
+        verify(mockMicrDevice, never()).withdrawCheck();
+        assertFalse(actual.isDone());
+        insertionTasks.remove(0).run();
+
+        //assert
+        verify(mockMicrDevice).withdrawCheck();
+        assertTrue(actual.isCompletedExceptionally());
+    }
+
+    @Test
+    public void readMICRAsync_DoesNotWaitForCheck() throws MicrException {
+        //arrange
+        CompletableFuture<MicrData> future = new CompletableFuture<>();
+        when(mockMicrDevice.insertCheck(any())).thenReturn(true);
+
+        //act
+        CompletableFuture<MicrData> actual = micrManagerCacheClient.readMICRAsync(future);
+
+        //assert
+        verify(mockMicrDevice).insertCheck(any());
+        assertEquals(false, actual.isDone());
+    }
+
+    @Test
+    public void readMICRAsync_WhenPreviousReadStillRunning_CancelsOnlyPreviousRead() throws MicrException, JposException {
+        //arrange
+        List<Runnable> insertionTasks = new ArrayList<>();
+        List<BooleanSupplier> cancelTokens = new ArrayList<>();
+        when(mockMicrDevice.insertCheck(any())).thenAnswer(invocation -> {
+            cancelTokens.add(invocation.getArgument(0));
+            return true;
+        });
+        MicrManager micrManagerQueued = new MicrManager(mockMicrDevice, healthRegistry, null, insertionTasks::add, MicrManager.CHECK_READ_TIMEOUT_MSEC);
+        CompletableFuture<MicrData> firstRead = micrManagerQueued.readMICRAsync(new CompletableFuture<>());
+        insertionTasks.remove(0).run();
+
+        //act
+        CompletableFuture<MicrData> secondRead = micrManagerQueued.readMICRAsync(new CompletableFuture<>());
+        insertionTasks.remove(0).run();
+
+        //assert
+        assertTrue(cancelTokens.get(0).getAsBoolean());
+        assertFalse(cancelTokens.get(1).getAsBoolean());
+        assertTrue(firstRead.isCompletedExceptionally());
+        assertFalse(secondRead.isDone());
+        verify(mockMicrDevice, never()).withdrawCheck();
+    }
+
+    @Test
+    public void readMICRAsync_WhenPreviousReadNotStarted_PreviousInsertionNeverRuns() throws MicrException {
+        //arrange
+        List<Runnable> insertionTasks = new ArrayList<>();
+        when(mockMicrDevice.insertCheck(any())).thenReturn(true);
+        MicrManager micrManagerQueued = new MicrManager(mockMicrDevice, healthRegistry, null, insertionTasks::add, MicrManager.CHECK_READ_TIMEOUT_MSEC);
+        micrManagerQueued.readMICRAsync(new CompletableFuture<>());
+
+        //act
+        micrManagerQueued.readMICRAsync(new CompletableFuture<>());
+        insertionTasks.forEach(Runnable::run);
+
+        //assert
+        verify(mockMicrDevice, times(1)).insertCheck(any());
+    }
+
     @Test
     public void cancelCheckRead_CallsThroughToMicrDevice() {
         //arrange
@@ -364,7 +417,6 @@ public class MicrManagerTest {
         //arrange
         when(mockMicrDevice.isConnected()).thenReturn(false);
         when(mockMicrDevice.getDeviceName()).thenReturn("micr");
-        when(mockCacheManager.getCache("micrHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.NOTREADY);
 
         //act
@@ -373,7 +425,7 @@ public class MicrManagerTest {
         //assert
         assertEquals("micr", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(MicrManager.HEALTH_KEY).toString());
     }
 
     @Test
@@ -381,24 +433,6 @@ public class MicrManagerTest {
         //arrange
         when(mockMicrDevice.isConnected()).thenReturn(true);
         when(mockMicrDevice.getDeviceName()).thenReturn("micr");
-        when(mockCacheManager.getCache("micrHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = micrManagerCacheClient.getHealth();
-
-        //assert
-        assertEquals("micr", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
-    }
-
-    @Test
-    public void getHealth_WhenCacheNull_ShouldReturnReadyHealthResponse() {
-        //arrange
-        when(mockMicrDevice.isConnected()).thenReturn(true);
-        when(mockMicrDevice.getDeviceName()).thenReturn("micr");
-        when(mockCacheManager.getCache("micrHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.READY);
 
         //act
@@ -407,14 +441,14 @@ public class MicrManagerTest {
         //assert
         assertEquals("micr", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
+        assertEquals(expected.toString(), healthRegistry.get(MicrManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheExists() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockCacheManager.getCache("micrHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.READY);
-        testCache.put("health", expected);
+        healthRegistry.publish(MicrManager.HEALTH_KEY, expected);
 
         //act
         DeviceHealthResponse deviceHealthResponse = micrManagerCacheClient.getStatus();
@@ -424,29 +458,27 @@ public class MicrManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockCacheManager.getCache("micrHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        micrManagerCacheClient.connect(); //set check health flag to CHECK_HEALTH
-        when(mockMicrDevice.isConnected()).thenReturn(true); //make sure health returns READY
+        when(mockMicrDevice.isConnected()).thenReturn(true);
         when(mockMicrDevice.getDeviceName()).thenReturn("micr");
+        DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.READY);
+        micrManagerCacheClient.connect();
+        when(mockMicrDevice.isConnected()).thenReturn(false);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = micrManagerCacheClient.getStatus();
+        DeviceHealthResponse actual = micrManagerCacheClient.getStatus();
 
         //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(MicrManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() {
         //arrange
         when(mockMicrDevice.isConnected()).thenReturn(false);
         when(mockMicrDevice.getDeviceName()).thenReturn("micr");
-        when(mockCacheManager.getCache("micrHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.NOTREADY);
 
         //act
@@ -457,26 +489,10 @@ public class MicrManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() {
-        //arrange
-        when(mockMicrDevice.isConnected()).thenReturn(true);
-        when(mockMicrDevice.getDeviceName()).thenReturn("micr");
-        when(mockCacheManager.getCache("micrHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = micrManagerCacheClient.getStatus();
-
-        //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
-    }
-
-    @Test
-    public void getStatus_WhenCacheNull_CallHealth() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() {
         //arrange
         when(mockMicrDevice.isConnected()).thenReturn(true);
         when(mockMicrDevice.getDeviceName()).thenReturn("micr");
-        when(mockCacheManager.getCache("micrHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("micr", DeviceHealth.READY);
 
         //act
@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.keylock;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
@@ -12,12 +13,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.locks.Lock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -36,61 +32,13 @@ public class KeylockManagerTest {
     private KeylockDevice mockKeylockDevice;
     @Mock
     private Lock mockKeylockLock;
-    @Mock
-    private CacheManager mockCacheManager;
-
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "keylockHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if(cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
 
-        @Override
-        public void evict(Object key) {
-
-        }
-
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         keylockManager = new KeylockManager(mockKeylockDevice, mockKeylockLock);
-        keylockManagerCache = new KeylockManager(mockKeylockDevice, mockKeylockLock, mockCacheManager);
+        keylockManagerCache = new KeylockManager(mockKeylockDevice, mockKeylockLock, healthRegistry);
     }
 
     @Test
@@ -280,7 +228,6 @@ public class KeylockManagerTest {
         //arrange
         when(mockKeylockDevice.isConnected()).thenReturn(false);
         when(mockKeylockDevice.getDeviceName()).thenReturn("keylock");
-        when(mockCacheManager.getCache("keylockHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.NOTREADY);
 
         //act
@@ -289,7 +236,7 @@ public class KeylockManagerTest {
         //assert
         assertEquals("keylock", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(KeylockManager.HEALTH_KEY).toString());
     }
 
     @Test
@@ -297,7 +244,6 @@ public class KeylockManagerTest {
         //arrange
         when(mockKeylockDevice.isConnected()).thenReturn(true);
         when(mockKeylockDevice.getDeviceName()).thenReturn("keylock");
-        when(mockCacheManager.getCache("keylockHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.READY);
 
         //act
@@ -306,31 +252,14 @@ public class KeylockManagerTest {
         //assert
         assertEquals("keylock", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(KeylockManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getHealth_WhenCacheFails_ShouldReturnReadyHealthResponse() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockKeylockDevice.isConnected()).thenReturn(true);
-        when(mockKeylockDevice.getDeviceName()).thenReturn("keylock");
-        when(mockCacheManager.getCache("keylockHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = keylockManagerCache.getHealth();
-
-        //assert
-        assertEquals("keylock", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-    }
-
-    @Test
-    public void getStatus_WhenCacheExists() {
-        //arrange
-        when(mockCacheManager.getCache("keylockHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.READY);
-        testCache.put("health", expected);
+        healthRegistry.publish(KeylockManager.HEALTH_KEY, expected);
 
         //act
         DeviceHealthResponse deviceHealthResponse = keylockManagerCache.getStatus();
@@ -340,29 +269,27 @@ public class KeylockManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockCacheManager.getCache("keylockHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        keylockManagerCache.connect(); //set check health flag to CHECK_HEALTH
-        when(mockKeylockDevice.isConnected()).thenReturn(true); //make sure health returns READY
+        when(mockKeylockDevice.isConnected()).thenReturn(true);
         when(mockKeylockDevice.getDeviceName()).thenReturn("keylock");
+        DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.READY);
+        keylockManagerCache.connect();
+        when(mockKeylockDevice.isConnected()).thenReturn(false);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = keylockManagerCache.getStatus();
+        DeviceHealthResponse actual = keylockManagerCache.getStatus();
 
         //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(KeylockManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() {
         //arrange
         when(mockKeylockDevice.isConnected()).thenReturn(false);
         when(mockKeylockDevice.getDeviceName()).thenReturn("keylock");
-        when(mockCacheManager.getCache("keylockHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.NOTREADY);
 
         //act
@@ -373,26 +300,10 @@ public class KeylockManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() {
-        //arrange
-        when(mockKeylockDevice.isConnected()).thenReturn(true);
-        when(mockKeylockDevice.getDeviceName()).thenReturn("keylock");
-        when(mockCacheManager.getCache("keylockHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = keylockManagerCache.getStatus();
-
-        //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
-    }
-
-    @Test
-    public void getStatus_WhenCacheNull_CallHealth() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() {
         //arrange
         when(mockKeylockDevice.isConnected()).thenReturn(true);
         when(mockKeylockDevice.getDeviceName()).thenReturn("keylock");
-        when(mockCacheManager.getCache("keylockHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("keylock", DeviceHealth.READY);
 
         //act
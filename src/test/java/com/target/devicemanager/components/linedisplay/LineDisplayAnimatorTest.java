@@ -0,0 +1,312 @@
+package com.target.devicemanager.components.linedisplay;
+
+import com.target.devicemanager.common.entities.DeviceError;
+import com.target.devicemanager.common.entities.DeviceException;
+import com.target.devicemanager.components.linedisplay.entities.AnimationType;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayAnimation;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayData;
+import jpos.JposConst;
+import jpos.JposException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class LineDisplayAnimatorTest {
+
+    private LineDisplayAnimator lineDisplayAnimator;
+
+    @Mock
+    private LineDisplayDevice mockLineDisplayDevice;
+    @Mock
+    private ScheduledExecutorService mockScheduler;
+    @Mock
+    private ScheduledFuture<?> mockTickFuture;
+    @Mock
+    private ScheduledFuture<?> mockRevertFuture;
+
+    @BeforeEach
+    public void testInitialize() {
+        lineDisplayAnimator = new LineDisplayAnimator(mockLineDisplayDevice, mockScheduler);
+
+        //Default Mock Behavior
+        doReturn(mockTickFuture).when(mockScheduler).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        doReturn(mockRevertFuture).when(mockScheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void ctor_WhenLineDisplayDeviceIsNull_ThrowsException() {
+        try {
+            new LineDisplayAnimator(null, mockScheduler);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("lineDisplayDevice cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenSchedulerIsNull_ThrowsException() {
+        try {
+            new LineDisplayAnimator(mockLineDisplayDevice, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("scheduler cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void start_Marquee_DrawsFirstFrameAndSchedulesTicks() throws DeviceException, JposException {
+        //arrange
+        LineDisplayAnimation animation = animation(AnimationType.MARQUEE, "WELCOME TO THE STORE, HAVE A NICE DAY", "TOTAL 0.00");
+
+        //act
+        lineDisplayAnimator.start(animation);
+
+        //assert
+        verify(mockLineDisplayDevice).displayLine("WELCOME TO THE STORE", "TOTAL 0.00          ");
+        verify(mockScheduler).scheduleAtFixedRate(any(Runnable.class), eq(LineDisplayAnimator.DEFAULT_MARQUEE_INTERVAL_MSEC),
+                eq(LineDisplayAnimator.DEFAULT_MARQUEE_INTERVAL_MSEC), eq(TimeUnit.MILLISECONDS));
+        assertTrue(lineDisplayAnimator.isAnimating());
+    }
+
+    @Test
+    public void start_Marquee_TickScrollsText() throws DeviceException, JposException {
+        //arrange
+        LineDisplayAnimation animation = animation(AnimationType.MARQUEE, "WELCOME TO THE STORE, HAVE A NICE DAY", null);
+        ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+        lineDisplayAnimator.start(animation);
+        verify(mockScheduler).scheduleAtFixedRate(tick.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+
+        //act
+        tick.getValue().run();
+
+        //assert
+        verify(mockLineDisplayDevice).displayLine("ELCOME TO THE STORE,", "                    ");
+    }
+
+    @Test
+    public void start_BlinkWithNativeSupport_UsesDeviceBlink() throws DeviceException, JposException {
+        //arrange
+        when(mockLineDisplayDevice.supportsNativeBlink()).thenReturn(true);
+        LineDisplayAnimation animation = animation(AnimationType.BLINK, "PLEASE WAIT", null);
+
+        //act
+        lineDisplayAnimator.start(animation);
+
+        //assert
+        verify(mockLineDisplayDevice).displayBlinking("PLEASE WAIT         ", "                    ", (int) LineDisplayAnimator.DEFAULT_BLINK_INTERVAL_MSEC);
+        verify(mockLineDisplayDevice, never()).displayLine(anyString(), anyString());
+        verify(mockScheduler, never()).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void start_BlinkWithoutNativeSupport_AlternatesTextAndBlank() throws DeviceException, JposException {
+        //arrange
+        when(mockLineDisplayDevice.supportsNativeBlink()).thenReturn(false);
+        LineDisplayAnimation animation = animation(AnimationType.BLINK, "PLEASE WAIT", null);
+        ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+
+        //act
+        lineDisplayAnimator.start(animation);
+        verify(mockScheduler).scheduleAtFixedRate(tick.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        tick.getValue().run();
+
+        //assert
+        verify(mockLineDisplayDevice).displayLine("PLEASE WAIT         ", "                    ");
+        verify(mockLineDisplayDevice).displayLine("                    ", "                    ");
+    }
+
+    @Test
+    public void start_Alternate_CyclesMessages() throws DeviceException, JposException {
+        //arrange
+        LineDisplayAnimation animation = animation(AnimationType.ALTERNATE, null, null);
+        animation.messages = new ArrayList<>(List.of(message("SAVE 10%", "TODAY"), message("THANK YOU", null)));
+        ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+
+        //act
+        lineDisplayAnimator.start(animation);
+        verify(mockScheduler).scheduleAtFixedRate(tick.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        tick.getValue().run();
+        tick.getValue().run();
+
+        //assert
+        verify(mockLineDisplayDevice, times(2)).displayLine("SAVE 10%            ", "TODAY               ");
+        verify(mockLineDisplayDevice).displayLine("THANK YOU           ", "                    ");
+    }
+
+    @Test
+    public void start_WithDuration_RevertsToIdleText() throws DeviceException, JposException {
+        //arrange
+        LineDisplayAnimation animation = animation(AnimationType.BLINK, "PLEASE WAIT", null);
+        animation.durationMsec = 3000;
+        animation.idleLine1 = "NEXT CUSTOMER";
+        ArgumentCaptor<Runnable> revert = ArgumentCaptor.forClass(Runnable.class);
+        lineDisplayAnimator.start(animation);
+        verify(mockScheduler).schedule(revert.capture(), eq(3000L), eq(TimeUnit.MILLISECONDS));
+
+        //act
+        revert.getValue().run();
+
+        //assert
+        verify(mockLineDisplayDevice).displayLine("NEXT CUSTOMER       ", "                    ");
+        verify(mockTickFuture).cancel(false);
+        assertFalse(lineDisplayAnimator.isAnimating());
+    }
+
+    @Test
+    public void stop_CancelsAnimationAndIgnoresLateTicks() throws DeviceException, JposException {
+        //arrange
+        LineDisplayAnimation animation = animation(AnimationType.MARQUEE, "WELCOME TO THE STORE, HAVE A NICE DAY", null);
+        ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+        lineDisplayAnimator.start(animation);
+        verify(mockScheduler).scheduleAtFixedRate(tick.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+
+        //act
+        lineDisplayAnimator.stop();
+        tick.getValue().run();
+
+        //assert
+        verify(mockTickFuture).cancel(false);
+        verify(mockLineDisplayDevice, times(1)).displayLine(anyString(), anyString());
+        assertFalse(lineDisplayAnimator.isAnimating());
+    }
+
+    @Test
+    public void tick_WhenDeviceFails_StopsAnimation() throws DeviceException, JposException {
+        //arrange
+        LineDisplayAnimation animation = animation(AnimationType.MARQUEE, "WELCOME TO THE STORE, HAVE A NICE DAY", null);
+        ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+        lineDisplayAnimator.start(animation);
+        verify(mockScheduler).scheduleAtFixedRate(tick.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        doThrow(new JposException(JposConst.JPOS_E_OFFLINE)).when(mockLineDisplayDevice).displayLine(anyString(), anyString());
+
+        //act
+        tick.getValue().run();
+
+        //assert
+        verify(mockTickFuture).cancel(false);
+        assertFalse(lineDisplayAnimator.isAnimating());
+    }
+
+    @Test
+    public void tick_WhenFrameFailsAfterAnimationWasReplaced_KeepsNewAnimation() throws DeviceException, JposException {
+        //arrange
+        LineDisplayAnimation animation = animation(AnimationType.MARQUEE, "WELCOME TO THE STORE, HAVE A NICE DAY", null);
+        ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+        lineDisplayAnimator.start(animation);
+        verify(mockScheduler).scheduleAtFixedRate(tick.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        doAnswer(invocation -> {
+            //Another request replaces the animation while this frame is being written
+            doNothing().when(mockLineDisplayDevice).displayLine(anyString(), anyString());
+            lineDisplayAnimator.start(animation(AnimationType.MARQUEE, "NEXT CUSTOMER PLEASE, THANK YOU", null));
+            throw new JposException(JposConst.JPOS_E_OFFLINE);
+        }).when(mockLineDisplayDevice).displayLine(anyString(), anyString());
+
+        //act
+        tick.getValue().run();
+
+        //assert
+        verify(mockScheduler, times(2)).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        verify(mockTickFuture, times(1)).cancel(false);
+        assertTrue(lineDisplayAnimator.isAnimating());
+    }
+
+    @Test
+    public void start_WhenFirstFrameFails_ThrowsDeviceException() throws JposException {
+        //arrange
+        doThrow(new JposException(JposConst.JPOS_E_OFFLINE)).when(mockLineDisplayDevice).displayLine(anyString(), anyString());
+
+        //act
+        try {
+            lineDisplayAnimator.start(animation(AnimationType.MARQUEE, "HELLO", null));
+        }
+
+        //assert
+        catch (DeviceException deviceException) {
+            assertEquals(DeviceError.DEVICE_OFFLINE, deviceException.getDeviceError());
+            verify(mockScheduler, never()).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void start_AlternateWithoutMessages_ThrowsBadInput() {
+        //act
+        try {
+            lineDisplayAnimator.start(animation(AnimationType.ALTERNATE, null, null));
+        }
+
+        //assert
+        catch (DeviceException deviceException) {
+            assertEquals(DeviceError.BAD_INPUT, deviceException.getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void start_IntervalTooShort_ThrowsBadInput() {
+        //arrange
+        LineDisplayAnimation animation = animation(AnimationType.MARQUEE, "HELLO", null);
+        animation.intervalMsec = 10;
+
+        //act
+        try {
+            lineDisplayAnimator.start(animation);
+        }
+
+        //assert
+        catch (DeviceException deviceException) {
+            assertEquals(DeviceError.BAD_INPUT, deviceException.getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void marquee_ShortText_IsNotScrolled() {
+        //act
+        String actual = LineDisplayAnimator.marquee("HELLO", 7);
+
+        //assert
+        assertEquals("HELLO", actual);
+    }
+
+    private static LineDisplayAnimation animation(AnimationType type, String line1, String line2) {
+        LineDisplayAnimation animation = new LineDisplayAnimation();
+        animation.type = type;
+        animation.line1 = line1;
+        animation.line2 = line2;
+        return animation;
+    }
+
+    private static LineDisplayData message(String line1, String line2) {
+        LineDisplayData lineDisplayData = new LineDisplayData();
+        lineDisplayData.line1 = line1;
+        lineDisplayData.line2 = line2;
+        return lineDisplayData;
+    }
+}
@@ -4,7 +4,10 @@ import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
 import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.components.linedisplay.entities.AnimationType;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayAnimation;
 import com.target.devicemanager.components.linedisplay.entities.LineDisplayData;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -88,6 +91,62 @@ public class LineDisplayControllerTest {
         fail("Expected Exception, but got none.");
     }
 
+    @Test
+    public void startAnimation_CallsThroughToLineDisplayManager() throws DeviceException {
+        //arrange
+        LineDisplayAnimation animation = new LineDisplayAnimation();
+        animation.type = AnimationType.BLINK;
+
+        //act
+        lineDisplayController.startAnimation(animation);
+
+        //assert
+        verify(mockLineDisplayManager).startAnimation(animation);
+    }
+
+    @Test
+    public void startAnimation_WhenBadInput_ThrowsError() throws DeviceException {
+        //arrange
+        LineDisplayAnimation animation = new LineDisplayAnimation();
+        doThrow(new DeviceException(DeviceError.BAD_INPUT)).when(mockLineDisplayManager).startAnimation(animation);
+
+        //act
+        try {
+            lineDisplayController.startAnimation(animation);
+        }
+
+        //assert
+        catch (DeviceException deviceException) {
+            assertEquals(DeviceError.BAD_INPUT, deviceException.getDeviceError());
+            return;
+        }
+        fail("Expected Exception, but got none.");
+    }
+
+    @Test
+    public void stopAnimation_CallsThroughToLineDisplayManager() {
+        //act
+        lineDisplayController.stopAnimation();
+
+        //assert
+        verify(mockLineDisplayManager).stopAnimation();
+    }
+
+    @Test
+    public void getStats_ReturnsStatsFromManager() {
+        //arrange
+        LineDisplayStats expected = new LineDisplayStats();
+        expected.writesAvoided = 3;
+        when(mockLineDisplayManager.getStats()).thenReturn(expected);
+
+        //act
+        LineDisplayStats actual = lineDisplayController.getStats();
+
+        //assert
+        verify(mockLineDisplayManager).getStats();
+        assertEquals(expected, actual);
+    }
+
     @Test
     public void getHealth_ReturnsHealthFromManager() {
         //arrange
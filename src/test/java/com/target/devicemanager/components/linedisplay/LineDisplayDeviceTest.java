@@ -3,6 +3,7 @@ package com.target.devicemanager.components.linedisplay;
 import com.target.devicemanager.common.DynamicDevice;
 import com.target.devicemanager.common.events.ConnectionEvent;
 import com.target.devicemanager.common.events.ConnectionEventListener;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayStats;
 import jpos.JposConst;
 import jpos.JposException;
 import jpos.LineDisplay;
@@ -18,6 +19,11 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -276,6 +282,110 @@ public class LineDisplayDeviceTest {
         verify(mockLineDisplay).displayTextAt(1, 0, "Test Data Line 2", LineDisplayConst.DISP_DT_NORMAL);
     }
 
+    @Test
+    public void displayLine_WhenFrameUnchanged_DoesNotWrite() throws JposException {
+        //arrange
+        lineDisplayDevice.displayLine("Test Data Line 1", "Test Data Line 2");
+
+        //act
+        lineDisplayDevice.displayLine("Test Data Line 1", "Test Data Line 2");
+
+        //assert
+        verify(mockLineDisplay, times(2)).displayTextAt(anyInt(), anyInt(), anyString(), anyInt());
+        LineDisplayStats lineDisplayStats = lineDisplayDevice.getStats();
+        assertEquals(2, lineDisplayStats.framesRendered);
+        assertEquals(2, lineDisplayStats.writesSent);
+        assertEquals(2, lineDisplayStats.writesAvoided);
+    }
+
+    @Test
+    public void displayLine_WhenOneLineChanges_WritesOnlyChangedSpan() throws JposException {
+        //arrange
+        lineDisplayDevice.displayLine("Test Data Line 1", "Total 1.00");
+
+        //act
+        lineDisplayDevice.displayLine("Test Data Line 1", "Total 2.50");
+
+        //assert
+        verify(mockLineDisplay).displayTextAt(1, 6, "2.5", LineDisplayConst.DISP_DT_NORMAL);
+        verify(mockLineDisplay, times(1)).displayTextAt(eq(0), anyInt(), anyString(), anyInt());
+    }
+
+    @Test
+    public void displayLine_AfterWriteFails_RewritesFullFrame() throws JposException {
+        //arrange
+        lineDisplayDevice.displayLine("Test Data Line 1", "Test Data Line 2");
+        doThrow(new JposException(JposConst.JPOS_E_OFFLINE)).doNothing().when(mockLineDisplay).displayTextAt(anyInt(), anyInt(), anyString(), anyInt());
+        try {
+            lineDisplayDevice.displayLine("Test Data Line 3", "Test Data Line 2");
+        } catch (JposException jposException) {
+            assertEquals(JposConst.JPOS_E_OFFLINE, jposException.getErrorCode());
+        }
+
+        //act
+        lineDisplayDevice.displayLine("Test Data Line 3", "Test Data Line 2");
+
+        //assert
+        verify(mockLineDisplay).displayTextAt(0, 0, "Test Data Line 3", LineDisplayConst.DISP_DT_NORMAL);
+        verify(mockLineDisplay, times(2)).displayTextAt(1, 0, "Test Data Line 2", LineDisplayConst.DISP_DT_NORMAL);
+    }
+
+    @Test
+    public void displayLine_AfterReconnect_RewritesFullFrame() throws JposException {
+        //arrange
+        lineDisplayDevice.displayLine("Test Data Line 1", "Test Data Line 2");
+        when(mockDynamicLineDisplay.connect()).thenReturn(DynamicDevice.ConnectionResult.CONNECTED);
+        lineDisplayDevice.connect();
+
+        //act
+        lineDisplayDevice.displayLine("Test Data Line 1", "Test Data Line 2");
+
+        //assert
+        verify(mockLineDisplay, times(2)).displayTextAt(0, 0, "Test Data Line 1", LineDisplayConst.DISP_DT_NORMAL);
+        verify(mockLineDisplay, times(2)).displayTextAt(1, 0, "Test Data Line 2", LineDisplayConst.DISP_DT_NORMAL);
+    }
+
+    @Test
+    public void supportsNativeBlink_WhenDeviceCanBlink_ReturnsTrue() throws JposException {
+        //arrange
+        when(mockLineDisplay.getCapBlink()).thenReturn(LineDisplayConst.DISP_CB_BLINKALL);
+
+        //act
+        boolean actual = lineDisplayDevice.supportsNativeBlink();
+
+        //assert
+        assertTrue(actual);
+    }
+
+    @Test
+    public void supportsNativeBlink_WhenCapabilityThrows_ReturnsFalse() throws JposException {
+        //arrange
+        when(mockLineDisplay.getCapBlink()).thenThrow(new JposException(JposConst.JPOS_E_CLOSED));
+
+        //act
+        boolean actual = lineDisplayDevice.supportsNativeBlink();
+
+        //assert
+        assertFalse(actual);
+    }
+
+    @Test
+    public void displayBlinking_WritesBlinkAttributeAndForcesFullRedraw() throws JposException {
+        //arrange
+        when(mockLineDisplay.getCapBlinkRate()).thenReturn(true);
+        lineDisplayDevice.displayLine("Test Data Line 1", "Test Data Line 2");
+
+        //act
+        lineDisplayDevice.displayBlinking("Test Data Line 1", "Test Data Line 2", 500);
+        lineDisplayDevice.displayLine("Test Data Line 1", "Test Data Line 2");
+
+        //assert
+        verify(mockLineDisplay).setBlinkRate(500);
+        verify(mockLineDisplay).displayTextAt(0, 0, "Test Data Line 1", LineDisplayConst.DISP_DT_BLINK);
+        verify(mockLineDisplay).displayTextAt(1, 0, "Test Data Line 2", LineDisplayConst.DISP_DT_BLINK);
+        verify(mockLineDisplay, times(2)).displayTextAt(0, 0, "Test Data Line 1", LineDisplayConst.DISP_DT_NORMAL);
+    }
+
     @Test
     public void displayLine_WhenDisplayThrowsException_ConnectedFalse() throws JposException {
         //arrange
@@ -315,6 +425,59 @@ public class LineDisplayDeviceTest {
         fail("Expected Exception, but got none");
     }
 
+    @Test
+    public void displayLine_WhenCarryingWriteFails_ThrowsToCoalescedCaller() throws Exception {
+        //arrange
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            String text = invocation.getArgument(2);
+            if (text.startsWith("A")) {
+                firstWriteStarted.countDown();
+                releaseFirstWrite.await(5, TimeUnit.SECONDS);
+            } else if (text.startsWith("C")) {
+                throw new JposException(JposConst.JPOS_E_EXTENDED);
+            }
+            return null;
+        }).when(mockLineDisplay).displayTextAt(anyInt(), anyInt(), any(), anyInt());
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> first = callers.submit(() -> { lineDisplayDevice.displayLine("A", "A"); return null; });
+            assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+            Future<?> coalesced = callers.submit(() -> { lineDisplayDevice.displayLine("B", "B"); return null; });
+            waitForFramesRequested(2);
+            Future<?> latest = callers.submit(() -> { lineDisplayDevice.displayLine("C", "C"); return null; });
+            waitForFramesRequested(3);
+
+            //act
+            releaseFirstWrite.countDown();
+
+            //assert
+            first.get(5, TimeUnit.SECONDS);
+            for (Future<?> caller : List.of(coalesced, latest)) {
+                try {
+                    caller.get(5, TimeUnit.SECONDS);
+                    fail("Expected Exception, but got none");
+                } catch (ExecutionException executionException) {
+                    assertEquals(JposConst.JPOS_E_EXTENDED, ((JposException) executionException.getCause()).getErrorCode());
+                }
+            }
+            assertEquals(1, lineDisplayDevice.getStats().framesCoalesced);
+        } finally {
+            releaseFirstWrite.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    private void waitForFramesRequested(long framesRequested) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lineDisplayDevice.getStats().framesRequested < framesRequested && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        //The caller is queued on the device lock right after it counts its frame
+        Thread.sleep(50);
+    }
+
     @Test
     public void getDeviceName_ReturnsName() {
         //arrange
@@ -0,0 +1,114 @@
+package com.target.devicemanager.components.linedisplay;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineDisplayFrameBufferTest {
+
+    private LineDisplayFrameBuffer frameBuffer;
+
+    @BeforeEach
+    public void testInitialize() {
+        frameBuffer = new LineDisplayFrameBuffer(2);
+    }
+
+    @Test
+    public void ctor_WhenRowsIsZero_ThrowsException() {
+        try {
+            new LineDisplayFrameBuffer(0);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("rows must be greater than 0", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void diff_WhenScreenUnknown_ReturnsFullRows() {
+        //act
+        List<LineDisplayFrameBuffer.Span> spans = frameBuffer.diff(new String[]{"BANANAS     ", "0.59        "});
+
+        //assert
+        assertEquals(2, spans.size());
+        assertEquals(0, spans.get(0).getRow());
+        assertEquals(0, spans.get(0).getColumn());
+        assertEquals("BANANAS     ", spans.get(0).getText());
+        assertEquals(1, spans.get(1).getRow());
+        assertEquals("0.59        ", spans.get(1).getText());
+    }
+
+    @Test
+    public void diff_WhenFrameCommitted_ReturnsNoSpans() {
+        //arrange
+        String[] frame = {"BANANAS     ", "0.59        "};
+        frameBuffer.commit(frame);
+
+        //act
+        List<LineDisplayFrameBuffer.Span> spans = frameBuffer.diff(frame);
+
+        //assert
+        assertTrue(spans.isEmpty());
+    }
+
+    @Test
+    public void diff_WhenCharactersChange_ReturnsOnlyChangedSpan() {
+        //arrange
+        frameBuffer.commit(new String[]{"BANANAS     ", "0.59        "});
+
+        //act
+        List<LineDisplayFrameBuffer.Span> spans = frameBuffer.diff(new String[]{"BANANAS     ", "1.29        "});
+
+        //assert
+        assertEquals(1, spans.size());
+        assertEquals(1, spans.get(0).getRow());
+        assertEquals(0, spans.get(0).getColumn());
+        assertEquals("1.2", spans.get(0).getText());
+    }
+
+    @Test
+    public void diff_WhenChangesAreFarApart_ReturnsSeparateSpans() {
+        //arrange
+        frameBuffer.commit(new String[]{"A                  1", ""});
+
+        //act
+        List<LineDisplayFrameBuffer.Span> spans = frameBuffer.diff(new String[]{"B                  2", ""});
+
+        //assert
+        assertEquals(2, spans.size());
+        assertEquals(0, spans.get(0).getColumn());
+        assertEquals("B", spans.get(0).getText());
+        assertEquals(19, spans.get(1).getColumn());
+        assertEquals("2", spans.get(1).getText());
+    }
+
+    @Test
+    public void diff_WhenLengthChanges_ReturnsFullRow() {
+        //arrange
+        frameBuffer.commit(new String[]{"BANANAS", ""});
+
+        //act
+        List<LineDisplayFrameBuffer.Span> spans = frameBuffer.diff(new String[]{"BANANA", ""});
+
+        //assert
+        assertEquals(1, spans.size());
+        assertEquals("BANANA", spans.get(0).getText());
+    }
+
+    @Test
+    public void invalidate_NextDiffReturnsFullRows() {
+        //arrange
+        String[] frame = {"BANANAS     ", "0.59        "};
+        frameBuffer.commit(frame);
+
+        //act
+        frameBuffer.invalidate();
+
+        //assert
+        assertEquals(2, frameBuffer.diff(frame).size());
+    }
+}
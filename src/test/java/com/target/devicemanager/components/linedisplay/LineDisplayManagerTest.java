@@ -1,10 +1,14 @@
 package com.target.devicemanager.components.linedisplay;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
 import com.target.devicemanager.common.entities.DeviceHealthResponse;
 import com.target.devicemanager.common.events.ConnectionEvent;
+import com.target.devicemanager.components.linedisplay.entities.AnimationType;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayAnimation;
+import com.target.devicemanager.components.linedisplay.entities.LineDisplayStats;
 import jpos.JposConst;
 import jpos.JposException;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,12 +18,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.Callable;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -35,60 +33,14 @@ public class LineDisplayManagerTest {
     @Mock
     private LineDisplayDevice mockLineDisplayDevice;
     @Mock
-    private CacheManager mockCacheManager;
-
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "lineDisplayHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
+    private LineDisplayAnimator mockLineDisplayAnimator;
 
-        @Override
-        public ValueWrapper get(Object key) {
-            if(cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
-
-        }
-
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         lineDisplayManager = new LineDisplayManager(mockLineDisplayDevice);
-        lineDisplayManagerCache = new LineDisplayManager(mockLineDisplayDevice, mockCacheManager);
+        lineDisplayManagerCache = new LineDisplayManager(mockLineDisplayDevice, healthRegistry);
     }
 
     @Test
@@ -258,92 +210,125 @@ public class LineDisplayManagerTest {
     }
 
     @Test
-    public void connectionEventOccurred_DoesNothing() {
-        //Combine these since we default to not connected it's useful to test that we actually do disconnect
-        ConnectionEvent connectionEvent = new ConnectionEvent(this, true);
-        ConnectionEvent disconnectionEvent = new ConnectionEvent(this, false);
+    public void ctor_WhenLineDisplayAnimatorIsNull_ThrowsException() {
+        try {
+            new LineDisplayManager(mockLineDisplayDevice, healthRegistry, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("lineDisplayAnimator cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void displayLine_StopsRunningAnimation() throws DeviceException, JposException {
+        //arrange
+        LineDisplayManager animatedManager = new LineDisplayManager(mockLineDisplayDevice, healthRegistry, mockLineDisplayAnimator);
 
-        //Connect
-        lineDisplayManager.connectionEventOccurred(connectionEvent);
+        //act
+        animatedManager.displayLine("123", "abc");
 
-        //disconnect
-        lineDisplayManager.connectionEventOccurred(disconnectionEvent);
+        //assert
+        verify(mockLineDisplayAnimator).stop();
+        verify(mockLineDisplayDevice).displayLine("123                 ", "abc                 ");
     }
 
     @Test
-    public void getHealth_WhenDeviceOffline_ShouldReturnNotReadyHealthResponse() {
+    public void startAnimation_CallsThroughToAnimator() throws DeviceException {
         //arrange
-        when(mockLineDisplayDevice.isConnected()).thenReturn(false);
-        when(mockLineDisplayDevice.getDeviceName()).thenReturn("lineDisplay");
-        when(mockCacheManager.getCache("lineDisplayHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.NOTREADY);
+        LineDisplayManager animatedManager = new LineDisplayManager(mockLineDisplayDevice, healthRegistry, mockLineDisplayAnimator);
+        LineDisplayAnimation animation = new LineDisplayAnimation();
+        animation.type = AnimationType.MARQUEE;
 
         //act
-        DeviceHealthResponse deviceHealthResponse = lineDisplayManagerCache.getHealth();
+        animatedManager.startAnimation(animation);
 
         //assert
-        assertEquals("lineDisplay", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        verify(mockLineDisplayAnimator).start(animation);
     }
 
     @Test
-    public void getHealth_WhenDeviceOnline_ShouldReturnReadyHealthResponse() {
+    public void stopAnimation_CallsThroughToAnimator() {
+        //arrange
+        LineDisplayManager animatedManager = new LineDisplayManager(mockLineDisplayDevice, healthRegistry, mockLineDisplayAnimator);
+
+        //act
+        animatedManager.stopAnimation();
+
+        //assert
+        verify(mockLineDisplayAnimator).stop();
+    }
+
+    @Test
+    public void getStats_ReturnsStatsFromDevice() {
+        //arrange
+        LineDisplayStats expected = new LineDisplayStats();
+        when(mockLineDisplayDevice.getStats()).thenReturn(expected);
+
+        //act
+        LineDisplayStats actual = lineDisplayManager.getStats();
+
+        //assert
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void connectionEventOccurred_PublishesHealth() {
         //arrange
-        when(mockLineDisplayDevice.isConnected()).thenReturn(true);
         when(mockLineDisplayDevice.getDeviceName()).thenReturn("lineDisplay");
-        when(mockCacheManager.getCache("lineDisplayHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.READY);
+        ConnectionEvent connectionEvent = new ConnectionEvent(this, true);
+        ConnectionEvent disconnectionEvent = new ConnectionEvent(this, false);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = lineDisplayManagerCache.getHealth();
+        lineDisplayManagerCache.connectionEventOccurred(connectionEvent);
+        DeviceHealthResponse afterConnect = healthRegistry.get(LineDisplayManager.HEALTH_KEY);
+        lineDisplayManagerCache.connectionEventOccurred(disconnectionEvent);
+        DeviceHealthResponse afterDisconnect = healthRegistry.get(LineDisplayManager.HEALTH_KEY);
 
         //assert
-        assertEquals("lineDisplay", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(DeviceHealth.READY, afterConnect.getHealthStatus());
+        assertEquals(DeviceHealth.NOTREADY, afterDisconnect.getHealthStatus());
+        verify(mockLineDisplayDevice, never()).isConnected();
     }
 
     @Test
-    public void getHealth_CacheNull_ShouldReturnReadyHealthResponse() {
+    public void getHealth_WhenDeviceOffline_ShouldReturnNotReadyHealthResponse() {
         //arrange
-        when(mockLineDisplayDevice.isConnected()).thenReturn(true);
+        when(mockLineDisplayDevice.isConnected()).thenReturn(false);
         when(mockLineDisplayDevice.getDeviceName()).thenReturn("lineDisplay");
-        when(mockCacheManager.getCache("lineDisplayHealth")).thenReturn(null);
-        DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.READY);
+        DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.NOTREADY);
 
         //act
         DeviceHealthResponse deviceHealthResponse = lineDisplayManagerCache.getHealth();
 
         //assert
         assertEquals("lineDisplay", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
+        assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
+        assertEquals(expected.toString(), healthRegistry.get(LineDisplayManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheExists() {
+    public void getHealth_WhenDeviceOnline_ShouldReturnReadyHealthResponse() {
         //arrange
-        when(mockCacheManager.getCache("lineDisplayHealth")).thenReturn(testCache);
+        when(mockLineDisplayDevice.isConnected()).thenReturn(true);
+        when(mockLineDisplayDevice.getDeviceName()).thenReturn("lineDisplay");
         DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.READY);
-        testCache.put("health", expected);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = lineDisplayManagerCache.getStatus();
+        DeviceHealthResponse deviceHealthResponse = lineDisplayManagerCache.getHealth();
 
         //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals("lineDisplay", deviceHealthResponse.getDeviceName());
+        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
+        assertEquals(expected.toString(), healthRegistry.get(LineDisplayManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockCacheManager.getCache("lineDisplayHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        lineDisplayManagerCache.connect(); //set check health flag to CHECK_HEALTH
-        when(mockLineDisplayDevice.isConnected()).thenReturn(true); //make sure health returns READY
-        when(mockLineDisplayDevice.getDeviceName()).thenReturn("lineDisplay");
+        healthRegistry.publish(LineDisplayManager.HEALTH_KEY, expected);
 
         //act
         DeviceHealthResponse deviceHealthResponse = lineDisplayManagerCache.getStatus();
@@ -353,27 +338,28 @@ public class LineDisplayManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockLineDisplayDevice.isConnected()).thenReturn(false);
+        when(mockLineDisplayDevice.isConnected()).thenReturn(true);
         when(mockLineDisplayDevice.getDeviceName()).thenReturn("lineDisplay");
-        when(mockCacheManager.getCache("lineDisplayHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.NOTREADY);
+        DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.READY);
+        lineDisplayManagerCache.connect();
+        when(mockLineDisplayDevice.isConnected()).thenReturn(false);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = lineDisplayManagerCache.getStatus();
+        DeviceHealthResponse actual = lineDisplayManagerCache.getStatus();
 
         //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(LineDisplayManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() {
         //arrange
-        when(mockLineDisplayDevice.isConnected()).thenReturn(true);
+        when(mockLineDisplayDevice.isConnected()).thenReturn(false);
         when(mockLineDisplayDevice.getDeviceName()).thenReturn("lineDisplay");
-        when(mockCacheManager.getCache("lineDisplayHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.READY);
+        DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.NOTREADY);
 
         //act
         DeviceHealthResponse deviceHealthResponse = lineDisplayManagerCache.getStatus();
@@ -383,11 +369,10 @@ public class LineDisplayManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_CallHealth() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() {
         //arrange
         when(mockLineDisplayDevice.isConnected()).thenReturn(true);
         when(mockLineDisplayDevice.getDeviceName()).thenReturn("lineDisplay");
-        when(mockCacheManager.getCache("lineDisplayHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("lineDisplay", DeviceHealth.READY);
 
         //act
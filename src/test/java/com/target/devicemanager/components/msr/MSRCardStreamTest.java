@@ -0,0 +1,148 @@
+package com.target.devicemanager.components.msr;
+
+import com.target.devicemanager.components.msr.entities.CardData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class MSRCardStreamTest {
+
+    private static final String TRACK1 = "%B4111111111111111^DOE/JOHN^25121010000000000000?";
+    private static final String TRACK2 = ";4111111111111111=25121010000000000000?";
+
+    private MSRCardStream msrCardStream;
+    private final List<Runnable> queuedDeliveries = new ArrayList<>();
+
+    @Mock
+    private SseEmitter mockEmitter;
+    @Mock
+    private Runnable mockOnRemoved;
+
+    @BeforeEach
+    public void testInitialize() {
+        queuedDeliveries.clear();
+        msrCardStream = new MSRCardStream("secret", Runnable::run);
+    }
+
+    @Test
+    public void ctor_WhenDeliveryExecutorIsNull_ThrowsException() {
+        try {
+            new MSRCardStream("secret", null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("deliveryExecutor cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void maskTrack_KeepsOnlyLastFourOfAccountNumber() {
+        //arrange
+
+        //act
+        String maskedTrack1 = MSRCardStream.maskTrack(TRACK1);
+        String maskedTrack2 = MSRCardStream.maskTrack(TRACK2);
+
+        //assert
+        assertEquals("%B************1111^DOE/JOHN^********************?", maskedTrack1);
+        assertEquals(";************1111=********************?", maskedTrack2);
+    }
+
+    @Test
+    public void maskTrack_WhenEmpty_ReturnsInput() {
+        //arrange
+
+        //act
+
+        //assert
+        assertEquals("", MSRCardStream.maskTrack(""));
+        assertNull(MSRCardStream.maskTrack(null));
+    }
+
+    @Test
+    public void subscribe_WithMatchingToken_IsPrivileged() {
+        //arrange
+
+        //act
+
+        //assert
+        assertTrue(msrCardStream.subscribe(mockEmitter, "secret", mockOnRemoved));
+        assertFalse(msrCardStream.subscribe(mock(SseEmitter.class), "wrong", mockOnRemoved));
+        assertFalse(msrCardStream.subscribe(mock(SseEmitter.class), null, mockOnRemoved));
+        assertEquals(3, msrCardStream.getSubscriberCount());
+    }
+
+    @Test
+    public void subscribe_WhenNoTokenConfigured_NeverPrivileged() {
+        //arrange
+        MSRCardStream unconfiguredStream = new MSRCardStream(null, Runnable::run);
+
+        //act
+
+        //assert
+        assertFalse(unconfiguredStream.subscribe(mockEmitter, "", mockOnRemoved));
+        assertFalse(unconfiguredStream.subscribe(mockEmitter, "secret", mockOnRemoved));
+    }
+
+    @Test
+    public void publish_SendsToSubscriber() throws IOException {
+        //arrange
+        msrCardStream.subscribe(mockEmitter, "secret", mockOnRemoved);
+
+        //act
+        msrCardStream.publish(new CardData(TRACK1, TRACK2, "", ""));
+
+        //assert
+        verify(mockEmitter).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void publish_WhenSendFails_RemovesSubscriber() throws IOException {
+        //arrange
+        doThrow(new IOException("gone")).when(mockEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        msrCardStream.subscribe(mockEmitter, null, mockOnRemoved);
+
+        //act
+        msrCardStream.publish(new CardData(TRACK1, TRACK2, "", ""));
+
+        //assert
+        assertFalse(msrCardStream.hasSubscribers());
+        verify(mockOnRemoved).run();
+    }
+
+    @Test
+    public void publish_WhenSubscriberQueueIsFull_DisconnectsSubscriber() throws IOException {
+        //arrange
+        MSRCardStream stalledStream = new MSRCardStream("secret", queuedDeliveries::add);
+        stalledStream.subscribe(mockEmitter, null, mockOnRemoved);
+
+        //act
+        for (int i = 0; i <= MSRCardStream.SUBSCRIBER_QUEUE_SIZE; i++) {
+            stalledStream.publish(new CardData(TRACK1, TRACK2, "", ""));
+        }
+
+        //assert
+        assertEquals(2, queuedDeliveries.size());
+        assertFalse(stalledStream.hasSubscribers());
+        verify(mockEmitter).complete();
+        verify(mockOnRemoved, never()).run();
+        queuedDeliveries.get(1).run();
+        verify(mockOnRemoved).run();
+    }
+}
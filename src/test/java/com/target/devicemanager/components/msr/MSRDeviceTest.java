@@ -96,6 +96,70 @@ public class MSRDeviceTest {
         }
     }
 
+    @Test
+    public void startStreaming_EnablesWithAutoDisableOff() throws JposException {
+        //arrange
+        when(mockMSR.getDeviceEnabled()).thenReturn(false);
+
+        //act
+        msrDevice.startStreaming(cardData -> {});
+
+        //assert
+        verify(mockMSR).addDataListener(any());
+        verify(mockMSR).setAutoDisable(false);
+        verify(mockMSR).setDataEventEnabled(true);
+        verify(mockMSR).setDeviceEnabled(true);
+        assertTrue(msrDevice.isStreaming());
+    }
+
+    @Test
+    public void startStreaming_WhenAlreadyEnabled_DoesNotReenable() throws JposException {
+        //arrange
+        when(mockMSR.getDeviceEnabled()).thenReturn(true);
+        msrDevice.startStreaming(cardData -> {});
+
+        //act
+        msrDevice.startStreaming(cardData -> {});
+
+        //assert
+        verify(mockMSR, times(1)).addDataListener(any());
+        verify(mockMSR, never()).setDeviceEnabled(true);
+    }
+
+    @Test
+    public void startStreaming_WhenOffline_ThrowsException() {
+        //arrange
+        when(mockDynamicMSR.isConnected()).thenReturn(false);
+
+        //act
+        try {
+            msrDevice.startStreaming(cardData -> {});
+        }
+
+        //assert
+        catch (JposException jposException) {
+            assertEquals(JposConst.JPOS_E_OFFLINE, jposException.getErrorCode());
+            assertFalse(msrDevice.isStreaming());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void stopStreaming_RemovesListenerAndDisables() throws JposException {
+        //arrange
+        msrDevice.startStreaming(cardData -> {});
+
+        //act
+        msrDevice.stopStreaming();
+
+        //assert
+        verify(mockMSR).removeDataListener(any());
+        verify(mockMSR).setDeviceEnabled(false);
+        assertFalse(msrDevice.isStreaming());
+    }
+
     @Test
     public void connect_WhenLockFails() throws InterruptedException {
         //arrange
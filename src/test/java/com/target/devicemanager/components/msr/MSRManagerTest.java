@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.msr;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
@@ -12,17 +13,16 @@ import jpos.JposException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,59 +39,13 @@ public class MSRManagerTest {
     private MSRDevice mockMSRDevice;
     @Mock
     private Lock mockMSRLock;
-    @Mock
-    private CacheManager mockCacheManager;
-
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "msrHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if (cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
-        }
 
-        @Override
-        public void clear() {
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         msrManager = new MSRManager(mockMSRDevice, mockMSRLock);
-        msrManagerCache = Mockito.spy(new MSRManager(mockMSRDevice, mockMSRLock, mockCacheManager));
+        msrManagerCache = Mockito.spy(new MSRManager(mockMSRDevice, mockMSRLock, healthRegistry));
     }
 
     @Test
@@ -231,6 +185,98 @@ public class MSRManagerTest {
         fail("Expected Exception, but got none");
     }
 
+    @Test
+    public void getData_WhenCardStreamActive_ThrowsException() throws MSRException {
+        //arrange
+        when(mockMSRLock.tryLock()).thenReturn(true);
+        msrManager.subscribeToCardEvents(mock(SseEmitter.class), null);
+
+        //act
+        try {
+            msrManager.getData();
+        }
+
+        //assert
+        catch (MSRException msrException) {
+            assertEquals(DeviceError.DEVICE_BUSY, msrException.getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void subscribeToCardEvents_WhenConnected_StartsStreaming() throws MSRException, JposException {
+        //arrange
+        when(mockMSRLock.tryLock()).thenReturn(true);
+        when(mockMSRDevice.isConnected()).thenReturn(true);
+
+        //act
+        msrManager.subscribeToCardEvents(mock(SseEmitter.class), null);
+
+        //assert
+        verify(mockMSRDevice).startStreaming(any());
+        verify(mockMSRLock).unlock();
+    }
+
+    @Test
+    public void subscribeToCardEvents_WhenOffline_StartsStreamingOnConnect() throws MSRException, JposException {
+        //arrange
+        when(mockMSRLock.tryLock()).thenReturn(true);
+        when(mockMSRDevice.isConnected()).thenReturn(false);
+        msrManager.subscribeToCardEvents(mock(SseEmitter.class), null);
+        when(mockMSRDevice.isConnected()).thenReturn(true);
+        when(mockMSRLock.tryLock(anyLong(), any())).thenReturn(true);
+
+        //act
+        msrManager.connect();
+
+        //assert
+        verify(mockMSRDevice).startStreaming(any());
+        verify(mockMSRLock, times(2)).unlock();
+    }
+
+    @Test
+    public void subscribeToCardEvents_WhenLastSubscriberLeaves_StopsStreamingUnderLock() throws MSRException {
+        //arrange
+        msrManager = new MSRManager(mockMSRDevice, mockMSRLock, healthRegistry, new MSRCardStream(null, Runnable::run));
+        when(mockMSRLock.tryLock()).thenReturn(true);
+        when(mockMSRDevice.isConnected()).thenReturn(true);
+        SseEmitter mockEmitter = mock(SseEmitter.class);
+        ArgumentCaptor<Runnable> completion = ArgumentCaptor.forClass(Runnable.class);
+        msrManager.subscribeToCardEvents(mockEmitter, null);
+        verify(mockEmitter).onCompletion(completion.capture());
+
+        //act
+        completion.getValue().run();
+
+        //assert
+        InOrder inOrder = inOrder(mockMSRLock, mockMSRDevice);
+        inOrder.verify(mockMSRLock).lock();
+        inOrder.verify(mockMSRDevice).stopStreaming();
+        inOrder.verify(mockMSRLock).unlock();
+    }
+
+    @Test
+    public void subscribeToCardEvents_WhenBlockingReadInProgress_ThrowsException() throws JposException {
+        //arrange
+        when(mockMSRLock.tryLock()).thenReturn(false);
+
+        //act
+        try {
+            msrManager.subscribeToCardEvents(mock(SseEmitter.class), null);
+        }
+
+        //assert
+        catch (MSRException msrException) {
+            verify(mockMSRDevice, never()).startStreaming(any());
+            assertEquals(DeviceError.DEVICE_BUSY, msrException.getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
     @Test
     public void getData_WhenSuccess_ReturnsCardData() throws MSRException, JposException {
         //arrange
@@ -268,9 +314,9 @@ public class MSRManagerTest {
     }
 
     @Test
-    public void cancelReadRequest_WhenAlreadyLocked_ThrowsException() {
+    public void cancelReadRequest_WhenAlreadyLocked_ThrowsException() throws InterruptedException {
         //arrange
-        when(mockMSRLock.tryLock()).thenReturn(true);
+        when(mockMSRLock.tryLock(0, TimeUnit.MILLISECONDS)).thenReturn(true);
 
         //act
         try {
@@ -289,9 +335,9 @@ public class MSRManagerTest {
     }
 
     @Test
-    public void cancelReadRequest_WhenCancelSucceeds() throws MSRException {
+    public void cancelReadRequest_WhenCancelSucceeds() throws MSRException, InterruptedException {
         //arrange
-        when(mockMSRLock.tryLock()).thenReturn(false);
+        when(mockMSRLock.tryLock(0, TimeUnit.MILLISECONDS)).thenReturn(false);
 
         //act
         msrManager.cancelReadRequest();
@@ -305,7 +351,6 @@ public class MSRManagerTest {
         //arrange
         when(mockMSRDevice.isConnected()).thenReturn(false);
         when(mockMSRDevice.getDeviceName()).thenReturn("MSR");
-        when(mockCacheManager.getCache("msrHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("MSR", DeviceHealth.NOTREADY);
 
         //act
@@ -314,7 +359,7 @@ public class MSRManagerTest {
         //assert
         assertEquals("MSR", actual.getDeviceName());
         assertEquals(DeviceHealth.NOTREADY, actual.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(MSRManager.HEALTH_KEY).toString());
     }
 
     @Test
@@ -322,7 +367,6 @@ public class MSRManagerTest {
         //arrange
         when(mockMSRDevice.isConnected()).thenReturn(true);
         when(mockMSRDevice.getDeviceName()).thenReturn("MSR");
-        when(mockCacheManager.getCache("msrHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("MSR", DeviceHealth.READY);
 
         //act
@@ -331,30 +375,14 @@ public class MSRManagerTest {
         //assert
         assertEquals("MSR", actual.getDeviceName());
         assertEquals(DeviceHealth.READY, actual.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
-    }
-
-    @Test
-    public void getHealth_CacheNull_ShouldReturnHealthResponse() {
-        //arrange
-        when(mockMSRDevice.isConnected()).thenReturn(true);
-        when(mockMSRDevice.getDeviceName()).thenReturn("MSR");
-        when(mockCacheManager.getCache("msrHealth")).thenReturn(null);
-
-        //act
-        DeviceHealthResponse actual = msrManagerCache.getHealth();
-
-        //assert
-        assertEquals("MSR", actual.getDeviceName());
-        assertEquals(DeviceHealth.READY, actual.getHealthStatus());
+        assertEquals(expected.toString(), healthRegistry.get(MSRManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheExists() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockCacheManager.getCache("msrHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("MSR", DeviceHealth.READY);
-        testCache.put("health", expected);
+        healthRegistry.publish(MSRManager.HEALTH_KEY, expected);
 
         //act
         DeviceHealthResponse actual = msrManagerCache.getStatus();
@@ -364,27 +392,25 @@ public class MSRManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockCacheManager.getCache("msrHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("MSR", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        msrManagerCache.connect(); //set check health flag to CHECK_HEALTH
         when(mockMSRDevice.isConnected()).thenReturn(true);
         when(mockMSRDevice.getDeviceName()).thenReturn("MSR");
+        DeviceHealthResponse expected = new DeviceHealthResponse("MSR", DeviceHealth.READY);
+        msrManagerCache.connect();
+        when(mockMSRDevice.isConnected()).thenReturn(false);
 
         //act
         DeviceHealthResponse actual = msrManagerCache.getStatus();
 
         //assert
         assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(MSRManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull() {
+    public void getStatus_WhenNothingPublished() {
         //arrange
-        when(mockCacheManager.getCache("msrHealth")).thenReturn(null);
         when(mockMSRDevice.isConnected()).thenReturn(true);
         when(mockMSRDevice.getDeviceName()).thenReturn("MSR");
 
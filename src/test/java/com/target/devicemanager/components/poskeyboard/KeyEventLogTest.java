@@ -0,0 +1,125 @@
+package com.target.devicemanager.components.poskeyboard;
+
+import com.target.devicemanager.components.poskeyboard.entities.KeyboardEventData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyEventLogTest {
+
+    @Test
+    public void ctor_WhenCapacityIsZero_ThrowsException() {
+        try {
+            new KeyEventLog(0);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("capacity must be greater than 0", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void append_AssignsIncreasingSequence() {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog(4);
+
+        //act
+        long first = keyEventLog.append(new KeyboardEventData(1, "KEY_DOWN", 1L));
+        long second = keyEventLog.append(new KeyboardEventData(1, "KEY_UP", 2L));
+
+        //assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(2, keyEventLog.getLatestSequence());
+    }
+
+    @Test
+    public void since_ReturnsEventsAfterSequence() {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog(4);
+        keyEventLog.append(new KeyboardEventData(1, "KEY_DOWN", 1L));
+        keyEventLog.append(new KeyboardEventData(2, "KEY_DOWN", 2L));
+        keyEventLog.append(new KeyboardEventData(3, "KEY_DOWN", 3L));
+
+        //act
+        List<KeyEventLog.Entry> entries = keyEventLog.since(1);
+
+        //assert
+        assertEquals(2, entries.size());
+        assertEquals(2, entries.get(0).getSequence());
+        assertEquals(3, entries.get(1).getKeyboardEventData().getKeyCode());
+    }
+
+    @Test
+    public void since_WhenBufferWrapped_ReturnsOnlyRetainedEvents() {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog(4);
+        for (int keyCode = 1; keyCode <= 10; keyCode++) {
+            keyEventLog.append(new KeyboardEventData(keyCode, "KEY_DOWN", keyCode));
+        }
+
+        //act
+        List<KeyEventLog.Entry> entries = keyEventLog.since(0);
+
+        //assert
+        assertEquals(7, keyEventLog.getOldestSequence());
+        assertEquals(4, entries.size());
+        assertEquals(7, entries.get(0).getSequence());
+        assertEquals(10, entries.get(3).getSequence());
+    }
+
+    @Test
+    public void since_WhenUpToDate_ReturnsEmpty() {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog(4);
+        keyEventLog.append(new KeyboardEventData(1, "KEY_DOWN", 1L));
+
+        //act
+
+        //assert
+        assertTrue(keyEventLog.since(1).isEmpty());
+    }
+
+    @Test
+    public void getResumeSequence_WhenSameEpoch_ReturnsSequence() {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog(4, 1000L);
+        keyEventLog.append(new KeyboardEventData(1, "KEY_DOWN", 1L));
+        keyEventLog.append(new KeyboardEventData(1, "KEY_UP", 2L));
+
+        //act
+
+        //assert
+        assertEquals("1000-1", keyEventLog.getEventId(1));
+        assertEquals(1L, keyEventLog.getResumeSequence("1000-1"));
+    }
+
+    @Test
+    public void getResumeSequence_WhenEarlierEpochOrAheadOfLog_ReplaysFromStart() {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog(4, 1000L);
+        keyEventLog.append(new KeyboardEventData(1, "KEY_DOWN", 1L));
+
+        //act
+
+        //assert
+        assertEquals(0L, keyEventLog.getResumeSequence("999-1"));
+        assertEquals(0L, keyEventLog.getResumeSequence("1000-5"));
+        assertEquals(0L, keyEventLog.getResumeSequence("1"));
+    }
+
+    @Test
+    public void getResumeSequence_WhenNotAnEventId_ReturnsNull() {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog(4, 1000L);
+
+        //act
+
+        //assert
+        assertNull(keyEventLog.getResumeSequence("not-an-id"));
+        assertNull(keyEventLog.getResumeSequence(null));
+    }
+}
@@ -0,0 +1,154 @@
+package com.target.devicemanager.components.poskeyboard;
+
+import com.target.devicemanager.components.poskeyboard.entities.KeyEntryEvent;
+import com.target.devicemanager.components.poskeyboard.entities.KeyMapEntry;
+import com.target.devicemanager.components.poskeyboard.entities.KeyType;
+import com.target.devicemanager.components.poskeyboard.entities.KeyboardEventData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeySequenceAssemblerTest {
+
+    private KeySequenceAssembler keySequenceAssembler;
+
+    @BeforeEach
+    public void testInitialize() {
+        List<KeyMapEntry> keyMapEntries = new ArrayList<>();
+        for (int digit = 0; digit <= 9; digit++) {
+            keyMapEntries.add(new KeyMapEntry(48 + digit, String.valueOf(digit), KeyType.DIGIT));
+        }
+        keyMapEntries.add(new KeyMapEntry(13, "ENTER", KeyType.ENTER));
+        keyMapEntries.add(new KeyMapEntry(27, "CLEAR", KeyType.CLEAR));
+        keyMapEntries.add(new KeyMapEntry(88, "QTY", KeyType.QUANTITY));
+        keyMapEntries.add(new KeyMapEntry(80, "PLU", KeyType.ENTRY_TYPE));
+        keyMapEntries.add(new KeyMapEntry(84, "TENDER", KeyType.ENTRY_TYPE));
+        keyMapEntries.add(new KeyMapEntry(78, "NO_SALE", KeyType.FUNCTION));
+        keySequenceAssembler = new KeySequenceAssembler(new KeyMap(keyMapEntries));
+    }
+
+    @Test
+    public void ctor_WhenKeyMapIsNull_ThrowsException() {
+        try {
+            new KeySequenceAssembler(null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("keyMap cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void accept_QuantityPluEnter_ReturnsPluEntry() {
+        //act
+        KeyEntryEvent keyEntryEvent = press("3", 88, 80, "4011", 13);
+
+        //assert
+        assertNotNull(keyEntryEvent);
+        assertEquals("PLU", keyEntryEvent.getEntryType());
+        assertEquals("4011", keyEntryEvent.getValue());
+        assertEquals(3, keyEntryEvent.getQuantity());
+    }
+
+    @Test
+    public void accept_AmountThenEntryType_ReturnsEntryWithoutEnter() {
+        //act
+        KeyEntryEvent keyEntryEvent = press("1000", 84);
+
+        //assert
+        assertNotNull(keyEntryEvent);
+        assertEquals("TENDER", keyEntryEvent.getEntryType());
+        assertEquals("1000", keyEntryEvent.getValue());
+        assertEquals(1, keyEntryEvent.getQuantity());
+    }
+
+    @Test
+    public void accept_DigitsThenEnter_ReturnsDefaultEntryType() {
+        //act
+        KeyEntryEvent keyEntryEvent = press("42", 13);
+
+        //assert
+        assertEquals(KeySequenceAssembler.DEFAULT_ENTRY_TYPE, keyEntryEvent.getEntryType());
+        assertEquals("42", keyEntryEvent.getValue());
+    }
+
+    @Test
+    public void accept_Clear_DiscardsPartialEntry() {
+        //act
+        KeyEntryEvent keyEntryEvent = press("5", 88, "12", 27, "7", 13);
+
+        //assert
+        assertEquals("7", keyEntryEvent.getValue());
+        assertEquals(1, keyEntryEvent.getQuantity());
+        assertEquals(KeySequenceAssembler.DEFAULT_ENTRY_TYPE, keyEntryEvent.getEntryType());
+    }
+
+    @Test
+    public void accept_FunctionKey_ReturnsEntryImmediately() {
+        //act
+        KeyEntryEvent keyEntryEvent = press(78);
+
+        //assert
+        assertEquals("NO_SALE", keyEntryEvent.getEntryType());
+        assertEquals("", keyEntryEvent.getValue());
+    }
+
+    @Test
+    public void accept_KeyUpAndUnmappedKeys_AreIgnored() {
+        //act
+        KeyEntryEvent keyUp = keySequenceAssembler.accept(new KeyboardEventData(13, "KEY_UP", 1L));
+        KeyEntryEvent unmapped = keySequenceAssembler.accept(new KeyboardEventData(200, "KEY_DOWN", 2L));
+        KeyEntryEvent keyEntryEvent = press("9", 13);
+
+        //assert
+        assertNull(keyUp);
+        assertNull(unmapped);
+        assertEquals("9", keyEntryEvent.getValue());
+    }
+
+    @Test
+    public void load_BundledKeyMap_ContainsDigitsAndEnter() {
+        //act
+        KeyMap keyMap = KeyMap.load(null);
+
+        //assert
+        assertEquals(KeyType.DIGIT, keyMap.get(48).type);
+        assertEquals(KeyType.ENTER, keyMap.get(13).type);
+        assertNull(keyMap.get(-1));
+    }
+
+    @Test
+    public void load_MissingFile_ReturnsEmptyKeyMap() {
+        //act
+        KeyMap keyMap = KeyMap.load("/does/not/exist.json");
+
+        //assert
+        assertEquals(0, keyMap.size());
+    }
+
+    /**
+     * Presses each key in order. Strings are keyed digit by digit, integers are raw key codes.
+     * Returns the last non-null entry.
+     */
+    private KeyEntryEvent press(Object... keys) {
+        KeyEntryEvent result = null;
+        long timestamp = 0;
+        for (Object key : keys) {
+            if (key instanceof String) {
+                for (char digit : ((String) key).toCharArray()) {
+                    KeyEntryEvent keyEntryEvent = keySequenceAssembler.accept(new KeyboardEventData(digit, "KEY_DOWN", ++timestamp));
+                    result = keyEntryEvent != null ? keyEntryEvent : result;
+                }
+            } else {
+                KeyEntryEvent keyEntryEvent = keySequenceAssembler.accept(new KeyboardEventData((Integer) key, "KEY_DOWN", ++timestamp));
+                result = keyEntryEvent != null ? keyEntryEvent : result;
+            }
+        }
+        return result;
+    }
+}
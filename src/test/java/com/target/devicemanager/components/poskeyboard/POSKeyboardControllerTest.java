@@ -52,13 +52,57 @@ public class POSKeyboardControllerTest {
     }
 
     @Test
-    public void subscribeToKeyboardEvents_ReturnsSseEmitter() {
+    public void subscribeToKeyboardEvents_ReturnsSseEmitter() throws DeviceException {
         //act
-        SseEmitter emitter = posKeyboardController.subscribeToKeyboardEvents();
+        SseEmitter emitter = posKeyboardController.subscribeToKeyboardEvents(null, "raw");
 
         //assert
         assertNotNull(emitter);
-        verify(mockPosKeyboardManager).addEventSubscriber(any(SseEmitter.class));
+        verify(mockPosKeyboardManager).addEventSubscriber(any(SseEmitter.class), isNull());
+    }
+
+    @Test
+    public void subscribeToKeyboardEvents_WithLastEventId_PassesEventIdToManager() throws DeviceException {
+        //act
+        posKeyboardController.subscribeToKeyboardEvents("1700000000000-42", "raw");
+
+        //assert
+        verify(mockPosKeyboardManager).addEventSubscriber(any(SseEmitter.class), eq("1700000000000-42"));
+    }
+
+    @Test
+    public void subscribeToKeyboardEvents_WithBlankLastEventId_SubscribesWithoutReplay() throws DeviceException {
+        //act
+        posKeyboardController.subscribeToKeyboardEvents(" ", "raw");
+
+        //assert
+        verify(mockPosKeyboardManager).addEventSubscriber(any(SseEmitter.class), isNull());
+    }
+
+    @Test
+    public void subscribeToKeyboardEvents_EntriesMode_AddsEntrySubscriber() throws DeviceException {
+        //act
+        posKeyboardController.subscribeToKeyboardEvents(null, "entries");
+
+        //assert
+        verify(mockPosKeyboardManager).addEntrySubscriber(any(SseEmitter.class));
+        verify(mockPosKeyboardManager, never()).addEventSubscriber(any(SseEmitter.class), any());
+    }
+
+    @Test
+    public void subscribeToKeyboardEvents_UnknownMode_ThrowsBadInput() {
+        //act
+        try {
+            posKeyboardController.subscribeToKeyboardEvents(null, "cooked");
+        }
+
+        //assert
+        catch (DeviceException deviceException) {
+            assertEquals(DeviceError.BAD_INPUT, deviceException.getDeviceError());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
     }
 
     @Test
@@ -1,25 +1,28 @@
 package com.target.devicemanager.components.poskeyboard;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
 import com.target.devicemanager.common.entities.DeviceHealthResponse;
+import com.target.devicemanager.components.poskeyboard.entities.KeyMapEntry;
+import com.target.devicemanager.components.poskeyboard.entities.KeyType;
 import com.target.devicemanager.components.poskeyboard.entities.KeyboardEventData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.Callable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -36,61 +39,13 @@ public class POSKeyboardManagerTest {
     private POSKeyboardDevice mockPosKeyboardDevice;
     @Mock
     private Lock mockPosKeyboardLock;
-    @Mock
-    private CacheManager mockCacheManager;
-
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "posKeyboardHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if (cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
 
-        }
-
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         posKeyboardManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock);
-        posKeyboardManagerCache = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, mockCacheManager);
+        posKeyboardManagerCache = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry);
     }
 
     @Test
@@ -233,6 +188,159 @@ public class POSKeyboardManagerTest {
         //assert - no exception thrown
     }
 
+    @Test
+    public void onKeyEvent_SendsEventToSubscriber() throws IOException {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog();
+        SseEmitter mockEmitter = mock(SseEmitter.class);
+        POSKeyboardManager replayManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry, keyEventLog, new KeySequenceAssembler(KeyMap.load(null)), Runnable::run, Runnable::run);
+        ArgumentCaptor<Consumer<KeyboardEventData>> callback = ArgumentCaptor.forClass(Consumer.class);
+        verify(mockPosKeyboardDevice, atLeastOnce()).setEventCallback(callback.capture());
+        replayManager.addEventSubscriber(mockEmitter);
+
+        //act
+        callback.getValue().accept(new KeyboardEventData(65, "KEY_DOWN", 1L));
+
+        //assert
+        verify(mockEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(1, keyEventLog.getLatestSequence());
+    }
+
+    @Test
+    public void addEventSubscriber_WithLastEventId_ReplaysMissedEvents() throws IOException {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog();
+        POSKeyboardManager replayManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry, keyEventLog, new KeySequenceAssembler(KeyMap.load(null)), Runnable::run, Runnable::run);
+        keyEventLog.append(new KeyboardEventData(65, "KEY_DOWN", 1L));
+        keyEventLog.append(new KeyboardEventData(65, "KEY_UP", 2L));
+        keyEventLog.append(new KeyboardEventData(66, "KEY_DOWN", 3L));
+        SseEmitter mockEmitter = mock(SseEmitter.class);
+
+        //act
+        replayManager.addEventSubscriber(mockEmitter, keyEventLog.getEventId(1));
+
+        //assert
+        verify(mockEmitter, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void addEventSubscriber_WithoutLastEventId_DoesNotReplay() throws IOException {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog();
+        POSKeyboardManager replayManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry, keyEventLog, new KeySequenceAssembler(KeyMap.load(null)), Runnable::run, Runnable::run);
+        keyEventLog.append(new KeyboardEventData(65, "KEY_DOWN", 1L));
+        SseEmitter mockEmitter = mock(SseEmitter.class);
+
+        //act
+        replayManager.addEventSubscriber(mockEmitter, null);
+
+        //assert
+        verify(mockEmitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void addEventSubscriber_WithLastEventIdAheadOfLog_ReplaysWholeLog() throws IOException {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog();
+        POSKeyboardManager replayManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry, keyEventLog, new KeySequenceAssembler(KeyMap.load(null)), Runnable::run, Runnable::run);
+        keyEventLog.append(new KeyboardEventData(65, "KEY_DOWN", 1L));
+        keyEventLog.append(new KeyboardEventData(65, "KEY_UP", 2L));
+        SseEmitter mockEmitter = mock(SseEmitter.class);
+
+        //act
+        replayManager.addEventSubscriber(mockEmitter, keyEventLog.getEventId(500));
+
+        //assert
+        verify(mockEmitter, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void addEventSubscriber_WithLastEventIdFromEarlierBoot_ReplaysWholeLog() throws IOException {
+        //arrange
+        KeyEventLog keyEventLog = new KeyEventLog(KeyEventLog.DEFAULT_CAPACITY, 2000L);
+        POSKeyboardManager replayManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry, keyEventLog, new KeySequenceAssembler(KeyMap.load(null)), Runnable::run, Runnable::run);
+        keyEventLog.append(new KeyboardEventData(65, "KEY_DOWN", 1L));
+        keyEventLog.append(new KeyboardEventData(65, "KEY_UP", 2L));
+        keyEventLog.append(new KeyboardEventData(66, "KEY_DOWN", 3L));
+        SseEmitter mockEmitter = mock(SseEmitter.class);
+
+        //act
+        replayManager.addEventSubscriber(mockEmitter, "1000-1");
+
+        //assert
+        verify(mockEmitter, times(3)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void onKeyEvent_WhenSubscriberIsSlow_StillSendsToOtherSubscribers() throws IOException {
+        //arrange
+        List<Runnable> slowDeliveries = new ArrayList<>();
+        KeyEventLog keyEventLog = new KeyEventLog();
+        SseEmitter mockSlowEmitter = mock(SseEmitter.class);
+        SseEmitter mockEmitter = mock(SseEmitter.class);
+        POSKeyboardManager slowManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry, keyEventLog,
+                new KeySequenceAssembler(KeyMap.load(null)), Runnable::run, slowDeliveries::add);
+        ArgumentCaptor<Consumer<KeyboardEventData>> callback = ArgumentCaptor.forClass(Consumer.class);
+        verify(mockPosKeyboardDevice, atLeastOnce()).setEventCallback(callback.capture());
+        slowManager.addEventSubscriber(mockSlowEmitter);
+        slowManager.addEventSubscriber(mockEmitter);
+
+        //act
+        callback.getValue().accept(new KeyboardEventData(65, "KEY_DOWN", 1L));
+        slowDeliveries.get(1).run();
+
+        //assert
+        verify(mockEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        verify(mockSlowEmitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void addEventSubscriber_WhenReplayIsLongerThanQueue_SendsRestAfterQueueDrains() throws IOException {
+        //arrange
+        List<Runnable> deliveries = new ArrayList<>();
+        KeyEventLog keyEventLog = new KeyEventLog();
+        POSKeyboardManager replayManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry, keyEventLog,
+                new KeySequenceAssembler(KeyMap.load(null)), Runnable::run, deliveries::add);
+        for (int i = 0; i < POSKeyboardManager.SUBSCRIBER_QUEUE_SIZE + 10; i++) {
+            keyEventLog.append(new KeyboardEventData(65, "KEY_DOWN", i));
+        }
+        SseEmitter mockEmitter = mock(SseEmitter.class);
+        replayManager.addEventSubscriber(mockEmitter, keyEventLog.getEventId(0));
+
+        //act
+        while (!deliveries.isEmpty()) {
+            deliveries.remove(0).run();
+        }
+
+        //assert
+        verify(mockEmitter, times(POSKeyboardManager.SUBSCRIBER_QUEUE_SIZE + 10)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    public void onKeyEvent_SendsAssembledEntryToEntrySubscriber() throws IOException {
+        //arrange
+        List<KeyMapEntry> keyMapEntries = new ArrayList<>();
+        keyMapEntries.add(new KeyMapEntry(49, "1", KeyType.DIGIT));
+        keyMapEntries.add(new KeyMapEntry(13, "ENTER", KeyType.ENTER));
+        POSKeyboardManager entryManager = new POSKeyboardManager(mockPosKeyboardDevice, mockPosKeyboardLock, healthRegistry,
+                new KeyEventLog(), new KeySequenceAssembler(new KeyMap(keyMapEntries)), Runnable::run, Runnable::run);
+        ArgumentCaptor<Consumer<KeyboardEventData>> callback = ArgumentCaptor.forClass(Consumer.class);
+        verify(mockPosKeyboardDevice, atLeastOnce()).setEventCallback(callback.capture());
+        SseEmitter mockEntryEmitter = mock(SseEmitter.class);
+        SseEmitter mockRawEmitter = mock(SseEmitter.class);
+        entryManager.addEntrySubscriber(mockEntryEmitter);
+        entryManager.addEventSubscriber(mockRawEmitter);
+
+        //act
+        callback.getValue().accept(new KeyboardEventData(49, "KEY_DOWN", 1L));
+        callback.getValue().accept(new KeyboardEventData(49, "KEY_UP", 2L));
+        callback.getValue().accept(new KeyboardEventData(13, "KEY_DOWN", 3L));
+
+        //assert
+        verify(mockEntryEmitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(mockRawEmitter, times(3)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
     @Test
     public void removeEventSubscriber_RemovesEmitter() {
         //arrange
@@ -250,7 +358,6 @@ public class POSKeyboardManagerTest {
         //arrange
         when(mockPosKeyboardDevice.isConnected()).thenReturn(false);
         when(mockPosKeyboardDevice.getDeviceName()).thenReturn("POSKeyboard");
-        when(mockCacheManager.getCache("posKeyboardHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("POSKeyboard", DeviceHealth.NOTREADY);
 
         //act
@@ -259,7 +366,7 @@ public class POSKeyboardManagerTest {
         //assert
         assertEquals("POSKeyboard", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(POSKeyboardManager.HEALTH_KEY).toString());
     }
 
     @Test
@@ -267,7 +374,6 @@ public class POSKeyboardManagerTest {
         //arrange
         when(mockPosKeyboardDevice.isConnected()).thenReturn(true);
         when(mockPosKeyboardDevice.getDeviceName()).thenReturn("POSKeyboard");
-        when(mockCacheManager.getCache("posKeyboardHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("POSKeyboard", DeviceHealth.READY);
 
         //act
@@ -276,30 +382,14 @@ public class POSKeyboardManagerTest {
         //assert
         assertEquals("POSKeyboard", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
-    }
-
-    @Test
-    public void getHealth_WhenCacheFails_ShouldReturnReadyHealthResponse() {
-        //arrange
-        when(mockPosKeyboardDevice.isConnected()).thenReturn(true);
-        when(mockPosKeyboardDevice.getDeviceName()).thenReturn("POSKeyboard");
-        when(mockCacheManager.getCache("posKeyboardHealth")).thenReturn(null);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = posKeyboardManagerCache.getHealth();
-
-        //assert
-        assertEquals("POSKeyboard", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
+        assertEquals(expected.toString(), healthRegistry.get(POSKeyboardManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheExists() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockCacheManager.getCache("posKeyboardHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("POSKeyboard", DeviceHealth.READY);
-        testCache.put("health", expected);
+        healthRegistry.publish(POSKeyboardManager.HEALTH_KEY, expected);
 
         //act
         DeviceHealthResponse deviceHealthResponse = posKeyboardManagerCache.getStatus();
@@ -309,29 +399,27 @@ public class POSKeyboardManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockCacheManager.getCache("posKeyboardHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("POSKeyboard", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        posKeyboardManagerCache.connect(); // set check health flag to CHECK_HEALTH
         when(mockPosKeyboardDevice.isConnected()).thenReturn(true);
         when(mockPosKeyboardDevice.getDeviceName()).thenReturn("POSKeyboard");
+        DeviceHealthResponse expected = new DeviceHealthResponse("POSKeyboard", DeviceHealth.READY);
+        posKeyboardManagerCache.connect();
+        when(mockPosKeyboardDevice.isConnected()).thenReturn(false);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = posKeyboardManagerCache.getStatus();
+        DeviceHealthResponse actual = posKeyboardManagerCache.getStatus();
 
         //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(POSKeyboardManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() {
         //arrange
         when(mockPosKeyboardDevice.isConnected()).thenReturn(false);
         when(mockPosKeyboardDevice.getDeviceName()).thenReturn("POSKeyboard");
-        when(mockCacheManager.getCache("posKeyboardHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("POSKeyboard", DeviceHealth.NOTREADY);
 
         //act
@@ -342,26 +430,10 @@ public class POSKeyboardManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() {
-        //arrange
-        when(mockPosKeyboardDevice.isConnected()).thenReturn(true);
-        when(mockPosKeyboardDevice.getDeviceName()).thenReturn("POSKeyboard");
-        when(mockCacheManager.getCache("posKeyboardHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("POSKeyboard", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = posKeyboardManagerCache.getStatus();
-
-        //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
-    }
-
-    @Test
-    public void getStatus_WhenCacheNull_CallHealth() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() {
         //arrange
         when(mockPosKeyboardDevice.isConnected()).thenReturn(true);
         when(mockPosKeyboardDevice.getDeviceName()).thenReturn("POSKeyboard");
-        when(mockCacheManager.getCache("posKeyboardHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("POSKeyboard", DeviceHealth.READY);
 
         //act
@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.printer;
 
+import com.target.devicemanager.common.DeviceCircuitBreaker;
 import com.target.devicemanager.common.DeviceListener;
 import com.target.devicemanager.common.DynamicDevice;
 import com.target.devicemanager.components.printer.entities.*;
@@ -1074,6 +1075,73 @@ public class PrinterDeviceTest {
         fail("Expected Exception, but got none");
     }
 
+    @Test
+    public void printContent_WhenCircuitOpen_FailsWithoutPrinting() throws JposException, InterruptedException {
+        //arrange
+        List<PrinterContent> contents = new ArrayList<>();
+        TextContent textContent = new TextContent();
+        textContent.setType(ContentType.TEXT);
+        contents.add(textContent);
+        printerDeviceLock.setDeviceConnected(true);
+        when(mockConnectLock.tryLock(printerDeviceLock.getTryLockTimeout(), TimeUnit.SECONDS)).thenReturn(true);
+        for (int i = 0; i < DeviceCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            DeviceCircuitBreaker.of(mockPrinter).recordFailure(JposConst.JPOS_E_FAILURE);
+        }
+
+        //act
+        try {
+            printerDeviceLock.printContent(contents, 0);
+        }
+
+        //assert
+        catch (JposException jposException) {
+            assertEquals(JposConst.JPOS_E_OFFLINE, jposException.getErrorCode());
+            verify(mockPrinter, never()).transactionPrint(anyInt(), anyInt());
+            verify(mockPrinter, never()).printNormal(anyInt(), any());
+            verify(mockDynamicPrinter, never()).connect();
+            verify(mockConnectLock).unlock();
+            return;
+        } catch (PrinterException printerException) {
+            fail("Expected JposException, got PrinterException");
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void printContent_When111ExceptionOpensCircuit_DoesNotReconnect() throws JposException, InterruptedException {
+        //arrange
+        List<PrinterContent> contents = new ArrayList<>();
+        TextContent textContent = new TextContent();
+        textContent.setType(ContentType.TEXT);
+        contents.add(textContent);
+        printerDeviceLock.setDeviceConnected(true);
+        when(mockPrinter.getPhysicalDeviceName()).thenReturn("NotR5");
+        when(mockConnectLock.tryLock(printerDeviceLock.getTryLockTimeout(), TimeUnit.SECONDS)).thenReturn(true);
+        doThrow(new JposException(JposConst.JPOS_E_FAILURE)).when(mockDeviceListener).waitForOutputToComplete();
+        for (int i = 1; i < DeviceCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            DeviceCircuitBreaker.of(mockPrinter).recordFailure(JposConst.JPOS_E_FAILURE);
+        }
+
+        //act
+        try {
+            printerDeviceLock.printContent(contents, 0);
+        }
+
+        //assert
+        catch (JposException jposException) {
+            assertEquals(DeviceCircuitBreaker.State.OPEN, DeviceCircuitBreaker.of(mockPrinter).getState());
+            verify(mockDynamicPrinter).disconnect();
+            verify(mockDynamicPrinter, never()).connect();
+            verify(mockConnectLock).unlock();
+            return;
+        } catch (PrinterException printerException) {
+            fail("Expected JposException, got PrinterException");
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
     @Test
     public void printContent_WhenTryLockFalse_ThrowsPrinterBusyError() throws JposException, InterruptedException {
         //arrange
@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.printer;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
@@ -17,13 +18,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.locks.Lock;
 
@@ -43,62 +40,14 @@ public class PrinterManagerTest {
     @Mock
     private Lock mockPrinterLock;
     @Mock
-    private CacheManager mockCacheManager;
-    @Mock
     private Future<Void> mockFuture;
 
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "printerHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if(cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
-
-        }
-
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         printerManager = new PrinterManager(mockPrinterDevice, mockPrinterLock);
-        printerManagerCacheFuture = new PrinterManager(mockPrinterDevice, mockPrinterLock, mockCacheManager, mockFuture, true);
+        printerManagerCacheFuture = new PrinterManager(mockPrinterDevice, mockPrinterLock, healthRegistry, mockFuture, true);
     }
 
     @Test
@@ -415,7 +364,6 @@ public class PrinterManagerTest {
         //arrange
         when(mockPrinterDevice.isConnected()).thenReturn(false);
         when(mockPrinterDevice.getDeviceName()).thenReturn("printer");
-        when(mockCacheManager.getCache("printerHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.NOTREADY);
 
         //act
@@ -424,7 +372,7 @@ public class PrinterManagerTest {
         //assert
         assertEquals("printer", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(PrinterManager.HEALTH_KEY).toString());
     }
 
     @Test
@@ -432,7 +380,6 @@ public class PrinterManagerTest {
         //arrange
         when(mockPrinterDevice.isConnected()).thenReturn(true);
         when(mockPrinterDevice.getDeviceName()).thenReturn("printer");
-        when(mockCacheManager.getCache("printerHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.READY);
 
         //act
@@ -441,31 +388,14 @@ public class PrinterManagerTest {
         //assert
         assertEquals("printer", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(PrinterManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getHealth_CacheNull_ShouldReturnReadyHealthResponse() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockPrinterDevice.isConnected()).thenReturn(true);
-        when(mockPrinterDevice.getDeviceName()).thenReturn("printer");
-        when(mockCacheManager.getCache("printerHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = printerManagerCacheFuture.getHealth();
-
-        //assert
-        assertEquals("printer", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-    }
-
-    @Test
-    public void getStatus_WhenCacheExists() {
-        //arrange
-        when(mockCacheManager.getCache("printerHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.READY);
-        testCache.put("health", expected);
+        healthRegistry.publish(PrinterManager.HEALTH_KEY, expected);
 
         //act
         DeviceHealthResponse deviceHealthResponse = printerManagerCacheFuture.getStatus();
@@ -475,29 +405,27 @@ public class PrinterManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockCacheManager.getCache("printerHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        printerManagerCacheFuture.connect(); //set check health flag to CHECK_HEALTH
-        when(mockPrinterDevice.isConnected()).thenReturn(true); //make sure health returns READY
+        when(mockPrinterDevice.isConnected()).thenReturn(true);
         when(mockPrinterDevice.getDeviceName()).thenReturn("printer");
+        DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.READY);
+        printerManagerCacheFuture.connect();
+        when(mockPrinterDevice.isConnected()).thenReturn(false);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = printerManagerCacheFuture.getStatus();
+        DeviceHealthResponse actual = printerManagerCacheFuture.getStatus();
 
         //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(PrinterManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() {
         //arrange
         when(mockPrinterDevice.isConnected()).thenReturn(false);
         when(mockPrinterDevice.getDeviceName()).thenReturn("printer");
-        when(mockCacheManager.getCache("printerHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.NOTREADY);
 
         //act
@@ -508,26 +436,10 @@ public class PrinterManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() {
-        //arrange
-        when(mockPrinterDevice.isConnected()).thenReturn(true);
-        when(mockPrinterDevice.getDeviceName()).thenReturn("printer");
-        when(mockCacheManager.getCache("printerHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = printerManagerCacheFuture.getStatus();
-
-        //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
-    }
-
-    @Test
-    public void getStatus_WhenCacheNull_CallHealth() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() {
         //arrange
         when(mockPrinterDevice.isConnected()).thenReturn(true);
         when(mockPrinterDevice.getDeviceName()).thenReturn("printer");
-        when(mockCacheManager.getCache("printerHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("printer", DeviceHealth.READY);
 
         //act
@@ -67,13 +67,13 @@ public class ScaleControllerTest {
         SseEmitter sseEmitter = scaleController.getLiveWeight();
 
         //assert
-        verify(mockScaleManager).subscribeToLiveWeight(any());
+        verify(mockScaleManager).subscribeToLiveWeight(any(SseEmitter.class));
     }
 
     @Test
     public void getLiveWeight_WhenThrowsError() throws IOException {
         //arrange
-        doThrow(new IOException()).when(mockScaleManager).subscribeToLiveWeight(any());
+        doThrow(new IOException()).when(mockScaleManager).subscribeToLiveWeight(any(SseEmitter.class));
 
         //act
         try {
@@ -82,7 +82,7 @@ public class ScaleControllerTest {
 
         //assert
         catch(IOException ioException) {
-            verify(mockScaleManager).subscribeToLiveWeight(any());
+            verify(mockScaleManager).subscribeToLiveWeight(any(SseEmitter.class));
             assertEquals(ioException.getMessage(), ioException.getMessage());
             return;
         }
@@ -1,5 +1,7 @@
 package com.target.devicemanager.components.scale;
 
+import com.target.devicemanager.common.DeviceEventSink;
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
@@ -18,16 +20,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
-import org.springframework.http.MediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,14 +39,12 @@ public class ScaleManagerTest {
     private ScaleManager scaleManager;
     private ScaleManager scaleManagerListCacheEmitter;
     private List<CompletableFuture<FormattedWeight>> completableFutureFormattedWeightList;
-    private List<SseEmitter> sseEmitterList;
+    private List<DeviceEventSink> sseEmitterList;
 
     @Mock
     private ScaleDevice mockScaleDevice;
     @Mock
-    private CacheManager mockCacheManager;
-    @Mock
-    private List<SseEmitter> mockSseEmitterList;
+    private List<DeviceEventSink> mockSseEmitterList;
     @Mock
     private List<CompletableFuture<FormattedWeight>> mockCompletableFutureFormattedWeightList;
     @Mock
@@ -59,62 +54,16 @@ public class ScaleManagerTest {
     @Mock
     private SseEmitter mockSseEmitter;
 
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "scaleHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if(cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
-
-        }
-
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         completableFutureFormattedWeightList = new ArrayList<>();
         completableFutureFormattedWeightList.add(mockCompletableFutureFormattedWeight);
         sseEmitterList = new ArrayList<>();
-        sseEmitterList.add(mockSseEmitter);
+        sseEmitterList.add(DeviceEventSink.of(mockSseEmitter));
         scaleManager = new ScaleManager(mockScaleDevice, mockSseEmitterList, mockCompletableFutureFormattedWeightList);
-        scaleManagerListCacheEmitter = new ScaleManager(mockScaleDevice, sseEmitterList, completableFutureFormattedWeightList, mockCacheManager, mockSseEmitterList);
+        scaleManagerListCacheEmitter = new ScaleManager(mockScaleDevice, sseEmitterList, completableFutureFormattedWeightList, healthRegistry, mockSseEmitterList);
     }
 
     @Test
@@ -303,7 +252,7 @@ public class ScaleManagerTest {
 
         //assert
         verify(mockSseEmitter).onCompletion(any());
-        verify(mockSseEmitter).send(any(), eq(MediaType.APPLICATION_JSON));
+        verify(mockSseEmitter).send(any(SseEmitter.SseEventBuilder.class));
 
     }
 
@@ -316,7 +265,7 @@ public class ScaleManagerTest {
 
         //assert
         verify(mockSseEmitter).onTimeout(any());
-        verify(mockSseEmitter).send(any(), eq(MediaType.APPLICATION_JSON));
+        verify(mockSseEmitter).send(any(SseEmitter.SseEventBuilder.class));
 
     }
 
@@ -328,8 +277,8 @@ public class ScaleManagerTest {
         scaleManager.subscribeToLiveWeight(mockSseEmitter);
 
         //assert
-        verify(mockSseEmitterList).add(mockSseEmitter);
-        verify(mockSseEmitter).send(any(), eq(MediaType.APPLICATION_JSON));
+        verify(mockSseEmitterList).add(DeviceEventSink.of(mockSseEmitter));
+        verify(mockSseEmitter).send(any(SseEmitter.SseEventBuilder.class));
 
     }
 
@@ -453,7 +402,7 @@ public class ScaleManagerTest {
         scaleManagerListCacheEmitter.scaleLiveWeightEventOccurred(weightEvent);
 
         //assert
-        verify(mockSseEmitter).send(weightEvent.getWeight(), MediaType.APPLICATION_JSON);
+        verify(mockSseEmitter).send(any(SseEmitter.SseEventBuilder.class));
         verify(mockSseEmitterList).clear();
     }
 
@@ -462,13 +411,13 @@ public class ScaleManagerTest {
         //arrange
         FormattedWeight formattedWeight = new FormattedWeight(3);
         WeightEvent weightEvent = new WeightEvent(mockScaleDevice, formattedWeight);
-        doThrow(new IOException()).when(mockSseEmitter).send(weightEvent.getWeight(), MediaType.APPLICATION_JSON);
+        doThrow(new IOException()).when(mockSseEmitter).send(any(SseEmitter.SseEventBuilder.class));
 
         //act
         scaleManagerListCacheEmitter.scaleLiveWeightEventOccurred(weightEvent);
 
         //assert
-        verify(mockSseEmitterList).add(mockSseEmitter);
+        verify(mockSseEmitterList).add(DeviceEventSink.of(mockSseEmitter));
         verify(mockSseEmitterList).clear();
     }
 
@@ -556,7 +505,6 @@ public class ScaleManagerTest {
         //arrange
         when(mockScaleDevice.isConnected()).thenReturn(false);
         when(mockScaleDevice.getDeviceName()).thenReturn("scale");
-        when(mockCacheManager.getCache("scaleHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.NOTREADY);
 
         //act
@@ -565,7 +513,7 @@ public class ScaleManagerTest {
         //assert
         assertEquals("scale", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(ScaleManager.HEALTH_KEY).toString());
     }
 
     @Test
@@ -573,7 +521,6 @@ public class ScaleManagerTest {
         //arrange
         when(mockScaleDevice.isConnected()).thenReturn(true);
         when(mockScaleDevice.getDeviceName()).thenReturn("scale");
-        when(mockCacheManager.getCache("scaleHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.READY);
 
         //act
@@ -582,7 +529,7 @@ public class ScaleManagerTest {
         //assert
         assertEquals("scale", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(ScaleManager.HEALTH_KEY).toString());
     }
 
     @Test
@@ -590,7 +537,6 @@ public class ScaleManagerTest {
         //arrange
         when(mockScaleDevice.isConnected()).thenReturn(true);
         when(mockScaleDevice.getDeviceName()).thenReturn("scale");
-        when(mockCacheManager.getCache("scaleHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.READY);
 
         //act
@@ -602,11 +548,10 @@ public class ScaleManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockCacheManager.getCache("scaleHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.READY);
-        testCache.put("health", expected);
+        healthRegistry.publish(ScaleManager.HEALTH_KEY, expected);
 
         //act
         DeviceHealthResponse deviceHealthResponse = scaleManagerListCacheEmitter.getStatus();
@@ -616,29 +561,27 @@ public class ScaleManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockCacheManager.getCache("scaleHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        scaleManagerListCacheEmitter.connect(); //set check health flag to CHECK_HEALTH
-        when(mockScaleDevice.isConnected()).thenReturn(true); //make sure health returns READY
+        when(mockScaleDevice.isConnected()).thenReturn(true);
         when(mockScaleDevice.getDeviceName()).thenReturn("scale");
+        DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.READY);
+        scaleManagerListCacheEmitter.connect();
+        when(mockScaleDevice.isConnected()).thenReturn(false);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = scaleManagerListCacheEmitter.getStatus();
+        DeviceHealthResponse actual = scaleManagerListCacheEmitter.getStatus();
 
         //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(ScaleManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() {
         //arrange
         when(mockScaleDevice.isConnected()).thenReturn(false);
         when(mockScaleDevice.getDeviceName()).thenReturn("scale");
-        when(mockCacheManager.getCache("scaleHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.NOTREADY);
 
         //act
@@ -649,26 +592,10 @@ public class ScaleManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() {
-        //arrange
-        when(mockScaleDevice.isConnected()).thenReturn(true);
-        when(mockScaleDevice.getDeviceName()).thenReturn("scale");
-        when(mockCacheManager.getCache("scaleHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = scaleManagerListCacheEmitter.getStatus();
-
-        //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
-    }
-
-    @Test
-    public void getStatus_WhenCacheNull_CheckHealth() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() {
         //arrange
         when(mockScaleDevice.isConnected()).thenReturn(true);
         when(mockScaleDevice.getDeviceName()).thenReturn("scale");
-        when(mockCacheManager.getCache("scaleHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("scale", DeviceHealth.READY);
 
         //act
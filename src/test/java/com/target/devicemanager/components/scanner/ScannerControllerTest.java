@@ -158,6 +158,19 @@ public class ScannerControllerTest {
         verify(mockScannerManager).cancelScanRequest();
     }
 
+    @Test
+    public void cancelScanRequestFrom_CallsThroughToManager() throws ScannerException {
+        //arrange
+        Thread scanThread = new Thread(() -> {});
+
+        //act
+        scannerController.cancelScanRequestFrom(scanThread);
+
+        //assert
+        verify(mockScannerManager).cancelScanRequest(scanThread);
+        verify(mockScannerManager, never()).cancelScanRequest();
+    }
+
     @Test
     public void cancelScanRequest_WhenThrowsError() throws DeviceException {
         //arrange
@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.scanner;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
@@ -17,14 +18,12 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 
 import java.util.*;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -50,56 +49,8 @@ public class ScannerManagerTest {
     private ExecutorService mockExecutor;
     @Mock
     private Future<Boolean> mockFuture;
-    @Mock
-    private CacheManager mockCacheManager;
-
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "scannerHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if(cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
-
-        }
 
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
@@ -109,7 +60,11 @@ public class ScannerManagerTest {
         reconnectResults = new ArrayList<>();
         reconnectResults.add(mockFuture);
         scannerManager = new ScannerManager(scannerDevices, mockScannerLock);
-        scannerManagerCache = Mockito.spy(new ScannerManager(scannerDevices, mockScannerLock, mockCacheManager, mockExecutor, reconnectResults, true));
+        scannerManagerCache = Mockito.spy(new ScannerManager(scannerDevices, mockScannerLock, healthRegistry, mockExecutor, reconnectResults, true));
+
+        //Default Mock Behavior
+        when(mockFlatbedScannerDevice.getScannerType()).thenReturn("FLATBED");
+        when(mockHandheldScannerDevice.getScannerType()).thenReturn("HANDHELD");
     }
 
     @Test
@@ -334,9 +289,9 @@ public class ScannerManagerTest {
     }
 
     @Test
-    public void cancelScanRequest_WhenAlreadyLocked_ThrowsException() {
+    public void cancelScanRequest_WhenAlreadyLocked_ThrowsException() throws InterruptedException {
         //arrange
-        when(mockScannerLock.tryLock()).thenReturn(true);
+        when(mockScannerLock.tryLock(0, TimeUnit.MILLISECONDS)).thenReturn(true);
 
         //act
         try {
@@ -357,7 +312,7 @@ public class ScannerManagerTest {
     @Test
     public void cancelScanRequest_WhenExecutor_ThrowsInterruptedException() throws InterruptedException {
         //arrange
-        when(mockScannerLock.tryLock()).thenReturn(false);
+        when(mockScannerLock.tryLock(0, TimeUnit.MILLISECONDS)).thenReturn(false);
         doThrow(new InterruptedException()).when(mockExecutor).invokeAll(any());
 
         //act
@@ -378,7 +333,7 @@ public class ScannerManagerTest {
     @Test
     public void cancelScanRequest_WhenCancelSucceeds() throws InterruptedException, ScannerException {
         //arrange
-        when(mockScannerLock.tryLock()).thenReturn(false);
+        when(mockScannerLock.tryLock(0, TimeUnit.MILLISECONDS)).thenReturn(false);
 
         //act
         scannerManager.cancelScanRequest();
@@ -389,58 +344,66 @@ public class ScannerManagerTest {
     }
 
     @Test
-    public void getHealth_WhenFlatbedDeviceOffline_ShouldReturnNotReadyHealthResponse() {
+    public void cancelScanRequestOfThread_WhenScanIsOfAnotherRequester_ThrowsException() throws InterruptedException {
         //arrange
-        when(mockFlatbedScannerDevice.isConnected()).thenReturn(false);
-        when(mockFlatbedScannerDevice.getDeviceName()).thenReturn("FLATBED");
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(testCache);
-        List<DeviceHealthResponse> expectedList = new ArrayList<>();
-        expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.NOTREADY));
-        when(mockFlatbedScannerDevice.getScannerType()).thenReturn("FLATBED");
-        when(mockHandheldScannerDevice.getScannerType()).thenReturn("HANDHELD");
 
         //act
-        List<DeviceHealthResponse> deviceHealthResponseList = scannerManagerCache.getHealth(ScannerType.FLATBED);
+        try {
+            scannerManagerCache.cancelScanRequest(new Thread(() -> {}));
+        }
 
         //assert
-        assertEquals("FLATBED", deviceHealthResponseList.get(0).getDeviceName());
-        assertEquals(DeviceHealth.NOTREADY, deviceHealthResponseList.get(0).getHealthStatus());
-        assertEquals(expectedList.toString(), testCache.get("health").get().toString());
+        catch (ScannerException scannerException) {
+            verify(mockExecutor, never()).invokeAll(any());
+            assertEquals(ScannerError.ALREADY_DISABLED, scannerException.getDeviceError());
+            return;
+        }
+        fail("Expected Exception, but got none");
     }
 
     @Test
-    public void getHealth_WhenBothDevicesOnline_ShouldReturnReadyHealthResponse() {
+    public void cancelScanRequestOfThread_WhenScanIsOfRequester_DisablesScanners() throws Exception {
         //arrange
-        when(mockHandheldScannerDevice.isConnected()).thenReturn(true);
-        when(mockHandheldScannerDevice.getDeviceName()).thenReturn("HANDHELD");
-        when(mockFlatbedScannerDevice.isConnected()).thenReturn(true);
+        when(mockScannerLock.tryLock()).thenReturn(true);
+        Thread requestThread = Thread.currentThread();
+        when(mockExecutor.invokeAny(any())).thenAnswer(invocation -> {
+            scannerManagerCache.cancelScanRequest(requestThread);
+            return null;
+        });
+
+        //act
+        scannerManagerCache.getData(ScannerType.BOTH);
+
+        //assert
+        verify(mockExecutor, times(2)).invokeAll(any());
+    }
+
+    @Test
+    public void getHealth_WhenFlatbedDeviceOffline_ShouldReturnNotReadyHealthResponse() {
+        //arrange
+        when(mockFlatbedScannerDevice.isConnected()).thenReturn(false);
         when(mockFlatbedScannerDevice.getDeviceName()).thenReturn("FLATBED");
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(testCache);
         List<DeviceHealthResponse> expectedList = new ArrayList<>();
-        expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.READY));
-        expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
+        expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.NOTREADY));
         when(mockFlatbedScannerDevice.getScannerType()).thenReturn("FLATBED");
         when(mockHandheldScannerDevice.getScannerType()).thenReturn("HANDHELD");
 
         //act
-        List<DeviceHealthResponse> deviceHealthResponseList = scannerManagerCache.getHealth(ScannerType.BOTH);
+        List<DeviceHealthResponse> deviceHealthResponseList = scannerManagerCache.getHealth(ScannerType.FLATBED);
 
         //assert
-        assertEquals("HANDHELD", deviceHealthResponseList.get(0).getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponseList.get(0).getHealthStatus());
-        assertEquals("FLATBED", deviceHealthResponseList.get(1).getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponseList.get(1).getHealthStatus());
-        assertEquals(expectedList.toString(), testCache.get("health").get().toString());
+        assertEquals("FLATBED", deviceHealthResponseList.get(0).getDeviceName());
+        assertEquals(DeviceHealth.NOTREADY, deviceHealthResponseList.get(0).getHealthStatus());
+        assertEquals(expectedList.toString(), publishedHealth("FLATBED").toString());
     }
 
     @Test
-    public void getHealth_CacheNull_ShouldReturnReadyHealthResponse() {
+    public void getHealth_WhenBothDevicesOnline_ShouldReturnReadyHealthResponse() {
         //arrange
         when(mockHandheldScannerDevice.isConnected()).thenReturn(true);
         when(mockHandheldScannerDevice.getDeviceName()).thenReturn("HANDHELD");
         when(mockFlatbedScannerDevice.isConnected()).thenReturn(true);
         when(mockFlatbedScannerDevice.getDeviceName()).thenReturn("FLATBED");
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(null);
         List<DeviceHealthResponse> expectedList = new ArrayList<>();
         expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.READY));
         expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
@@ -455,6 +418,7 @@ public class ScannerManagerTest {
         assertEquals(DeviceHealth.READY, deviceHealthResponseList.get(0).getHealthStatus());
         assertEquals("FLATBED", deviceHealthResponseList.get(1).getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponseList.get(1).getHealthStatus());
+        assertEquals(expectedList.toString(), publishedHealth("HANDHELD", "FLATBED").toString());
     }
 
     @Test
@@ -462,7 +426,6 @@ public class ScannerManagerTest {
         //arrange
         when(mockHandheldScannerDevice.isConnected()).thenReturn(true);
         when(mockHandheldScannerDevice.getDeviceName()).thenReturn("HANDHELD");
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(testCache);
         List<DeviceHealthResponse> expectedList = new ArrayList<>();
         expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.READY));
         when(mockFlatbedScannerDevice.getScannerType()).thenReturn("FLATBED");
@@ -474,7 +437,7 @@ public class ScannerManagerTest {
         //assert
         assertEquals("HANDHELD", deviceHealthResponseList.get(0).getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponseList.get(0).getHealthStatus());
-        assertEquals(expectedList.toString(), testCache.get("health").get().toString());
+        assertEquals(expectedList.toString(), publishedHealth("HANDHELD").toString());
     }
 
     @Test
@@ -484,7 +447,6 @@ public class ScannerManagerTest {
         when(mockHandheldScannerDevice.getDeviceName()).thenReturn("HANDHELD");
         when(mockFlatbedScannerDevice.isConnected()).thenReturn(true);
         when(mockFlatbedScannerDevice.getDeviceName()).thenReturn("FLATBED");
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(testCache);
         List<DeviceHealthResponse> expectedList = new ArrayList<>();
         expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.NOTREADY));
         expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
@@ -499,17 +461,17 @@ public class ScannerManagerTest {
         assertEquals(DeviceHealth.NOTREADY, deviceHealthResponseList.get(0).getHealthStatus());
         assertEquals("FLATBED", deviceHealthResponseList.get(1).getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponseList.get(1).getHealthStatus());
-        assertEquals(expectedList.toString(), testCache.get("health").get().toString());
+        assertEquals(expectedList.toString(), publishedHealth("HANDHELD", "FLATBED").toString());
     }
 
     @Test
-    public void getStatus_WhenCacheExists() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(testCache);
         List<DeviceHealthResponse> expectedList = new ArrayList<>();
         expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.NOTREADY));
         expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
-        testCache.put("health", expectedList);
+        healthRegistry.publish(ScannerManager.HEALTH_KEY_PREFIX + "HANDHELD", expectedList.get(0));
+        healthRegistry.publish(ScannerManager.HEALTH_KEY_PREFIX + "FLATBED", expectedList.get(1));
 
         //act
         List<DeviceHealthResponse> deviceHealthResponseList = scannerManagerCache.getStatus();
@@ -519,40 +481,17 @@ public class ScannerManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(testCache);
-        List<DeviceHealthResponse> expectedList = new ArrayList<>();
-        expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.READY));
-        expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
-        testCache.put("health", expectedList);
-
-        scannerManagerCache.connect(); //set check health flag to CHECK_HEALTH
         when(mockHandheldScannerDevice.isConnected()).thenReturn(true);
-        when(mockFlatbedScannerDevice.isConnected()).thenReturn(true);//make sure health returns READY
+        when(mockFlatbedScannerDevice.isConnected()).thenReturn(true);
         when(mockFlatbedScannerDevice.getDeviceName()).thenReturn("FLATBED");
         when(mockHandheldScannerDevice.getDeviceName()).thenReturn("HANDHELD");
-
-        //act
-        List<DeviceHealthResponse> deviceHealthResponseList = scannerManagerCache.getStatus();
-
-        //assert
-        assertEquals(expectedList.toString(), deviceHealthResponseList.toString());
-    }
-
-    @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() {
-        //arrange
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(testCache);
         List<DeviceHealthResponse> expectedList = new ArrayList<>();
-        expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.NOTREADY));
+        expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.READY));
         expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
-        testCache.put("health", expectedList);
-
+        scannerManagerCache.connect();
         when(mockHandheldScannerDevice.isConnected()).thenReturn(false);
-        when(mockFlatbedScannerDevice.isConnected()).thenReturn(true);//make sure health returns READY
-        when(mockFlatbedScannerDevice.getDeviceName()).thenReturn("FLATBED");
-        when(mockHandheldScannerDevice.getDeviceName()).thenReturn("HANDHELD");
 
         //act
         List<DeviceHealthResponse> deviceHealthResponseList = scannerManagerCache.getStatus();
@@ -562,15 +501,14 @@ public class ScannerManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() {
         //arrange
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(testCache);
         List<DeviceHealthResponse> expectedList = new ArrayList<>();
-        expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.READY));
+        expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.NOTREADY));
         expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
 
-        when(mockHandheldScannerDevice.isConnected()).thenReturn(true);
-        when(mockFlatbedScannerDevice.isConnected()).thenReturn(true);
+        when(mockHandheldScannerDevice.isConnected()).thenReturn(false);
+        when(mockFlatbedScannerDevice.isConnected()).thenReturn(true);//make sure health returns READY
         when(mockFlatbedScannerDevice.getDeviceName()).thenReturn("FLATBED");
         when(mockHandheldScannerDevice.getDeviceName()).thenReturn("HANDHELD");
 
@@ -582,9 +520,8 @@ public class ScannerManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_CheckHealth() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() {
         //arrange
-        when(mockCacheManager.getCache("scannerHealth")).thenReturn(null);
         List<DeviceHealthResponse> expectedList = new ArrayList<>();
         expectedList.add(new DeviceHealthResponse("HANDHELD", DeviceHealth.READY));
         expectedList.add(new DeviceHealthResponse("FLATBED", DeviceHealth.READY));
@@ -656,4 +593,12 @@ public class ScannerManagerTest {
         //assert
         assertEquals(DeviceHealth.NOTREADY, actual);
     }
+
+    private List<DeviceHealthResponse> publishedHealth(String... scannerTypes) {
+        List<DeviceHealthResponse> published = new ArrayList<>();
+        for (String scannerType : scannerTypes) {
+            published.add(healthRegistry.get(ScannerManager.HEALTH_KEY_PREFIX + scannerType));
+        }
+        return published;
+    }
 }
@@ -58,7 +58,7 @@ public class ToneIndicatorControllerTest {
         ToneRequest toneRequest = new ToneRequest(1500, 100, 50);
 
         //act
-        toneIndicatorController.playSound(toneRequest);
+        toneIndicatorController.playSound(toneRequest, true);
 
         //assert
         verify(mockToneIndicatorManager).playSound(toneRequest);
@@ -72,7 +72,7 @@ public class ToneIndicatorControllerTest {
 
         //act
         try {
-            toneIndicatorController.playSound(toneRequest);
+            toneIndicatorController.playSound(toneRequest, true);
         }
 
         //assert
@@ -84,6 +84,46 @@ public class ToneIndicatorControllerTest {
         fail("Expected Exception, but got none.");
     }
 
+    @Test
+    public void playSound_WithoutWait_QueuesSound() throws DeviceException {
+        //arrange
+        ToneRequest toneRequest = new ToneRequest(1500, 100, 50);
+
+        //act
+        toneIndicatorController.playSound(toneRequest, false);
+
+        //assert
+        verify(mockToneIndicatorManager).queueSound(toneRequest);
+        verify(mockToneIndicatorManager, never()).playSound(any());
+    }
+
+    @Test
+    public void playPreset_CallsThroughToToneIndicatorManager() throws DeviceException {
+        //act
+        toneIndicatorController.playPreset("good_scan");
+
+        //assert
+        verify(mockToneIndicatorManager).playPreset("good_scan");
+    }
+
+    @Test
+    public void playPreset_WhenThrowsError() throws DeviceException {
+        //arrange
+        doThrow(new DeviceException(DeviceError.BAD_INPUT)).when(mockToneIndicatorManager).playPreset("FANFARE");
+
+        //act
+        try {
+            toneIndicatorController.playPreset("FANFARE");
+        }
+
+        //assert
+        catch (DeviceException deviceException) {
+            assertEquals(DeviceError.BAD_INPUT, deviceException.getDeviceError());
+            return;
+        }
+        fail("Expected Exception, but got none.");
+    }
+
     @Test
     public void reconnect_CallsThroughToToneIndicatorManager() throws DeviceException {
         //arrange
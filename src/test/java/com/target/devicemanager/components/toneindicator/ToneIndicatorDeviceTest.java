@@ -290,6 +290,76 @@ public class ToneIndicatorDeviceTest {
         verify(mockToneIndicator).sound(2, 0);
     }
 
+    @Test
+    public void playSound_WhenSettingsUnchanged_OnlyCallsSound() throws JposException, DeviceException {
+        //arrange
+        toneIndicatorDevice.setDeviceConnected(true);
+        toneIndicatorDevice.playSound(new ToneRequest(1500, 100, 50, 2000, 200, 75, 50));
+
+        //act
+        toneIndicatorDevice.playSound(new ToneRequest(1500, 100, 50, 2000, 200, 75, 50));
+
+        //assert
+        verify(mockToneIndicator, times(1)).setTone1Pitch(anyInt());
+        verify(mockToneIndicator, times(1)).setTone1Duration(anyInt());
+        verify(mockToneIndicator, times(1)).setTone1Volume(anyInt());
+        verify(mockToneIndicator, times(1)).setTone2Pitch(anyInt());
+        verify(mockToneIndicator, times(1)).setTone2Duration(anyInt());
+        verify(mockToneIndicator, times(1)).setTone2Volume(anyInt());
+        verify(mockToneIndicator, times(1)).setInterToneWait(anyInt());
+        verify(mockToneIndicator, times(2)).sound(2, 0);
+    }
+
+    @Test
+    public void playSound_WhenOnlyPitchChanges_SetsOnlyPitch() throws JposException, DeviceException {
+        //arrange
+        toneIndicatorDevice.setDeviceConnected(true);
+        toneIndicatorDevice.playSound(new ToneRequest(1500, 100, 50));
+
+        //act
+        toneIndicatorDevice.playSound(new ToneRequest(1800, 100, 50));
+
+        //assert
+        verify(mockToneIndicator).setTone1Pitch(1500);
+        verify(mockToneIndicator).setTone1Pitch(1800);
+        verify(mockToneIndicator, times(1)).setTone1Duration(anyInt());
+        verify(mockToneIndicator, times(1)).setTone1Volume(anyInt());
+    }
+
+    @Test
+    public void playSound_OneToneAfterTwoTones_SilencesToneTwo() throws JposException, DeviceException {
+        //arrange
+        toneIndicatorDevice.setDeviceConnected(true);
+        toneIndicatorDevice.playSound(new ToneRequest(1500, 100, 50, 2000, 200, 75, 50));
+
+        //act
+        toneIndicatorDevice.playSound(new ToneRequest(1500, 100, 50));
+
+        //assert
+        verify(mockToneIndicator).setTone2Duration(0);
+        verify(mockToneIndicator).sound(1, 0);
+    }
+
+    @Test
+    public void playSound_AfterSettingFails_ReappliesSettings() throws JposException, DeviceException {
+        //arrange
+        toneIndicatorDevice.setDeviceConnected(true);
+        doThrow(new JposException(JposConst.JPOS_E_FAILURE)).doNothing().when(mockToneIndicator).setTone1Volume(anyInt());
+        try {
+            toneIndicatorDevice.playSound(new ToneRequest(1500, 100, 50));
+        } catch (JposException jposException) {
+            assertEquals(JposConst.JPOS_E_FAILURE, jposException.getErrorCode());
+        }
+
+        //act
+        toneIndicatorDevice.playSound(new ToneRequest(1500, 100, 50));
+
+        //assert
+        verify(mockToneIndicator, times(2)).setTone1Pitch(1500);
+        verify(mockToneIndicator, times(2)).setTone1Volume(50);
+        verify(mockToneIndicator, times(1)).sound(1, 0);
+    }
+
     @Test
     public void playSound_WhenSoundThrowsJposException_ThrowsException() throws JposException {
         //arrange
@@ -1,5 +1,6 @@
 package com.target.devicemanager.components.toneindicator;
 
+import com.target.devicemanager.common.DeviceHealthRegistry;
 import com.target.devicemanager.common.entities.DeviceError;
 import com.target.devicemanager.common.entities.DeviceException;
 import com.target.devicemanager.common.entities.DeviceHealth;
@@ -10,16 +11,12 @@ import jpos.JposException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.locks.Lock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -39,60 +36,14 @@ public class ToneIndicatorManagerTest {
     @Mock
     private Lock mockToneIndicatorLock;
     @Mock
-    private CacheManager mockCacheManager;
+    private ToneQueue mockToneQueue;
 
-    private final Cache testCache = new Cache() {
-        final Map<Object, Object> cacheMap = new HashMap<>();
-
-        @Override
-        public String getName() {
-            return "toneIndicatorHealth";
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return null;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            if (cacheMap.containsKey(key)) {
-                return () -> cacheMap.get(key);
-            } else {
-                return null;
-            }
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            return null;
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            cacheMap.put(key, value);
-        }
-
-        @Override
-        public void evict(Object key) {
-
-        }
-
-        @Override
-        public void clear() {
-
-        }
-    };
+    private final DeviceHealthRegistry healthRegistry = new DeviceHealthRegistry();
 
     @BeforeEach
     public void testInitialize() {
         toneIndicatorManager = new ToneIndicatorManager(mockToneIndicatorDevice, mockToneIndicatorLock);
-        toneIndicatorManagerCache = new ToneIndicatorManager(mockToneIndicatorDevice, mockToneIndicatorLock, mockCacheManager);
+        toneIndicatorManagerCache = new ToneIndicatorManager(mockToneIndicatorDevice, mockToneIndicatorLock, healthRegistry);
     }
 
     @Test
@@ -226,6 +177,88 @@ public class ToneIndicatorManagerTest {
         fail("Expected DEVICE_OFFLINE, but got none");
     }
 
+    @Test
+    public void ctor_WhenToneQueueIsNull_ThrowsException() {
+        try {
+            new ToneIndicatorManager(mockToneIndicatorDevice, mockToneIndicatorLock, healthRegistry, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("toneQueue cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void queueSound_WhenConnected_SubmitsToQueue() throws DeviceException {
+        //arrange
+        ToneIndicatorManager queuedManager = new ToneIndicatorManager(mockToneIndicatorDevice, mockToneIndicatorLock, healthRegistry, mockToneQueue);
+        when(mockToneIndicatorDevice.isConnected()).thenReturn(true);
+        ToneRequest toneRequest = new ToneRequest(1500, 100, 50);
+
+        //act
+        queuedManager.queueSound(toneRequest);
+
+        //assert
+        verify(mockToneQueue).submit(toneRequest);
+        verify(mockToneIndicatorLock, never()).tryLock();
+    }
+
+    @Test
+    public void queueSound_WhenDeviceIsOffline_ThrowsOfflineException() {
+        //arrange
+        ToneIndicatorManager queuedManager = new ToneIndicatorManager(mockToneIndicatorDevice, mockToneIndicatorLock, healthRegistry, mockToneQueue);
+        when(mockToneIndicatorDevice.isConnected()).thenReturn(false);
+
+        //act
+        try {
+            queuedManager.queueSound(new ToneRequest(1500, 100, 50));
+        }
+
+        //assert
+        catch (DeviceException deviceException) {
+            assertEquals(DeviceError.DEVICE_OFFLINE, deviceException.getDeviceError());
+            verify(mockToneQueue, never()).submit(any());
+            return;
+        }
+        fail("Expected OFFLINE Exception, but got none.");
+    }
+
+    @Test
+    public void playPreset_QueuesPresetTone() throws DeviceException {
+        //arrange
+        ToneIndicatorManager queuedManager = new ToneIndicatorManager(mockToneIndicatorDevice, mockToneIndicatorLock, healthRegistry, mockToneQueue);
+        when(mockToneIndicatorDevice.isConnected()).thenReturn(true);
+        ArgumentCaptor<ToneRequest> toneRequest = ArgumentCaptor.forClass(ToneRequest.class);
+
+        //act
+        queuedManager.playPreset("good_scan");
+
+        //assert
+        verify(mockToneQueue).submit(toneRequest.capture());
+        assertEquals(1500, toneRequest.getValue().pitch1);
+        assertEquals(0, toneRequest.getValue().pitch2);
+    }
+
+    @Test
+    public void playPreset_WhenUnknown_ThrowsBadInput() {
+        //arrange
+        ToneIndicatorManager queuedManager = new ToneIndicatorManager(mockToneIndicatorDevice, mockToneIndicatorLock, healthRegistry, mockToneQueue);
+        when(mockToneIndicatorDevice.isConnected()).thenReturn(true);
+
+        //act
+        try {
+            queuedManager.playPreset("FANFARE");
+        }
+
+        //assert
+        catch (DeviceException deviceException) {
+            assertEquals(DeviceError.BAD_INPUT, deviceException.getDeviceError());
+            return;
+        }
+        fail("Expected BAD_INPUT, but got none.");
+    }
+
     @Test
     public void playSound_WhenLockFails_ThrowsException() {
         //arrange
@@ -305,7 +338,6 @@ public class ToneIndicatorManagerTest {
         //arrange
         when(mockToneIndicatorDevice.isConnected()).thenReturn(false);
         when(mockToneIndicatorDevice.getDeviceName()).thenReturn("toneIndicator");
-        when(mockCacheManager.getCache("toneIndicatorHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("toneIndicator", DeviceHealth.NOTREADY);
 
         //act
@@ -314,7 +346,7 @@ public class ToneIndicatorManagerTest {
         //assert
         assertEquals("toneIndicator", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.NOTREADY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
+        assertEquals(expected.toString(), healthRegistry.get(ToneIndicatorManager.HEALTH_KEY).toString());
     }
 
     @Test
@@ -322,7 +354,6 @@ public class ToneIndicatorManagerTest {
         //arrange
         when(mockToneIndicatorDevice.isConnected()).thenReturn(true);
         when(mockToneIndicatorDevice.getDeviceName()).thenReturn("toneIndicator");
-        when(mockCacheManager.getCache("toneIndicatorHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("toneIndicator", DeviceHealth.READY);
 
         //act
@@ -331,30 +362,14 @@ public class ToneIndicatorManagerTest {
         //assert
         assertEquals("toneIndicator", deviceHealthResponse.getDeviceName());
         assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
-        assertEquals(expected.toString(), testCache.get("health").get().toString());
-    }
-
-    @Test
-    public void getHealth_WhenCacheFails_ShouldReturnReadyHealthResponse() {
-        //arrange
-        when(mockToneIndicatorDevice.isConnected()).thenReturn(true);
-        when(mockToneIndicatorDevice.getDeviceName()).thenReturn("toneIndicator");
-        when(mockCacheManager.getCache("toneIndicatorHealth")).thenReturn(null);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = toneIndicatorManagerCache.getHealth();
-
-        //assert
-        assertEquals("toneIndicator", deviceHealthResponse.getDeviceName());
-        assertEquals(DeviceHealth.READY, deviceHealthResponse.getHealthStatus());
+        assertEquals(expected.toString(), healthRegistry.get(ToneIndicatorManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheExists() {
+    public void getStatus_WhenHealthPublished() {
         //arrange
-        when(mockCacheManager.getCache("toneIndicatorHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("toneIndicator", DeviceHealth.READY);
-        testCache.put("health", expected);
+        healthRegistry.publish(ToneIndicatorManager.HEALTH_KEY, expected);
 
         //act
         DeviceHealthResponse deviceHealthResponse = toneIndicatorManagerCache.getStatus();
@@ -364,29 +379,27 @@ public class ToneIndicatorManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheExists_WhenCheckHealthFlag() {
+    public void getStatus_AfterConnect_ReturnsPublishedHealthWithoutProbing() {
         //arrange
-        when(mockCacheManager.getCache("toneIndicatorHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("toneIndicator", DeviceHealth.READY);
-        testCache.put("health", expected);
-
-        toneIndicatorManagerCache.connect(); //set check health flag to CHECK_HEALTH
         when(mockToneIndicatorDevice.isConnected()).thenReturn(true);
         when(mockToneIndicatorDevice.getDeviceName()).thenReturn("toneIndicator");
+        DeviceHealthResponse expected = new DeviceHealthResponse("toneIndicator", DeviceHealth.READY);
+        toneIndicatorManagerCache.connect();
+        when(mockToneIndicatorDevice.isConnected()).thenReturn(false);
 
         //act
-        DeviceHealthResponse deviceHealthResponse = toneIndicatorManagerCache.getStatus();
+        DeviceHealthResponse actual = toneIndicatorManagerCache.getStatus();
 
         //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toString(), healthRegistry.get(ToneIndicatorManager.HEALTH_KEY).toString());
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOffline() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOffline() {
         //arrange
         when(mockToneIndicatorDevice.isConnected()).thenReturn(false);
         when(mockToneIndicatorDevice.getDeviceName()).thenReturn("toneIndicator");
-        when(mockCacheManager.getCache("toneIndicatorHealth")).thenReturn(testCache);
         DeviceHealthResponse expected = new DeviceHealthResponse("toneIndicator", DeviceHealth.NOTREADY);
 
         //act
@@ -397,26 +410,10 @@ public class ToneIndicatorManagerTest {
     }
 
     @Test
-    public void getStatus_WhenCacheNull_WhenDeviceOnline() {
-        //arrange
-        when(mockToneIndicatorDevice.isConnected()).thenReturn(true);
-        when(mockToneIndicatorDevice.getDeviceName()).thenReturn("toneIndicator");
-        when(mockCacheManager.getCache("toneIndicatorHealth")).thenReturn(testCache);
-        DeviceHealthResponse expected = new DeviceHealthResponse("toneIndicator", DeviceHealth.READY);
-
-        //act
-        DeviceHealthResponse deviceHealthResponse = toneIndicatorManagerCache.getStatus();
-
-        //assert
-        assertEquals(expected.toString(), deviceHealthResponse.toString());
-    }
-
-    @Test
-    public void getStatus_WhenCacheNull_CallHealth() {
+    public void getStatus_WhenNothingPublished_WhenDeviceOnline() {
         //arrange
         when(mockToneIndicatorDevice.isConnected()).thenReturn(true);
         when(mockToneIndicatorDevice.getDeviceName()).thenReturn("toneIndicator");
-        when(mockCacheManager.getCache("toneIndicatorHealth")).thenReturn(null);
         DeviceHealthResponse expected = new DeviceHealthResponse("toneIndicator", DeviceHealth.READY);
 
         //act
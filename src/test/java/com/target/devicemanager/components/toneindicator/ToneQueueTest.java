@@ -0,0 +1,121 @@
+package com.target.devicemanager.components.toneindicator;
+
+import com.target.devicemanager.common.entities.DeviceException;
+import com.target.devicemanager.components.toneindicator.entities.ToneRequest;
+import jpos.JposConst;
+import jpos.JposException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ToneQueueTest {
+
+    @Mock
+    private ToneIndicatorDevice mockToneIndicatorDevice;
+    @Mock
+    private Lock mockToneIndicatorLock;
+
+    @Test
+    public void ctor_WhenToneIndicatorDeviceIsNull_ThrowsException() {
+        try {
+            new ToneQueue(null, mockToneIndicatorLock, Runnable::run);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("toneIndicatorDevice cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void ctor_WhenPlayerExecutorIsNull_ThrowsException() {
+        try {
+            new ToneQueue(mockToneIndicatorDevice, mockToneIndicatorLock, null);
+        } catch (IllegalArgumentException iae) {
+            assertEquals("playerExecutor cannot be null", iae.getMessage());
+            return;
+        }
+
+        fail("Expected Exception, but got none");
+    }
+
+    @Test
+    public void submit_PlaysToneUnderLock() throws JposException, DeviceException {
+        //arrange
+        ToneQueue toneQueue = new ToneQueue(mockToneIndicatorDevice, mockToneIndicatorLock, Runnable::run);
+        ToneRequest toneRequest = new ToneRequest(1500, 100, 50);
+
+        //act
+        boolean actual = toneQueue.submit(toneRequest);
+
+        //assert
+        assertTrue(actual);
+        InOrder inOrder = inOrder(mockToneIndicatorLock, mockToneIndicatorDevice);
+        inOrder.verify(mockToneIndicatorLock).lock();
+        inOrder.verify(mockToneIndicatorDevice).playSound(toneRequest);
+        inOrder.verify(mockToneIndicatorLock).unlock();
+        assertEquals(1, toneQueue.getTonesPlayed());
+        assertEquals(0, toneQueue.getQueueDepth());
+    }
+
+    @Test
+    public void submit_WhenQueueFull_DropsOldestTone() throws JposException, DeviceException {
+        //arrange
+        List<Runnable> pending = new ArrayList<>();
+        ToneQueue toneQueue = new ToneQueue(mockToneIndicatorDevice, mockToneIndicatorLock, pending::add);
+        List<ToneRequest> toneRequests = new ArrayList<>();
+        for (int i = 0; i <= ToneQueue.QUEUE_CAPACITY; i++) {
+            toneRequests.add(new ToneRequest(1000 + i, 100, 50));
+        }
+
+        //act
+        boolean lastAccepted = true;
+        for (ToneRequest toneRequest : toneRequests) {
+            lastAccepted = toneQueue.submit(toneRequest);
+        }
+        pending.forEach(Runnable::run);
+
+        //assert
+        assertFalse(lastAccepted);
+        assertEquals(1, pending.size());
+        assertEquals(1, toneQueue.getTonesDropped());
+        verify(mockToneIndicatorDevice, never()).playSound(toneRequests.get(0));
+        InOrder inOrder = inOrder(mockToneIndicatorDevice);
+        for (int i = 1; i <= ToneQueue.QUEUE_CAPACITY; i++) {
+            inOrder.verify(mockToneIndicatorDevice).playSound(toneRequests.get(i));
+        }
+    }
+
+    @Test
+    public void submit_WhenPlaybackFails_KeepsPlayingQueue() throws JposException, DeviceException {
+        //arrange
+        List<Runnable> pending = new ArrayList<>();
+        ToneQueue toneQueue = new ToneQueue(mockToneIndicatorDevice, mockToneIndicatorLock, pending::add);
+        ToneRequest failing = new ToneRequest(1500, 100, 50);
+        ToneRequest next = new ToneRequest(1800, 100, 50);
+        doThrow(new JposException(JposConst.JPOS_E_OFFLINE)).when(mockToneIndicatorDevice).playSound(failing);
+        toneQueue.submit(failing);
+        toneQueue.submit(next);
+
+        //act
+        pending.forEach(Runnable::run);
+
+        //assert
+        verify(mockToneIndicatorDevice).playSound(next);
+        verify(mockToneIndicatorLock, times(2)).unlock();
+        assertEquals(1, toneQueue.getTonesPlayed());
+    }
+}
@@ -0,0 +1,70 @@
+package com.target.devicemanager.configuration;
+
+import com.target.devicemanager.common.DeviceThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadEnvironmentPostProcessorTest {
+
+    @AfterEach
+    public void testCleanup() {
+        DeviceThreads.setVirtualThreadsEnabled(false);
+    }
+
+    @Test
+    public void springFactories_RegistersPostProcessors() {
+        //act
+        List<EnvironmentPostProcessor> postProcessors = SpringFactoriesLoader.forDefaultResourceLocation()
+                .load(EnvironmentPostProcessor.class, SpringFactoriesLoader.ArgumentResolver.none());
+
+        //assert
+        assertTrue(postProcessors.stream().anyMatch(VirtualThreadEnvironmentPostProcessor.class::isInstance));
+        assertTrue(postProcessors.stream().anyMatch(DeviceConfigEnvironmentPostProcessor.class::isInstance));
+    }
+
+    @Test
+    public void run_WhenVirtualThreadsEnabled_SetsDeviceThreadsBeforeBeansAreCreated() {
+        //arrange
+        DeviceThreads.setVirtualThreadsEnabled(false);
+
+        //act
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EmptyConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--" + DeviceThreads.VIRTUAL_THREADS_PROPERTY + "=true")) {
+
+            //assert
+            assertTrue(DeviceThreads.isVirtualThreadsRequested());
+            assertEquals(DeviceThreads.isVirtualThreadSupported(), DeviceThreads.isVirtualThreadsEnabled());
+        }
+    }
+
+    @Test
+    public void run_WhenVirtualThreadsNotSet_UsesPlatformThreads() {
+        //arrange
+        DeviceThreads.setVirtualThreadsEnabled(true);
+
+        //act
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EmptyConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run()) {
+
+            //assert
+            assertFalse(DeviceThreads.isVirtualThreadsRequested());
+            assertFalse(DeviceThreads.isVirtualThreadsEnabled());
+        }
+    }
+
+    @Configuration
+    static class EmptyConfiguration {
+    }
+}